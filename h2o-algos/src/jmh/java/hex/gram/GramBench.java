@@ -0,0 +1,69 @@
+package hex.gram;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.StackProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gram accumulation of dense numeric rows: one rank-1 update per row
+ * ({@link Gram#addRowDense}) vs. blocked rank-k updates ({@link Gram#addRowBlocked}).
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GramBench {
+
+  @Param({"100", "1000", "3000"})
+  private int cols;
+
+  private int rows = 256;
+  private double[][] data;
+  private double[] weights;
+  private Gram gram;
+
+  @Setup
+  public void setup() {
+    Random rng = new Random(0xC0FFEE);
+    data = new double[rows][cols];
+    weights = new double[rows];
+    for (int r = 0; r < rows; r++) {
+      weights[r] = rng.nextDouble();
+      for (int c = 0; c < cols; c++)
+        data[r][c] = rng.nextGaussian();
+    }
+    gram = new Gram(cols, 0, cols, 0, true);
+  }
+
+  @Benchmark
+  public Gram rowByRow() {
+    for (int r = 0; r < rows; r++)
+      gram.addNums(data[r], weights[r]);
+    return gram;
+  }
+
+  @Benchmark
+  public Gram blocked() {
+    for (int r = 0; r < rows; r++)
+      gram.addNumsBlocked(data[r], weights[r]);
+    gram.flushBlock();
+    return gram;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(GramBench.class.getSimpleName())
+        .addProfiler(StackProfiler.class)
+        .build();
+
+    new Runner(opt).run();
+  }
+}
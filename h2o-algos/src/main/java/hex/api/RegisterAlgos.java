@@ -57,5 +57,8 @@ public class RegisterAlgos extends water.api.AbstractRegister {
 
     H2O.register("POST /3/DataInfoFrame",MakeGLMModelHandler.class, "getDataInfoFrame", "glm_datainfo_frame",
         "Test only");
+
+    H2O.register("GET /3/Synonyms", Word2VecHandler.class, "findSynonyms", "word2vec_synonyms",
+        "Find the synonyms of a word, with a Word2Vec model");
   }
 }
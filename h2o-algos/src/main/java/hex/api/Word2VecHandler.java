@@ -0,0 +1,44 @@
+package hex.api;
+
+import hex.schemas.SynonymV3;
+import hex.word2vec.Word2VecModel;
+import water.DKV;
+import water.api.Handler;
+import water.exceptions.H2OIllegalArgumentException;
+import water.exceptions.H2OKeyNotFoundArgumentException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Synonym search of a Word2Vec model.
+ */
+public class Word2VecHandler extends Handler {
+  public SynonymV3 findSynonyms(int version, SynonymV3 args) {
+    Word2VecModel model = DKV.getGet(args.key.key());
+    if (model == null)
+      throw new H2OKeyNotFoundArgumentException("key", "findSynonyms", args.key.name);
+    if (args.cnt <= 0)
+      throw new H2OIllegalArgumentException("cnt", "findSynonyms", args.cnt);
+    HashMap<String, Float> synonyms = model.findSynonyms(args.target, args.cnt);
+    if (synonyms == null)
+      throw new H2OIllegalArgumentException("Target word " + args.target + " isn't in vocabulary.");
+    // Most similar first
+    ArrayList<Map.Entry<String, Float>> sorted = new ArrayList<>(synonyms.entrySet());
+    Collections.sort(sorted, new Comparator<Map.Entry<String, Float>>() {
+      @Override public int compare(Map.Entry<String, Float> a, Map.Entry<String, Float> b) {
+        return Float.compare(b.getValue(), a.getValue());
+      }
+    });
+    args.synonyms = new String[sorted.size()];
+    args.cos_sim = new float[sorted.size()];
+    for (int i = 0; i < sorted.size(); i++) {
+      args.synonyms[i] = sorted.get(i).getKey();
+      args.cos_sim[i] = sorted.get(i).getValue();
+    }
+    return args;
+  }
+}
@@ -115,6 +115,16 @@ public class DeepLearningModel extends Model<DeepLearningModel,DeepLearningModel
    */
   public final DeepLearningParameters get_params() { return model_info.get_params(); }
 
+  /** Epochs trained at each of the {@link #scoreKeepers} events, out of all the epochs */
+  @Override public double[] scoreKeepersProgress() {
+    ScoringInfo[] si = scoringInfo;
+    if (si == null) return null;
+    double[] progress = new double[si.length];
+    for (int i = 0; i < si.length; i++)
+      progress[i] = ((ScoringInfo.HasEpochs) si[i]).epoch_counter() / get_params()._epochs;
+    return progress;
+  }
+
   @Override public ModelMetrics.MetricBuilder makeMetricBuilder(String[] domain) {
     switch(_output.getModelCategory()) {
       case Binomial:    return new ModelMetricsBinomial.MetricBuilderBinomial(domain);
@@ -234,6 +234,12 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
     _localmodel = null;
   }
 
+  /**
+   * Smallest mini-batch to train as a whole, with matrix-matrix kernels (see {@link Neurons#_gemm}); smaller ones
+   * are trained one row at a time.
+   */
+  static int GEMM_MIN_MINI_BATCH = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "deeplearning.gemm_min_mini_batch", 4);
+
   public static Neurons[] makeNeuronsForTraining(final DeepLearningModelInfo minfo) {
     return makeNeurons(minfo, true);
   }
@@ -290,6 +296,7 @@ public class DeepLearningTask extends FrameTask<DeepLearningTask> {
     for( int i = 0; i < neurons.length; i++ ) {
       neurons[i].init(neurons, i, params, minfo, training);
       neurons[i]._input = neurons[0];
+      neurons[i]._gemm = training && i > 0 && params._mini_batch_size >= GEMM_MIN_MINI_BATCH;
     }
 
 //    // debugging
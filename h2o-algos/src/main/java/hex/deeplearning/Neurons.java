@@ -93,6 +93,14 @@ public abstract class Neurons {
 
   public Storage.DenseVector _avg_a;
 
+  /**
+   * Whether to propagate the mini-batch as a whole, with matrix-matrix kernels over the packed activations and
+   * errors of all its rows, rather than one row at a time (see {@link DeepLearningTask#makeNeuronsForTraining})
+   */
+  boolean _gemm;
+  // Mini-batch rows packed one after another: activations of the previous layer, results, and errors
+  transient double[] _xs, _ys, _es, _gs;
+
   /**
    * Helper to check sanity of Neuron layers
    * @param training whether training or testing is done
@@ -182,10 +190,57 @@ public abstract class Neurons {
    */
   protected abstract void fprop(long seed, boolean training, int n);
 
+  /**
+   * Linear part of forward propagation: _a = _w * _previous._a + _b, with optional row dropout, for the first n rows
+   * of the mini-batch; as one matrix-matrix product if {@link #_gemm}, else row by row.
+   * @param n number of actually trained samples in this mini-batch
+   * @param row_bits if not null, check bits of this byte[] to determine whether a row is used or not
+   */
+  final void fpropLinear(int n, byte[] row_bits) {
+    if (!_gemm) {
+      for (int mb=0;mb<n;++mb)
+        gemv(_a[mb], _w, _previous._a[mb], _b, row_bits);
+      return;
+    }
+    final int rows = _a[0].size();
+    final int cols = _previous._a[0].size();
+    final double[] x = _xs = pack(_previous._a, n, cols, scratch(_xs, n*cols));
+    final double[] y = _ys = scratch(_ys, n*rows);
+    gemm(y, _w.raw(), x, _b.raw(), n, rows, cols, 1, 0, row_bits);
+    unpack(y, _a, n, rows);
+  }
+
   /**
    *  Back propagation of error terms stored in _e (for non-final layers)
    */
-  protected abstract void bprop(int n);
+  protected void bprop(int n) {
+    assert (_index < params._hidden.length);
+    float m = _minfo.adaDelta() ? 0 : momentum();
+    float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
+    final int rows = _a[0].size();
+    if (_gemm) {
+      double[] g = _gs = scratch(_gs, n*rows);
+      for (int mb=0;mb<n;++mb)
+        for (int row = 0; row < rows; row++)
+          g[mb*rows+row] = gradient(row, mb);
+      bpropMiniBatch(g, r, m, n);
+      return;
+    }
+    double[] g = new double[n];
+    for (int row = 0; row < rows; row++) {
+      for (int mb=0;mb<n;++mb)
+        g[mb] = gradient(row, mb);
+      bprop(row, g, r, m, n);
+    }
+  }
+
+  /**
+   * Partial derivative g = dE/dnet = dE/dy * dy/dnet of one neuron, where dE/dy is the back-propagated error
+   * @param row neuron index
+   * @param mb minibatch-internal index
+   * @return dE/dnet
+   */
+  protected double gradient(int row, int mb) { return _e[mb].get(row); }
 
   /**
    * Back-propagate gradient in output layer
@@ -197,6 +252,10 @@ public abstract class Neurons {
     final int rows = _a[0].size();
     float m = _minfo.adaDelta() ? 0 : momentum();
     float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
+    if (_gemm) {
+      bpropMiniBatch(pack(_e, n, rows, _gs = scratch(_gs, n*rows)), r, m, n);
+      return;
+    }
     for( int row = 0; row < rows; row++ ) {
       double[] g = new double[n];
       for (int mb=0;mb<n;++mb)
@@ -301,6 +360,112 @@ public abstract class Neurons {
     }
   }
 
+  /**
+   * Back-propagation of a whole mini-batch, given dE/dnet of all its rows.  Does the same updates as
+   * {@link #bprop(int, double[], float, float, int)} for each neuron, in the same order for each weight, but goes
+   * through the weights in blocks of columns: the activations and errors of the previous layer for all the rows of
+   * the mini-batch stay in cache while the neurons go by, and a block of a neuron's weights (and momenta or
+   * ADADELTA history) stays in cache while the rows of the mini-batch go by.
+   * @param g partial derivatives dE/dnet, g[mb*rows+row]
+   * @param rate learning rate
+   * @param momentum momentum factor (needed only if ADADELTA isn't used)
+   * @param n Actual mini-batch size
+   */
+  final void bpropMiniBatch(final double[] g, final float rate, final float momentum, final int n) {
+    final float rho = (float)params._rho;
+    final float eps = (float)params._epsilon;
+    final float l1 = (float)params._l1;
+    final float l2 = (float)params._l2;
+    final float max_w2 = params._max_w2;
+    final boolean have_momenta = _minfo.has_momenta();
+    final boolean have_ada = _minfo.adaDelta();
+    final boolean nesterov = params._nesterov_accelerated_gradient;
+    final boolean fast_mode = params._fast_mode;
+    final int rows = _a[0].size();
+    final int cols = _previous._a[0].size();
+    final float[] w = _w.raw();
+    final float[] wm = have_momenta ? _wm.raw() : null;
+    final float[] wEA = _wEA != null ? _wEA.raw() : null;
+    final double[] x = _xs = pack(_previous._a, n, cols, scratch(_xs, n*cols));
+    final boolean update_prev = _previous._e != null;
+    final double[] e = update_prev ? (_es = pack(_previous._e, n, cols, scratch(_es, n*cols))) : null;
+
+    // Rows of the mini-batch each neuron learns from: all of them, unless cut short by a zero gradient
+    final int[] nmb = new int[rows];
+    for (int row = 0; row < rows; row++) {
+      int mb = 0;
+      while (mb < n && !(_shortcut && g[mb*rows+row] == 0f)) mb++;
+      nmb[row] = mb;
+    }
+    final double[] sum_grad2 = have_ada ? new double[rows] : null;
+
+    for (int c0 = 0; c0 < cols; c0 += GEMM_COLS) {
+      final int c1 = Math.min(cols, c0 + GEMM_COLS);
+      for (int row = 0; row < rows; row++) {
+        final int idx = row * cols;
+        for (int mb = 0; mb < nmb[row]; mb++) {
+          final double partial_grad = g[mb*rows+row];
+          final int xo = mb * cols;
+          for (int col = c0; col < c1; col++) {
+            int wi = idx + col;
+
+            // for Maxout, return the "winning" linear index into the matrix
+            if (_k != 0) wi = _k * wi + _maxIncoming[mb][row];
+
+            final double weight = w[wi];
+            if (update_prev) e[xo + col] += partial_grad * weight; // propagate the error dE/dnet to the previous layer, via connecting weights
+            final double previous_a = x[xo + col];
+            if (fast_mode && previous_a == 0) continue;
+
+            //this is the actual gradient dE/dw
+            double grad = partial_grad * previous_a + Math.signum(weight) * l1 + weight * l2;
+            if (wEA != null)
+              grad += params._elastic_averaging_regularization * (w[wi] - wEA[wi]);
+
+            // store the gradient
+            if (DeepLearningModelInfo.gradientCheck != null)
+              DeepLearningModelInfo.gradientCheck.apply(_index, row, col, grad);
+
+            if (have_ada) {
+              sum_grad2[row] += grad*grad;
+              float brate = computeAdaDeltaRateForWeight(grad, wi, _ada_dx_g, rho, eps);
+              w[wi] -= brate * grad;
+            } else if (!nesterov) {
+              final double delta = -rate * grad;
+              w[wi] += delta;
+              if (have_momenta) {
+                w[wi] += momentum * wm[wi];
+                wm[wi] = (float)delta;
+              }
+            } else {
+              double tmp = -grad;
+              if (have_momenta) {
+                wm[wi] *= momentum;
+                wm[wi] += tmp;
+                tmp = wm[wi];
+              }
+              w[wi] += rate * tmp;
+            }
+          }
+        }
+      }
+    }
+    if (update_prev) unpack(e, _previous._e, n, cols);
+
+    final double[] partial_grad = new double[n];
+    for (int row = 0; row < rows; row++) {
+      if (nmb[row] < n) continue; // cut short, no rescaling or bias update either
+      if (max_w2 != Float.POSITIVE_INFINITY)
+        for( int mb = 0; mb < n; mb++ )
+          rescale_weights(_w, row, max_w2, mb);
+      final double avg_grad2 = have_ada ? sum_grad2[row] / (cols * n) : 0;
+      for( int mb = 0; mb < n; mb++ ) {
+        partial_grad[mb] = g[mb*rows+row];
+        update_bias(_b, _bEA, _bm, row, partial_grad, avg_grad2, rate, momentum, mb);
+      }
+    }
+  }
+
   private void rescale_weights(final Storage.DenseRowMatrix w, final int row, final float max_w2, int mb) {
     final int cols = _previous._a[0].size();
     int start;
@@ -624,9 +789,7 @@ public abstract class Neurons {
   public static class Tanh extends Neurons {
     public Tanh(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      // TODO: implement GEMM
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      fpropLinear(n, _dropout != null ? _dropout.bits() : null);
       final int rows = _a[0].size();
       for (int mb=0;mb<n;++mb)
         for( int row = 0; row < rows; row++ )
@@ -635,17 +798,8 @@ public abstract class Neurons {
     }
     // Computing partial derivative g = dE/dnet = dE/dy * dy/dnet, where dE/dy is the backpropagated error
     // dy/dnet = (1 - a^2) for y(net) = tanh(net)
-    @Override protected void bprop(int n) {
-      assert (_index < _minfo.get_params()._hidden.length);
-      float m = _minfo.adaDelta() ? 0 : momentum();
-      float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
-      final int rows = _a[0].size();
-      double[] g = new double[n];
-      for (int row = 0; row < rows; row++) {
-        for (int mb=0;mb<n;++mb)
-          g[mb] = _e[mb].get(row) * (1 - _a[mb].get(row) * _a[mb].get(row));
-        bprop(row, g, r, m, n);
-      }
+    @Override protected double gradient(int row, int mb) {
+      return _e[mb].get(row) * (1 - _a[mb].get(row) * _a[mb].get(row));
     }
   }
 
@@ -683,6 +837,11 @@ public abstract class Neurons {
     @Override protected void fprop(long seed, boolean training, int n) {
       assert(_b.size() == _a[0].size() * _k);
       assert(_w.size() == _a[0].size() * _previous._a[0].size() * _k);
+      if (_gemm) {
+        fpropMiniBatch(training, n);
+        compute_sparsity();
+        return;
+      }
       final int rows = _a[0].size();
       double[] channel = new double[_k];
       for( int row = 0; row < rows; row++ ) {
@@ -710,16 +869,29 @@ public abstract class Neurons {
       }
     }
 
-    @Override protected void bprop(int n) {
-      assert(_index != params._hidden.length);
-      float m = _minfo.adaDelta() ? 0 : momentum();
-      float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
-      double[] g = new double[n];
+    // All channels of the whole mini-batch as matrix-matrix products, then the winning channel of each neuron
+    private void fpropMiniBatch(boolean training, int n) {
       final int rows = _a[0].size();
-      for (int row = 0; row < rows; row++) {
-        for (int mb=0;mb<n;++mb)
-          g[mb] = _e[mb].get(row);
-        bprop(row, g, r, m, n);
+      final int cols = _previous._a[0].size();
+      final byte[] row_bits = training && _dropout != null ? _dropout.bits() : null;
+      final double[] x = _xs = pack(_previous._a, n, cols, scratch(_xs, n*cols));
+      final double[] y = _ys = scratch(_ys, n*rows);
+      for (short k = 0; k < _k; k++) {
+        gemm(y, _w.raw(), x, _b.raw(), n, rows, cols, _k, k, row_bits);
+        for (int mb=0;mb<n;++mb) {
+          final double[] a = _a[mb].raw();
+          for( int row = 0; row < rows; row++ ) {
+            if (row_bits != null && (row_bits[row / 8] & (1 << (row % 8))) == 0) {
+              a[row] = 0;
+              continue;
+            }
+            final double channel = y[mb*rows+row];
+            if (k == 0 || channel > a[row]) {
+              _maxIncoming[mb][row] = k;
+              a[row] = channel;
+            }
+          }
+        }
       }
     }
   }
@@ -749,9 +921,7 @@ public abstract class Neurons {
   public static class Rectifier extends Neurons {
     public Rectifier(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      // TODO: implement GEMM
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      fpropLinear(n, _dropout != null ? _dropout.bits() : null);
       final int rows = _a[0].size();
       for (int mb=0;mb<n;++mb) {
         for( int row = 0; row < rows; row++ ) {
@@ -762,18 +932,9 @@ public abstract class Neurons {
       compute_sparsity();
     }
 
-    @Override protected void bprop(int n) {
-      assert (_index < _minfo.get_params()._hidden.length);
-      float m = _minfo.adaDelta() ? 0 : momentum();
-      float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
-      final int rows = _a[0].size();
-      double[] g = new double[n];
-      for (int row = 0; row < rows; row++) {
-        for (int mb=0;mb<n;++mb)
-          //(d/dx)(max(0,x)) = 1 if x > 0, otherwise 0
-          g[mb] = _a[mb].get(row) > 0f ? _e[mb].get(row) : 0f;
-        bprop(row, g, r, m, n);
-      }
+    //(d/dx)(max(0,x)) = 1 if x > 0, otherwise 0
+    @Override protected double gradient(int row, int mb) {
+      return _a[mb].get(row) > 0f ? _e[mb].get(row) : 0f;
     }
   }
 
@@ -799,8 +960,7 @@ public abstract class Neurons {
   public static class ExpRectifier extends Neurons {
     public ExpRectifier(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      fpropLinear(n, _dropout != null ? _dropout.bits() : null);
       final int rows = _a[0].size();
       for( int row = 0; row < rows; row++ ) {
         for (int mb=0;mb<n;++mb) {
@@ -812,20 +972,10 @@ public abstract class Neurons {
       compute_sparsity();
     }
     // Computing partial derivative g = dE/dnet = dE/dy * dy/dnet, where dE/dy is the backpropagated error
-    @Override protected void bprop(int n) {
-      assert (_index < _minfo.get_params()._hidden.length);
-      float m = _minfo.adaDelta() ? 0 : momentum();
-      float r = _minfo.adaDelta() ? 0 : rate(_minfo.get_processed_total()) * (1f - m);
-      final int rows = _a[0].size();
-      for (int row = 0; row < rows; row++) {
-        double [] g = new double[n];
-        for (int mb=0;mb<n;++mb) {
-          double x = _a[mb].get(row);
-          double val = x >= 0 ? 1 : Math.exp(x);
-          g[mb] = _e[mb].get(row) * val;
-        }
-        bprop(row, g, r, m, n);
-      }
+    @Override protected double gradient(int row, int mb) {
+      double x = _a[mb].get(row);
+      double val = x >= 0 ? 1 : Math.exp(x);
+      return _e[mb].get(row) * val;
     }
   }
 
@@ -862,8 +1012,7 @@ public abstract class Neurons {
   public static class Softmax extends Output {
     public Softmax(int units) { super(units); }
     protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, null);
+      fpropLinear(n, null);
       for (int mb=0;mb<n;++mb) {
         final double max = ArrayUtils.maxValue(_a[mb].raw());
         double scaling = 0;
@@ -919,8 +1068,7 @@ public abstract class Neurons {
       super(1);
     }
     protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      fpropLinear(n, _dropout != null ? _dropout.bits() : null);
     }
 
     /**
@@ -1012,4 +1160,84 @@ public abstract class Neurons {
   static void gemv_naive(final Storage.DenseVector res, final Storage.DenseRowMatrix a, final Storage.DenseVector x, final Storage.DenseVector y, byte[] row_bits) {
     gemv_naive(res.raw(), a.raw(), x.raw(), y.raw(), row_bits);
   }
+
+  /** Columns of the previous layer per block in {@link #bpropMiniBatch} */
+  static final int GEMM_COLS = 256;
+  /** Weights (floats) per block of rows in {@link #gemm}, to stay in cache while the mini-batch goes by */
+  static final int GEMM_WEIGHTS = 1 << 15;
+
+  /**
+   * Mat-Mat Plus Add for a mini-batch (with optional row dropout): res[mb*rows+row] = a[row]*x[mb] + y[row] for the
+   * first n rows x[mb] packed in x, i.e. gemv for every row of the mini-batch.  The weights and biases of channel ch
+   * out of k interleaved ones are used: a[k*(row*cols+col)+ch] and y[k*row+ch] (k=1 and ch=0 but for Maxout).
+   * Blocks of rows of the weight matrix stay in cache while all the rows of the mini-batch go by, 4 at a time, so
+   * each weight read serves 4 dot products.
+   * @param res n x rows result (pre-allocated, will be overwritten)
+   * @param a matrix of size rows x cols (times k)
+   * @param x n x cols mini-batch, packed row by row
+   * @param y vector of length rows (times k)
+   * @param row_bits if not null, check bits of this byte[] to determine whether a row is used or not
+   */
+  static void gemm(final double[] res, final float[] a, final double[] x, final double[] y, final int n,
+                   final int rows, final int cols, final int k, final int ch, final byte[] row_bits) {
+    final int block = Math.max(1, GEMM_WEIGHTS / (k * cols));
+    for (int r0 = 0; r0 < rows; r0 += block) {
+      final int r1 = Math.min(rows, r0 + block);
+      int mb = 0;
+      for (; mb + 4 <= n; mb += 4) {
+        final int x0 = mb*cols, x1 = x0+cols, x2 = x1+cols, x3 = x2+cols;
+        for (int row = r0; row < r1; row++) {
+          final int o = mb*rows + row;
+          if (row_bits != null && (row_bits[row / 8] & (1 << (row % 8))) == 0) {
+            res[o] = res[o+rows] = res[o+2*rows] = res[o+3*rows] = 0;
+            continue;
+          }
+          double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+          for (int col = 0, off = k*row*cols + ch; col < cols; col++, off += k) {
+            final double w = a[off];
+            s0 += w * x[x0+col];
+            s1 += w * x[x1+col];
+            s2 += w * x[x2+col];
+            s3 += w * x[x3+col];
+          }
+          final double b = y[k*row + ch];
+          res[o       ] = s0 + b;
+          res[o+  rows] = s1 + b;
+          res[o+2*rows] = s2 + b;
+          res[o+3*rows] = s3 + b;
+        }
+      }
+      for (; mb < n; mb++) {
+        final int x0 = mb*cols;
+        for (int row = r0; row < r1; row++) {
+          final int o = mb*rows + row;
+          if (row_bits != null && (row_bits[row / 8] & (1 << (row % 8))) == 0) {
+            res[o] = 0;
+            continue;
+          }
+          double s0 = 0;
+          for (int col = 0, off = k*row*cols + ch; col < cols; col++, off += k)
+            s0 += a[off] * x[x0+col];
+          res[o] = s0 + y[k*row + ch];
+        }
+      }
+    }
+  }
+
+  /** Copies the first n vectors (of length len) of a mini-batch into res, one after another */
+  static double[] pack(final Storage.DenseVector[] v, final int n, final int len, final double[] res) {
+    for (int mb = 0; mb < n; mb++)
+      System.arraycopy(v[mb].raw(), 0, res, mb*len, len);
+    return res;
+  }
+
+  /** Copies n vectors (of length len) packed one after another back into a mini-batch */
+  static void unpack(final double[] packed, final Storage.DenseVector[] v, final int n, final int len) {
+    for (int mb = 0; mb < n; mb++)
+      System.arraycopy(packed, mb*len, v[mb].raw(), 0, len);
+  }
+
+  private static double[] scratch(double[] a, int len) {
+    return a != null && a.length >= len ? a : MemoryManager.malloc8d(len);
+  }
 }
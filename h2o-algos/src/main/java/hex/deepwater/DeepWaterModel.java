@@ -91,6 +91,16 @@ public class DeepWaterModel extends Model<DeepWaterModel,DeepWaterParameters,Dee
    */
   public final DeepWaterParameters get_params() { return model_info.get_params(); }
 
+  /** Epochs trained at each of the {@link #scoreKeepers} events, out of all the epochs */
+  @Override public double[] scoreKeepersProgress() {
+    ScoringInfo[] si = scoringInfo;
+    if (si == null) return null;
+    double[] progress = new double[si.length];
+    for (int i = 0; i < si.length; i++)
+      progress[i] = ((ScoringInfo.HasEpochs) si[i]).epoch_counter() / get_params()._epochs;
+    return progress;
+  }
+
   @Override public ModelMetrics.MetricBuilder makeMetricBuilder(String[] domain) {
     switch(_output.getModelCategory()) {
       case Binomial:    return new ModelMetricsBinomial.MetricBuilderBinomial(domain);
@@ -540,6 +550,8 @@ public class DeepWaterModel extends Model<DeepWaterModel,DeepWaterParameters,Dee
     throw H2O.unimpl();
   }
 
+  @Override public boolean scoresRows() { return false; } // Scores in mini-batches
+
   @Override protected long checksum_impl() {
     return super.checksum_impl() * _output._run_time + model_info().hashCode();
   }
@@ -1030,15 +1030,24 @@ public abstract class GLMTask  {
     public double[] _xy;
     public Gram _gram;
     final int numStart;
+    private transient Gram.ThreadGrams _grams;
+    private transient Gram _localGram;
 
     public LSTask(H2OCountedCompleter cmp, DataInfo dinfo, Key jobKey) {
       super(cmp, dinfo, jobKey);
       numStart = _dinfo.numStart();
     }
 
+    @Override
+    public void setupLocal() {
+      super.setupLocal();
+      _grams = new Gram.ThreadGrams(_dinfo);
+    }
+
     @Override
     public void chunkInit() {
-      _gram = new Gram(_dinfo.fullN(), _dinfo.largestCat(), _dinfo.numNums(), _dinfo._cats, true);
+      _localGram = _grams.local();
+      _gram = _grams.node();
       _xy = MemoryManager.malloc8d(_dinfo.fullN() + 1);
 
     }
@@ -1056,13 +1065,24 @@ public abstract class GLMTask  {
       }
       if (_dinfo._intercept)
         _xy[_xy.length - 1] += wz;
-      _gram.addRow(r, r.weight);
+      _localGram.addRowBlocked(r, r.weight);
+    }
+
+    @Override
+    public void chunkDone() {
+      _localGram.flushBlock();
     }
 
     @Override
     public void reduce(LSTask lst) {
       ArrayUtils.add(_xy, lst._xy);
-      _gram.add(lst._gram);
+      if (_gram != lst._gram) // same node Gram, unless lst comes from another node
+        _gram.add(lst._gram);
+    }
+
+    @Override
+    protected void closeLocal() {
+      _grams.reduce();
     }
 
     @Override
@@ -1162,6 +1182,8 @@ public abstract class GLMTask  {
     double [] _xy;
     Gram _gram;
     transient double _sparseOffset;
+    private transient Gram.ThreadGrams _grams;
+    private transient Gram _localGram;
 
     public GLMIterationTaskMultinomial(DataInfo dinfo, Key jobKey, double [] beta, int c) {
       super(null, dinfo, jobKey);
@@ -1169,9 +1191,15 @@ public abstract class GLMTask  {
       _c = c;
     }
 
+    @Override public void setupLocal(){
+      super.setupLocal();
+      _grams = new Gram.ThreadGrams(_dinfo);
+    }
+
     @Override public void chunkInit(){
       // initialize
-      _gram = new Gram(_dinfo.fullN(), _dinfo.largestCat(), _dinfo.numNums(), _dinfo._cats,true);
+      _localGram = _grams.local();
+      _gram = _grams.node();
       _xy = MemoryManager.malloc8d(_dinfo.fullN()+1); // + 1 is for intercept
       if(_sparse)
         _sparseOffset = GLM.sparseOffset(_beta,_dinfo);
@@ -1203,14 +1231,19 @@ public abstract class GLMTask  {
       }
       if(_dinfo._intercept)
         _xy[_xy.length-1] += wz;
-      _gram.addRow(r, w);
+      _localGram.addRowBlocked(r, w);
     }
 
+    @Override public void chunkDone(){_localGram.flushBlock();}
+
     @Override
     public void reduce(GLMIterationTaskMultinomial glmt) {
       ArrayUtils.add(_xy,glmt._xy);
-      _gram.add(glmt._gram);
+      if(_gram != glmt._gram) // same node Gram, unless glmt comes from another node
+        _gram.add(glmt._gram);
     }
+
+    @Override protected void closeLocal(){_grams.reduce();}
   }
 
   public static class GLMMultinomialUpdate extends FrameTask2<GLMMultinomialUpdate> {
@@ -1279,6 +1312,8 @@ public abstract class GLMTask  {
     long _nobs;
     public double _likelihood;
     private transient GLMWeights _w;
+    private transient Gram.ThreadGrams _grams;
+    private transient Gram _localGram;
 //    final double _lambda;
     double wsum, wsumu;
     double _sumsqe;
@@ -1302,10 +1337,17 @@ public abstract class GLMTask  {
     @Override public boolean handlesSparseData(){return true;}
 
     transient private double _sparseOffset;
+    @Override
+    public void setupLocal() {
+      super.setupLocal();
+      _grams = new Gram.ThreadGrams(_dinfo);
+    }
+
     @Override
     public void chunkInit() {
       // initialize
-      _gram = new Gram(_dinfo.fullN(), _dinfo.largestCat(), _dinfo.numNums(), _dinfo._cats,true);
+      _localGram = _grams.local();
+      _gram = _grams.node();
       _xy = MemoryManager.malloc8d(_dinfo.fullN()+1); // + 1 is for intercept
       if(_sparse)
          _sparseOffset = GLM.sparseOffset(_beta,_dinfo);
@@ -1347,16 +1389,19 @@ public abstract class GLMTask  {
       }
       if(_dinfo._intercept)
         _xy[_xy.length-1] += wz;
-      _gram.addRow(r,w);
+      _localGram.addRowBlocked(r,w);
     }
 
     @Override
-    public void chunkDone(){adjustForSparseStandardizedZeros();}
+    public void chunkDone(){
+      _localGram.flushBlock();
+    }
 
     @Override
     public void reduce(GLMIterationTask git){
       ArrayUtils.add(_xy, git._xy);
-      _gram.add(git._gram);
+      if(_gram != git._gram) // same node Gram, unless git comes from another node
+        _gram.add(git._gram);
       _nobs += git._nobs;
       wsum += git.wsum;
       wsumu += git.wsumu;
@@ -1366,6 +1411,16 @@ public abstract class GLMTask  {
       super.reduce(git);
     }
 
+    @Override
+    protected void closeLocal(){
+      _grams.reduce();
+    }
+
+    @Override
+    public void postGlobal(){
+      adjustForSparseStandardizedZeros(); // linear in the Gram and xy, so done once on the sums
+    }
+
     private void adjustForSparseStandardizedZeros(){
       if(_sparse && _dinfo._normSub != null) { // need to adjust gram for missing centering!
         int ns = _dinfo.numStart();
@@ -0,0 +1,184 @@
+package hex.gram;
+
+import water.*;
+import water.util.Log;
+
+/**
+ * Blocked Cholesky decomposition of a dense symmetric matrix, factored by the whole cloud.
+ *
+ * The lower triangle is cut into square tiles which are put into the DKV, spread over all the nodes.
+ * The decomposition is right-looking: for each tile column k, the diagonal tile is factored, the
+ * tiles below it are solved against it, and the trailing tiles are updated with the outer products
+ * of the new panel.  Each of the three steps is an MRTask over the keys of the tiles it writes, so
+ * every tile is updated on its home node; the panel tiles it reads are fetched (and cached) from the
+ * DKV.  The trailing update has all the O(n^3) work, and is spread over every core of the cloud.
+ *
+ * {@link Gram#cholesky} switches to this for the dense part of a Gram with at least
+ * {@link #MIN_COLS} columns, on a cloud of more than one node.
+ */
+public class DistributedCholesky {
+  public static final String MIN_COLS_PROPERTY = H2O.OptArgs.SYSTEM_PROP_PREFIX + "gram.distributed_cholesky.min_cols";
+  public static final String TILE_PROPERTY = H2O.OptArgs.SYSTEM_PROP_PREFIX + "gram.distributed_cholesky.tile";
+  /** Smallest dense Gram factored across the cloud; smaller ones are faster on one node */
+  public static final int MIN_COLS = Integer.getInteger(MIN_COLS_PROPERTY, 5000);
+  static final int TILE = Integer.getInteger(TILE_PROPERTY, 384);
+
+  /** True if a dense block of {@code denseN} columns should be factored across the cloud. */
+  public static boolean useFor(int denseN) {
+    return denseN >= MIN_COLS && H2O.CLOUD.size() > 1;
+  }
+
+  /**
+   * In-place Cholesky decomposition of the lower triangle {@code xx} ({@code xx[i]} holds at least
+   * {@code i+1} elements), with the default tile size.
+   *
+   * @return false if the matrix is not positive definite; the result is then not usable.
+   */
+  public static boolean decompose(double[][] xx) { return decompose(xx, TILE); }
+
+  public static boolean decompose(double[][] xx, int tile) {
+    final int N = xx.length;
+    final int nt = (N + tile - 1)/tile;
+    long start = System.currentTimeMillis();
+    Key[] keys = new Key[nt*(nt+1)/2];
+    Futures fs = new Futures();
+    for( int I = 0; I < nt; ++I )
+      for( int J = 0; J <= I; ++J ) {
+        int t = tri(I,J);
+        keys[t] = Key.make(H2O.CLOUD._memary[t % H2O.CLOUD.size()]);
+        DKV.put(keys[t], Tile.read(xx, I, J, tile), fs);
+      }
+    fs.blockForPending();
+    boolean spd = true;
+    try {
+      for( int k = 0; k < nt; ++k ) {
+        spd &= new FactorDiag().doAll(keys[tri(k,k)])._spd;
+        if( k == nt-1 ) break;
+        Key[] panel = new Key[nt-k-1];
+        for( int I = k+1; I < nt; ++I )
+          panel[I-k-1] = keys[tri(I,k)];
+        new SolvePanel(keys, k).doAll(panel);
+        Key[] trailing = new Key[(nt-k-1)*(nt-k)/2];
+        int n = 0;
+        for( int I = k+1; I < nt; ++I )
+          for( int J = k+1; J <= I; ++J )
+            trailing[n++] = keys[tri(I,J)];
+        new UpdateTrailing(keys, k).doAll(trailing);
+      }
+      for( int I = 0; I < nt; ++I )
+        for( int J = 0; J <= I; ++J )
+          DKV.<Tile>getGet(keys[tri(I,J)]).write(xx, I, J, tile);
+    } finally {
+      for( Key key : keys )
+        DKV.remove(key, fs);
+      fs.blockForPending();
+    }
+    Log.info("Distributed Cholesky of " + N + " columns, " + keys.length + " tiles on " + H2O.CLOUD.size() + " nodes took " + (System.currentTimeMillis() - start) + "ms");
+    return spd;
+  }
+
+  // Index of tile (I,J), J <= I, in the packed lower triangle of tiles
+  static int tri(int I, int J) { return I*(I+1)/2 + J; }
+
+  /** One tile of the matrix, row-major. */
+  static final class Tile extends Iced<Tile> {
+    final int _I, _J;   // Tile row and column
+    final int _rows, _cols;
+    final double[] _a;
+    Tile(int I, int J, int rows, int cols) { _I = I; _J = J; _rows = rows; _cols = cols; _a = MemoryManager.malloc8d(rows*cols); }
+
+    static Tile read(double[][] xx, int I, int J, int tile) {
+      final int r0 = I*tile, c0 = J*tile;
+      Tile t = new Tile(I, J, Math.min(tile, xx.length - r0), Math.min(tile, xx.length - c0));
+      for( int r = 0; r < t._rows; ++r )
+        System.arraycopy(xx[r0+r], c0, t._a, r*t._cols, I == J ? r+1 : t._cols);
+      return t;
+    }
+
+    void write(double[][] xx, int I, int J, int tile) {
+      final int r0 = I*tile, c0 = J*tile;
+      for( int r = 0; r < _rows; ++r )
+        System.arraycopy(_a, r*_cols, xx[r0+r], c0, I == J ? r+1 : _cols);
+    }
+  }
+
+  private static Tile tile(Key key) { return DKV.getGet(key); }
+
+  /** Cholesky of the diagonal tile (k,k), in place; the same as {@link Gram.InPlaceCholesky}. */
+  static class FactorDiag extends MRTask<FactorDiag> {
+    boolean _spd = true;
+
+    @Override public void map(Key key) {
+      Tile t = tile(key);
+      final int m = t._rows;
+      final double[] a = t._a;
+      for( int i = 0; i < m; ++i ) {
+        final int oi = i*m;
+        double d = 0;
+        for( int k = 0; k < i; ++k ) {
+          final int ok = k*m;
+          double s = 0;
+          for( int j = 0; j < k; ++j ) s += a[ok+j]*a[oi+j];
+          a[oi+k] = s = (a[oi+k] - s)/a[ok+k];
+          d += s*s;
+        }
+        d = a[oi+i] - d;
+        _spd &= d > 0;
+        a[oi+i] = Math.sqrt(Math.max(0.0, d));
+      }
+      DKV.put(key, t);
+    }
+    @Override public void reduce(FactorDiag t) { _spd &= t._spd; }
+  }
+
+  /** Tile (I,k) = A(I,k) * inv(L(k,k))', for every tile below the diagonal tile (k,k). */
+  static class SolvePanel extends MRTask<SolvePanel> {
+    final Key[] _tiles;   // Keys of all the tiles, by tri(I,J)
+    final int _k;
+    SolvePanel(Key[] keys, int k) { _tiles = keys; _k = k; }
+
+    @Override public void map(Key key) {
+      Tile l = tile(_tiles[tri(_k,_k)]);
+      Tile t = tile(key);
+      final int m = l._rows;
+      final double[] a = t._a, lkk = l._a;
+      for( int r = 0; r < t._rows; ++r ) {  // Forward substitution, row by row
+        final int or = r*m;
+        for( int c = 0; c < m; ++c ) {
+          final int oc = c*m;
+          double s = a[or+c];
+          for( int j = 0; j < c; ++j ) s -= lkk[oc+j]*a[or+j];
+          a[or+c] = s/lkk[oc+c];
+        }
+      }
+      DKV.put(key, t);
+    }
+  }
+
+  /** Tile (I,J) -= L(I,k) * L(J,k)', for every tile right of and below the diagonal tile (k,k). */
+  static class UpdateTrailing extends MRTask<UpdateTrailing> {
+    final Key[] _tiles;   // Keys of all the tiles, by tri(I,J)
+    final int _k;
+    UpdateTrailing(Key[] keys, int k) { _tiles = keys; _k = k; }
+
+    @Override public void map(Key key) {
+      Tile t = tile(key);
+      Tile li = tile(_tiles[tri(t._I,_k)]);
+      Tile lj = tile(_tiles[tri(t._J,_k)]);
+      final int m = li._cols;
+      final double[] a = t._a, x = li._a, y = lj._a;
+      final boolean diag = t._I == t._J;
+      for( int i = 0; i < t._rows; ++i ) {
+        final int oi = i*m;
+        final int jmax = diag ? i+1 : t._cols;
+        for( int j = 0; j < jmax; ++j ) {
+          final int oj = j*m;
+          double s = 0;
+          for( int b = 0; b < m; ++b ) s += x[oi+b]*y[oj+b];
+          a[i*t._cols+j] -= s;
+        }
+      }
+      DKV.put(key, t);
+    }
+  }
+}
@@ -11,6 +11,7 @@ import water.util.ArrayUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class Gram extends Iced<Gram> {
   boolean _hasIntercept;
@@ -43,7 +44,9 @@ public final class Gram extends Iced<Gram> {
   }
 
   public Gram deep_clone(){
+    assert _blkN == 0 : "rows still buffered, call flushBlock() first";
     Gram res = clone();
+    res._blkX = res._blkWX = null;
     if(_xx != null)
       res._xx = ArrayUtils.deepClone(_xx);
     if(_diag != null)
@@ -476,10 +479,14 @@ public final class Gram extends Iced<Gram> {
     double[][] arr = new double[denseN][];
     for( int i = 0; i < arr.length; ++i )
       arr[i] = Arrays.copyOfRange(fchol._xx[i], sparseN, sparseN + denseN);
-    int p = Runtime.getRuntime().availableProcessors();
-    InPlaceCholesky d = InPlaceCholesky.decompose_2(arr, 10, p);
-    fchol.setSPD(d.isSPD());
-    arr = d.getL();
+    if( DistributedCholesky.useFor(denseN) ) { // too big for one node's cores
+      fchol.setSPD(DistributedCholesky.decompose(arr));
+    } else {
+      int p = Runtime.getRuntime().availableProcessors();
+      InPlaceCholesky d = InPlaceCholesky.decompose_2(arr, 10, p);
+      fchol.setSPD(d.isSPD());
+      arr = d.getL();
+    }
     for( int i = 0; i < arr.length; ++i )
       System.arraycopy(arr[i], 0, fchol._xx[i], sparseN, i + 1);
     return chol;
@@ -512,6 +519,7 @@ public final class Gram extends Iced<Gram> {
   }
 
   public void add(Gram grm) {
+    assert _blkN == 0 && grm._blkN == 0 : "rows still buffered, call flushBlock() first";
     ArrayUtils.add(_xx,grm._xx);
     ArrayUtils.add(_diag,grm._diag);
   }
@@ -668,6 +676,111 @@ public final class Gram extends Iced<Gram> {
       addRowSparse(row, w);
   }
   public final void addRowDense(DataInfo.Row row, double w) {
+    addNums(row.numVals, w);
+    addRowDenseNoNums(row, w);
+  }
+
+  /**
+   * Same as {@link #addRow}, except that the num X num part of dense rows is
+   * only buffered, and is added to the Gram a block of rows at a time by
+   * {@link #flushBlock()} (called when the buffer is full).  Must call
+   * flushBlock() once all the rows are in, before using the Gram.
+   */
+  public final void addRowBlocked(DataInfo.Row row, double w) {
+    if(row.numIds != null) {
+      addRowSparse(row, w);
+      return;
+    }
+    addNumsBlocked(row.numVals, w);
+    addRowDenseNoNums(row, w);
+  }
+
+  // num X num lower triangle of a dense row, one row at a time
+  final void addNums(double [] nums, double w) {
+    final int intercept = _hasIntercept?1:0;
+    final int denseRowStart = _fullN - _denseN - _diagN - intercept; // we keep dense numbers at the right bottom of the matrix, -1 is for intercept
+    final int denseColStart = _fullN - _denseN - intercept;
+    for(int i = 0; i < _denseN; ++i) if(nums[i] != 0) {
+      final double [] mrow = _xx[i+denseRowStart];
+      final double d = w * nums[i];
+      for(int j = 0; j <= i; ++j) if(nums[j] != 0)
+        mrow[j+denseColStart] += d * nums[j];
+    }
+  }
+
+  // ---
+  // Blocked num X num accumulation.  Instead of a rank-1 update of the whole
+  // (ragged, lower) triangle per row, BLOCK rows are buffered in a small tile,
+  // stored column-major so that each column's values are contiguous, and then
+  // added in one rank-BLOCK update: each Gram cell is read and written once
+  // per block instead of once per row, and each cell's update is a short dot
+  // product over the tile.  The triangle is walked in bands of TILE columns,
+  // so the band of the tile being read stays in L1 while all the rows below it
+  // are updated; cells are done 4 at a time, to share the loads of row i.
+  static final int BLOCK = 32;
+  static final int TILE = 64;
+  private transient double [] _blkX;   // x[j*BLOCK + b], value of dense num j in buffered row b
+  private transient double [] _blkWX;  // w[b]*x[j*BLOCK + b]
+  private transient int _blkN;         // Number of buffered rows
+
+  final void addNumsBlocked(double [] nums, double w) {
+    if(_denseN == 0) return;
+    if(_blkX == null) {
+      _blkX = MemoryManager.malloc8d(_denseN*BLOCK);
+      _blkWX = MemoryManager.malloc8d(_denseN*BLOCK);
+    }
+    final int b = _blkN;
+    for(int j = 0; j < _denseN; ++j) {
+      _blkX[j*BLOCK + b] = nums[j];
+      _blkWX[j*BLOCK + b] = w*nums[j];
+    }
+    if(++_blkN == BLOCK) flushBlock();
+  }
+
+  /** Add the rows buffered by {@link #addRowBlocked} to the Gram. */
+  public final void flushBlock() {
+    final int n = _blkN;
+    if(n == 0) return;
+    final int intercept = _hasIntercept?1:0;
+    final int denseRowStart = _fullN - _denseN - _diagN - intercept;
+    final int denseColStart = _fullN - _denseN - intercept;
+    final double [] x = _blkX, wx = _blkWX;
+    for(int j0 = 0; j0 < _denseN; j0 += TILE) {
+      final int j1 = Math.min(j0 + TILE, _denseN);
+      for(int i = j0; i < _denseN; ++i) {
+        final double [] mrow = _xx[i+denseRowStart];
+        final int oi = i*BLOCK;
+        final int jmax = Math.min(j1, i + 1);
+        int j = j0;
+        for(; j + 3 < jmax; j += 4) { // 4 cells at a time, sharing the loads of row i
+          final int oj = j*BLOCK;
+          double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+          for(int b = 0; b < n; ++b) {
+            final double d = wx[oi+b];
+            s0 += d*x[oj+b];
+            s1 += d*x[oj+BLOCK+b];
+            s2 += d*x[oj+2*BLOCK+b];
+            s3 += d*x[oj+3*BLOCK+b];
+          }
+          mrow[j+denseColStart] += s0;
+          mrow[j+1+denseColStart] += s1;
+          mrow[j+2+denseColStart] += s2;
+          mrow[j+3+denseColStart] += s3;
+        }
+        for(; j < jmax; ++j) {
+          final int oj = j*BLOCK;
+          double s = 0;
+          for(int b = 0; b < n; ++b)
+            s += wx[oi+b]*x[oj+b];
+          mrow[j+denseColStart] += s;
+        }
+      }
+    }
+    _blkN = 0;
+  }
+
+  // Everything but num X num, for a dense row
+  private void addRowDenseNoNums(DataInfo.Row row, double w) {
     final int intercept = _hasIntercept?1:0;
     final int denseRowStart = _fullN - _denseN - _diagN - intercept; // we keep dense numbers at the right bottom of the matrix, -1 is for intercept
     final int denseColStart = _fullN - _denseN - intercept;
@@ -678,8 +791,6 @@ public final class Gram extends Iced<Gram> {
     for(int i = 0; i < _denseN; ++i) if(row.numVals[i] != 0) {
       final double [] mrow = _xx[i+denseRowStart];
       final double d = w * row.numVals[i];
-      for(int j = 0; j <= i; ++j) if(row.numVals[j] != 0)
-        mrow[j+denseColStart] += d* row.numVals[j];
       if(_hasIntercept)
         interceptRow[i+denseColStart] += d; // intercept*x[i]
       // nums * cats
@@ -705,6 +816,7 @@ public final class Gram extends Iced<Gram> {
       _diag[row.binIds[0]] += w;
   }
   public void mul(double x){
+    assert _blkN == 0 : "rows still buffered, call flushBlock() first";
     if(_diag != null)for(int i = 0; i < _diag.length; ++i)
       _diag[i] *= x;
     for(int i = 0; i < _xx.length; ++i)
@@ -731,6 +843,55 @@ public final class Gram extends Iced<Gram> {
     }
   }
 
+  /**
+   * Node-local Gram accumulators, one per F/J worker thread, for tasks which
+   * would otherwise allocate (and reduce) a whole Gram per chunk.
+   *
+   * Made in setupLocal, so that all the local clones of the task share it.
+   * Rows are added to the {@link #local()} Gram of the thread running map, and
+   * the local Grams are summed once, in closeLocal, by {@link #reduce()}.  All
+   * the local clones point their result at the one {@link #node()} Gram, so
+   * nothing is left to add in the local reduce, and each node sends a single
+   * Gram over the wire.
+   */
+  public static final class ThreadGrams {
+    private final int _N, _diag, _dense, _sparse;
+    private final boolean _hasIntercept;
+    private final ConcurrentHashMap<Thread,Gram> _grams = new ConcurrentHashMap<>();
+    private volatile Gram _node;  // The first local Gram made; the others are summed into it
+
+    public ThreadGrams(DataInfo dinfo) {this(dinfo.fullN(), dinfo.largestCat(), dinfo.numNums(), dinfo._cats,true);}
+    public ThreadGrams(int N, int diag, int dense, int sparse, boolean hasIntercept) {
+      _N = N; _diag = diag; _dense = dense; _sparse = sparse; _hasIntercept = hasIntercept;
+    }
+
+    /** The calling thread's Gram. */
+    public Gram local() {
+      Thread t = Thread.currentThread();
+      Gram g = _grams.get(t);
+      if(g == null) {
+        g = new Gram(_N, _diag, _dense, _sparse, _hasIntercept);
+        synchronized(this) { if(_node == null) _node = g; }
+        _grams.put(t, g);
+      }
+      return g;
+    }
+
+    /** The Gram all the local Grams are reduced into; null until some thread called {@link #local()}. */
+    public Gram node() { return _node; }
+
+    /** Sum all the local Grams into the node Gram, once all local work is done. */
+    public Gram reduce() {
+      Gram node = _node;
+      for(Gram g:_grams.values()) {
+        g.flushBlock();
+        if(g != node) node.add(g);
+      }
+      _grams.clear();
+      return node;
+    }
+  }
+
   /**
    * Task to compute gram matrix normalized by the number of observations (not counting rows with NAs).
    * in R's notation g = t(X)%*%X/nobs, nobs = number of rows of X with no NA.
@@ -753,14 +914,12 @@ public final class Gram extends Iced<Gram> {
     @Override public void chunkInit(){
       _gram = new Gram(_dinfo.fullN(), _dinfo.largestCat(), _dinfo.numNums(), _dinfo._cats, _intercept);
     }
-    double _prev = 0;
     @Override protected void processRow(DataInfo.Row r) {
-      _gram.addRow(r, r.weight);
+      _gram.addRowBlocked(r, r.weight);
       ++_nobs;
-      double current = (_gram.get(_dinfo.fullN()-1,_dinfo.fullN()-1) - _prev);
-      _prev += current;
     }
     @Override public void chunkDone(){
+      _gram.flushBlock();
       if(_std) {
         double r = 1.0 / _nobs;
         _gram.mul(r);
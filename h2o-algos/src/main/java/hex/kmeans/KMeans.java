@@ -25,6 +25,11 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
   @Override public ToEigenVec getToEigenVec() { return LinearAlgebraUtils.toEigen; }
   // Convergence tolerance
   final static private double TOLERANCE = 1e-4;
+  /**
+   * Smallest k for which Lloyds iterations keep a distance bound per row, to skip most of the distance
+   * computations (see {@link LloydsIterationTask}); the bounds cost one more column of doubles.
+   */
+  static int BOUNDS_MIN_K = Integer.getInteger(H2O.OptArgs.SYSTEM_PROP_PREFIX + "kmeans.bounds_min_k", 8);
 
   @Override public ModelCategory[] can_build() { return new ModelCategory[]{ ModelCategory.Clustering }; }
 
@@ -279,14 +284,29 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           Log.info("Cutoff for relative improvement in within_cluster_sum_of_squares: " + rel_improvement_cutoff);
         Vec[] vecs2 = Arrays.copyOf(vecs, vecs.length+1);
         vecs2[vecs2.length-1] = vecs2[0].makeCon(-1);
+        // Lower distance bound of each row to the centers it is not assigned to, next to the cluster assignment
+        Vec[] vecs3 = null;
+        if (_parms._k >= BOUNDS_MIN_K) {
+          vecs3 = Arrays.copyOf(vecs, vecs.length+2);
+          vecs3[vecs.length] = vecs[0].makeCon(0);
+          vecs3[vecs.length+1] = vecs2[vecs2.length-1];
+        }
         for (int k = startK; k <= _parms._k; ++k) {
           Log.info("Running Lloyds iteration for " + k + " centroids.");
           model._output._iterations = 0;  // Loop ends only when iterations > max_iterations with strict inequality
           double[][] lo=null, hi=null;
+          double[][] boundCenters = null;  // Centers the bounds are relative to; none yet for this k
           boolean stop = false;
           do { //Lloyds algorithm
             assert(centers.length == k);
-            LloydsIterationTask task = new LloydsIterationTask(centers, means, mults, impute_cat, _isCats, k, hasWeightCol()).doAll(vecs2); //1 PASS OVER THE DATA
+            LloydsIterationTask task = new LloydsIterationTask(centers, means, mults, impute_cat, _isCats, k, hasWeightCol());
+            if (vecs3 != null) {
+              task.setBounds(boundCenters);
+              boundCenters = ArrayUtils.deepClone(centers);
+            }
+            task.doAll(vecs3 != null ? vecs3 : vecs2); //1 PASS OVER THE DATA
+            if (vecs3 != null)
+              Log.debug("Lloyds iteration computed " + task._distances + " distances, " + (k * (long) train().numRows()) + " without bounds");
             // Pick the max categorical level for cluster center
             max_cats(task._cMeans, task._cats, _isCats);
 
@@ -342,6 +362,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
             centers = splitLargestCluster(centers, lo, hi, means, mults, impute_cat, vecs2, k);
         } //k-finder
         vecs2[vecs2.length-1].remove();
+        if (vecs3 != null) vecs3[vecs.length].remove();
 
         Log.info(model._output._model_summary);
         Log.info(model._output._scoring_history);
@@ -608,8 +629,21 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
   //   Compute new mean/center & variance & rows for each cluster
   //   Compute distance between clusters
   //   Compute total sqr distance
+  //
+  // With bounds (Hamerly's algorithm), the column before the cluster assignment
+  // holds, for each row, a lower bound of the distance to any center but its
+  // own, as of the previous pass.  Centers moved since then by _drift, so the
+  // bound is loosened by the largest drift.  The distance to the row's own center
+  // is needed for the sums of squares anyway; if it is less than the bound (or
+  // than half the distance from the center to any other one), the row keeps its
+  // center without looking at the others.  Only strict wins are skipped, so the
+  // assignments (and the model) are the same as without bounds.  (Hamerly also
+  // keeps an upper bound per row, to skip that one distance too.)
 
   private static class LloydsIterationTask extends MRTask<LloydsIterationTask> {
+    // Relative slack on the bounds, for rounding errors
+    private static final double SLACK = 1e-9;
+
     // IN
     double[][] _centers;
     double[] _means, _mults;      // Standardization
@@ -617,6 +651,9 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     final int _k;
     final String[][] _isCats;
     boolean _hasWeight;
+    boolean _bounds;              // Lower bound column before the assignment
+    double[] _drift;              // Distance each center moved since the bounds were computed; null if they were not
+    double[] _halfSep;            // Half the distance from each center to the nearest other one
 
     // OUT
     double[][] _lo, _hi;        // Bounding box
@@ -627,6 +664,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     long[] _size;               // Number of rows in each cluster
     long _worst_row;            // Row with max err
     double _worst_err;          // Max-err-row's max-err
+    long _distances;            // Number of row to center distances computed
 
     LloydsIterationTask(double[][] centers, double[] means, double[] mults, int[] modes, String[][] isCats, int k, boolean hasWeight ) {
       _centers = centers;
@@ -638,9 +676,37 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
       _hasWeight = hasWeight;
     }
 
+    /**
+     * Use (and update) the distance bounds columns.
+     * @param boundCenters Centers of the pass that computed the bounds, or null if there was none
+     */
+    void setBounds(double[][] boundCenters) {
+      _bounds = true;
+      _halfSep = new double[_k];
+      Arrays.fill(_halfSep, Double.MAX_VALUE);
+      for (int i = 0; i < _k; i++)
+        for (int j = i + 1; j < _k; j++) {
+          double d = 0.5 * Math.sqrt(hex.genmodel.GenModel.KMeans_distance(_centers[i], _centers[j], _isCats, null, null));
+          _halfSep[i] = Math.min(_halfSep[i], d);
+          _halfSep[j] = Math.min(_halfSep[j], d);
+        }
+      if (boundCenters == null) return;
+      _drift = new double[_k];
+      for (int i = 0; i < _k; i++)
+        _drift[i] = Math.sqrt(hex.genmodel.GenModel.KMeans_distance(boundCenters[i], _centers[i], _isCats, null, null));
+    }
+
     @Override public void map(Chunk[] cs) {
-      int N = cs.length - (_hasWeight ? 1:0) - 1 /*clusterassignment*/;
+      int N = cs.length - (_hasWeight ? 1:0) - 1 /*clusterassignment*/ - (_bounds ? 1 : 0);
       assert _centers[0].length==N;
+      Chunk lower = _bounds ? cs[cs.length-2] : null;
+      // Largest drift of any center, and of any center but the one that drifted most
+      int maxDrift = -1;
+      double drift1 = 0, drift2 = 0;
+      if (_drift != null)
+        for (int clu = 0; clu < _k; clu++)
+          if (_drift[clu] > drift1) { drift2 = drift1; drift1 = _drift[clu]; maxDrift = clu; }
+          else if (_drift[clu] > drift2) drift2 = _drift[clu];
       _lo = new double[_k][N];
       for( int clu=0; clu< _k; clu++ )
         Arrays.fill(_lo[clu], Double.MAX_VALUE);
@@ -666,18 +732,15 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
         if (weight == 0) continue; //skip holdout rows
         assert(weight == 1); //K-Means only works for weight 1 (or weight 0 for holdout)
         data(values, cs, row, _means, _mults, _modes); // Load row as doubles
-        closest(_centers, values, _isCats, cd); // Find closest cluster center
+        if (_bounds) closestBounded(values, assignment.at8(row), lower, row, drift1, drift2, maxDrift, cd);
+        else closest(_centers, values, _isCats, cd); // Find closest cluster center
         if (cd._cluster != assignment.at8(row)) {
           _reassigned_count+=weight;
           assignment.set(row, cd._cluster);
         }
-        for( int clu=0; clu< _k; clu++ ) {
-          for( int col=0; col<N; col++ ) {
-            if (cd._cluster == clu) {
-              _lo[clu][col] = Math.min(values[col], _lo[clu][col]);
-              _hi[clu][col] = Math.max(values[col], _hi[clu][col]);
-            }
-          }
+        for( int col=0; col<N; col++ ) {
+          _lo[cd._cluster][col] = Math.min(values[col], _lo[cd._cluster][col]);
+          _hi[cd._cluster][col] = Math.max(values[col], _hi[cd._cluster][col]);
         }
         int clu = cd._cluster;
         assert clu != -1;       // No broken rows
@@ -699,10 +762,48 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
       _centers = null;
       _means = _mults = null;
       _modes = null;
+      _drift = _halfSep = null;
+    }
+
+    // Same as closest(), using and updating the bound of the row
+    private void closestBounded(double[] values, long assigned, Chunk lower, int row,
+                                double drift1, double drift2, int maxDrift, ClusterDist cd) {
+      final int a = (int) assigned;
+      if (_drift != null && a >= 0) {
+        double sqr = hex.genmodel.GenModel.KMeans_distance(_centers[a], values, _isCats, null, null);
+        _distances++;
+        double u = Math.sqrt(sqr);
+        double drift = a == maxDrift ? drift2 : drift1;
+        double l = lower.atd(row) - drift;
+        l -= SLACK * (l + 2 * drift);
+        if (u < Math.max(l, _halfSep[a] * (1 - SLACK))) {
+          cd._cluster = a;
+          cd._dist = sqr;
+          lower.set(row, l);
+          return;
+        }
+      }
+      // All the distances, keeping the two smallest
+      int min = -1;
+      double minSqr = Double.MAX_VALUE, minSqr2 = Double.MAX_VALUE;
+      for (int cluster = 0; cluster < _k; cluster++) {
+        double sqr = hex.genmodel.GenModel.KMeans_distance(_centers[cluster], values, _isCats, null, null);
+        if (sqr < minSqr) {
+          minSqr2 = minSqr;
+          min = cluster;
+          minSqr = sqr;
+        } else if (sqr < minSqr2)
+          minSqr2 = sqr;
+      }
+      _distances += _k;
+      cd._cluster = min;
+      cd._dist = minSqr;
+      lower.set(row, _k > 1 ? Math.sqrt(minSqr2) : Double.MAX_VALUE);
     }
 
     @Override public void reduce(LloydsIterationTask mr) {
       _reassigned_count += mr._reassigned_count;
+      _distances += mr._distances;
       for( int clu = 0; clu < _k; clu++ ) {
         long ra =    _size[clu];
         long rb = mr._size[clu];
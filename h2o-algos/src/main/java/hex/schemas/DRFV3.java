@@ -50,6 +50,7 @@ public class DRFV3 extends SharedTreeV3<DRF,DRFV3, DRFV3.DRFParametersV3> {
         "col_sample_rate_per_tree",
         "min_split_improvement",
         "histogram_type",
+        "prebin_predictors",
         "categorical_encoding"
     };
 
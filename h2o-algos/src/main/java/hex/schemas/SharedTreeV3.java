@@ -90,5 +90,8 @@ public class SharedTreeV3<B extends SharedTree, S extends SharedTreeV3<B,S,P>, P
 
     @API(help="What type of histogram to use for finding optimal split points", values = { "AUTO", "UniformAdaptive", "Random", "QuantilesGlobal", "RoundRobin"}, level = API.Level.secondary, gridable = true)
     public SharedTreeParameters.HistogramType histogram_type;
+
+    @API(help="Bin numeric predictors once before training and build histograms from the compact bin codes (faster; UniformAdaptive histograms merge the top-level bins as they get deeper)", level = API.Level.expert, gridable = true)
+    public boolean prebin_predictors;
   }
 }
@@ -16,7 +16,8 @@ public class Word2VecV3 extends ModelBuilderSchema<Word2Vec,Word2VecV3,Word2VecV
             "windowSize",
             "sentSampleRate",
             "initLearningRate",
-            "epochs"
+            "epochs",
+            "buildSynonymIndex"
     };
 
     /**
@@ -71,5 +72,8 @@ public class Word2VecV3 extends ModelBuilderSchema<Word2Vec,Word2VecV3,Word2VecV
     @API(help="Use the continuous bag of words model or the Skip-Gram model", values = {"CBOW", "SkipGram"}, required = true)
     public Word2Vec.WordModel wordModel;
 
+    @API(help="Build an approximate nearest neighbour index of the word vectors, for fast synonym search", level = API.Level.secondary)
+    public boolean buildSynonymIndex;
+
   }
 }
@@ -585,11 +585,12 @@ public class SVD extends ModelBuilder<SVDModel,SVDModel.SVDParameters,SVDModel.S
       double[] nums = _numRow.numVals;
       for(int row = 0; row < _ivv.length; row++)
         nums[row] = r.innerProduct(_ivv[row]);
-      _gram.addRow(_numRow, w);
+      _gram.addRowBlocked(_numRow, w);
       ++_nobs;
     }
 
     @Override protected void chunkDone(long n){
+      _gram.flushBlock();
       double r = 1.0/_nobs;
       _gram.mul(r);
     }
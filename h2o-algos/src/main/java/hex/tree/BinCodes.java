@@ -0,0 +1,81 @@
+package hex.tree;
+
+import water.DKV;
+import water.Key;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+
+import java.util.Arrays;
+
+/**
+ * Pre-binned (quantized) copies of the numeric predictors of a tree model.
+ *
+ * <p>Every predictor with global split points (see {@link DHistogram.HistoQuantiles}) is binned once,
+ * up front, into an integer column of bin codes: code {@code c} stands for all values in
+ * {@code [splitPts[c], splitPts[c+1])}.  The codes are bounded by {@code nbins_top_level}, so they compress
+ * into 1- or 2-byte chunks, and {@link ScoreBuildHistogram2} fills histograms by indexing with them directly
+ * instead of re-reading and re-binning the raw doubles at every level of every tree.
+ *
+ * <p>The raw columns are kept as they are: rows are still routed down the tree (and trees are still scored)
+ * using the actual column values.
+ */
+public class BinCodes extends MRTask<BinCodes> {
+  private final Key[] _globalQuantilesKeys;
+  private transient double[][] _splitPts;
+
+  private BinCodes(Key[] globalQuantilesKeys) { _globalQuantilesKeys = globalQuantilesKeys; }
+
+  @Override protected void setupLocal() {
+    _splitPts = new double[_globalQuantilesKeys.length][];
+    for (int i = 0; i < _splitPts.length; i++)
+      _splitPts[i] = DKV.<DHistogram.HistoQuantiles>getGet(_globalQuantilesKeys[i]).splitPts;
+  }
+
+  @Override public void map(Chunk[] cs, NewChunk[] ncs) {
+    for (int c = 0; c < cs.length; c++) {
+      final Chunk chk = cs[c];
+      final NewChunk nc = ncs[c];
+      final double[] splitPts = _splitPts[c];
+      for (int row = 0; row < chk._len; row++) {
+        if (chk.isNA(row)) nc.addNA();
+        else nc.addNum(code(splitPts, chk.atd(row)), 0);
+      }
+    }
+  }
+
+  /** Index of the bin holding {@code d}: the last split point that is {@code <= d}. */
+  static int code(double[] splitPts, double d) {
+    int idx = Arrays.binarySearch(splitPts, d);
+    if (idx < 0) idx = -idx - 2;
+    return idx < 0 ? 0 : idx;
+  }
+
+  /**
+   * Bin the first {@code ncols} columns of the training frame.
+   * @param fr training frame, predictors first
+   * @param ncols number of predictors
+   * @param globalQuantilesKeys per-predictor key of the global split points, or null for columns that are not binned
+   * @return per-predictor Vec of bin codes (compatible with {@code fr}), or null for columns that are not binned
+   */
+  public static Vec[] bin(Frame fr, int ncols, Key[] globalQuantilesKeys) {
+    int nbinned = 0;
+    for (int i = 0; i < ncols; i++)
+      if (globalQuantilesKeys[i] != null && DKV.get(globalQuantilesKeys[i]) != null) nbinned++;
+    Vec[] codes = new Vec[ncols];
+    if (nbinned == 0) return codes;
+    int[] cols = new int[nbinned];
+    Key[] keys = new Key[nbinned];
+    for (int i = 0, j = 0; i < ncols; i++)
+      if (globalQuantilesKeys[i] != null && DKV.get(globalQuantilesKeys[i]) != null) {
+        cols[j] = i;
+        keys[j++] = globalQuantilesKeys[i];
+      }
+    Vec[] binned = new BinCodes(keys).doAll(nbinned, Vec.T_NUM, new Frame(fr.vecs(cols))).outputFrame().vecs();
+    for (int j = 0; j < nbinned; j++)
+      codes[cols[j]] = binned[j];
+    return codes;
+  }
+}
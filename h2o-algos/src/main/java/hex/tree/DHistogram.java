@@ -49,6 +49,8 @@ public final class DHistogram extends Iced {
   public final double _min, _maxEx; // Conservative Min/Max over whole collection.  _maxEx is Exclusive.
 
   protected double [] _vals;
+  // Bins of a pre-binned histogram before reducePrecision, kept for histogram subtraction
+  private transient double [] _exactVals;
   public double w(int i){  return _vals[3*i+0];}
   public double wY(int i){ return _vals[3*i+1];}
   public double wYY(int i){return _vals[3*i+2];}
@@ -90,6 +92,10 @@ public final class DHistogram extends Iced {
   public final long _seed;
   public transient boolean _hasQuantiles;
   public Key _globalQuantilesKey; //key under which original top-level quantiles are stored;
+  public final boolean _prebinned; //rows are pre-binned against the global split points (see BinCodes)
+  transient double[] _globalSplitPts; //global split points the bin codes refer to, null if codes cannot be used
+  transient int _codeOffset; //first bin in global bin codes, counted in runs of 2^_codeShift codes
+  transient int _codeShift; //each bin holds 2^_codeShift consecutive global bin codes
 
 
 
@@ -160,6 +166,11 @@ public final class DHistogram extends Iced {
   }
   public DHistogram(String name, final int nbins, int nbins_cats, byte isInt, double min, double maxEx,
                     double minSplitImprovement, SharedTreeModel.SharedTreeParameters.HistogramType histogramType, long seed, Key globalQuantilesKey) {
+    this(name, nbins, nbins_cats, isInt, min, maxEx, minSplitImprovement, histogramType, seed, globalQuantilesKey, false);
+  }
+  public DHistogram(String name, final int nbins, int nbins_cats, byte isInt, double min, double maxEx,
+                    double minSplitImprovement, SharedTreeModel.SharedTreeParameters.HistogramType histogramType, long seed, Key globalQuantilesKey,
+                    boolean prebinned) {
     assert nbins > 1;
     assert nbins_cats > 1;
     assert maxEx > min : "Caller ensures "+maxEx+">"+min+", since if max==min== the column "+name+" is all constants";
@@ -180,6 +191,7 @@ public final class DHistogram extends Iced {
       _histoType= SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive;
     assert(_histoType!= SharedTreeModel.SharedTreeParameters.HistogramType.RoundRobin);
     _globalQuantilesKey = globalQuantilesKey;
+    _prebinned = prebinned;
     // See if we can show there are fewer unique elements than nbins.
     // Common for e.g. boolean columns, or near leaves.
     int xbins = isInt == 2 ? nbins_cats : nbins;
@@ -246,7 +258,8 @@ public final class DHistogram extends Iced {
          _splitPts[i] = rng.nextFloat() * (_nbin-1);
       Arrays.sort(_splitPts);
     }
-    else if (_histoType== SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal) {
+    else if (_histoType== SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal
+            || (_prebinned && _histoType== SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive)) {
       assert (_splitPts == null);
       if (_globalQuantilesKey != null) {
         HistoQuantiles hq = DKV.getGet(_globalQuantilesKey);
@@ -254,8 +267,10 @@ public final class DHistogram extends Iced {
           _splitPts = ((HistoQuantiles) DKV.getGet(_globalQuantilesKey)).splitPts;
           if (_splitPts!=null) {
 //            Log.info("Obtaining global splitPoints: " + Arrays.toString(_splitPts));
+            double[] globalSplitPts = _splitPts;
             _splitPts = ArrayUtils.limitToRange(_splitPts, _min, _maxEx);
-            if (_splitPts.length > 1 && _splitPts.length < _nbin)
+            // Pre-binned rows only know their global bin, so keep exactly the global split points
+            if (!_prebinned && _splitPts.length > 1 && _splitPts.length < _nbin)
               _splitPts = ArrayUtils.padUniformly(_splitPts, _nbin);
             if (_splitPts.length <= 1) {
               _splitPts = null; //abort, fall back to uniform binning
@@ -263,6 +278,18 @@ public final class DHistogram extends Iced {
             }
             else {
               _hasQuantiles=true;
+              if (_prebinned) {
+                int firstCode = Arrays.binarySearch(globalSplitPts, _splitPts[0]);
+                assert firstCode >= 0;
+                _codeShift = codeShift(firstCode, firstCode + _splitPts.length - 1);
+                _codeOffset = firstCode >> _codeShift;
+                if (_codeShift > 0) { // Merged bins start at the global split point of their first code
+                  _splitPts = new double[((firstCode + _splitPts.length - 1) >> _codeShift) - _codeOffset + 1];
+                  for (int b = 0; b < _splitPts.length; b++)
+                    _splitPts[b] = globalSplitPts[(_codeOffset + b) << _codeShift];
+                }
+                _globalSplitPts = globalSplitPts;
+              }
               _nbin = (char)_splitPts.length;
 //              Log.info("Refined splitPoints: " + Arrays.toString(_splitPts));
             }
@@ -345,9 +372,32 @@ public final class DHistogram extends Iced {
 
 
   public static DHistogram make(String name, final int nbins, byte isInt, double min, double maxEx, long seed, SharedTreeModel.SharedTreeParameters parms, Key globalQuantilesKey) {
-    return new DHistogram(name,nbins, parms._nbins_cats, isInt, min, maxEx, parms._min_split_improvement, parms._histogram_type, seed, globalQuantilesKey);
+    return new DHistogram(name,nbins, parms._nbins_cats, isInt, min, maxEx, parms._min_split_improvement, parms._histogram_type, seed, globalQuantilesKey, parms._prebin_predictors);
   }
 
+  /**
+   * Split points of the fixed top-level grid used to pre-bin a column for UniformAdaptive histograms:
+   * one point per root-level bin, exactly as the root histogram of the column would bin it.
+   * @param v column to bin
+   * @param nbins number of top-level bins
+   * @return sorted split points, starting at the column minimum, or null if the column cannot be split
+   */
+  public static double[] uniformSplitPts(Vec v, int nbins) {
+    if (v.isCategorical() || v.naCnt() == v.length() || v.min() == v.max()) return null;
+    final double min = Math.max(v.min(), -Double.MAX_VALUE);
+    final double maxEx = find_maxEx(Math.min(v.max(), Double.MAX_VALUE), v.isInt() ? 1 : 0);
+    final int n = v.isInt() && maxEx - min <= nbins ? (int) (maxEx - min) : nbins;
+    final double step = v.isInt() && maxEx - min <= nbins ? 1 : (maxEx - min) / n;
+    if (step <= 0 || Double.isInfinite(step) || Double.isNaN(step)) return null;
+    double[] splitPts = new double[n];
+    for (int i = 0; i < n; i++)
+      splitPts[i] = min + i * step;
+    return ArrayUtils.makeUniqueAndLimitToRange(splitPts, min, maxEx);
+  }
+
+  /** Is this histogram aligned with the global bin codes, so it can be filled with {@link #updateHistoBinned}? */
+  public boolean isBinned() { return _globalSplitPts != null; }
+
   // Pretty-print a histogram
   @Override public String toString() {
     StringBuilder sb = new StringBuilder();
@@ -420,12 +470,156 @@ public final class DHistogram extends Iced {
     }
   }
 
+  /**
+   * Update counts in appropriate bins from pre-binned global bin codes (see {@link BinCodes}).
+   * Same as {@link #updateHisto} but without any per-row binning math. Not thread safe, assumed to have private copy.
+   * @param ws observation weights
+   * @param codes global bin codes of the column data, negative for NAs
+   * @param ys response
+   * @param rows rows sorted by leaf assignemnt
+   * @param hi  upper bound on index into rows array to be processed by this call (exclusive)
+   * @param lo  lower bound on index into rows array to be processed by this call (inclusive)
+   */
+  public void updateHistoBinned(double[] ws, int[] codes, double[] ys, int [] rows, int hi, int lo){
+    assert isBinned();
+    final int off = _codeOffset;
+    final int shift = _codeShift;
+    final int nbin = _nbin;
+    int minCode = Integer.MAX_VALUE, maxCode = -1;
+    for(int r = lo; r< hi; ++r) {
+      int k = rows[r];
+      double weight = ws[k];
+      if (weight == 0) continue;
+      int code = codes[k];
+      double y = ys[k];
+      assert (!Double.isNaN(y));
+      double wy = weight * y;
+      double wyy = wy * y;
+      int b;
+      if (code < 0) b = nbin; // NA bucket
+      else {
+        if (code < minCode) minCode = code;
+        if (code > maxCode) maxCode = code;
+        b = (code >> shift) - off;
+        if (b < 0) b = 0; else if (b >= nbin) b = nbin-1; // Infinities land in the outermost bins
+      }
+      _vals[3*b + 0] += weight;
+      _vals[3*b + 1] += wy;
+      _vals[3*b + 2] += wyy;
+    }
+    if (maxCode >= 0) setBinnedMinMax(minCode, maxCode);
+  }
+
+  // Only the bins are known, so track the tightest bounds they imply
+  private void setBinnedMinMax(int minCode, int maxCode) {
+    double lower = Math.max(_globalSplitPts[minCode], _min);
+    double upperEx = maxCode+1 < _globalSplitPts.length ? Math.min(_globalSplitPts[maxCode+1], _maxEx) : _maxEx;
+    double min = _isInt > 0 ? Math.ceil(lower) : lower;
+    double maxIn = _isInt > 0 ? Math.ceil(upperEx)-1 : Math.nextAfter(upperEx, Double.NEGATIVE_INFINITY);
+    if (maxIn < min) maxIn = min;
+    if (min < _min2) _min2 = min;
+    if (maxIn > _maxIn) _maxIn = maxIn;
+  }
+
+  // UniformAdaptive merges runs of 2^shift global bin codes, so that the bins over the codes firstCode..lastCode
+  // are no more than requested: narrower, deeper histograms get as coarse as without pre-binning.  The runs are
+  // aligned on the global codes, so the bins of a finer histogram always fall into single bins of a coarser one.
+  private int codeShift(int firstCode, int lastCode) {
+    int shift = 0;
+    if (_histoType == SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive)
+      while ((lastCode >> shift) - (firstCode >> shift) >= _nbin) shift++;
+    return shift;
+  }
+
+  /**
+   * Layout of a pre-binned histogram over the global bin codes (exactly as {@link #init} lays it out):
+   * {first bin in runs of 2^shift codes, shift}, or null if this histogram is not filled from bin codes.
+   * Does not need an initialized histogram.
+   */
+  int[] binnedLayout() {
+    if (isBinned()) return new int[]{_codeOffset, _codeShift};
+    if (_vals != null || !_prebinned || _globalQuantilesKey == null) return null;
+    if (_histoType != SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal
+            && _histoType != SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive) return null;
+    HistoQuantiles hq = DKV.getGet(_globalQuantilesKey);
+    if (hq == null || hq.splitPts == null) return null;
+    double[] splitPts = ArrayUtils.limitToRange(hq.splitPts, _min, _maxEx);
+    if (splitPts.length <= 1) return null;
+    int firstCode = Arrays.binarySearch(hq.splitPts, splitPts[0]);
+    int shift = codeShift(firstCode, firstCode + splitPts.length - 1);
+    return new int[]{firstCode >> shift, shift};
+  }
+
+  /**
+   * Can {@code child} be computed as {@code parent} minus {@code sibling} (see {@link #setToDifference})?
+   * Needs a filled parent, all three histograms binned on the same global bin codes, and every bin of the
+   * parent and the sibling within a single bin of the child.
+   */
+  static boolean canSubtract(DHistogram parent, DHistogram sibling, DHistogram child) {
+    if (parent._vals == null || child._vals != null
+            || parent._globalQuantilesKey == null
+            || !parent._globalQuantilesKey.equals(sibling._globalQuantilesKey)
+            || !parent._globalQuantilesKey.equals(child._globalQuantilesKey)) return false;
+    int[] p = parent.binnedLayout(), s = sibling.binnedLayout(), c = child.binnedLayout();
+    return p != null && s != null && c != null && p[1] <= c[1] && s[1] <= c[1];
+  }
+
+  /**
+   * Histogram subtraction: fill this (not yet initialized) histogram of one child of a split as the
+   * histogram of the parent minus the histogram of the other child, without looking at the data.
+   * All histograms must be binned on the same global bin codes, see {@link #canSubtract}.
+   * The difference is taken at full precision (as the bins were before {@link #reducePrecision}), and only
+   * then reduced, so that it matches the histogram the pass over the data would have built.
+   * @param parent filled histogram of the split node
+   * @param sibling filled histogram of the other child, or null if it did not get any rows
+   */
+  public void setToDifference(DHistogram parent, DHistogram sibling) {
+    init();
+    assert isBinned();
+    addBinned(parent, 1);
+    if (sibling != null && sibling._vals != null)
+      addBinned(sibling, -1);
+    // Bins emptied by the subtraction are only zero up to round-off
+    double wTot = 0;
+    for (int b = 0; b <= parent._nbin; b++) wTot += Math.abs(parent._vals[3*b]);
+    final double tol = 1e-10 * wTot;
+    int minCode = Integer.MAX_VALUE, maxCode = -1;
+    for (int b = 0; b <= _nbin; b++) {
+      if (_vals[3*b] <= tol) {
+        _vals[3*b] = _vals[3*b+1] = _vals[3*b+2] = 0;
+      } else if (b < _nbin) {
+        minCode = Math.min(minCode, (b + _codeOffset) << _codeShift);
+        maxCode = Math.min(((b + _codeOffset + 1) << _codeShift) - 1, _globalSplitPts.length - 1);
+      }
+    }
+    if (maxCode >= 0) setBinnedMinMax(minCode, maxCode);
+    reducePrecision();
+  }
+
+  // Add (sign 1) or subtract (sign -1) the full precision bins of another, no coarser, histogram over the same global bin codes
+  private void addBinned(DHistogram h, int sign) {
+    assert h.isBinned() && h._codeShift <= _codeShift;
+    final double[] vals = h._exactVals != null ? h._exactVals : h._vals;
+    for (int b = 0; b < h._nbin; b++) {
+      int t = (((b + h._codeOffset) << h._codeShift) >> _codeShift) - _codeOffset;
+      if (t < 0) t = 0; else if (t >= _nbin) t = _nbin-1; // Same clamping as in updateHistoBinned
+      _vals[3*t+0] += sign*vals[3*b+0];
+      _vals[3*t+1] += sign*vals[3*b+1];
+      _vals[3*t+2] += sign*vals[3*b+2];
+    }
+    _vals[3*_nbin+0] += sign*vals[3*h._nbin+0];
+    _vals[3*_nbin+1] += sign*vals[3*h._nbin+1];
+    _vals[3*_nbin+2] += sign*vals[3*h._nbin+2];
+  }
+
   /**
    * Cast bin values *except for sums of weights and Na-bucket counters to floats to drop least significant bits.
    * Improves reproducibility (drop bits most affected by floating point error).
+   * Pre-binned histograms keep their full precision bins for histogram subtraction.
    */
   public void reducePrecision(){
     if(_vals == null) return;
+    if(_prebinned && isBinned()) _exactVals = _vals.clone();
     for(int i = 0; i < _vals.length -3 /* do not reduce precision of NAs */; i+=3) {
       _vals[i+1] = (float)_vals[i+1];
       _vals[i+2] = (float)_vals[i+2];
@@ -301,6 +301,10 @@ public class DTree extends Iced {
   public static class UndecidedNode extends Node {
     public transient DHistogram[] _hs; //(up to) one histogram per column
     public final int _scoreCols[];      // A list of columns to score; could be null for all
+    // Histogram subtraction (pre-binned predictors only): set on the larger child of a split, whose
+    // histograms can be computed as the parent's minus the smaller sibling's instead of from the data
+    transient DHistogram[] _parentHs;  // Filled histograms of the parent
+    transient int _siblingNid;         // The smaller sibling
     public UndecidedNode( DTree tree, int pid, DHistogram[] hs ) {
       super(tree,pid);
       assert hs.length==tree._ncols;
@@ -515,6 +519,13 @@ public class DTree extends Iced {
         // Assign a new (yet undecided) node to each child, and connect this (the parent) decided node and the newly made histograms to it
         _nids[way] = nhists == null ? ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID : makeUndecidedNode(nhists)._nid;
       }
+      // Only the smaller child needs a pass over its rows; the larger one can subtract (see ScoreBuildOneTree)
+      if (_tree._parms._prebin_predictors && _nids[0] >= 0 && _nids[1] >= 0) {
+        int larger = _split._n0 >= _split._n1 ? 0 : 1;
+        UndecidedNode u = _tree.undecided(_nids[larger]);
+        u._parentHs = hs;
+        u._siblingNid = _nids[1-larger];
+      }
     }
 
     public int getChildNodeID(Chunk [] chks, int row ) {
@@ -67,10 +67,16 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
   Frame _fr2;
   final int _numLeafs;
   final IcedBitSet _activeCols;
+  final int [] _binIdxs; // Per column: index of its pre-binned codes in the frame (see BinCodes), or -1
 
   public ScoreBuildHistogram2(H2O.H2OCountedCompleter cc, int k, int ncols, int nbins, int nbins_cats, DTree tree, int leaf, DHistogram[][] hcs, DistributionFamily family, int weightIdx, int workIdx, int nidIdxs) {
+    this(cc, k, ncols, nbins, nbins_cats, tree, leaf, hcs, family, weightIdx, workIdx, nidIdxs, null);
+  }
+
+  public ScoreBuildHistogram2(H2O.H2OCountedCompleter cc, int k, int ncols, int nbins, int nbins_cats, DTree tree, int leaf, DHistogram[][] hcs, DistributionFamily family, int weightIdx, int workIdx, int nidIdxs, int [] binIdxs) {
     super(cc, k, ncols, nbins, nbins_cats, tree, leaf, hcs, family, weightIdx, workIdx, nidIdxs);
     _numLeafs = _hcs.length;
+    _binIdxs = binIdxs;
 
     int hcslen = _hcs.length;
     IcedBitSet activeCols = new IcedBitSet(ncols);
@@ -301,13 +307,16 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     @Override
     protected void map(int id){
       double [] cs = null;
+      int [] codes = null;
+      final boolean binned = _binIdxs != null && _binIdxs[_col] >= 0;
       for(int i = _cidx.getAndIncrement(); i < _cids.length; i = _cidx.getAndIncrement()) {
         if(cs == null) cs = MemoryManager.malloc8d(_maxChunkSz);
-        computeChunk(i,cs,_ws[i]);
+        if(binned && codes == null) codes = MemoryManager.malloc4(_maxChunkSz);
+        computeChunk(i,cs,codes,_ws[i]);
       }
     }
 
-    private void computeChunk(int id, double [] cs, double [] ws){
+    private void computeChunk(int id, double [] cs, int [] codes, double [] ws){
       int [] nh = _nhs[id];
       int [] rs = _rss[id];
       Chunk resChk = _chks[id][_workIdx];
@@ -316,6 +325,7 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
       if(_weightIdx != -1) _chks[id][_weightIdx].getDoubles(ws, 0, len);
       final int hcslen = _lh.length;
       boolean extracted = false;
+      boolean extractedCodes = false;
       for (int n = 0; n < hcslen; n++) {
         int sCols[] = _tree.undecided(n + _leaf)._scoreCols; // Columns to score (null, or a list of selected cols)
         if (sCols == null || ArrayUtils.find(sCols, _col) >= 0) {
@@ -324,6 +334,14 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
           int lo = (n == 0 ? 0 : nh[n - 1]);
           if (hi == lo || h == null) continue; // Ignore untracked columns in this split
           if (h._vals == null) h.init();
+          if (codes != null && h.isBinned()) { // Pre-binned column, no need to touch the raw data
+            if (!extractedCodes) {
+              _chks[id][_binIdxs[_col]].getIntegers(codes,0,len,-1);
+              extractedCodes = true;
+            }
+            h.updateHistoBinned(ws, codes, ys, rs, hi, lo);
+            continue;
+          }
           if (!extracted) {
             _chks[id][_col].getDoubles(cs,0,len);
             extracted = true;
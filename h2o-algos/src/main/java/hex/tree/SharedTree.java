@@ -53,6 +53,9 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
   // Sum of variable empirical improvement in squared-error.  The value is not scaled.
   private transient float[/*nfeatures*/] _improvPerVar;
 
+  // Pre-binned predictors (null per column if not binned); only with _prebin_predictors
+  private transient Vec[/*ncols*/] _binCodes;
+
   protected Random _rand;
 
   public boolean isSupervised(){return true;}
@@ -122,6 +125,10 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
     if (_parms._nbins_cats >= 1<<16) error ("_nbins_cats", "nbins_cats must be < " + (1<<16));
     if (_parms._nbins_top_level < _parms._nbins) error ("_nbins_top_level", "nbins_top_level must be >= nbins (" + _parms._nbins + ").");
     if (_parms._nbins_top_level >= 1<<16) error ("_nbins_top_level", "nbins_top_level must be < " + (1<<16));
+    if (_parms._prebin_predictors && _parms._histogram_type != SharedTreeModel.SharedTreeParameters.HistogramType.AUTO
+            && _parms._histogram_type != SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive
+            && _parms._histogram_type != SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal)
+      error ("_prebin_predictors", "Pre-binning of predictors requires histogram_type AUTO, UniformAdaptive or QuantilesGlobal.");
     if (_parms._max_depth <= 0) error ("_max_depth", "_max_depth must be > 0.");
     if (_parms._min_rows <=0) error ("_min_rows", "_min_rows must be > 0.");
     if (_parms._r2_stopping!=Double.MAX_VALUE) warn("_r2_stopping", "_r2_stopping is no longer supported - please use stopping_rounds, stopping_metric and stopping_tolerance instead.");
@@ -244,7 +251,7 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
           //pad the quantiles until we have nbins_top_level bins
           double[][] splitPoints = new double[origQuantiles.length][];
           Key[] keys = new Key[splitPoints.length];
-          for (int i=0;i<keys.length;++i)
+          for (int i=0;i<_ncols;++i) //predictors only, the response and special columns are never split on
             keys[i] = getGlobalQuantilesKey(i);
           for (int i=0;i<origQuantiles.length;++i) {
             if (!_train.vec(i).isNumeric() || _train.vec(i).isCategorical() || _train.vec(i).isBinary() || origQuantiles[i].length <= 1) {
@@ -268,6 +275,22 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
           DKV.remove(rndKey);
         }
 
+        // Bin all numeric predictors once, so histograms are built from the bin codes
+        if (_parms._prebin_predictors) {
+          _job.update(0, "Pre-binning predictors.");
+          Key[] keys = getGlobalQuantilesKeys();
+          if (_parms._histogram_type != SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal) {
+            // UniformAdaptive: fixed grid of the root-level bins
+            int adj_nbins = Math.max(_parms._nbins_top_level,_parms._nbins);
+            for (int i=0;i<keys.length;++i) {
+              double[] splitPts = DHistogram.uniformSplitPts(_train.vec(i), adj_nbins);
+              if (splitPts != null && splitPts.length > 1)
+                DKV.put(new DHistogram.HistoQuantiles(keys[i], splitPts));
+            }
+          }
+          _binCodes = BinCodes.bin(_train, _ncols, keys);
+        }
+
         // Also add to the basic working Frame these sets:
         //   nclass Vecs of current forest results (sum across all trees)
         //   nclass Vecs of working/temp data
@@ -308,6 +331,12 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       } finally {
         if( _model!=null ) _model.unlock(_job);
         for (Key k : getGlobalQuantilesKeys()) if (k!=null) k.remove();
+        if( _binCodes!=null ) {
+          Futures fs = new Futures();
+          for (Vec v : _binCodes) if (v!=null) v.remove(fs);
+          fs.blockForPending();
+          _binCodes = null;
+        }
       }
     }
 
@@ -323,7 +352,7 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
     // Helpers to store quantiles in DKV - keep a cache on each node (instead of sending around over and over)
     protected Key getGlobalQuantilesKey(int i) {
       if (_model==null || _model._key == null || _parms._histogram_type!= SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal
-              && _parms._histogram_type!= SharedTreeModel.SharedTreeParameters.HistogramType.RoundRobin) return null;
+              && _parms._histogram_type!= SharedTreeModel.SharedTreeParameters.HistogramType.RoundRobin && !_parms._prebin_predictors) return null;
       return Key.makeSystem(_model._key+"_quantiles_col_"+i);
     }
     protected Key[] getGlobalQuantilesKeys() {
@@ -404,13 +433,21 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       fr2.add(fr._names[idx_tree(k)],vecs[idx_tree(k)]);                              //tree predictions
       int workIdx = fr2.numCols(); fr2.add(fr._names[idx_work(k)],vecs[idx_work(k)]); //target value to fit (copy of actual response for DRF, residual for GBM)
       int nidIdx  = fr2.numCols(); fr2.add(fr._names[idx_nids(k)],vecs[idx_nids(k)]); //node indices for tree construction
+      int[] binIdxs = null;     //pre-binned predictors, used for histograms instead of the raw values
+      if (_binCodes != null) {
+        binIdxs = new int[_ncols];
+        for (int i = 0; i < _ncols; i++) {
+          binIdxs[i] = _binCodes[i] == null ? -1 : fr2.numCols();
+          if (_binCodes[i] != null) fr2.add("BIN_" + fr._names[i], _binCodes[i]);
+        }
+      }
       if (DEV_DEBUG) {
         System.out.println("Building a layer for class " + k + ":\n" + fr2.toTwoDimTable());
       }
       // Async tree building
       // step 1: build histograms
       // step 2: split nodes
-      H2O.submitTask(sb1ts[k] = new ScoreBuildOneTree(this,k,nbins, nbins_cats, tree, leafs, hcs, fr2, build_tree_one_node, _improvPerVar, _model._parms._distribution, weightIdx, workIdx, nidIdx));
+      H2O.submitTask(sb1ts[k] = new ScoreBuildOneTree(this,k,nbins, nbins_cats, tree, leafs, hcs, fr2, build_tree_one_node, _improvPerVar, _model._parms._distribution, weightIdx, workIdx, nidIdx, binIdxs));
     }
     // Block for all K trees to complete.
     boolean did_split=false;
@@ -449,10 +486,12 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
     final int _weightIdx;
     final int _workIdx;
     final int _nidIdx;
+    final int _binIdxs[];
+    DHistogram _derived[][];    // Histograms left out of the pass over the data, derived by histogram subtraction
 
     boolean _did_split;
 
-    ScoreBuildOneTree(SharedTree st, int k, int nbins, int nbins_cats, DTree tree, int leafs[], DHistogram hcs[][][], Frame fr2, boolean build_tree_one_node, float[] improvPerVar, DistributionFamily family, int weightIdx, int workIdx, int nidIdx) {
+    ScoreBuildOneTree(SharedTree st, int k, int nbins, int nbins_cats, DTree tree, int leafs[], DHistogram hcs[][][], Frame fr2, boolean build_tree_one_node, float[] improvPerVar, DistributionFamily family, int weightIdx, int workIdx, int nidIdx, int binIdxs[]) {
       _st   = st;
       _k    = k;
       _nbins= nbins;
@@ -467,6 +506,7 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       _weightIdx = weightIdx;
       _workIdx = workIdx;
       _nidIdx = nidIdx;
+      _binIdxs = binIdxs;
     }
     @Override public void compute2() {
       // Fuse 2 conceptual passes into one:
@@ -478,14 +518,17 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       // got assigned into.  Collect counts, mean, variance, min, max per bin,
       // per column.
 //      new ScoreBuildHistogram(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _weightIdx, _workIdx, _nidIdx).dfork2(null,_fr2,_build_tree_one_node);
-      new ScoreBuildHistogram2(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _weightIdx, _workIdx, _nidIdx).dfork2(null,_fr2,_build_tree_one_node);
+      _derived = excludeDerivedHistos(_hcs[_k], _leafOffsets[_k]);
+      new ScoreBuildHistogram2(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _weightIdx, _workIdx, _nidIdx, _binIdxs).dfork2(null,_fr2,_build_tree_one_node);
     }
     @Override public void onCompletion(CountedCompleter caller) {
       ScoreBuildHistogram sbh = (ScoreBuildHistogram) caller;
       final int leafOffset = _leafOffsets[_k];
+      if (_derived != null) deriveHistos(sbh._hcs, leafOffset);
       int tmax = _tree.len();   // Number of total splits in tree K
       for (int leaf = leafOffset; leaf < tmax; leaf++) { // Visit all the new splits (leaves)
         DTree.UndecidedNode udn = _tree.undecided(leaf);
+        udn._parentHs = null;           // Done with the subtraction, let the parent's histograms go
 //        System.out.println((_st._nclass==1?"Regression":("Class "+_st._response.domain()[_k]))+",\n  Undecided node:"+udn);
         // Replace the Undecided with the Split decision
         DTree.DecidedNode dn = _st.makeDecided(udn, sbh._hcs[leaf - leafOffset]);
@@ -507,6 +550,52 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
 //      if (_did_split && new_leafs > 0) _tree._depth++;
       if (_did_split) _tree._depth++; //
     }
+
+    // Histogram subtraction: the larger child of a split has the histograms of its parent minus the ones of its
+    // smaller sibling.  Take all such histograms out of the pass over the data (the arrays of the undecided nodes
+    // are left alone), so only about half of the rows get binned per tree level.
+    private DHistogram[][] excludeDerivedHistos(DHistogram[][] hcs, int leafOffset) {
+      DHistogram[][] derived = null;
+      for (int n = 0; n < hcs.length; n++) {
+        DTree.UndecidedNode udn = _tree.undecided(leafOffset + n);
+        if (udn._parentHs == null) continue;
+        DTree.UndecidedNode sibling = _tree.undecided(udn._siblingNid);
+        DHistogram[] shs = hcs[udn._siblingNid - leafOffset];
+        for (int j = 0; j < hcs[n].length; j++) {
+          DHistogram h = hcs[n][j], sh = shs[j], ph = udn._parentHs[j];
+          if (h == null || sh == null || ph == null) continue;
+          if (!scores(udn, j) || !scores(sibling, j) || !DHistogram.canSubtract(ph, sh, h)) continue;
+          if (derived == null) derived = new DHistogram[hcs.length][];
+          if (derived[n] == null) {
+            derived[n] = new DHistogram[hcs[n].length];
+            hcs[n] = hcs[n].clone();
+          }
+          derived[n][j] = h;
+          hcs[n][j] = null;
+        }
+      }
+      return derived;
+    }
+
+    // Fill the histograms left out of the pass from the parent and the (now filled) sibling histograms
+    private void deriveHistos(DHistogram[][] hcs, int leafOffset) {
+      for (int n = 0; n < _derived.length; n++) {
+        if (_derived[n] == null) continue;
+        DTree.UndecidedNode udn = _tree.undecided(leafOffset + n);
+        DHistogram[] shs = hcs[udn._siblingNid - leafOffset];
+        for (int j = 0; j < _derived[n].length; j++) {
+          DHistogram h = _derived[n][j];
+          if (h == null) continue;
+          h.setToDifference(udn._parentHs[j], shs[j]);
+          hcs[n][j] = h;
+        }
+      }
+      _derived = null;
+    }
+
+    private static boolean scores(DTree.UndecidedNode udn, int col) {
+      return udn._scoreCols == null || ArrayUtils.find(udn._scoreCols, col) >= 0;
+    }
   }
 
   // --------------------------------------------------------------------------
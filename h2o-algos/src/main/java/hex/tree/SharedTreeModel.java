@@ -58,6 +58,8 @@ public abstract class SharedTreeModel<
 
     public int _nbins_top_level = 1<<10; //hardcoded maximum top-level number of bins for real-valued columns
 
+    public boolean _prebin_predictors = false; // Bin numeric predictors once up front and build histograms from the compact bin codes
+
     public boolean _build_tree_one_node = false;
 
     public int _score_tree_interval = 0; // score every so many trees (no matter what)
@@ -143,7 +145,7 @@ public abstract class SharedTreeModel<
 
     public ScoreKeeper[/*ntrees+1*/] _scored_train;
     public ScoreKeeper[/*ntrees+1*/] _scored_valid;
-    public ScoreKeeper[] scoreKeepers() {
+    @Override public ScoreKeeper[] scoreKeepers() {
       ArrayList<ScoreKeeper> skl = new ArrayList<>();
       ScoreKeeper[] ska = _validation_metrics != null ? _scored_valid : _scored_train;
       for( ScoreKeeper sk : ska )
@@ -207,6 +209,17 @@ public abstract class SharedTreeModel<
     super(selfKey, parms, output);
   }
 
+  /** Trees built at each of the {@link SharedTreeOutput#scoreKeepers} events, out of all the trees */
+  @Override public double[] scoreKeepersProgress() {
+    ScoreKeeper[] ska = _output._validation_metrics != null ? _output._scored_valid : _output._scored_train;
+    double[] progress = new double[ska.length];
+    int n = 0;
+    for (int i = 0; i < ska.length; i++)
+      if (!ska[i].isEmpty())
+        progress[n++] = (double) i / _parms._ntrees;
+    return Arrays.copyOf(progress, n);
+  }
+
   public Frame scoreLeafNodeAssignment(Frame frame, Key<Frame> destination_key) {
     Frame adaptFrm = new Frame(frame);
     adaptTestForTrain(adaptFrm, true, false);
@@ -25,6 +25,6 @@ public class GbmMojoWriter extends SharedTreeMojoWriter<GBMModel, GBMModel.GBMPa
     super.writeModelData();
     writekv("distribution", model._parms._distribution);
     writekv("init_f", model._output._init_f);
-    writekv("offset_column", "null");  // Not known yet
+    writekv("offset_column", model._output.offsetName());
   }
 }
@@ -0,0 +1,427 @@
+package hex.word2vec;
+
+import water.H2O;
+import water.Iced;
+import water.LocalMR;
+import water.MrFun;
+import water.util.Log;
+import water.util.RandomUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Approximate nearest neighbour index over the (normalized) word vectors of a Word2Vec model, for fast
+ * synonym search: a Hierarchical Navigable Small World graph (Malkov &amp; Yashunin, 2016).
+ *
+ * Every word is a node of the bottom layer of the graph, linked to up to {@code 2*M} of its near neighbours;
+ * a random, exponentially thinning subset of the words are also nodes of the upper layers, with up to
+ * {@code M} links each.  A query walks greedily down from the top layer, and then does a best-first search
+ * of the bottom layer, keeping the {@code ef} most similar words seen so far.  Similarity is the dot product
+ * of the normalized vectors, i.e. the cosine similarity of the word vectors.
+ *
+ * Only the graph (the ids of the linked words) is part of the index, and is kept when the index is serialized.
+ * The words and the word vectors are not copied: they are attached to the index (see {@link #attach}), and
+ * a query reads them directly rather than the model's word vector {@code Vec}s.
+ *
+ * The words are inserted into the graph in parallel, on all the cores of the node; as the insertions race each
+ * other, the graph (not the recall) depends on the scheduling.
+ */
+public class HNSWIndex extends Iced<HNSWIndex> {
+  /** Links per node on the upper layers (twice that on the bottom layer) */
+  static final int M = 16;
+  /** Size of the dynamic candidate list while building */
+  static final int EF_CONSTRUCTION = 100;
+  /** Default size of the dynamic candidate list while searching */
+  static final int EF_SEARCH = 64;
+
+  final int _n, _dim;
+  final int[] _links0;      // n x (2M+1): number of links, then the links of each node on the bottom layer
+  final int[][] _links;     // Per node: (level x (M+1)) links on layers 1..level, null for bottom-layer nodes
+  int _entry;               // Entry point: a node on the top layer
+  int _maxLevel;
+  private transient volatile String[] _words; // Set last, see isAttached
+  private transient float[] _vecs;      // n x dim, as given
+  private transient float[] _invNorms;  // 1/norm of each vector, 0 for a zero vector
+  private transient HashMap<String, Integer> _ids;
+  private transient Object[] _locks;    // Guard the link lists while building, striped by node
+
+  /**
+   * Build the index, in parallel.  The words and the vectors are attached to the index, not copied.
+   *
+   * @param words The words
+   * @param vecs The word vectors, packed row by row ({@code words.length x dim})
+   * @param dim Size of the word vectors
+   * @param seed Seed for the random layer assignment
+   */
+  public HNSWIndex(String[] words, float[] vecs, int dim, long seed) {
+    _n = words.length;
+    _dim = dim;
+    attach(words, vecs);
+    _links0 = new int[_n * (2*M+1)];
+    _links = new int[_n][];
+    long start = System.currentTimeMillis();
+    Random rng = RandomUtils.getRNG(seed);
+    final double mL = 1 / Math.log(M);
+    final int[] levels = new int[_n];
+    for (int i = 0; i < _n; i++) {
+      levels[i] = (int) (-Math.log(1 - rng.nextDouble()) * mL);
+      if (levels[i] > 0) _links[i] = new int[levels[i] * (M+1)];
+    }
+    if (_n > 0) {
+      _locks = new Object[Math.min(_n, 1024)];
+      for (int i = 0; i < _locks.length; i++) _locks[i] = new Object();
+      insert(0, levels[0], null);
+      final int nthreads = Math.max(1, Math.min(H2O.NUMCPUS, (_n - 1) / 64));
+      H2O.submitTask(new LocalMR(new Insert(this, levels, new AtomicInteger(1)), nthreads)).join();
+      _locks = null;
+    }
+    Log.info("Word2Vec synonym index of " + _n + " words built in " + (System.currentTimeMillis() - start) + "ms, " + (_maxLevel + 1) + " layers");
+  }
+
+  // Each worker inserts the next word not taken yet, until all are in the graph
+  private static class Insert extends MrFun<Insert> {
+    final HNSWIndex _index;
+    final int[] _levels;
+    final AtomicInteger _next;
+
+    Insert(HNSWIndex index, int[] levels, AtomicInteger next) {
+      _index = index;
+      _levels = levels;
+      _next = next;
+    }
+
+    @Override protected void map(int id) {
+      Search s = _index.new Search(EF_CONSTRUCTION);
+      for (int i = _next.getAndIncrement(); i < _index._n; i = _next.getAndIncrement())
+        _index.insert(i, _levels[i], s);
+    }
+  }
+
+  /**
+   * Attach the words and the vectors the index was built on, such as after the index was deserialized.
+   *
+   * @param words The words
+   * @param vecs The word vectors, packed row by row ({@code words.length x dim}); read, not copied
+   */
+  public void attach(String[] words, float[] vecs) {
+    assert words.length == _n && vecs.length == _n * _dim;
+    float[] invNorms = new float[_n];
+    for (int i = 0; i < _n; i++) {
+      double s = 0;
+      for (int j = 0; j < _dim; j++) s += vecs[i*_dim+j] * vecs[i*_dim+j];
+      invNorms[i] = s > 0 ? (float) (1 / Math.sqrt(s)) : 0;
+    }
+    _ids = null;
+    _vecs = vecs;
+    _invNorms = invNorms;
+    _words = words;
+  }
+
+  /** @return Are the words and vectors attached, so the index can be searched? */
+  public boolean isAttached() { return _words != null; }
+
+  /** @return Row of the word in the index, or -1 if it is not in the vocabulary */
+  public int id(String word) {
+    HashMap<String, Integer> ids = _ids;
+    if (ids == null) {
+      ids = new HashMap<>(2 * _n);
+      for (int i = 0; i < _n; i++) ids.put(_words[i], i);
+      _ids = ids;
+    }
+    Integer id = ids.get(word);
+    return id == null ? -1 : id;
+  }
+
+  public String word(int id) { return _words[id]; }
+
+  /** @return The normalized vector of a word */
+  public float[] vector(int id) {
+    float[] v = new float[_dim];
+    for (int j = 0; j < _dim; j++) v[j] = _vecs[id*_dim+j] * _invNorms[id];
+    return v;
+  }
+
+  /**
+   * Find the words most similar to a vector.
+   *
+   * @param target The vector (need not be normalized)
+   * @param k Number of words to find
+   * @param ef Size of the candidate list; larger is slower, with better recall.  At least k is used.
+   * @return Up to k ids of the words, most similar first; their similarities are in sims
+   */
+  public int[] search(float[] target, int k, int ef, float[] sims) {
+    if (_n == 0 || k <= 0) return new int[0];
+    float[] q = normalize(target);
+    int ep = _entry;
+    for (int l = _maxLevel; l > 0; l--)
+      ep = greedy(q, ep, l);
+    Search s = new Search(Math.max(ef, k));
+    s.searchLayer(q, ep, 0);
+    int cnt = Math.min(k, s._res._size);
+    int[] ids = new int[cnt];
+    // The result heap pops the least similar first
+    while (s._res._size > cnt) s._res.pop();
+    for (int i = cnt - 1; i >= 0; i--) {
+      if (sims != null) sims[i] = s._res._keys[0];
+      ids[i] = s._res.pop();
+    }
+    return ids;
+  }
+
+  /** Exact search, for reference: same result as {@link #search}, by a scan of all the words. */
+  public int[] searchExact(float[] target, int k, float[] sims) {
+    float[] q = normalize(target);
+    Heap res = new Heap(k);
+    for (int i = 0; i < _n; i++) {
+      float sim = sim(q, i);
+      if (res._size < k) res.push(sim, i);
+      else if (sim > res._keys[0]) { res.pop(); res.push(sim, i); }
+    }
+    int[] ids = new int[res._size];
+    for (int i = ids.length - 1; i >= 0; i--) {
+      if (sims != null) sims[i] = res._keys[0];
+      ids[i] = res.pop();
+    }
+    return ids;
+  }
+
+  private float[] normalize(float[] v) {
+    double s = 0;
+    for (float f : v) s += f * f;
+    float norm = s > 0 ? (float) (1 / Math.sqrt(s)) : 0;
+    float[] q = new float[_dim];
+    for (int j = 0; j < _dim; j++) q[j] = v[j] * norm;
+    return q;
+  }
+
+  private float sim(float[] q, int b) {
+    final int ob = b * _dim;
+    float s = 0;
+    for (int j = 0; j < _dim; j++) s += q[j] * _vecs[ob+j];
+    return s * _invNorms[b];
+  }
+
+  private float sim(int a, int b) {
+    final int oa = a * _dim, ob = b * _dim;
+    float s = 0;
+    for (int j = 0; j < _dim; j++) s += _vecs[oa+j] * _vecs[ob+j];
+    return s * _invNorms[a] * _invNorms[b];
+  }
+
+  // Links of node on layer l: the number of links is at links(node,l)[off(node,l)], the links follow
+  private int[] links(int node, int l) { return l == 0 ? _links0 : _links[node]; }
+  private int off(int node, int l) { return l == 0 ? node * (2*M+1) : (l-1) * (M+1); }
+  private static int maxLinks(int l) { return l == 0 ? 2*M : M; }
+
+  // Most similar node to q reachable greedily from ep on layer l
+  private int greedy(float[] q, int ep, int l) {
+    float best = sim(q, ep);
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int c : neighbors(ep, l)) {
+        float s = sim(q, c);
+        if (s > best) { best = s; ep = c; changed = true; }
+      }
+    }
+    return ep;
+  }
+
+  // A snapshot of the links of node on layer l; the lists of other nodes change while the graph is built
+  private int[] neighbors(int node, int l) {
+    final int[] links = links(node, l);
+    final int o = off(node, l);
+    if (_locks == null) return Arrays.copyOfRange(links, o+1, o+1+links[o]);
+    synchronized (lock(node)) {
+      return Arrays.copyOfRange(links, o+1, o+1+links[o]);
+    }
+  }
+
+  private Object lock(int node) { return _locks[node % _locks.length]; }
+
+  private void insert(int node, int level, Search s) {
+    if (node == 0) { _entry = 0; _maxLevel = level; return; }
+    int ep, maxLevel;
+    synchronized (this) { ep = _entry; maxLevel = _maxLevel; }
+    final float[] q = vector(node);
+    for (int l = maxLevel; l > level; l--)
+      ep = greedy(q, ep, l);
+    for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+      s.searchLayer(q, ep, l);
+      // Candidates, most similar first
+      int cnt = s._res._size;
+      int[] cands = new int[cnt];
+      float[] csims = new float[cnt];
+      for (int i = cnt - 1; i >= 0; i--) { csims[i] = s._res._keys[0]; cands[i] = s._res.pop(); }
+      ep = cands[0];
+      int[] nbrs = selectNeighbors(cands, csims, cnt, maxLinks(l));
+      final int[] links = links(node, l);
+      final int o = off(node, l);
+      synchronized (lock(node)) {
+        links[o] = nbrs.length;
+        System.arraycopy(nbrs, 0, links, o+1, nbrs.length);
+      }
+      for (int nb : nbrs) link(nb, node, l);
+    }
+    synchronized (this) {
+      if (level > _maxLevel) { _maxLevel = level; _entry = node; }
+    }
+  }
+
+  // Add the link from -> to on layer l; if from has too many links, keep the best of them
+  private void link(int from, int to, int l) {
+    synchronized (lock(from)) {
+      linkLocked(from, to, l);
+    }
+  }
+
+  private void linkLocked(int from, int to, int l) {
+    final int[] links = links(from, l);
+    final int o = off(from, l);
+    final int cnt = links[o], max = maxLinks(l);
+    if (cnt < max) { links[o+cnt+1] = to; links[o] = cnt+1; return; }
+    int[] cands = new int[cnt+1];
+    float[] csims = new float[cnt+1];
+    for (int i = 0; i < cnt; i++) cands[i] = links[o+i+1];
+    cands[cnt] = to;
+    // Sort by similarity to from, most similar first
+    Integer[] order = new Integer[cnt+1];
+    final float[] unsorted = new float[cnt+1];
+    for (int i = 0; i <= cnt; i++) { order[i] = i; unsorted[i] = sim(from, cands[i]); }
+    Arrays.sort(order, new java.util.Comparator<Integer>() {
+      @Override public int compare(Integer a, Integer b) { return Float.compare(unsorted[b], unsorted[a]); }
+    });
+    int[] sorted = new int[cnt+1];
+    for (int i = 0; i <= cnt; i++) { sorted[i] = cands[order[i]]; csims[i] = unsorted[order[i]]; }
+    int[] nbrs = selectNeighbors(sorted, csims, cnt+1, max);
+    links[o] = nbrs.length;
+    System.arraycopy(nbrs, 0, links, o+1, nbrs.length);
+  }
+
+  // The neighbour selection heuristic: a candidate (most similar first) is kept unless it is more similar to
+  // one already kept than to the new node.  This keeps links pointing in diverse directions, which keeps
+  // clusters of words connected to each other.
+  private int[] selectNeighbors(int[] cands, float[] csims, int cnt, int max) {
+    int[] res = new int[Math.min(cnt, max)];
+    int n = 0;
+    for (int i = 0; i < cnt && n < max; i++) {
+      boolean keep = true;
+      for (int j = 0; j < n && keep; j++)
+        keep = sim(cands[i], res[j]) < csims[i];
+      if (keep) res[n++] = cands[i];
+    }
+    return n == res.length ? res : Arrays.copyOf(res, n);
+  }
+
+  /** State of one best-first search of a layer: candidate and result heaps, and the visited set. */
+  private final class Search {
+    final int _ef;
+    final Heap _cands;        // Keyed by -similarity: most similar candidate on top
+    final Heap _res;          // Keyed by similarity: least similar result on top
+    int[] _visited = new int[1024];   // Open addressing set of node+1, 0 is empty
+    int _nvisited;
+
+    Search(int ef) { _ef = ef; _cands = new Heap(ef); _res = new Heap(ef + 1); }
+
+    void searchLayer(float[] q, int ep, int l) {
+      _cands.clear();
+      _res.clear();
+      Arrays.fill(_visited, 0);
+      _nvisited = 0;
+      visit(ep);
+      float s0 = sim(q, ep);
+      _cands.push(-s0, ep);
+      _res.push(s0, ep);
+      while (_cands._size > 0) {
+        float s = -_cands._keys[0];
+        int c = _cands.pop();
+        if (_res._size >= _ef && s < _res._keys[0]) break;
+        for (int e : neighbors(c, l)) {
+          if (!visit(e)) continue;
+          float se = sim(q, e);
+          if (_res._size < _ef || se > _res._keys[0]) {
+            _cands.push(-se, e);
+            _res.push(se, e);
+            if (_res._size > _ef) _res.pop();
+          }
+        }
+      }
+    }
+
+    // Mark node visited; false if it already was
+    private boolean visit(int node) {
+      if (2 * (_nvisited + 1) > _visited.length) {
+        int[] old = _visited;
+        _visited = new int[2 * old.length];
+        for (int v : old) if (v != 0) put(v);
+      }
+      if (!put(node + 1)) return false;
+      _nvisited++;
+      return true;
+    }
+
+    private boolean put(int v) {
+      final int mask = _visited.length - 1;
+      int i = (v * 0x9E3779B9) & mask;
+      while (_visited[i] != 0) {
+        if (_visited[i] == v) return false;
+        i = (i + 1) & mask;
+      }
+      _visited[i] = v;
+      return true;
+    }
+  }
+
+  /** Binary min-heap of (float key, int id) pairs. */
+  private static final class Heap {
+    float[] _keys;
+    int[] _ids;
+    int _size;
+
+    Heap(int cap) { _keys = new float[Math.max(cap, 1)]; _ids = new int[_keys.length]; }
+
+    void clear() { _size = 0; }
+
+    void push(float key, int id) {
+      if (_size == _keys.length) {
+        _keys = Arrays.copyOf(_keys, 2 * _size);
+        _ids = Arrays.copyOf(_ids, 2 * _size);
+      }
+      int i = _size++;
+      while (i > 0) {
+        int p = (i - 1) >>> 1;
+        if (_keys[p] <= key) break;
+        _keys[i] = _keys[p];
+        _ids[i] = _ids[p];
+        i = p;
+      }
+      _keys[i] = key;
+      _ids[i] = id;
+    }
+
+    /** @return The id with the smallest key */
+    int pop() {
+      final int top = _ids[0];
+      final float key = _keys[--_size];
+      final int id = _ids[_size];
+      int i = 0;
+      while (true) {
+        int c = 2 * i + 1;
+        if (c >= _size) break;
+        if (c + 1 < _size && _keys[c+1] < _keys[c]) c++;
+        if (key <= _keys[c]) break;
+        _keys[i] = _keys[c];
+        _ids[i] = _ids[c];
+        i = c;
+      }
+      if (_size > 0) {
+        _keys[i] = key;
+        _ids[i] = id;
+      }
+      return top;
+    }
+  }
+}
@@ -69,6 +69,7 @@ public class Word2Vec extends ModelBuilder<Word2VecModel,Word2VecModel.Word2VecP
         Log.info("Total time :" + ((float)(tstop-tstart))/1000f);
         Log.info("Finished training the Word2Vec model.");
         model.buildModelOutput();
+        if (_parms._buildSynonymIndex) model.buildSynonymIndex();
       } finally {
         if( model != null ) model.unlock(_job);
       }
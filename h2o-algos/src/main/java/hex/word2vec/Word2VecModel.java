@@ -30,6 +30,7 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
   void setModelInfo(Word2VecModelInfo mi) { _modelInfo = mi; }
   final public Word2VecModelInfo getModelInfo() { return _modelInfo; }
   private Key _w2vKey;
+  private HNSWIndex _synonymIndex; // Only the graph is saved, the words and vectors are attached on first use
 
   public Word2VecModel(Key selfKey, Word2VecParameters params, Word2VecOutput output) {
     super(selfKey, params, output);
@@ -48,6 +49,7 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
   @Override protected double[] score0(double data[/*ncols*/], double preds[/*nclasses+1*/]) {
     throw H2O.unimpl();
   }
+  @Override public boolean scoresRows() { return false; }
 
   /**
    * Takes an input string can return the word vector for that word.
@@ -84,7 +86,15 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
    * @param cnt Number of synonyms to find
    */
   public HashMap<String, Float> findSynonyms(String target, int cnt) {
-    if (cnt > 0) {
+    HNSWIndex index = synonymIndex();
+    if (cnt > 0 && index != null) {
+      int id = index.id(target);
+      if (id < 0) {
+        Log.warn("Target word " + target + " isn't in vocabulary.");
+        return null;
+      }
+      return findSynonyms(index.vector(id), cnt, index);
+    } else if (cnt > 0) {
       NonBlockingHashMap<BufferedString, Integer> vocabHM = buildVocabHashMap();
       Vec[] vs = ((Frame) _w2vKey.get()).vecs();
       BufferedString tmp = new BufferedString(target);
@@ -106,7 +116,10 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
    *
    */
   public void findSynonyms(float[] tarVec, int cnt) {
-    if (cnt > 0) {
+    HNSWIndex index = synonymIndex();
+    if (cnt > 0 && index != null) {
+      findSynonyms(tarVec, cnt, index);
+    } else if (cnt > 0) {
       Vec[] vs = ((Frame) _w2vKey.get()).vecs();
       findSynonyms(tarVec, cnt, vs);
     } else Log.err("Synonym count must be greater than 0.");
@@ -146,6 +159,49 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
 
     return res;
   }
+  // Same as the scan above, with the approximate nearest neighbour index
+  private HashMap<String, Float> findSynonyms(float[] tarVec, int cnt, HNSWIndex index) {
+    HashMap<String, Float> res = new HashMap<>();
+    if (tarVec.length != index._dim) {
+      Log.warn("Target vector length differs from the vocab's vector length.");
+      return null;
+    }
+    // One more, as the target word itself is usually found
+    float[] sims = new float[cnt+1];
+    int[] ids = index.search(tarVec, cnt+1, Math.max(HNSWIndex.EF_SEARCH, cnt+1), sims);
+    for (int i = 0; i < ids.length && res.size() < cnt; i++)
+      if (sims[i] > 0 && sims[i] < 0.999999)
+        res.put(index.word(ids[i]), sims[i]);
+    return res;
+  }
+
+  /**
+   * Builds the approximate nearest neighbour index of the word vectors, which {@link #findSynonyms}
+   * then uses instead of a scan of all the words.  The index is kept (and saved) with the model.
+   */
+  public void buildSynonymIndex() {
+    _synonymIndex = new HNSWIndex(vocabWords(), _modelInfo._syn0, _parms._vecSize, 0xDECAF);
+  }
+
+  // The index, with the words and the word vectors of this model attached
+  private HNSWIndex synonymIndex() {
+    HNSWIndex index = _synonymIndex;
+    if (index != null && !index.isAttached()) {
+      synchronized (index) {
+        if (!index.isAttached()) index.attach(vocabWords(), _modelInfo._syn0);
+      }
+    }
+    return index;
+  }
+
+  private String[] vocabWords() {
+    Vec word = (_parms._vocabKey.get()).vec(0);
+    String[] words = new String[_modelInfo._vocabSize];
+    BufferedString tmp = new BufferedString();
+    for (int i = 0; i < words.length; i++) words[i] = word.atStr(tmp, i).toString();
+    return words;
+  }
+
   /**
    * Basic calculation of cosine similarity
    * @param target - a word vector
@@ -195,11 +251,12 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
       }
     }
 
-    //finalize vectors
+    //finalize vectors; the chunks must be closed before the row layout is known
+    for (int i = 0; i < vecs.length; i++) cs[i].close(0, fs);
+    fs.blockForPending();
     final int rowLayout = avs[0].compute_rowLayout();
     for (int i = 0; i < vecs.length; i++) {
       colNames[i] = new String("V"+i);
-      cs[i].close(0, fs);
       vecs[i] = avs[i].close(rowLayout,fs);
     }
 
@@ -236,6 +293,7 @@ public class Word2VecModel extends Model<Word2VecModel, Word2VecParameters, Word
     public int _negSampleCnt = 5;
     public float _initLearningRate = 0.05f;
     public float _sentSampleRate = 1e-3f;
+    public boolean _buildSynonymIndex = false;
   }
 
   public static class Word2VecOutput extends Model.Output{
@@ -1592,6 +1592,55 @@ public class DeepLearningTest extends TestUtil {
   }
 
 
+  @Test
+  public void testMiniBatchGemm() {
+    CreateFrame cf = new CreateFrame();
+    cf.rows = 500;
+    cf.cols = 10;
+    cf.categorical_fraction = 0.2;
+    cf.factors = 4;
+    cf.integer_fraction = 0;
+    cf.binary_fraction = 0;
+    cf.time_fraction = 0;
+    cf.string_fraction = 0;
+    cf.missing_fraction = 0;
+    cf.has_response = true;
+    cf.response_factors = 1;
+    cf.seed = 0xdecaf;
+    cf.seed_for_column_types = 0xdecaf;
+    Frame tfr = cf.execImpl().get();
+    int gemmMinMiniBatch = DeepLearningTask.GEMM_MIN_MINI_BATCH;
+    try {
+      for (DeepLearningParameters.Activation act : new DeepLearningParameters.Activation[]{
+              DeepLearningParameters.Activation.Tanh,
+              DeepLearningParameters.Activation.RectifierWithDropout,
+              DeepLearningParameters.Activation.Maxout}) {
+        double[] mse = new double[2];
+        for (int i = 0; i < 2; i++) {
+          // Same model, trained one row at a time and with matrix-matrix kernels
+          DeepLearningTask.GEMM_MIN_MINI_BATCH = i == 0 ? Integer.MAX_VALUE : 1;
+          DeepLearningParameters parms = new DeepLearningParameters();
+          parms._train = tfr._key;
+          parms._response_column = "response";
+          parms._reproducible = true;
+          parms._activation = act;
+          parms._hidden = new int[]{20,20};
+          parms._epochs = 5;
+          parms._seed = 0xdecaf;
+          parms._mini_batch_size = 6;
+          DeepLearningModel dl = new DeepLearning(parms).trainModel().get();
+          mse[i] = dl._output._training_metrics._MSE;
+          dl.delete();
+        }
+        Log.info(act + ": MSE " + mse[0] + " row by row, " + mse[1] + " with GEMM");
+        Assert.assertEquals(mse[0], mse[1], 1e-6 * mse[0]);
+      }
+    } finally {
+      DeepLearningTask.GEMM_MIN_MINI_BATCH = gemmMinMiniBatch;
+      tfr.delete();
+    }
+  }
+
   @Test
   public void testPretrainedAE() {
     Frame tfr = null;
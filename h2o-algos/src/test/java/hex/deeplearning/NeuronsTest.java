@@ -109,4 +109,41 @@ public class NeuronsTest extends water.TestUtil {
     System.out.println("optimized dense row * dense time: " + PrettyPrint.msecs(System.currentTimeMillis()-start, true));
   }
 
+
+  @Test
+  public void matrixMatrixTest() {
+    final int rows = 37, cols = 301, n = 11;
+    Random rng = new Random(0xC0FFEE);
+    for (int k : new int[]{1, 2}) {
+      float[] a = new float[k*rows*cols];
+      double[] y = new double[k*rows];
+      double[] x = new double[n*cols];
+      byte[] bits = new byte[(rows+7)/8];
+      for (int i = 0; i < a.length; i++) a[i] = rng.nextFloat() - 0.5f;
+      for (int i = 0; i < y.length; i++) y[i] = rng.nextDouble();
+      for (int i = 0; i < x.length; i++) x[i] = rng.nextDouble();
+      rng.nextBytes(bits);
+      for (int ch = 0; ch < k; ch++) {
+        for (byte[] row_bits : new byte[][]{null, bits}) {
+          double[] res = new double[n*rows];
+          gemm(res, a, x, y, n, rows, cols, k, ch, row_bits);
+          // Same as gemv of the channel's weights, for every row of the mini-batch
+          float[] ach = new float[rows*cols];
+          double[] ych = new double[rows];
+          for (int row = 0; row < rows; row++) {
+            ych[row] = y[k*row+ch];
+            for (int col = 0; col < cols; col++)
+              ach[row*cols+col] = a[k*(row*cols+col)+ch];
+          }
+          for (int mb = 0; mb < n; mb++) {
+            double[] xmb = java.util.Arrays.copyOfRange(x, mb*cols, (mb+1)*cols);
+            double[] ref = new double[rows];
+            gemv_naive(ref, ach, xmb, ych, row_bits);
+            for (int row = 0; row < rows; row++)
+              Assert.assertEquals(ref[row], res[mb*rows+row], 1e-10);
+          }
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,162 @@
+package hex.gram;
+
+import hex.CreateFrame;
+import hex.DataInfo;
+import hex.FrameTask2;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.TestUtil;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GramTest extends TestUtil {
+  @BeforeClass public static void setup() { stall_till_cloudsize(1); }
+
+  @Test public void testBlockedMatchesRowByRow() {
+    Frame fr = null;
+    DataInfo dinfo = null;
+    try {
+      CreateFrame cf = new CreateFrame();
+      cf.rows = 1000;
+      cf.cols = 150;  // More dense columns than Gram.TILE
+      cf.categorical_fraction = 0.05;
+      cf.factors = 7;
+      cf.integer_fraction = 0.2;
+      cf.binary_fraction = 0.1;  // Plenty of zeros
+      cf.time_fraction = 0.0;
+      cf.string_fraction = 0.0;
+      cf.missing_fraction = 0.0;
+      cf.has_response = false;
+      cf.seed = 1234;
+      cf.seed_for_column_types = 1234;
+      fr = cf.execImpl().get();
+      dinfo = new DataInfo(fr, null, 0, true, DataInfo.TransformType.NONE, DataInfo.TransformType.NONE, false, false, false, /* weights */ false, /* offset */ false, /* fold */ false);
+      DKV.put(dinfo);
+
+      Gram rowByRow = new Gram(dinfo);
+      Gram blocked = new Gram(dinfo);
+      Random rng = new Random(42);
+      Frame adapted = dinfo._adaptedFrame;
+      DataInfo.Row row = dinfo.newDenseRow();
+      for (int cidx = 0; cidx < adapted.anyVec().nChunks(); cidx++) {
+        Chunk[] chks = new Chunk[adapted.numCols()];
+        for (int c = 0; c < chks.length; c++)
+          chks[c] = adapted.vec(c).chunkForChunkIdx(cidx);
+        for (int r = 0; r < chks[0]._len; r++) {
+          dinfo.extractDenseRow(chks, r, row);
+          double w = rng.nextDouble();
+          rowByRow.addRow(row, w);
+          blocked.addRowBlocked(row, w);
+        }
+      }
+      blocked.flushBlock();
+
+      int n = rowByRow.fullN();
+      for (int i = 0; i < n; i++)
+        for (int j = 0; j <= i; j++) {
+          double e = rowByRow.get(i, j);
+          assertEquals("(" + i + "," + j + ")", e, blocked.get(i, j), 1e-10 * Math.max(1, Math.abs(e)));
+        }
+    } finally {
+      if (dinfo != null) dinfo.remove();
+      if (fr != null) fr.remove();
+    }
+  }
+
+  // Accumulates like GLM's LSTask: one Gram per thread, one per node
+  private static class ThreadGramTask extends FrameTask2<ThreadGramTask> {
+    Gram _gram;
+    private transient Gram.ThreadGrams _grams;
+    private transient Gram _localGram;
+    ThreadGramTask(DataInfo dinfo) { super(null, dinfo, null); }
+    @Override public void setupLocal() { super.setupLocal(); _grams = new Gram.ThreadGrams(_dinfo); }
+    @Override public void chunkInit() { _localGram = _grams.local(); _gram = _grams.node(); }
+    @Override protected void processRow(DataInfo.Row r) { _localGram.addRowBlocked(r, r.weight); }
+    @Override public void chunkDone() { _localGram.flushBlock(); }
+    @Override public void reduce(ThreadGramTask t) { if (_gram != t._gram) _gram.add(t._gram); }
+    @Override protected void closeLocal() { _grams.reduce(); }
+  }
+
+  @Test public void testThreadGramsMatchSerial() {
+    Frame fr = null;
+    DataInfo dinfo = null;
+    try {
+      CreateFrame cf = new CreateFrame();
+      cf.rows = 100000;
+      cf.cols = 12;
+      cf.categorical_fraction = 0.25;
+      cf.factors = 5;
+      cf.integer_fraction = 0.25;
+      cf.binary_fraction = 0.0;
+      cf.time_fraction = 0.0;
+      cf.string_fraction = 0.0;
+      cf.missing_fraction = 0.0;
+      cf.has_response = false;
+      cf.seed = 4321;
+      cf.seed_for_column_types = 4321;
+      fr = cf.execImpl().get();
+      dinfo = new DataInfo(fr, null, 0, true, DataInfo.TransformType.NONE, DataInfo.TransformType.NONE, false, false, false, /* weights */ false, /* offset */ false, /* fold */ false);
+      DKV.put(dinfo);
+      Frame adapted = dinfo._adaptedFrame;
+      assertTrue("need several chunks", adapted.anyVec().nChunks() > 1);
+
+      Gram serial = new Gram(dinfo);
+      DataInfo.Row row = dinfo.newDenseRow();
+      for (int cidx = 0; cidx < adapted.anyVec().nChunks(); cidx++) {
+        Chunk[] chks = new Chunk[adapted.numCols()];
+        for (int c = 0; c < chks.length; c++)
+          chks[c] = adapted.vec(c).chunkForChunkIdx(cidx);
+        for (int r = 0; r < chks[0]._len; r++) {
+          dinfo.extractDenseRow(chks, r, row);
+          serial.addRow(row, 1);
+        }
+      }
+      Gram threaded = new ThreadGramTask(dinfo).doAll(adapted)._gram;
+
+      int n = serial.fullN();
+      for (int i = 0; i < n; i++)
+        for (int j = 0; j <= i; j++) {
+          double e = serial.get(i, j);
+          assertEquals("(" + i + "," + j + ")", e, threaded.get(i, j), 1e-10 * Math.max(1, Math.abs(e)));
+        }
+    } finally {
+      if (dinfo != null) dinfo.remove();
+      if (fr != null) fr.remove();
+    }
+  }
+
+  @Test public void testDistributedCholeskyMatchesLocal() {
+    final int n = 53;  // Not a multiple of the tile size
+    Random rng = new Random(7);
+    double[][] x = new double[2*n][n];
+    for (double[] row : x)
+      for (int j = 0; j < n; j++) row[j] = rng.nextGaussian();
+    double[][] local = new double[n][];
+    double[][] tiled = new double[n][];
+    for (int i = 0; i < n; i++) {
+      local[i] = new double[n];
+      tiled[i] = new double[i + 1];
+      for (int j = 0; j <= i; j++) {
+        double s = 0;
+        for (double[] row : x) s += row[i] * row[j];
+        local[i][j] = tiled[i][j] = s;
+      }
+    }
+    assertTrue(Gram.InPlaceCholesky.decompose_2(local, 10, 1).isSPD());
+    assertTrue(DistributedCholesky.decompose(tiled, 8));
+    for (int i = 0; i < n; i++)
+      for (int j = 0; j <= i; j++)
+        assertEquals("(" + i + "," + j + ")", local[i][j], tiled[i][j], 1e-10 * Math.max(1, Math.abs(local[i][j])));
+
+    double[][] singular = new double[n][];
+    for (int i = 0; i < n; i++) singular[i] = new double[i + 1]; // All zeros
+    assertFalse(DistributedCholesky.decompose(singular, 8));
+  }
+}
@@ -1,5 +1,6 @@
 package hex.kmeans;
 
+import hex.CreateFrame;
 import hex.ModelMetrics;
 import hex.ModelMetricsClustering;
 import hex.SplitFrame;
@@ -599,4 +600,50 @@ public class KMeansTest extends TestUtil {
     }
   }
 
+
+  /** Lloyds iterations with distance bounds give exactly the same model as without */
+  @Test public void testBounds() {
+    CreateFrame cf = new CreateFrame();
+    cf.rows = 20000;
+    cf.cols = 6;
+    cf.categorical_fraction = 0.3;
+    cf.factors = 4;
+    cf.integer_fraction = 0;
+    cf.binary_fraction = 0;
+    cf.time_fraction = 0;
+    cf.string_fraction = 0;
+    cf.missing_fraction = 0.02;
+    cf.has_response = false;
+    cf.seed = 1234;
+    cf.seed_for_column_types = 1234;
+    Frame fr = cf.execImpl().get();
+    int boundsMinK = KMeans.BOUNDS_MIN_K;
+    try {
+      for (boolean estimate_k : new boolean[]{false, true}) {
+        KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+        parms._train = fr._key;
+        parms._k = estimate_k ? 8 : 12;
+        parms._estimate_k = estimate_k;
+        parms._max_iterations = 50;
+        KMeansModel[] kmm = new KMeansModel[2];
+        try {
+          for (int i = 0; i < 2; i++) {
+            KMeans.BOUNDS_MIN_K = i == 0 ? Integer.MAX_VALUE : 1;
+            kmm[i] = doSeed(parms, 0xC0FFEE);
+          }
+          assertArrayEquals(kmm[0]._output._k, kmm[1]._output._k);
+          Assert.assertEquals(kmm[0]._output._iterations, kmm[1]._output._iterations);
+          Assert.assertTrue(Arrays.deepEquals(kmm[0]._output._centers_raw, kmm[1]._output._centers_raw));
+          assertArrayEquals(kmm[0]._output._size, kmm[1]._output._size);
+          assertArrayEquals(kmm[0]._output._withinss, kmm[1]._output._withinss, 0);
+          assertArrayEquals(kmm[0]._output._reassigned_count, kmm[1]._output._reassigned_count, 0);
+        } finally {
+          for (KMeansModel m : kmm) if (m != null) m.delete();
+        }
+      }
+    } finally {
+      KMeans.BOUNDS_MIN_K = boundsMinK;
+      fr.delete();
+    }
+  }
 }
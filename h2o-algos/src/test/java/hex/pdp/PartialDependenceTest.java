@@ -1,5 +1,7 @@
 package hex.pdp;
 
+import hex.CreateFrame;
+import hex.Model;
 import hex.PartialDependence;
 import hex.tree.gbm.GBM;
 import hex.tree.gbm.GBMModel;
@@ -8,12 +10,16 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import water.DKV;
 import water.Key;
+import water.MRTask;
 import water.TestUtil;
+import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.Vec;
 import water.util.Log;
 import water.util.TwoDimTable;
 
+import java.util.Arrays;
+
 public class PartialDependenceTest extends TestUtil {
   @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
 
@@ -168,4 +174,119 @@ public class PartialDependenceTest extends TestUtil {
     }
   }
 
+  @Test public void syntheticMatchesScoring() {
+    checkAgainstScoring(Model.Parameters.CategoricalEncodingScheme.AUTO, false);
+  }
+
+  @Test public void syntheticOneHotMatchesScoring() {
+    checkAgainstScoring(Model.Parameters.CategoricalEncodingScheme.OneHotExplicit, false);
+  }
+
+  @Test public void syntheticWeightedMatchesScoring() {
+    checkAgainstScoring(Model.Parameters.CategoricalEncodingScheme.AUTO, true);
+  }
+
+  // One-hot encoded columns are scored one grid value at a time
+  @Test public void syntheticOneHotWeightedMatchesScoring() {
+    checkAgainstScoring(Model.Parameters.CategoricalEncodingScheme.OneHotExplicit, true);
+  }
+
+  // Mean response of each grid value, against scoring a copy of the frame with the column set to that value
+  private void checkAgainstScoring(Model.Parameters.CategoricalEncodingScheme encoding, boolean weighted) {
+    Frame fr=null;
+    GBMModel model=null;
+    PartialDependence partialDependence = null;
+    try {
+      CreateFrame cf = new CreateFrame();
+      cf.rows = 2000;
+      cf.cols = 6;
+      cf.categorical_fraction = 0.5;
+      cf.factors = 4;
+      cf.integer_fraction = 0;
+      cf.binary_fraction = 0;
+      cf.time_fraction = 0;
+      cf.string_fraction = 0;
+      cf.missing_fraction = 0.05;
+      cf.has_response = true;
+      cf.response_factors = 2;
+      cf.seed = 1234;
+      cf.seed_for_column_types = 1234;
+      fr = cf.execImpl().get();
+      if (weighted) {
+        Vec w = fr.anyVec().makeRand(42); // Uniform in [0,1)
+        new MRTask() {
+          @Override public void map(Chunk c) {
+            for (int r = 0; r < c._len; r += 7) c.set(r, 0); // and some zero weights
+          }
+        }.doAll(w);
+        fr.add("weight", w);
+        DKV.put(fr);
+      }
+      String num = null, cat = null;
+      for (String n : fr.names()) {
+        if (n.equals("response") || n.equals("weight")) continue;
+        if (fr.vec(n).isCategorical()) { if (cat == null) cat = n; }
+        else if (num == null) num = n;
+      }
+
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "response";
+      parms._ntrees = 5;
+      parms._categorical_encoding = encoding;
+      if (weighted) parms._weights_column = "weight";
+      model = new GBM(parms).trainModel().get();
+      Assert.assertTrue(model.scoresRows());
+
+      partialDependence = new PartialDependence(Key.<PartialDependence>make());
+      partialDependence._nbins = 5;
+      partialDependence._cols = new String[]{num, cat};
+      partialDependence._model_id = (Key) model._key;
+      partialDependence._frame_id = fr._key;
+      partialDependence.execImpl().get();
+
+      for (int i = 0; i < partialDependence._cols.length; i++) {
+        String col = partialDependence._cols[i];
+        TwoDimTable t = partialDependence._partial_dependence_data[i];
+        Vec v = fr.vec(col);
+        for (int j = 0; j < t.getRowDim(); j++) {
+          double value = v.isCategorical() ? Arrays.asList(v.domain()).indexOf((String) t.get(j, 0)) : (Double) t.get(j, 0);
+          Frame test = new Frame(fr.names(), fr.vecs());
+          test.remove(col);
+          Vec cons = v.makeCon(value);
+          if (v.isCategorical()) cons.setDomain(v.domain());
+          test.add(col, cons);
+          Frame preds = model.score(test, null, null, false);
+          try {
+            double[] moments = weightedMoments(preds.vec(2), weighted ? fr.vec("weight") : null);
+            Assert.assertEquals(col + "=" + t.get(j, 0), moments[0], (Double) t.get(j, 1), 1e-8);
+            Assert.assertEquals(col + "=" + t.get(j, 0), moments[1], (Double) t.get(j, 2), 1e-8);
+          } finally {
+            preds.remove();
+            cons.remove();
+          }
+        }
+      }
+    } finally {
+      if (fr!=null) fr.remove();
+      if (model!=null) model.remove();
+      if (partialDependence !=null) partialDependence.remove();
+    }
+  }
+
+  // Weighted mean and standard deviation, the plain ones without weights
+  private static double[] weightedMoments(Vec p, Vec w) {
+    double sw = 0, swy = 0;
+    for (long r = 0; r < p.length(); r++) {
+      double wr = w == null ? 1 : w.at(r);
+      sw += wr;
+      swy += wr * p.at(r);
+    }
+    double mean = swy / sw, ss = 0;
+    for (long r = 0; r < p.length(); r++) {
+      double d = p.at(r) - mean;
+      ss += (w == null ? 1 : w.at(r)) * d * d;
+    }
+    return new double[]{mean, Math.sqrt(ss / (sw - 1))};
+  }
 }
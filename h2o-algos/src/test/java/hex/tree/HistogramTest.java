@@ -205,6 +205,212 @@ public class HistogramTest extends TestUtil {
     k.remove();
   }
 
+  @Test public void testPrebinnedHistoMatchesRaw() {
+    double[] splitPts = new double[]{1,1.5,2,2.5,3,4,5,6.1,6.2,6.3,6.7,6.8,6.85};
+    Key k = Key.make();
+    DKV.put(new DHistogram.HistoQuantiles(k,splitPts));
+    try {
+      // Full range and a sub-range, so the bin codes are offset against the histogram bins
+      double[][] ranges = new double[][]{{1, 6.900000000000001}, {2.2, 6.25}};
+      Random rng = new Random(0xC0DE);
+      for (double[] range : ranges) {
+        double min = range[0], maxEx = range[1];
+        SharedTreeModel.SharedTreeParameters.HistogramType histoType = SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal;
+        DHistogram raw = new DHistogram("raw", 5, 5, (byte) 0, min, maxEx, 0, histoType, 1234, k, false);
+        DHistogram binned = new DHistogram("binned", 5, 5, (byte) 0, min, maxEx, 0, histoType, 1234, k, true);
+        raw.init();
+        binned.init();
+        Assert.assertFalse(raw.isBinned());
+        Assert.assertTrue(binned.isBinned());
+        Assert.assertEquals(raw.nbins(), binned.nbins());
+
+        int N = 10000;
+        double[] ws = new double[N], cs = new double[N], ys = new double[N];
+        int[] codes = new int[N], rows = new int[N];
+        for (int i = 0; i < N; i++) {
+          ws[i] = rng.nextInt(3);
+          cs[i] = i % 17 == 0 ? Double.NaN : min + rng.nextDouble() * (maxEx - min);
+          codes[i] = Double.isNaN(cs[i]) ? -1 : BinCodes.code(splitPts, cs[i]);
+          ys[i] = rng.nextGaussian();
+          rows[i] = i;
+        }
+        raw.updateHisto(ws, cs, ys, rows, N, 0);
+        binned.updateHistoBinned(ws, codes, ys, rows, N, 0);
+        Assert.assertArrayEquals(raw._vals, binned._vals, 0);
+        // Bounds from bin codes are conservative
+        Assert.assertTrue(binned.find_min() <= raw.find_min() && binned.find_min() >= min);
+        Assert.assertTrue(binned.find_maxIn() >= raw.find_maxIn() && binned.find_maxIn() < maxEx);
+      }
+    } finally {
+      k.remove();
+    }
+  }
+
+  @Test public void testHistoSubtraction() {
+    double[] splitPts = new double[]{1,1.5,2,2.5,3,4,5,6.1,6.2,6.3,6.7,6.8,6.85};
+    Key k = Key.make();
+    DKV.put(new DHistogram.HistoQuantiles(k,splitPts));
+    try {
+      SharedTreeModel.SharedTreeParameters.HistogramType histoType = SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal;
+      double min = 1.2, maxEx = 6.75, splat = 4;
+      DHistogram parent = new DHistogram("parent", 20, 20, (byte) 0, min, maxEx, 0, histoType, 1234, k, true);
+      DHistogram left = new DHistogram("left", 10, 10, (byte) 0, min, splat, 0, histoType, 1234, k, true);
+      DHistogram right = new DHistogram("right", 10, 10, (byte) 0, splat, maxEx, 0, histoType, 1234, k, true);
+      DHistogram derived = new DHistogram("derived", 10, 10, (byte) 0, splat, maxEx, 0, histoType, 1234, k, true);
+      parent.init();
+      left.init();
+      right.init();
+      Assert.assertTrue(DHistogram.canSubtract(parent, left, derived));
+
+      Random rng = new Random(0xBEEF);
+      int N = 10000;
+      double[] ws = new double[N], ys = new double[N];
+      int[] codes = new int[N], rows = new int[N];
+      int nleft = 0;
+      for (int i = 0; i < N; i++) {
+        ws[i] = rng.nextInt(3);
+        double d = i % 13 == 0 ? Double.NaN : min + rng.nextDouble() * (maxEx - min);
+        codes[i] = Double.isNaN(d) ? -1 : BinCodes.code(splitPts, d);
+        ys[i] = rng.nextGaussian();
+        if (!Double.isNaN(d) && d < splat) nleft++;
+      }
+      // Rows sorted by child, NAs go right
+      for (int i = 0, l = 0, r = nleft; i < N; i++)
+        rows[codes[i] >= 0 && splitPts[codes[i]] < splat ? l++ : r++] = i;
+      parent.updateHistoBinned(ws, codes, ys, rows, N, 0);
+      left.updateHistoBinned(ws, codes, ys, rows, nleft, 0);
+      right.updateHistoBinned(ws, codes, ys, rows, N, nleft);
+      parent.reducePrecision();
+      left.reducePrecision();
+      right.reducePrecision();
+
+      derived.setToDifference(parent, left);
+      Assert.assertEquals(right.nbins(), derived.nbins());
+      for (int b = 0; b <= right.nbins(); b++) {
+        Assert.assertEquals(right._vals[3*b], derived._vals[3*b], 0);
+        Assert.assertEquals(right._vals[3*b+1], derived._vals[3*b+1], 1e-2);
+        Assert.assertEquals(right._vals[3*b+2], derived._vals[3*b+2], 1e-2);
+      }
+      Assert.assertEquals(right.find_min(), derived.find_min(), 0);
+      Assert.assertEquals(right.find_maxIn(), derived.find_maxIn(), 0);
+    } finally {
+      k.remove();
+    }
+  }
+
+  // Split on another column: both children span the parent's bins, so the subtraction cancels in every bin
+  @Test public void testHistoSubtractionFullPrecision() {
+    double[] splitPts = new double[]{1,1.5,2,2.5,3,4,5,6.1,6.2,6.3,6.7,6.8,6.85};
+    Key k = Key.make();
+    DKV.put(new DHistogram.HistoQuantiles(k,splitPts));
+    try {
+      SharedTreeModel.SharedTreeParameters.HistogramType histoType = SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal;
+      double min = 1.2, maxEx = 6.75;
+      DHistogram parent = new DHistogram("parent", 20, 20, (byte) 0, min, maxEx, 0, histoType, 1234, k, true);
+      DHistogram left = new DHistogram("left", 20, 20, (byte) 0, min, maxEx, 0, histoType, 1234, k, true);
+      DHistogram right = new DHistogram("right", 20, 20, (byte) 0, min, maxEx, 0, histoType, 1234, k, true);
+      DHistogram derived = new DHistogram("derived", 20, 20, (byte) 0, min, maxEx, 0, histoType, 1234, k, true);
+      parent.init();
+      left.init();
+      right.init();
+      Assert.assertTrue(DHistogram.canSubtract(parent, left, derived));
+
+      Random rng = new Random(0xFACE);
+      int N = 10000;
+      double[] ws = new double[N], ys = new double[N];
+      int[] codes = new int[N], rows = new int[N];
+      boolean[] goLeft = new boolean[N];
+      int nleft = 0;
+      for (int i = 0; i < N; i++) {
+        ws[i] = 1 + rng.nextInt(3);
+        codes[i] = BinCodes.code(splitPts, min + rng.nextDouble() * (maxEx - min));
+        ys[i] = 1e3 * rng.nextGaussian();
+        if (goLeft[i] = rng.nextInt(3) == 0) nleft++;
+      }
+      for (int i = 0, l = 0, r = nleft; i < N; i++)
+        rows[goLeft[i] ? l++ : r++] = i;
+      parent.updateHistoBinned(ws, codes, ys, rows, N, 0);
+      left.updateHistoBinned(ws, codes, ys, rows, nleft, 0);
+      right.updateHistoBinned(ws, codes, ys, rows, N, nleft);
+      parent.reducePrecision();
+      left.reducePrecision();
+      right.reducePrecision();
+
+      // The same as reducing the bins built from the rows, not a difference of already reduced bins
+      derived.setToDifference(parent, left);
+      for (int b = 0; b <= right.nbins(); b++) {
+        Assert.assertEquals(right._vals[3*b], derived._vals[3*b], 0);
+        Assert.assertEquals(right._vals[3*b+1], derived._vals[3*b+1], Math.ulp((float) right._vals[3*b+1]));
+        Assert.assertEquals(right._vals[3*b+2], derived._vals[3*b+2], Math.ulp((float) right._vals[3*b+2]));
+      }
+    } finally {
+      k.remove();
+    }
+  }
+
+  // UniformAdaptive merges the pre-bins down to nbins within a node's range, aligned so the children can subtract
+  @Test public void testPrebinnedUniformCoarsening() {
+    double[] splitPts = new double[1024];
+    for (int i = 0; i < splitPts.length; i++) splitPts[i] = i / 1024.0;
+    Key k = Key.make();
+    DKV.put(new DHistogram.HistoQuantiles(k,splitPts));
+    try {
+      SharedTreeModel.SharedTreeParameters.HistogramType histoType = SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive;
+      double min = 0.1, maxEx = 0.7;
+      DHistogram parent = new DHistogram("parent", 40, 20, (byte) 0, min, maxEx, 0, histoType, 1234, k, true);
+      DHistogram left = new DHistogram("left", 20, 20, (byte) 0, min, maxEx, 0, histoType, 1234, k, true);
+      DHistogram right = new DHistogram("right", 20, 20, (byte) 0, min, maxEx, 0, histoType, 1234, k, true);
+      DHistogram raw = new DHistogram("raw", 20, 20, (byte) 0, min, maxEx, 0, histoType, 1234, k, true);
+      DHistogram derived = new DHistogram("derived", 20, 20, (byte) 0, min, maxEx, 0, histoType, 1234, k, true);
+      parent.init();
+      Assert.assertTrue(DHistogram.canSubtract(parent, left, derived));
+      left.init();
+      right.init();
+      raw.init();
+      Assert.assertTrue(parent.nbins() <= 40 && parent.nbins() > 20);
+      Assert.assertTrue(right.nbins() <= 20 && right.nbins() > 10);
+      Assert.assertTrue(right.binAt(0) <= min && right.binAt(right.nbins()-1) < maxEx);
+      Assert.assertFalse(DHistogram.canSubtract(left, parent, new DHistogram("finer", 40, 20, (byte) 0, min, maxEx, 0, histoType, 1234, k, true)));
+
+      Random rng = new Random(0xABBA);
+      int N = 10000;
+      double[] ws = new double[N], cs = new double[N], ys = new double[N];
+      int[] codes = new int[N], rows = new int[N];
+      boolean[] goLeft = new boolean[N];
+      int nleft = 0;
+      for (int i = 0; i < N; i++) {
+        ws[i] = 1 + rng.nextInt(3);
+        cs[i] = min + rng.nextDouble() * (maxEx - min);
+        codes[i] = BinCodes.code(splitPts, cs[i]);
+        ys[i] = rng.nextGaussian();
+        if (goLeft[i] = rng.nextInt(3) == 0) nleft++;
+      }
+      for (int i = 0, l = 0, r = nleft; i < N; i++)
+        rows[goLeft[i] ? l++ : r++] = i;
+      parent.updateHistoBinned(ws, codes, ys, rows, N, 0);
+      left.updateHistoBinned(ws, codes, ys, rows, nleft, 0);
+      right.updateHistoBinned(ws, codes, ys, rows, N, nleft);
+      // The merged bins split the raw values at the same points as the codes
+      raw.updateHisto(ws, cs, ys, rows, N, nleft);
+      Assert.assertArrayEquals(raw._vals, right._vals, 1e-10);
+      parent.reducePrecision();
+      left.reducePrecision();
+      right.reducePrecision();
+
+      derived.setToDifference(parent, left);
+      Assert.assertEquals(right.nbins(), derived.nbins());
+      for (int b = 0; b <= right.nbins(); b++) {
+        Assert.assertEquals(right._vals[3*b], derived._vals[3*b], 0);
+        Assert.assertEquals(right._vals[3*b+1], derived._vals[3*b+1], Math.ulp((float) right._vals[3*b+1]));
+        Assert.assertEquals(right._vals[3*b+2], derived._vals[3*b+2], Math.ulp((float) right._vals[3*b+2]));
+      }
+      Assert.assertEquals(right.find_min(), derived.find_min(), 0);
+      Assert.assertEquals(right.find_maxIn(), derived.find_maxIn(), 0);
+    } finally {
+      k.remove();
+    }
+  }
+
   @Test public void testShrinking() {
     double[] before = new double[]{0.2,0.28,0.31,0.32,0.32,0.4,0.7,0.81,0.84};
     double[] after = ArrayUtils.makeUniqueAndLimitToRange(before, 0.3,0.8);
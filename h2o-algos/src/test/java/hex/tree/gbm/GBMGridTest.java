@@ -10,13 +10,18 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Random;
 import java.util.Set;
 
+import hex.CreateFrame;
 import hex.Distribution;
 import hex.Model;
 import hex.grid.Grid;
 import hex.grid.GridSearch;
+import hex.grid.HyperSpaceSearchCriteria;
+import hex.schemas.GBMV3;
+import hex.schemas.GridSearchSchema;
 import water.DKV;
 import water.Job;
 import water.Key;
@@ -25,7 +30,9 @@ import water.fvec.Frame;
 import water.fvec.Vec;
 import water.test.util.GridTestUtils;
 import water.util.ArrayUtils;
+import water.util.IcedHashMap;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static water.util.ArrayUtils.interval;
 
@@ -284,4 +291,118 @@ public class GBMGridTest extends TestUtil {
       if (gbmRebuilt != null) gbmRebuilt.remove();
     }
   }
+
+  private static Frame syntheticFrame(int rows) {
+    CreateFrame cf = new CreateFrame();
+    cf.rows = rows;
+    cf.cols = 8;
+    cf.categorical_fraction = 0.25;
+    cf.factors = 5;
+    cf.integer_fraction = 0;
+    cf.binary_fraction = 0;
+    cf.time_fraction = 0;
+    cf.string_fraction = 0;
+    cf.missing_fraction = 0;
+    cf.has_response = true;
+    cf.response_factors = 2;
+    cf.seed = 1234;
+    cf.seed_for_column_types = 1234;
+    return cf.execImpl().get();
+  }
+
+  private static double[] sortedTrainingMSEs(Grid grid) {
+    Model[] ms = grid.getModels();
+    double[] mses = new double[ms.length];
+    for (int i = 0; i < ms.length; i++)
+      mses[i] = ms[i]._output._training_metrics.mse();
+    Arrays.sort(mses);
+    return mses;
+  }
+
+  @Test
+  public void testConcurrentGrid() {
+    Grid sequential = null, concurrent = null;
+    Frame fr = null;
+    try {
+      fr = syntheticFrame(1000);
+      HashMap<String, Object[]> hyperParms = new HashMap<>();
+      hyperParms.put("_ntrees", new Integer[]{3, 5});
+      hyperParms.put("_max_depth", new Integer[]{1, 2, 3});
+
+      GBMModel.GBMParameters params = new GBMModel.GBMParameters();
+      params._train = fr._key;
+      params._response_column = "response";
+      params._seed = 42;
+      sequential = GridSearch.startGridSearch(null, params, hyperParms).get();
+
+      HyperSpaceSearchCriteria.CartesianSearchCriteria criteria = new HyperSpaceSearchCriteria.CartesianSearchCriteria();
+      criteria.set_parallelism(3);
+      concurrent = GridSearch.startGridSearch(null, params, hyperParms,
+          new GridSearch.SimpleParametersBuilderFactory<GBMModel.GBMParameters>(), criteria).get();
+
+      assertEquals(6, concurrent.getModelCount());
+      assertEquals(0, concurrent.getFailureCount());
+      Assert.assertArrayEquals(sortedTrainingMSEs(sequential), sortedTrainingMSEs(concurrent), 1e-10);
+    } finally {
+      if (fr != null) fr.remove();
+      if (sequential != null) sequential.remove();
+      if (concurrent != null) concurrent.remove();
+    }
+  }
+
+  @Test
+  public void testPrunedGrid() {
+    Grid grid = null;
+    Frame fr = null;
+    try {
+      fr = syntheticFrame(10000);
+      HashMap<String, Object[]> hyperParms = new HashMap<>();
+      // Best learning rate first, so that the models after it fall behind at the rungs
+      hyperParms.put("_learn_rate", new Double[]{0.5, 0.1, 0.02, 0.004, 0.001});
+
+      GBMModel.GBMParameters params = new GBMModel.GBMParameters();
+      params._train = fr._key;
+      params._response_column = "response";
+      params._ntrees = 100;
+      params._max_depth = 5;
+      params._score_each_iteration = true;
+      params._seed = 42;
+
+      HyperSpaceSearchCriteria.CartesianSearchCriteria criteria = new HyperSpaceSearchCriteria.CartesianSearchCriteria();
+      criteria.set_pruning_factor(2);
+      criteria.set_parallelism(1);
+      grid = GridSearch.startGridSearch(null, params, hyperParms,
+          new GridSearch.SimpleParametersBuilderFactory<GBMModel.GBMParameters>(), criteria).get();
+
+      // Models are compared at the same number of trees, so however often the builds are polled, every
+      // model after the first falls behind it at the first rung
+      assertEquals(1, grid.getModelCount());
+      assertEquals(4, grid.getFailureCount());
+      for (String details : grid.getFailureDetails())
+        assertTrue(details, details.startsWith("pruned at 13% of its build"));
+      Model m = grid.getModels()[0];
+      assertEquals(0.5, ((GBMModel) m)._parms._learn_rate, 0);
+      assertEquals(100, ((GBMModel) m)._output._ntrees);
+    } finally {
+      if (fr != null) fr.remove();
+      if (grid != null) grid.remove();
+    }
+  }
+
+  @Test
+  public void testNoSearchCriteriaIsSequential() {
+    // As GridSearchHandler fills the schema of a request without search_criteria
+    GridSearchSchema gss = new GridSearchSchema();
+    gss.parameters = new GBMV3.GBMParametersV3();
+    gss.hyper_parameters = new IcedHashMap<>();
+    gss.parameters.fillFromImpl(new GBMModel.GBMParameters());
+    Properties parms = new Properties();
+    parms.setProperty("hyper_parameters", "{\"ntrees\": [3, 5]}");
+    gss.fillFromParms(parms);
+
+    HyperSpaceSearchCriteria criteria = (HyperSpaceSearchCriteria) gss.search_criteria.createAndFillImpl();
+    assertEquals(HyperSpaceSearchCriteria.Strategy.Cartesian, criteria.strategy());
+    assertEquals(1, criteria.parallelism());
+    assertEquals(0, criteria.pruning_factor(), 0);
+  }
 }
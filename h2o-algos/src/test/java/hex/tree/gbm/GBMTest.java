@@ -1,6 +1,9 @@
 package hex.tree.gbm;
 
 import hex.*;
+import hex.genmodel.MojoModel;
+import hex.genmodel.algos.tree.SharedTreeMojoModel;
+import hex.genmodel.easy.EasyPredictModelWrapper;
 import hex.genmodel.utils.DistributionFamily;
 import hex.tree.SharedTreeModel;
 import org.junit.Assert;
@@ -17,11 +20,13 @@ import water.fvec.Vec;
 import water.parser.ParseDataset;
 import water.util.*;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Random;
 import java.util.TreeMap;
 
 import static hex.genmodel.utils.DistributionFamily.*;
@@ -1743,6 +1748,65 @@ public class GBMTest extends TestUtil {
     }
   }
 
+  @Test public void testPrebinPredictors() {
+    Frame train = null, preds = null;
+    GBMModel gbm = null, gbmPrebin = null;
+    Scope.enter();
+    try {
+      CreateFrame cf = new CreateFrame();
+      cf.rows = 10000;
+      cf.cols = 10;
+      cf.real_range = 100;
+      cf.integer_range = 1000;
+      cf.categorical_fraction = 0.0;
+      cf.integer_fraction = 0.3;
+      cf.binary_fraction = 0.0;
+      cf.time_fraction = 0.0;
+      cf.string_fraction = 0.0;
+      cf.missing_fraction = 0.05;
+      cf.response_factors = 1;
+      cf.has_response = true;
+      cf.seed = 1234;
+      cf.seed_for_column_types = 1234;
+      train = cf.execImpl().get();
+
+      for (SharedTreeModel.SharedTreeParameters.HistogramType histoType : new SharedTreeModel.SharedTreeParameters.HistogramType[]{
+              SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive,
+              SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal}) {
+        GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+        parms._train = train._key;
+        parms._response_column = "response";
+        parms._ntrees = 10;
+        parms._max_depth = 6;
+        parms._histogram_type = histoType;
+        parms._seed = 42;
+        gbm = new GBM(parms).trainModel().get();
+
+        parms._prebin_predictors = true;
+        gbmPrebin = new GBM(parms).trainModel().get();
+
+        // Same split candidates at the root, then coarser bins merged from the top-level grid
+        double mse = gbm._output._training_metrics.mse();
+        double msePrebin = gbmPrebin._output._training_metrics.mse();
+        Log.info(histoType + ": MSE " + mse + " vs. pre-binned MSE " + msePrebin);
+        assertEquals(mse, msePrebin, 0.05 * mse);
+
+        // Trees carry raw split thresholds: re-scoring the raw data reproduces the training predictions
+        preds = gbmPrebin.score(train);
+        assertEquals(msePrebin, ModelMetricsRegression.make(preds.vec(0), train.vec("response"), gaussian).mse(), 1e-6 * msePrebin);
+        preds.remove(); preds = null;
+        gbm.delete(); gbm = null;
+        gbmPrebin.delete(); gbmPrebin = null;
+      }
+    } finally {
+      if (train != null) train.remove();
+      if (preds != null) preds.remove();
+      if (gbm != null) gbm.delete();
+      if (gbmPrebin != null) gbmPrebin.delete();
+      Scope.exit();
+    }
+  }
+
   @Test public void missingAndUnseenValues() {
     GBMModel gbm = null;
     GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
@@ -2989,4 +3053,141 @@ public class GBMTest extends TestUtil {
     Log.info(Arrays.toString(maes));
   }
 
+  @Test public void testFlatTreesMojo() throws Exception {
+    Frame train = null;
+    GBMModel gbm = null;
+    File file = File.createTempFile("gbm_flat", ".zip");
+    Scope.enter();
+    try {
+      CreateFrame cf = new CreateFrame();
+      cf.rows = 5000;
+      cf.cols = 10;
+      cf.categorical_fraction = 0.4;
+      cf.factors = 100;  // Big bitsets, stored out of line
+      cf.integer_fraction = 0.2;
+      cf.binary_fraction = 0.0;
+      cf.time_fraction = 0.0;
+      cf.string_fraction = 0.0;
+      cf.missing_fraction = 0.05;
+      cf.response_factors = 3;
+      cf.has_response = true;
+      cf.seed = 4321;
+      cf.seed_for_column_types = 4321;
+      train = cf.execImpl().get();
+
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = train._key;
+      parms._response_column = "response";
+      parms._ntrees = 20;
+      parms._max_depth = 6;
+      parms._seed = 42;
+      gbm = new GBM(parms).trainModel().get();
+
+      StreamingSchema ss = new StreamingSchema(gbm.getMojo(), file.getName());
+      FileOutputStream os = new FileOutputStream(file);
+      ss.getStreamWriter().writeTo(os);
+      os.close();
+      SharedTreeMojoModel mojo = (SharedTreeMojoModel) MojoModel.load(file.getPath());
+      SharedTreeMojoModel flat = (SharedTreeMojoModel) MojoModel.load(file.getPath());
+      flat.flattenTrees();
+
+      // Rows from the training frame, plus unseen categorical levels
+      int nrows = (int) train.numRows(), nfeatures = mojo.nfeatures();
+      double[][] rows = new double[nrows][nfeatures];
+      double[][] preds = new double[nrows][mojo.getPredsSize()];
+      Random rng = new Random(0xF1A7);
+      for (int r = 0; r < nrows; r++) {
+        for (int c = 0; c < nfeatures; c++) {
+          Vec v = train.vec(mojo._names[c]);
+          rows[r][c] = v.at(r);
+          if (v.isCategorical() && rng.nextInt(20) == 0) rows[r][c] = v.domain().length + rng.nextInt(5);
+        }
+      }
+      double[] p0 = new double[mojo.getPredsSize()];
+      double[] p1 = new double[mojo.getPredsSize()];
+      for (int r = 0; r < nrows; r++) {
+        mojo.score0(rows[r], p0);
+        flat.score0(rows[r], p1);
+        Assert.assertArrayEquals(p0, p1, 0);
+      }
+      flat.score0(rows, null, nrows, preds);
+      for (int r = 0; r < nrows; r++)
+        Assert.assertArrayEquals(mojo.score0(rows[r], p0), preds[r], 0);
+    } finally {
+      if (train != null) train.remove();
+      if (gbm != null) gbm.delete();
+      file.delete();
+      Scope.exit();
+    }
+  }
+
+  @Test public void testBatchScoringWithOffset() throws Exception {
+    Frame train = null, preds = null;
+    GBMModel gbm = null;
+    File file = File.createTempFile("gbm_offset", ".zip");
+    Scope.enter();
+    try {
+      CreateFrame cf = new CreateFrame();
+      cf.rows = 2000;
+      cf.cols = 6;
+      cf.categorical_fraction = 0.3;
+      cf.factors = 5;
+      cf.integer_fraction = 0.0;
+      cf.binary_fraction = 0.0;
+      cf.time_fraction = 0.0;
+      cf.string_fraction = 0.0;
+      cf.missing_fraction = 0.05;
+      cf.response_factors = 1;
+      cf.has_response = true;
+      cf.seed = 1234;
+      cf.seed_for_column_types = 1234;
+      train = cf.execImpl().get();
+      train.add("offset", train.anyVec().makeRand(5678));
+      DKV.put(train);
+
+      GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+      parms._train = train._key;
+      parms._response_column = "response";
+      parms._offset_column = "offset";
+      parms._ntrees = 10;
+      parms._seed = 42;
+      gbm = new GBM(parms).trainModel().get();
+      preds = gbm.score(train);
+
+      StreamingSchema ss = new StreamingSchema(gbm.getMojo(), file.getName());
+      FileOutputStream os = new FileOutputStream(file);
+      ss.getStreamWriter().writeTo(os);
+      os.close();
+      SharedTreeMojoModel mojo = (SharedTreeMojoModel) MojoModel.load(file.getPath());
+      assertEquals("offset", mojo._offsetColumn);
+
+      // Compressed trees, then flat trees: the batch must give each row its own offset
+      for (int pass = 0; pass < 2; pass++) {
+        if (pass == 1) mojo.flattenTrees();
+        EasyPredictModelWrapper model = new EasyPredictModelWrapper(mojo);
+        EasyPredictModelWrapper.Batch batch = model.newBatch(train.names(), 128);
+        for (long start = 0; start < train.numRows(); start += batch.capacity()) {
+          int n = (int) Math.min(batch.capacity(), train.numRows() - start);
+          batch.clear();
+          for (int r = 0; r < n; r++) {
+            for (int c = 0; c < train.numCols(); c++) {
+              Vec v = train.vec(c);
+              if (v.isNA(start + r)) continue;
+              if (v.isCategorical()) batch.setCategorical(r, c, v.domain()[(int) v.at8(start + r)]);
+              else batch.setNumber(r, c, v.at(start + r));
+            }
+          }
+          batch.score(n);
+          for (int r = 0; r < n; r++)
+            assertEquals(preds.vec(0).at(start + r), batch.preds(r)[0], 1e-6);
+        }
+      }
+    } finally {
+      if (train != null) train.remove();
+      if (preds != null) preds.remove();
+      if (gbm != null) gbm.delete();
+      file.delete();
+      Scope.exit();
+    }
+  }
 }
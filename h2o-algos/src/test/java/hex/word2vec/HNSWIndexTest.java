@@ -0,0 +1,142 @@
+package hex.word2vec;
+
+import org.junit.*;
+import water.AutoBuffer;
+import water.DKV;
+import water.Key;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.util.Log;
+import water.util.RandomUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+public class HNSWIndexTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  // Clustered vectors, like word vectors: words near a few hundred random topic centers
+  private static float[] clustered(int n, int dim, int clusters, Random rng) {
+    float[] centers = new float[clusters * dim];
+    for (int i = 0; i < centers.length; i++) centers[i] = (float) rng.nextGaussian();
+    float[] vecs = new float[n * dim];
+    for (int i = 0; i < n; i++) {
+      int c = rng.nextInt(clusters);
+      for (int j = 0; j < dim; j++) vecs[i*dim+j] = centers[c*dim+j] + 0.7f * (float) rng.nextGaussian();
+    }
+    return vecs;
+  }
+
+  /** Recall and latency of the index against exact search */
+  @Test public void testRecall() {
+    final int n = 20000, dim = 50, k = 10, queries = 200;
+    Random rng = RandomUtils.getRNG(0xDECAF);
+    float[] vecs = clustered(n, dim, 200, rng);
+    String[] words = new String[n];
+    for (int i = 0; i < n; i++) words[i] = "w" + i;
+    HNSWIndex index = new HNSWIndex(words, vecs, dim, 0xDECAF);
+
+    float[][] qs = new float[queries][];
+    for (int q = 0; q < queries; q++) {
+      qs[q] = new float[dim];
+      int w = rng.nextInt(n);
+      for (int j = 0; j < dim; j++) qs[q][j] = vecs[w*dim+j] + 0.1f * (float) rng.nextGaussian();
+    }
+    long exactNs = 0, annNs = 0;
+    int found = 0;
+    for (int q = 0; q < queries; q++) {
+      long start = System.nanoTime();
+      int[] exact = index.searchExact(qs[q], k, null);
+      exactNs += System.nanoTime() - start;
+      start = System.nanoTime();
+      int[] ann = index.search(qs[q], k, HNSWIndex.EF_SEARCH, null);
+      annNs += System.nanoTime() - start;
+      Assert.assertEquals(k, ann.length);
+      for (int a : ann)
+        for (int e : exact)
+          if (a == e) { found++; break; }
+    }
+    double recall = (double) found / (queries * k);
+    Log.info("HNSW recall@" + k + ": " + recall + ", " + (annNs / queries / 1e3) + "us per query; exact search " + (exactNs / queries / 1e3) + "us per query");
+    Assert.assertTrue("recall " + recall, recall > 0.95);
+  }
+
+  @Test public void testSimilarities() {
+    final int n = 2000, dim = 16;
+    Random rng = RandomUtils.getRNG(42);
+    float[] vecs = clustered(n, dim, 20, rng);
+    String[] words = new String[n];
+    for (int i = 0; i < n; i++) words[i] = "w" + i;
+    HNSWIndex index = new HNSWIndex(words, vecs, dim, 42);
+    Assert.assertEquals(17, index.id("w17"));
+    Assert.assertEquals(-1, index.id("nope"));
+    float[] sims = new float[5];
+    int[] ids = index.search(index.vector(17), 5, 200, sims);
+    Assert.assertEquals(17, ids[0]);
+    Assert.assertEquals(1, sims[0], 1e-5);
+    for (int i = 1; i < ids.length; i++) {
+      Assert.assertTrue(sims[i] <= sims[i-1]);
+      float[] a = index.vector(17), b = index.vector(ids[i]);
+      float dot = 0;
+      for (int j = 0; j < dim; j++) dot += a[j] * b[j];
+      Assert.assertEquals(dot, sims[i], 1e-5);
+    }
+    // The index is kept with the model: only the graph is serialized, same answers once the vectors are attached
+    byte[] bytes = new AutoBuffer().put(index).buf();
+    int graphInts = index._links0.length;
+    for (int[] links : index._links) if (links != null) graphInts += links.length;
+    Assert.assertTrue(bytes.length < 4 * graphInts + 4 * n);
+    HNSWIndex copy = new AutoBuffer(bytes).get();
+    Assert.assertFalse(copy.isAttached());
+    copy.attach(words, vecs);
+    Assert.assertEquals(17, copy.id("w17"));
+    Assert.assertArrayEquals(ids, copy.search(copy.vector(17), 5, 200, null));
+  }
+
+  /** Synonyms from the index are the same as those from a scan of the word vectors */
+  @Test public void testWord2VecSynonyms() {
+    Frame fr = null;
+    Word2VecModel w2vm = null;
+    try {
+      final int n = 500;
+      String[] words = new String[n];
+      int[] counts = new int[n];
+      for (int i = 0; i < n; i++) { words[i] = "w" + i; counts[i] = n - i; }
+      // A numeric column too, so that the builder has something to validate: it ignores string columns
+      fr = new Frame(Key.<Frame>make(), new String[]{"Words", "X"}, new Vec[]{svec(words), vec(counts)});
+      Frame vocab = new Frame(Key.<Frame>make(), new String[]{"Word", "Count"}, new Vec[]{svec(words), vec(counts)});
+      DKV.put(fr);
+      DKV.put(vocab);
+      Word2VecModel.Word2VecParameters parms = new Word2VecModel.Word2VecParameters();
+      parms._train = fr._key;
+      parms._vocabKey = vocab._key;
+      parms._vecSize = 20;
+      // Random word vectors: no training, only the search is tested
+      Word2Vec w2v = new Word2Vec(parms);
+      w2v.init(false);
+      w2vm = new Word2VecModel(w2v.dest(), parms, new Word2VecModel.Word2VecOutput(w2v));
+      w2vm.buildModelOutput();
+      String[] targets = new String[]{"w0", "w17", "w499"};
+      ArrayList<HashMap<String, Float>> exact = new ArrayList<>();
+      for (String target : targets)
+        exact.add(w2vm.findSynonyms(target, 5));
+      w2vm.buildSynonymIndex();
+      for (int t = 0; t < targets.length; t++) {
+        HashMap<String, Float> ann = w2vm.findSynonyms(targets[t], 5);
+        Assert.assertEquals(exact.get(t).keySet(), ann.keySet());
+        for (String w : ann.keySet())
+          Assert.assertEquals(exact.get(t).get(w), ann.get(w), 1e-4);
+      }
+      Assert.assertNull(w2vm.findSynonyms("nope", 5));
+      // A deserialized model attaches its own words and vectors to the index
+      Word2VecModel copy = new AutoBuffer(new AutoBuffer().put(w2vm).buf()).get();
+      for (int t = 0; t < targets.length; t++)
+        Assert.assertEquals(exact.get(t).keySet(), copy.findSynonyms(targets[t], 5).keySet());
+    } finally {
+      if (fr != null) fr.remove();
+      if (w2vm != null) w2vm.delete();
+    }
+  }
+}
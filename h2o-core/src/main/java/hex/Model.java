@@ -515,6 +515,9 @@ public abstract class Model<M extends Model<M,P,O>, P extends Model.Parameters,
     /** Is this model a binomial classification model? (v. a regression or clustering model) */
     public boolean isBinomialClassifier() { return isSupervised() && nclasses() == 2; }
 
+    /** Scoring events recorded so far, oldest first; empty for algorithms which do not record them here. */
+    public ScoreKeeper[] scoreKeepers() { return new ScoreKeeper[0]; }
+
     /** Number of classes in the response column if it is categorical and the model is supervised. */
     public int nclasses() {
       String cns[] = classNames();
@@ -594,6 +597,17 @@ public abstract class Model<M extends Model<M,P,O>, P extends Model.Parameters,
 
   public ScoringInfo[] scoring_history() { return scoringInfo; }
 
+  /** Scoring events recorded so far while building this model, oldest first. */
+  public ScoreKeeper[] scoreKeepers() {
+    return scoringInfo != null ? ScoringInfo.scoreKeepers(scoringInfo) : _output.scoreKeepers();
+  }
+
+  /**
+   * Fraction of the build done at each of the {@link #scoreKeepers} events, so that models can be compared
+   * after the same amount of training; null if not known.
+   */
+  public double[] scoreKeepersProgress() { return null; }
+
   /**
    * Fill a ScoringInfo with data from the ModelMetrics for this model.
    * @param scoringInfo
@@ -1200,6 +1214,11 @@ public abstract class Model<M extends Model<M,P,O>, P extends Model.Parameters,
     return scored;
   }
 
+  /** True if {@link #score0(double[], double[], double, double)} scores a row
+   *  on its own, so that callers may score rows they built themselves.  Models
+   *  which only score whole chunks (e.g. in mini-batches) return false. */
+  public boolean scoresRows() { return true; }
+
   /** Subclasses implement the scoring logic.  The data is pre-loaded into a
    *  re-used temp array, in the order the model expects.  The predictions are
    *  loaded into the re-used temp array, which is also returned.  */
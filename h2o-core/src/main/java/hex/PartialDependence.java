@@ -3,8 +3,11 @@ package hex;
 import jsr166y.CountedCompleter;
 import water.*;
 import water.api.schemas3.KeyV3;
+import hex.genmodel.GenModel;
+import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.Vec;
+import water.util.ArrayUtils;
 import water.util.Log;
 import water.util.TwoDimTable;
 
@@ -67,11 +70,12 @@ public class PartialDependence extends Lockable<PartialDependence> {
     public void compute2() {
       assert (_job != null);
       final Frame fr = _frame_id.get();
-      // loop over PDPs (columns)
+      final Model model = _model_id.get();
+      // grid values of each column
       _partial_dependence_data = new TwoDimTable[_cols.length];
+      double[][] colVals = new double[_cols.length][];
       for (int i = 0; i < _cols.length; ++i) {
         final String col = _cols[i];
-        Log.debug("Computing partial dependence of model on '" + col + "'.");
         Vec v = fr.vec(col);
         if (v.isCategorical() && v.cardinality() > _nbins) {
           Log.warn("Too many categorical levels for column: " + col + ". Not creating partial dependence plot.");
@@ -81,87 +85,128 @@ public class PartialDependence extends Lockable<PartialDependence> {
         if (v.isInt() && (v.max() - v.min() + 1) < _nbins) {
           actualbins = (int) (v.max() - v.min() + 1);
         }
-        double[] colVals = new double[actualbins];
+        colVals[i] = new double[actualbins];
         double delta = (v.max() - v.min()) / (actualbins - 1);
         if (actualbins == 1) delta = 0;
-        for (int j = 0; j < colVals.length; ++j) {
-          colVals[j] = v.min() + j * delta;
+        for (int j = 0; j < colVals[i].length; ++j) {
+          colVals[i][j] = v.min() + j * delta;
         }
         Log.debug("Computing PartialDependence for column " + col + " at the following values: ");
-        Log.debug(Arrays.toString(colVals));
-
-        Futures fs = new Futures();
-        final double meanResponse[] = new double[colVals.length];
-
-        final boolean cat = fr.vec(col).isCategorical();
+        Log.debug(Arrays.toString(colVals[i]));
+      }
 
-        // loop over column values (fill one PartialDependence)
-        for (int k = 0; k < colVals.length; ++k) {
-          final double value = colVals[k];
-          final int which = k;
-          H2O.H2OCountedCompleter pdp = new H2O.H2OCountedCompleter() {
-            @Override
-            public void compute2() {
-              Frame fr = _frame_id.get();
-              Frame test = new Frame(fr.names(), fr.vecs());
-              Vec orig = test.remove(col);
-              Vec cons = orig.makeCon(value);
-              if (cat) cons.setDomain(fr.vec(col).domain());
-              test.add(col, cons);
-              Frame preds = null;
-              try {
-                preds = _model_id.get().score(test, Key.make().toString(), _job, false);
-                if (_model_id.get()._output.nclasses() == 2) {
-                  meanResponse[which] = preds.vec(2).mean();
-                } else if (_model_id.get()._output.nclasses() == 1) {
-                  meanResponse[which] = preds.vec(0).mean();
-                } else throw H2O.unimpl();
-              } finally {
-                if (preds != null) preds.remove();
-              }
-              cons.remove();
-              tryComplete();
+      // All the columns the model reads as they are, in one pass over the adapted frame
+      Frame adaptFr = new Frame(fr);
+      for (String s : model.adaptTestForTrain(adaptFr, true, false))
+        Log.warn(s);
+      double[][] meanResponse = new double[_cols.length][];
+      double[][] stddevResponse = new double[_cols.length][];
+      try {
+        int[] which = new int[_cols.length];
+        int[] cols = new int[_cols.length];
+        double[][] values = new double[_cols.length][];
+        int n = 0;
+        final boolean onePass = model.scoresRows(); // else every column is scored one value at a time below
+        for (int i = 0; i < _cols.length && onePass; ++i) {
+          if (colVals[i] == null) continue;
+          int idx = adaptFr.find(_cols[i]);
+          Vec v = fr.vec(_cols[i]);
+          if (idx < 0 || idx >= model._output.nfeatures() || adaptFr.vec(idx).isCategorical() != v.isCategorical())
+            continue; // transformed by the model, e.g. one-hot encoded; scored one grid value at a time below
+          which[n] = i;
+          cols[n] = idx;
+          values[n] = colVals[i].clone();
+          if (v.isCategorical()) { // frame's levels, in the model's (adapted) domain
+            String[] dom = adaptFr.vec(idx).domain();
+            for (int j = 0; j < values[n].length; ++j) {
+              int level = ArrayUtils.find(dom, v.domain()[(int) colVals[i][j]]);
+              values[n][j] = level < 0 ? Double.NaN : level;
             }
-          };
-          fs.add(H2O.submitTask(pdp));
+          }
+          n++;
+        }
+        if (n > 0) {
+          PartialDependenceTask pdt = new PartialDependenceTask(model, _job._key, Arrays.copyOf(cols, n), Arrays.copyOf(values, n), adaptFr).doAll(adaptFr);
+          for (int p = 0; p < n; ++p) {
+            meanResponse[which[p]] = pdt.means(p);
+            stddevResponse[which[p]] = pdt.stddevs(p);
+          }
         }
-        fs.blockForPending();
-
-        /*
-        // baseline
-        double baselineMeanResponse;
-        Frame preds = null;
-        try {
-          preds = _model_id.get().score(_frame_id.get());
-          if (_model_id.get()._output.nclasses() == 2) {
-            baselineMeanResponse = preds.vec(2).mean();
-          } else if (_model_id.get()._output.nclasses() == 1) {
-            baselineMeanResponse = preds.vec(0).mean();
-          } else throw H2O.unimpl();
-        } finally {
-          if (preds!=null) preds.remove();
+      } finally {
+        Model.cleanup_adapt(adaptFr, fr);
+      }
+
+      for (int i = 0; i < _cols.length; ++i) {
+        if (colVals[i] == null) continue;
+        if (_job.stop_requested())
+          break;
+        final String col = _cols[i];
+        final boolean cat = fr.vec(col).isCategorical();
+        if (meanResponse[i] == null) {
+          Log.debug("Computing partial dependence of model on '" + col + "' by scoring the frame for each value.");
+          meanResponse[i] = new double[colVals[i].length];
+          stddevResponse[i] = new double[colVals[i].length];
+          scoreEachValue(col, cat, colVals[i], meanResponse[i], stddevResponse[i]);
         }
-        */
-
-//        Log.info("Baseline: " + baselineMeanResponse);
-//        Log.info(Arrays.toString(meanResponse));
-        _partial_dependence_data[i] = new TwoDimTable("PartialDependence", ("Partial Dependence Plot of model " + _model_id + " on column '" + _cols[i] + "'"), new String[actualbins], new String[]{_cols[i], "mean_response"}, new String[]{cat ? "string" : "double", "double"}, new String[]{cat ? "%s" : "%5f", "%5f"}, null);
-        for (int j = 0; j < meanResponse.length; ++j) {
-          if (fr.vec(col).isCategorical()) {
-            _partial_dependence_data[i].set(j, 0, fr.vec(col).domain()[(int) colVals[j]]);
+        int actualbins = colVals[i].length;
+        _partial_dependence_data[i] = new TwoDimTable("PartialDependence", ("Partial Dependence Plot of model " + _model_id + " on column '" + _cols[i] + "'"), new String[actualbins], new String[]{_cols[i], "mean_response", "stddev_response"}, new String[]{cat ? "string" : "double", "double", "double"}, new String[]{cat ? "%s" : "%5f", "%5f", "%5f"}, null);
+        for (int j = 0; j < actualbins; ++j) {
+          if (cat) {
+            _partial_dependence_data[i].set(j, 0, fr.vec(col).domain()[(int) colVals[i][j]]);
           } else {
-            _partial_dependence_data[i].set(j, 0, colVals[j]);
+            _partial_dependence_data[i].set(j, 0, colVals[i][j]);
           }
-          _partial_dependence_data[i].set(j, 1, meanResponse[j]);
+          _partial_dependence_data[i].set(j, 1, meanResponse[i][j]);
+          _partial_dependence_data[i].set(j, 2, stddevResponse[i][j]);
         }
         _job.update(1);
         update(_job);
-        if (_job.stop_requested())
-          break;
       }
       tryComplete();
     }
 
+    // Score a copy of the frame for each grid value of the column, set to a constant
+    private void scoreEachValue(final String col, final boolean cat, double[] colVals, final double[] meanResponse, final double[] stddevResponse) {
+      Futures fs = new Futures();
+      // loop over column values (fill one PartialDependence)
+      for (int k = 0; k < colVals.length; ++k) {
+        final double value = colVals[k];
+        final int which = k;
+        H2O.H2OCountedCompleter pdp = new H2O.H2OCountedCompleter() {
+          @Override
+          public void compute2() {
+            Frame fr = _frame_id.get();
+            Frame test = new Frame(fr.names(), fr.vecs());
+            Vec orig = test.remove(col);
+            Vec cons = orig.makeCon(value);
+            if (cat) cons.setDomain(fr.vec(col).domain());
+            test.add(col, cons);
+            Frame preds = null;
+            try {
+              Model m = _model_id.get();
+              preds = m.score(test, Key.make().toString(), _job, false);
+              Vec p;
+              if (m._output.nclasses() == 2) {
+                p = preds.vec(2);
+              } else if (m._output.nclasses() == 1) {
+                p = preds.vec(0);
+              } else throw H2O.unimpl();
+              Vec w = m._output.hasWeights() ? fr.vec(m._output.weightsName()) : null;
+              ScoredMoments sm = w == null ? new ScoredMoments().doAll(p) : new ScoredMoments().doAll(p, w);
+              meanResponse[which] = sm.mean(0);
+              stddevResponse[which] = sm.stddev(0);
+            } finally {
+              if (preds != null) preds.remove();
+            }
+            cons.remove();
+            tryComplete();
+          }
+        };
+        fs.add(H2O.submitTask(pdp));
+      }
+      fs.blockForPending();
+    }
+
     @Override
     public void onCompletion(CountedCompleter caller) {
       _frame_id.get().unlock(_job._key);
@@ -176,6 +221,137 @@ public class PartialDependence extends Lockable<PartialDependence> {
     }
   }
 
+  /**
+   * Weighted running means and variances (West) of the model's response, one per grid value of every
+   * column, in order; merged across chunks.
+   */
+  private static abstract class ResponseMoments<T extends ResponseMoments<T>> extends MRTask<T> {
+    // Per grid value of every column, in order: weight sum, mean and sum of squared deviations
+    double[] _wsum, _mean, _m2;
+
+    void init(int nvals) {
+      _wsum = new double[nvals];
+      _mean = new double[nvals];
+      _m2 = new double[nvals];
+    }
+
+    void add(int k, double y, double w) {
+      if (Double.isNaN(y)) return;
+      double wsum = _wsum[k] += w;
+      double d = y - _mean[k];
+      _mean[k] += d * w / wsum;
+      _m2[k] += w * d * (y - _mean[k]);
+    }
+
+    @Override public void reduce(T t) {
+      for (int k = 0; k < _wsum.length; ++k) {
+        if (t._wsum[k] == 0) continue;
+        double w = _wsum[k] + t._wsum[k];
+        double d = t._mean[k] - _mean[k];
+        _mean[k] += d * t._wsum[k] / w;
+        _m2[k] += t._m2[k] + d * d * _wsum[k] * t._wsum[k] / w;
+        _wsum[k] = w;
+      }
+    }
+
+    double mean(int k) { return _wsum[k] > 0 ? _mean[k] : Double.NaN; }
+    double stddev(int k) { return _wsum[k] > 1 ? Math.sqrt(_m2[k] / (_wsum[k] - 1)) : Double.NaN; }
+  }
+
+  /** Moments of a scored response, in the first Vec, weighted by the second Vec if any */
+  private static class ScoredMoments extends ResponseMoments<ScoredMoments> {
+    @Override public void map(Chunk[] chks) {
+      init(1);
+      for (int r = 0; r < chks[0]._len; ++r) {
+        double w = chks.length > 1 ? chks[1].atd(r) : 1;
+        if (w != 0) add(0, chks[0].atd(r), w);
+      }
+    }
+  }
+
+  /**
+   * Weighted mean and standard deviation of the model's response over all rows, with one column set to
+   * each of its grid values in turn, for several columns, in a single pass and without making any Frame.
+   * Each row is read once into a buffer and scored once per (column, value), with just that cell replaced.
+   */
+  private static class PartialDependenceTask extends ResponseMoments<PartialDependenceTask> {
+    final Key<Model> _modelKey;
+    final Key<Job> _jobKey;
+    final int[] _cols;          // Columns, as indices into the adapted frame
+    final double[][] _values;   // Grid values of each column, as the model sees them
+    final int _weightsIdx;      // Column of the observation weights, or -1
+    final int _offsetIdx;       // Column of the offset, or -1
+    final int _predIdx;         // Response: p1 for binomial, the prediction for regression
+    private transient Model _model;
+    private transient Job _job;
+
+    PartialDependenceTask(Model model, Key<Job> jobKey, int[] cols, double[][] values, Frame adaptFr) {
+      _modelKey = model._key;
+      _jobKey = jobKey;
+      _cols = cols;
+      _values = values;
+      _weightsIdx = model._output.hasWeights() ? adaptFr.find(model._output.weightsName()) : -1;
+      _offsetIdx = model._output.hasOffset() ? adaptFr.find(model._output.offsetName()) : -1;
+      if (model._output.nclasses() == 2) _predIdx = 2;
+      else if (model._output.nclasses() == 1) _predIdx = 0;
+      else throw H2O.unimpl();
+    }
+
+    @Override protected void setupLocal() {
+      _model = _modelKey.get();
+      _job = _jobKey.get();
+    }
+
+    @Override public void map(Chunk[] chks) {
+      int nvals = 0;
+      for (double[] vs : _values) nvals += vs.length;
+      init(nvals);
+      if (_job != null && _job.stop_requested()) return;
+      final Model m = _model;
+      final boolean correct = m._output.isClassifier() && m._parms._balance_classes;
+      double[] row = new double[m._output.nfeatures()];
+      double[] tmp = new double[row.length];
+      double[] preds = new double[m._output.nclasses() + 1];
+      for (int r = 0; r < chks[0]._len; ++r) {
+        double w = _weightsIdx >= 0 ? chks[_weightsIdx].atd(r) : 1;
+        if (w == 0) continue;
+        double offset = _offsetIdx >= 0 ? chks[_offsetIdx].atd(r) : 0;
+        for (int c = 0; c < row.length; ++c)
+          row[c] = chks[c].atd(r);
+        for (int p = 0, k = 0; p < _cols.length; ++p) {
+          for (double v : _values[p]) {
+            System.arraycopy(row, 0, tmp, 0, row.length); // score0 may change its input
+            tmp[_cols[p]] = v;
+            double[] ps = m.score0(tmp, preds, 1, offset);
+            if (correct)
+              GenModel.correctProbabilities(ps, m._output._priorClassDist, m._output._modelClassDist);
+            add(k++, ps[_predIdx], w);
+          }
+        }
+      }
+    }
+
+    private int offset(int p) {
+      int k = 0;
+      for (int i = 0; i < p; ++i) k += _values[i].length;
+      return k;
+    }
+
+    double[] means(int p) {
+      double[] res = new double[_values[p].length];
+      for (int j = 0, k = offset(p); j < res.length; ++j, ++k)
+        res[j] = mean(k);
+      return res;
+    }
+
+    double[] stddevs(int p) {
+      double[] res = new double[_values[p].length];
+      for (int j = 0, k = offset(p); j < res.length; ++j, ++k)
+        res[j] = stddev(k);
+      return res;
+    }
+  }
+
   @Override public Class<KeyV3.PartialDependenceKeyV3> makeSchema() { return KeyV3.PartialDependenceKeyV3.class; }
 }
 
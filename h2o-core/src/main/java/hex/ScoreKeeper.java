@@ -98,6 +98,24 @@ public class ScoreKeeper extends Iced {
     return (criterion == StoppingMetric.AUC || criterion == StoppingMetric.lift_top_group);
   }
 
+  /** Value of the given metric (other than AUTO) */
+  public double value(StoppingMetric criterion) {
+    switch (criterion) {
+      case AUC:                  return _AUC;
+      case MSE:                  return _mse;
+      case RMSE:                 return _rmse;
+      case MAE:                  return _mae;
+      case RMSLE:                return _rmsle;
+      case deviance:             return _mean_residual_deviance;
+      case logloss:              return _logloss;
+      case misclassification:    return _classError;
+      case mean_per_class_error: return _mean_per_class_error;
+      case lift_top_group:       return _lift;
+      default:
+        throw H2O.unimpl("Undefined stopping criterion.");
+    }
+  }
+
   /** Based on the given array of ScoreKeeper and stopping criteria should we stop early? */
   public static boolean stopEarly(ScoreKeeper[] sk, int k, boolean classification, StoppingMetric criterion, double rel_improvement, String what, boolean verbose) {
     if (k == 0) return false;
@@ -137,42 +155,7 @@ public class ScoreKeeper extends Iced {
 
       int startIdx = sk.length-2*k+i;
       for (int j = 0; j < k; ++j) {
-        ScoreKeeper skj = sk[startIdx+j];
-        double val;
-        switch (criterion) {
-          case AUC:
-            val = skj._AUC;
-            break;
-          case MSE:
-            val = skj._mse;
-            break;
-          case RMSE:
-            val = skj._rmse;
-            break;
-          case MAE:
-            val = skj._mae;
-            break;
-          case RMSLE:
-            val = skj._rmsle;
-            break;
-          case deviance:
-            val = skj._mean_residual_deviance;
-            break;
-          case logloss:
-            val = skj._logloss;
-            break;
-          case misclassification:
-            val = skj._classError;
-            break;
-          case mean_per_class_error:
-            val = skj._mean_per_class_error;
-            break;
-          case lift_top_group:
-            val = skj._lift;
-            break;
-          default:
-            throw H2O.unimpl("Undefined stopping criterion.");
-        }
+        double val = sk[startIdx+j].value(criterion);
         movingAvg[i] += val;
       }
       movingAvg[i]/=k;
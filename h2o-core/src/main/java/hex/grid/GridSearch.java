@@ -12,6 +12,9 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
 
 /**
@@ -30,6 +33,9 @@ import java.util.Map;
  * representation of Grid into distributed KV store, and for each parameter in hyper space of
  * possible parameters, it launches a separated model building job. The launch of jobs is sequential
  * and blocking. So after finish the last model, whole grid search job is done as well.
+ * With {@link HyperSpaceSearchCriteria#parallelism()} other than 1, several models are built at the
+ * same time, each under its own job; with {@link HyperSpaceSearchCriteria#pruning_factor()}, models
+ * falling behind the others part way through their build are stopped.
  *
  * By default, the grid search invokes cartezian grid search, but it can be
  * modified by passing explicit hyper space walk strategy via the
@@ -86,6 +92,11 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
   Job<Grid> start() {
     final long gridSize = _hyperSpaceWalker.getMaxHyperSpaceSize();
     Log.info("Starting gridsearch: estimated size of search space = " + gridSize);
+    HyperSpaceSearchCriteria search_criteria = _hyperSpaceWalker.search_criteria();
+    if (search_criteria.parallelism() < 0)
+      throw new H2OIllegalArgumentException("search_criteria.parallelism", "grid", "Parallelism has to be positive, or 0 to choose it automatically: " + search_criteria.parallelism());
+    if (search_criteria.pruning_factor() != 0 && !(search_criteria.pruning_factor() >= 2))
+      throw new H2OIllegalArgumentException("search_criteria.pruning_factor", "grid", "Pruning factor has to be at least 2, or 0 to disable pruning: " + search_criteria.pruning_factor());
     // Create grid object and lock it
     // Creation is done here, since we would like make sure that after leaving
     // this function the grid object is in DKV and accessible.
@@ -158,6 +169,11 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
    * @param grid grid object to save results; grid already locked
    */
   private void gridSearch(Grid<MP> grid) {
+    HyperSpaceSearchCriteria search_criteria = _hyperSpaceWalker.search_criteria();
+    if (search_criteria.parallelism() != 1 || search_criteria.pruning_factor() > 0) {
+      concurrentGridSearch(grid, parallelism(search_criteria.parallelism()), search_criteria.pruning_factor());
+      return;
+    }
     Model model = null;
     // Prepare nice model key and override default key by appending model counter
     //String protoModelKey = _hyperSpaceWalker.getParams()._model_id == null
@@ -192,18 +208,7 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
           // exception up, just mark combination of model parameters as wrong
 
           // Do we need to limit the model build time?
-          if (max_runtime_secs > 0) {
-            Log.info("Grid time is limited to: " + max_runtime_secs + " for grid: " + grid._key + ". Remaining time is: " + time_remaining_secs);
-            double scale = params._nfolds > 0 ? params._nfolds+1 : 1; //remaining time per cv model is less
-            if (params._max_runtime_secs == 0) { // unlimited
-              params._max_runtime_secs = time_remaining_secs/scale;
-              Log.info("Due to the grid time limit, changing model max runtime to: " + params._max_runtime_secs + " secs.");
-            } else {
-              double was = params._max_runtime_secs;
-              params._max_runtime_secs = Math.min(params._max_runtime_secs, time_remaining_secs/scale);
-              Log.info("Due to the grid time limit, changing model max runtime from: " + was + " secs to: " + params._max_runtime_secs + " secs.");
-            }
-          }
+          if (max_runtime_secs > 0) limitRuntime(params, grid, max_runtime_secs, time_remaining_secs);
 
           try {
             ScoringInfo scoringInfo = new ScoringInfo();
@@ -251,6 +256,313 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
     }
   }
 
+  /**
+   * Grid search building up to {@code parallelism} models at the same time, each under its own Job, so
+   * small models do not leave most of the cloud idle.  This thread launches the builds, polls them, and
+   * does all the bookkeeping of the grid.  With a pruning factor, models losing to the models seen so far
+   * are stopped part way, see {@link SuccessiveHalving}.
+   *
+   * Models are handed to the hyper space walker in the order they finish, not the order they started.
+   *
+   * @param grid grid object to save results; grid already locked
+   * @param parallelism number of models to build at the same time
+   * @param pruning_factor successive halving factor, or 0 to build all models to the end
+   */
+  private void concurrentGridSearch(Grid<MP> grid, int parallelism, double pruning_factor) {
+    Log.info("Grid " + grid._key + " builds up to " + parallelism + " models at the same time" +
+             (pruning_factor > 0 ? ", pruned by successive halving with factor " + pruning_factor : ""));
+    String protoModelKey = grid._key + "_model_";
+    SuccessiveHalving pruner = pruning_factor > 0 ? new SuccessiveHalving(pruning_factor, _hyperSpaceWalker.search_criteria().stopping_metric()) : null;
+    ArrayList<ModelBuild<MP>> running = new ArrayList<>();
+    Model model = null;
+    try {
+      HyperSpaceWalker.HyperSpaceIterator<MP> it = _hyperSpaceWalker.iterator();
+      int counter = grid.getModelCount();
+      boolean launch = true;
+      while (true) {
+        if (_job.stop_requested()) {  // Handle end-user cancel request, and wait for the builds to stop
+          launch = false;
+          for (ModelBuild<MP> b : running) b._job.stop();
+        }
+        while (launch && running.size() < parallelism) {
+          if (!it.hasNext(model)) { launch = false; break; }
+          double max_runtime_secs = it.max_runtime_secs();
+          double time_remaining_secs = Double.MAX_VALUE;
+          if (max_runtime_secs > 0) {
+            time_remaining_secs = it.time_remaining_secs();
+            if (time_remaining_secs < 0) {
+              Log.info("Grid max_runtime_secs of " + max_runtime_secs + " secs has expired; stopping early.");
+              launch = false;
+              break;
+            }
+          }
+          MP params;
+          try {
+            params = it.nextModelParameters(model);
+          } catch (IllegalArgumentException e) {
+            Log.warn("Grid search: construction of model parameters failed! Exception: ", e);
+            it.modelFailed(model);
+            grid.appendFailedModelParameters(it.getCurrentRawParameters(), e);
+            _job.update(1);
+            grid.update(_job);
+            continue;
+          }
+          if (max_runtime_secs > 0) limitRuntime(params, grid, max_runtime_secs, time_remaining_secs);
+          long checksum = params.checksum();
+          try {
+            Model cached = findModel(checksum, grid);
+            if (cached == null) {
+              running.add(startModelBuild(Key.<Model>make(protoModelKey + counter++), params, checksum));
+              continue;
+            }
+            model = cached;
+            modelBuilt(grid, cached);
+          } catch (RuntimeException e) { // Catch everything
+            Log.warn("Grid search: model builder for parameters " + params + " failed! Exception: ", e);
+            grid.appendFailedModelParameters(params, e);
+          }
+          _job.update(1);
+          grid.update(_job);
+          if (model != null && stopEarly(model, grid)) launch = false;
+        }
+        if (running.isEmpty()) break;
+
+        try { Thread.sleep(POLL_MS); } catch (InterruptedException ignore) { }
+        for (Iterator<ModelBuild<MP>> i = running.iterator(); i.hasNext(); ) {
+          ModelBuild<MP> b = i.next();
+          _job.update(b.progress());
+          if (b._job.isRunning()) {
+            if (pruner != null && b._pruned == null) pruner.check(b);
+            continue;
+          }
+          i.remove();
+          Model m = finishModelBuild(b, grid, pruner);
+          if (m != null) {
+            model = m;
+            if (stopEarly(model, grid)) launch = false;
+          }
+          grid.update(_job);
+        }
+      }
+      Log.info("For grid: " + grid._key + " built: " + grid.getModelCount() + " models.");
+    } finally {
+      for (ModelBuild<MP> b : running) {  // Only left on failure
+        b._job.stop();
+        try { b._job.get(); } catch (RuntimeException ignore) { }
+      }
+      grid.unlock(_job);
+    }
+  }
+
+  private static final long POLL_MS = 100;
+
+  /** Amount of cloud cores and memory a model is assumed to keep busy, relative to its training frame. */
+  private static final int MODEL_MEMORY_FACTOR = 4;
+
+  /**
+   * Number of models to build at the same time.  For 0, as many as fit both the cores of the cloud, if
+   * each model keeps as many cores busy as the training frame has chunks, and the free memory, if each
+   * model needs a few times the size of the training frame.
+   */
+  private int parallelism(int requested) {
+    if (requested > 0) return requested;
+    Frame train = _hyperSpaceWalker.getParams().train();
+    int cores = 0;
+    for (H2ONode node : H2O.CLOUD.members())
+      cores += node._heartbeat._cpus_allowed;
+    cores = Math.max(cores, H2O.NUMCPUS);
+    int n = Math.max(1, cores / Math.max(1, train.anyVec().nChunks()));
+    long free = H2O.CLOUD.free_mem();
+    long perModel = MODEL_MEMORY_FACTOR * train.byteSize();
+    if (free > 0 && perModel > 0)
+      n = (int) Math.max(1, Math.min(n, free / perModel));
+    return n;
+  }
+
+  private boolean stopEarly(Model model, Grid<MP> grid) {
+    if (grid.getScoringInfos() != null && _hyperSpaceWalker.stopEarly(model, grid.getScoringInfos())) {
+      Log.info("Convergence detected based on simple moving average of the loss function. Grid building completed.");
+      return true;
+    }
+    return false;
+  }
+
+  private void modelBuilt(Grid<MP> grid, Model model) {
+    ScoringInfo scoringInfo = new ScoringInfo();
+    scoringInfo.time_stamp_ms = System.currentTimeMillis();
+    model.fillScoringInfo(scoringInfo);
+    grid.setScoringInfos(ScoringInfo.prependScoringInfo(scoringInfo, grid.getScoringInfos()));
+    ScoringInfo.sort(grid.getScoringInfos(), _hyperSpaceWalker.search_criteria().stopping_metric());
+  }
+
+  /** Starts a model build under its own Job, so it can be stopped on its own. */
+  private ModelBuild<MP> startModelBuild(Key<Model> result, MP params, long checksum) {
+    Job<Model> job = new Job<>(result, params.javaName(), params.algoName());
+    ModelBuilder mb = ModelBuilder.make(params.algoName(), job, result);
+    mb._parms = params;
+    mb.trainModel();
+    return new ModelBuild<>(params, checksum, job);
+  }
+
+  /** Records a stopped build in the grid; returns the model, or null if it failed, was pruned or cancelled. */
+  private Model finishModelBuild(ModelBuild<MP> b, Grid<MP> grid, SuccessiveHalving pruner) {
+    _job.update(b._job._work - b._worked); // The rest of the model's work, as counted in gridWork
+    Model m;
+    try {
+      m = b._job.get();
+    } catch (RuntimeException e) {
+      Log.warn("Grid search: model builder for parameters " + b._params + " failed! Exception: ", e);
+      grid.appendFailedModelParameters(b._params, e);
+      return null;
+    }
+    // The rungs it went past between two polls count too, however fast the build
+    if (pruner != null && b._pruned == null && m != null && !b._job.stop_requested())
+      pruner.advance(b, m, true);
+    if (b._pruned != null) {
+      Log.info("Grid search: " + b._job._result + " " + b._pruned);
+      if (m != null) m.delete();
+      grid.appendFailedModelParameters(b._params, new ModelPrunedException(b._pruned));
+      return null;
+    }
+    if (b._job.stop_requested() || m == null) {
+      grid.appendFailedModelParameters(b._params, new Job.JobCancelledException());
+      return null;
+    }
+    grid.putModel(b._checksum, m._key);
+    modelBuilt(grid, m);
+    return m;
+  }
+
+  /** A model being built by {@link #concurrentGridSearch}. */
+  private static final class ModelBuild<MP extends Model.Parameters> {
+    final MP _params;
+    final long _checksum;     // Of the parameters before the builder modified them
+    final Job<Model> _job;
+    long _worked;             // Work of the model's job already added to the grid's job
+    int _rung;                // Next rung of successive halving
+    String _pruned;           // Why it was stopped, if pruned
+
+    ModelBuild(MP params, long checksum, Job<Model> job) { _params = params; _checksum = checksum; _job = job; }
+
+    /** Work done since the last call */
+    long progress() {
+      long worked = (long) (_job.progress() * _job._work);
+      long delta = Math.max(0, worked - _worked);
+      _worked += delta;
+      return delta;
+    }
+  }
+
+  /**
+   * Asynchronous successive halving.  A model's build has rungs at 1/eta^3, 1/eta^2 and 1/eta of its
+   * progress.  Once it has been scored past a rung, its score on the stopping metric as of the rung (the
+   * last one at or before the rung, see {@link Model#scoreKeepersProgress}) is recorded for the rung, and
+   * unless it is among the best 1/eta of all scores recorded for the rung so far, the model is stopped.
+   * So all the models are compared after the same amount of training, whenever they are polled.
+   * No model is stopped at a rung which has fewer than eta scores.  Models without a scoring history (or
+   * whose history is only kept at the end, or does not tell how far the build was) are never stopped.
+   */
+  static final class SuccessiveHalving {
+    static final int RUNGS = 3;
+    final double _eta;
+    final ScoreKeeper.StoppingMetric _metric;
+    final double[] _rungs = new double[RUNGS];
+    final double[][] _scores = new double[RUNGS][];
+    final int[] _nscores = new int[RUNGS];
+
+    SuccessiveHalving(double eta, ScoreKeeper.StoppingMetric metric) {
+      _eta = eta;
+      _metric = metric;
+      for (int r = 0; r < RUNGS; r++) {
+        _rungs[r] = Math.pow(eta, r - RUNGS);
+        _scores[r] = new double[4];
+      }
+    }
+
+    /** Moves a running build past the rungs it got to, and stops it if it is pruned at one. */
+    void check(ModelBuild<?> b) {
+      if (b._rung == RUNGS || b._job.progress() < _rungs[b._rung]) return;
+      Model m = DKV.getGet(b._job._result);
+      if (m != null && !advance(b, m, false)) b._job.stop();
+    }
+
+    /** Moves a build past the rungs its scoring history covers (all of them once finished); false if it is pruned. */
+    boolean advance(ModelBuild<?> b, Model m, boolean finished) {
+      ScoreKeeper[] sk = m.scoreKeepers();
+      double[] progress = m.scoreKeepersProgress();
+      if (sk == null || progress == null || sk.length == 0 || progress.length != sk.length) return true;
+      ScoreKeeper.StoppingMetric metric = _metric == ScoreKeeper.StoppingMetric.AUTO
+          ? (m._output.nclasses() > 1 ? ScoreKeeper.StoppingMetric.logloss : ScoreKeeper.StoppingMetric.deviance)
+          : _metric;
+      int rung = advance(b._rung, sk, progress, metric, finished);
+      if (rung >= 0) {
+        b._rung = rung;
+        return true;
+      }
+      int r = -1 - rung;
+      b._rung = r + 1;
+      b._pruned = "pruned at " + Math.round(100 * _rungs[r]) + "% of its build, " + metric + " = " + sk[scoredAt(progress, _rungs[r])].value(metric);
+      return false;
+    }
+
+    /**
+     * Records the scores of a model for the rungs from {@code rung} on that its scoring history covers.
+     * @param sk scoring history of the model
+     * @param progress fraction of the build done at each event of the history
+     * @param finished whether the build is over, so the history covers all the rungs
+     * @return the next rung of the model, or -1-r if it is pruned at rung r
+     */
+    int advance(int rung, ScoreKeeper[] sk, double[] progress, ScoreKeeper.StoppingMetric metric, boolean finished) {
+      for (; rung < RUNGS; rung++) {
+        if (!finished && progress[progress.length - 1] < _rungs[rung]) break; // Not scored past the rung yet
+        int e = scoredAt(progress, _rungs[rung]);
+        if (e < 0) continue;  // Not scored by the rung, not compared there
+        double score = sk[e].value(metric);
+        if (Double.isNaN(score)) continue;
+        if (!ScoreKeeper.moreIsBetter(metric)) score = -score;  // Larger is better from here on
+        if (!promote(rung, score)) return -1 - rung;
+      }
+      return rung;
+    }
+
+    /** Last event at or before the given progress, or -1 */
+    private static int scoredAt(double[] progress, double rung) {
+      int e = -1;
+      for (int i = 0; i < progress.length && progress[i] <= rung; i++) e = i;
+      return e;
+    }
+
+    /** Records the score for the rung; true if it is among the best 1/eta recorded so far. */
+    boolean promote(int r, double score) {
+      if (_nscores[r] == _scores[r].length) _scores[r] = Arrays.copyOf(_scores[r], 2 * _nscores[r]);
+      _scores[r][_nscores[r]++] = score;
+      int n = _nscores[r];
+      if (n < _eta) return true;
+      int better = 0;
+      for (int i = 0; i < n; i++)
+        if (_scores[r][i] > score) better++;
+      return better < Math.max(1, (int) (n / _eta));
+    }
+  }
+
+  /** Failure recorded in the grid for a model stopped by successive halving. */
+  static final class ModelPrunedException extends RuntimeException {
+    ModelPrunedException(String msg) { super(msg); }
+  }
+
+  private void limitRuntime(MP params, Grid<MP> grid, double max_runtime_secs, double time_remaining_secs) {
+    Log.info("Grid time is limited to: " + max_runtime_secs + " for grid: " + grid._key + ". Remaining time is: " + time_remaining_secs);
+    double scale = params._nfolds > 0 ? params._nfolds+1 : 1; //remaining time per cv model is less
+    if (params._max_runtime_secs == 0) { // unlimited
+      params._max_runtime_secs = time_remaining_secs/scale;
+      Log.info("Due to the grid time limit, changing model max runtime to: " + params._max_runtime_secs + " secs.");
+    } else {
+      double was = params._max_runtime_secs;
+      params._max_runtime_secs = Math.min(params._max_runtime_secs, time_remaining_secs/scale);
+      Log.info("Due to the grid time limit, changing model max runtime from: " + was + " secs to: " + params._max_runtime_secs + " secs.");
+    }
+  }
+
   /**
    * Build a model based on specified parameters and save it to resulting Grid object.
    *
@@ -275,6 +587,25 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
     // FIXME: get checksum here since model builder will modify instance of params!!!
 
     final long checksum = params.checksum();
+    Model cached = findModel(checksum, grid);
+    if (cached != null) return cached;
+
+    // Modify model key to have nice version with counter
+    // Note: Cannot create it before checking the cache since checksum would differ for each model
+    Key<Model> result = Key.make(protoModelKey + paramsIdx);
+    // Build a new model
+    // THIS IS BLOCKING call since we do not have enough information about free resources
+    // FIXME: we should allow here any launching strategy (not only sequential)
+    Model m = (Model)startBuildModel(result,params, grid).dest().get();
+    grid.putModel(checksum, result);
+    return m;
+  }
+
+  /**
+   * Returns an already built model with parameters of the given checksum, from the grid or from the DKV (in
+   * which case it is added to the grid), or null if there is none.
+   */
+  private Model findModel(final long checksum, Grid<MP> grid) {
     Key<Model> key = grid.getModelKey(checksum);
     if (key != null) {
       if (DKV.get(key) == null) {
@@ -298,17 +629,7 @@ public final class GridSearch<MP extends Model.Parameters> extends Keyed<GridSea
       grid.putModel(checksum, modelKeys[0]);
       return modelKeys[0].get();
     }
-
-
-    // Modify model key to have nice version with counter
-    // Note: Cannot create it before checking the cache since checksum would differ for each model
-    Key<Model> result = Key.make(protoModelKey + paramsIdx);
-    // Build a new model
-    // THIS IS BLOCKING call since we do not have enough information about free resources
-    // FIXME: we should allow here any launching strategy (not only sequential)
-    Model m = (Model)startBuildModel(result,params, grid).dest().get();
-    grid.putModel(checksum, result);
-    return m;
+    return null;
   }
 
   /**
@@ -15,6 +15,30 @@ public class HyperSpaceSearchCriteria extends Iced {
 
   public ScoreKeeper.StoppingMetric stopping_metric() { return ScoreKeeper.StoppingMetric.AUTO; }
 
+  private int _parallelism = 1;
+  private double _pruning_factor = 0;
+
+  /**
+   * Number of models to build at the same time.  1 (the default) builds them one after another; 0 sizes it
+   * from the cores of the cloud per chunk of the training frame, and from the free memory per model.
+   */
+  public int parallelism() { return _parallelism; }
+
+  /**
+   * Early termination of unpromising models, by asynchronous successive halving: at each of the rungs 1/f^3,
+   * 1/f^2 and 1/f of its build a model has to score among the best 1/f of the models which got there, or it
+   * is stopped.  Models are compared on <i>stopping_metric</i>.  Needs a factor of at least 2; 0 disables.
+   */
+  public double pruning_factor() { return _pruning_factor; }
+
+  public void set_parallelism(int _parallelism) {
+    this._parallelism = _parallelism;
+  }
+
+  public void set_pruning_factor(double _pruning_factor) {
+    this._pruning_factor = _pruning_factor;
+  }
+
 
 // TODO: add a factory which accepts a Strategy and calls the right constructor
 
@@ -99,6 +99,7 @@ public class GridSearchSchema<G extends Grid<MP>,
     } else {
       // Fall back to Cartesian if there's no search_criteria specified.
       search_criteria = new HyperSpaceSearchCriteriaV99.CartesianSearchCriteriaV99();
+      search_criteria.fillWithDefaults();
     }
 
 
@@ -16,6 +16,12 @@ public class HyperSpaceSearchCriteriaV99<I extends HyperSpaceSearchCriteria, S e
   @API(help = "Hyperparameter space search strategy.", required = true, values = { "Unknown", "Cartesian", "RandomDiscrete" }, direction = API.Direction.INOUT)
   public HyperSpaceSearchCriteria.Strategy strategy;
 
+  @API(help = "Number of models to build at the same time (1 to build them one by one, 0 to size it from the cloud's cores and free memory).", required = false, level = API.Level.secondary, direction = API.Direction.INOUT)
+  public int parallelism;
+
+  @API(help = "Successive halving factor f: stop models which are not among the best 1/f at 1/f^3, 1/f^2 and 1/f of their build, by stopping_metric (0 to disable).", required = false, level = API.Level.secondary, direction = API.Direction.INOUT)
+  public double pruning_factor;
+
 // TODO: add a factory which accepts a Strategy and calls the right constructor
 
   /**
@@ -82,6 +82,14 @@ public final class AutoBuffer {
   // asserts all over the place.
   private boolean _firstPage;
 
+  // TRUE if writing to a TCP_BIG_FRAMED channel: every buffer is sent as a
+  // frame, prefixed with its length, so the receiver can find the end of the
+  // message without deserializing it (see TCPReceiverThread.MsgChannel).
+  private boolean _framed;
+
+  // TRUE if reading a message streamed from a TCP_BIG_FRAMED channel.
+  private boolean _tcpMsg;
+
 
   // Total size written out from 'new' to 'close'.  Only updated when actually
   // reading or writing data, or after close().  For profiling only.
@@ -219,6 +227,24 @@ public final class AutoBuffer {
     _size = len;
   }
 
+  /** Read a message from a TCP_BIG_FRAMED channel; the channel hands out the
+   *  bytes of this one message, and is at its end after the 0xab sentinel.
+   *  Blocks until the first bytes are in. */
+  AutoBuffer( H2ONode h2o, TCPReceiverThread.MsgChannel chan ) {
+    _chan = chan;
+    _h2o = h2o;
+    _bb = BBP_BIG.make();       // Get a big / TPC-sized ByteBuffer
+    _bb.flip();
+    _read = true;
+    _firstPage = true;
+    _tcpMsg = true;
+    getSz(16);                  // The header bytes read by getCtrl(), getTask()..., and the TimeLine
+    _bb.position(0);
+    _firstPage = true;          // Yes, must reset this.
+    _time_start_ms = System.currentTimeMillis();
+    _persist = Value.TCP;
+  }
+
   /** Read from a fixed byte[]; should not be closed. */
   public AutoBuffer( byte[] buf ) { this(null,buf,0, buf.length); }
 
@@ -441,11 +467,12 @@ public final class AutoBuffer {
             assert x == 0xab : "AB.close instead of 0xab sentinel got "+x+", "+this;
             assert _chan != null; // chan set by incoming reader, since we KNOW it is a TCP
             // Write the reader-handshake-byte.
-            SocketChannelUtils.underlyingSocketChannel(_chan).socket().getOutputStream().write(0xcd);
+            if( _tcpMsg ) ((TCPReceiverThread.MsgChannel)_chan).handshake();
+            else SocketChannelUtils.underlyingSocketChannel(_chan).socket().getOutputStream().write(0xcd);
             // do not close actually reader socket; recycle it in TCPReader thread
           } else {              // Writer?
             put1(0xab);         // Write one-more byte  ; might set _chan from null to not-null
-            sendPartial();      // Finish partial writes; might set _chan from null to not-null
+            sendPartial(true);  // Finish partial writes; might set _chan from null to not-null
             assert _chan != null; // _chan is set not-null now!
             // Read the writer-handshake-byte.
             int x = SocketChannelUtils.underlyingSocketChannel(_chan).socket().getInputStream().read();
@@ -458,7 +485,7 @@ public final class AutoBuffer {
           _chan = null;         // No channel now, since i/o error
           throw ioe;            // Rethrow after close
         } finally {
-          if( !_read ) _h2o.freeTCPSocket(_chan); // Recycle writable TCP channel
+          if( !_read ) _h2o.freeTCPSocket(_chan, _framed); // Recycle writable TCP channel
           restorePriority();        // And if we raised priority, lower it back
         }
 
@@ -485,7 +512,8 @@ public final class AutoBuffer {
     assert _firstPage && _bb.limit() >= 1+2+4; // At least something written
     assert _chan == null;
 //    assert _bb.position()==0;
-    _chan = _h2o.getTCPSocket();
+    _framed = _h2o.framedTCP();
+    _chan = _h2o.getTCPSocket(_framed);
     raisePriority();
   }
 
@@ -502,7 +530,7 @@ public final class AutoBuffer {
     if( chan != null ) {                  // Channel assumed sick from prior IOException
       try { chan.close(); } catch( IOException ignore ) {} // Silently close
       _chan = null;                       // No channel now!
-      if( !_read && SocketChannelUtils.isSocketChannel(chan)) _h2o.freeTCPSocket(chan); // Recycle writable TCP channel
+      if( !_read && SocketChannelUtils.isSocketChannel(chan)) _h2o.freeTCPSocket(chan, _framed); // Recycle writable TCP channel
     }
     restorePriority();          // And if we raised priority, lower it back
     bbFree();
@@ -512,7 +540,7 @@ public final class AutoBuffer {
   }
 
   // True if we opened a TCP channel, or will open one to close-and-send
-  boolean hasTCP() { assert !isClosed(); return SocketChannelUtils.isSocketChannel(_chan) || (_h2o!=null && _bb.position() >= MTU); }
+  boolean hasTCP() { assert !isClosed(); return _tcpMsg || SocketChannelUtils.isSocketChannel(_chan) || (_h2o!=null && _bb.position() >= MTU); }
 
   // Size in bytes sent, after a close()
   int size() { return _size; }
@@ -652,7 +680,8 @@ public final class AutoBuffer {
 
   // Do something with partial results, because the ByteBuffer is full.
   // If we are doing I/O, ship the bytes we have now and flip the ByteBuffer.
-  private ByteBuffer sendPartial() {
+  private ByteBuffer sendPartial() { return sendPartial(false); }
+  private ByteBuffer sendPartial( boolean last ) {
     // Doing I/O with the full ByteBuffer - ship partial results
     _size += _bb.position();
     if( _chan == null )
@@ -664,6 +693,15 @@ public final class AutoBuffer {
         tcpOpen(); // This is a big operation.  Open a TCP socket as-needed.
       //for( int i=0; i < _bb.limit(); i++ ) if( _bb.get(i)==0 ) _zeros++;
       long ns = System.nanoTime();
+      if( _framed ) {           // Frame header, sent with the bytes in one write if possible
+        ByteBuffer hdr = ByteBuffer.allocate(4).order(ByteOrder.nativeOrder());
+        hdr.putInt(_bb.remaining() | (last ? TCPReceiverThread.LAST_FRAME : 0)).flip();
+        if( _chan instanceof GatheringByteChannel ) {
+          ByteBuffer[] bbs = new ByteBuffer[]{hdr, _bb};
+          while( hdr.hasRemaining() || _bb.hasRemaining() ) ((GatheringByteChannel)_chan).write(bbs);
+        } else
+          while( hdr.hasRemaining() ) _chan.write(hdr);
+      }
       while( _bb.hasRemaining() ) {
         _chan.write(_bb);
         if( RANDOM_TCP_DROP != null && SocketChannelUtils.isSocketChannel(_chan) && RANDOM_TCP_DROP.nextInt(100) == 0 )
@@ -43,6 +43,58 @@ class Cleaner extends Thread {
   // Desired cache level. Set by the MemoryManager asynchronously.
   static volatile long DESIRED;
 
+  // ---
+  // Eviction policy.  Values are written out and freed in order of their
+  // "eviction time": the time the policy pretends they were last used.  Both
+  // the Histo buckets and the cleaning pass use the same time, so the amount
+  // the Histo says to toss out is what the pass tosses out.
+  interface EvictionPolicy {
+    long evictionTime( Value val, long now );
+  }
+
+  // Plain LRU: by last access only
+  static final EvictionPolicy LRU = new EvictionPolicy() {
+    @Override public long evictionTime( Value val, long now ) { return val._lastAccessedTime; }
+  };
+
+  // Cost-aware LRU-2: the age since last access is stretched by how cheap the
+  // Value is to get back, and doubled for Values never re-used.  A raw-file
+  // Chunk read once by the parse goes well before the working set of an
+  // iterative algorithm, which would have to be swapped out and back in.
+  static final EvictionPolicy COST = new EvictionPolicy() {
+    @Override public long evictionTime( Value val, long now ) {
+      long last = val._lastAccessedTime;
+      if( last >= now ) return last;
+      long w = COST_WEIGHT[costClass(val)];
+      if( val._prevAccessedTime == 0 ) w <<= 1; // Not re-used; not part of a working set
+      return now - (now-last)*w;
+    }
+  };
+
+  static EvictionPolicy policy() { return "cost".equals(H2O.ARGS.cleaner_policy) ? COST : LRU; }
+
+  // Accesses closer together than this are one reference for the policy
+  static final long CORRELATED_REF_MS = 1000;
+
+  // Cost classes, cheapest to get back first
+  static final int FILE = 0;    // Persisted on its original backend: re-read from NFS/HDFS/S3
+  static final int REMOTE = 1;  // Cached copy of a Value homed elsewhere: re-fetch over the wire
+  static final int SPILLED = 2; // Already on ice or off-heap: reload locally
+  static final int LOCAL = 3;   // Only copy is on the heap: must be spilled first
+  static final String[] COST_CLASSES = new String[]{"file","remote","spilled","local"};
+  private static final int[] COST_WEIGHT = new int[]{4,2,2,1};
+  static int costClass( Value val ) {
+    if( val.isPersisted() && !val.onICE() ) return FILE;
+    if( !val._key.home() ) return REMOTE;
+    if( val.isPersisted() || val.isOffHeap() ) return SPILLED;
+    return LOCAL;
+  }
+
+  // Values freed from the heap, per cost class.  Only written by the Cleaner
+  // thread; read (racily) for the WaterMeterIo stats.
+  static final long[] EVICTED_COUNT = new long[COST_CLASSES.length];
+  static final long[] EVICTED_BYTES = new long[COST_CLASSES.length];
+
   Cleaner() {
     super("MemCleaner");
     setDaemon(true);
@@ -109,10 +161,12 @@ class Cleaner extends Thread {
       long cleaned = 0;         // Disk i/o bytes
       long freed = 0;           // memory freed bytes
       long io_ns = 0;           // i/o ns writing
+      long offheaped = 0;       // bytes moved to the off-heap tier
 
       // For faster K/V store walking get the NBHM raw backing array,
       // and walk it directly.
       Object[] kvs = H2O.STORE.raw_array();
+      EvictionPolicy policy = h._policy;
 
       // Start the walk at slot 2, because slots 0,1 hold meta-data
       for( int i=2; i<kvs.length; i += 2 ) {
@@ -129,7 +183,7 @@ class Cleaner extends Thread {
         // Ignore things younger than the required age.  In particular, do
         // not spill-to-disk all dirty things we find.
         long touched = val._lastAccessedTime;
-        if( touched > clean_to_age ) { // Too recently touched?
+        if( policy.evictionTime(val,h._when) > clean_to_age ) { // Too recently touched?
           // But can toss out a byte-array if already deserialized & on disk
           // (no need for both forms).  Note no savings for Chunks, for which m==p._mem
           if( val.isPersisted() && m != null && p != null && !isChunk ) {
@@ -139,8 +193,8 @@ class Cleaner extends Thread {
           dirty_store(touched); // But may write it out later
           continue;             // Too young
         }
-        // Spiller turned off?
-        if( !H2O.ARGS.cleaner ) continue;
+        // Spiller and off-heap tier turned off?
+        if( !H2O.ARGS.cleaner && !MemoryManager.offHeapEnabled() ) continue;
 
         // CNC - Memory cleaning turned off, except for Chunks
         // Too many POJOs are written to dynamically; cannot spill & reload
@@ -148,7 +202,11 @@ class Cleaner extends Thread {
 
         // Should I write this value out to disk?
         // Should I further force it from memory?
-        if( isChunk && !val.isPersisted() && !diskFull && ((Key)ok).home() ) { // && (force || (lazyPersist() && lazy_clean(key)))) {
+        // Under pressure, prefer moving it off-heap: reloading is then a
+        // memory copy, not disk i/o.  Not done lazily, as the tier is small.
+        if( isChunk && force && !val.isPersisted() && !val.isOffHeap() && ((Key)ok).home() && val.storeOffHeap() )
+          offheaped += val._max;
+        if( H2O.ARGS.cleaner && isChunk && !val.isPersisted() && !val.isOffHeap() && !diskFull && ((Key)ok).home() ) { // && (force || (lazyPersist() && lazy_clean(key)))) {
           long now_ns = System.nanoTime();
           try { val.storePersist(); } // Write to disk
           catch( FileNotFoundException fnfe ) { continue; } // Can happen due to racing key delete/remove
@@ -165,7 +223,10 @@ class Cleaner extends Thread {
           io_ns += System.nanoTime() - now_ns; // Accumulate i/o time
         }
         // And, under pressure, free all
-        if( isChunk && force && (val.isPersisted() || !((Key)ok).home()) ) {
+        if( isChunk && force && (val.isPersisted() || val.isOffHeap() || !((Key)ok).home()) ) {
+          int cc = costClass(val);
+          EVICTED_COUNT[cc]++;
+          EVICTED_BYTES[cc] += val._max;
           val.freeMem ();  if( m != null ) freed += val._max;  m = null;
           val.freePOJO();  if( p != null ) freed += val._max;  p = null;
           if( isChunk ) freed -= val._max; // Double-counted freed mem for Chunks since val._pojo._mem & val._mem are the same.
@@ -183,7 +244,8 @@ class Cleaner extends Thread {
       }
 
       String s1 = "Cleaner pass took: "+PrettyPrint.msecs(System.currentTimeMillis()-now,true)+
-                  ", spilled "+PrettyPrint.bytes(cleaned)+" in "+PrettyPrint.usecs(io_ns>>10);
+                  ", spilled "+PrettyPrint.bytes(cleaned)+" in "+PrettyPrint.usecs(io_ns>>10)+
+                  ", moved off-heap "+PrettyPrint.bytes(offheaped)+" (off-heap total "+PrettyPrint.bytes(MemoryManager.offHeapUsed())+")";
       h = Histo.current(true); // Force a new histogram
       MemoryManager.set_goals("postclean",false);
       // No logging if under memory pressure: can deadlock the cleaner thread
@@ -231,6 +293,7 @@ class Cleaner extends Thread {
     long _total;  // Total data in local K/V
     long _when;   // When was this histogram computed
     long _swapped;// On-disk stuff
+    final EvictionPolicy _policy; // Ordering of Values in the histogram
     Value _vold;  // For assertions: record the oldest Value
     boolean _clean; // Was "clean" K/V when built?
 
@@ -238,6 +301,7 @@ class Cleaner extends Thread {
     Histo( long eldest ) {
       Arrays.fill(_hs, 0);
       _when = System.currentTimeMillis();
+      _policy = policy();
       _eldest = eldest; // Eldest seen in some prior pass
       _hStep = Math.max(1,(_when-eldest)/_hs.length);
       boolean clean = _dirty==Long.MAX_VALUE;
@@ -267,12 +331,13 @@ class Cleaner extends Thread {
         if( len == 0 ) continue;
         cached += len; // Accumulate total amount of cached keys
 
-        if( val._lastAccessedTime < oldest ) { // Found an older Value?
+        long t = _policy.evictionTime(val,_when);
+        if( t < oldest ) { // Found an older Value?
           vold = val; // Record oldest Value seen
-          oldest = val._lastAccessedTime;
+          oldest = t;
         }
         // Compute histogram bucket
-        int idx = (int)((val._lastAccessedTime - eldest)/_hStep);
+        int idx = (int)((t - eldest)/_hStep);
         if( idx < 0 ) idx = 0;
         else if( idx >= _hs.length ) idx = _hs.length-1;
         _hs[idx] += len;      // Bump histogram bucket
@@ -119,6 +119,24 @@ final public class H2O {
             "    -ice_root <fileSystemPath>\n" +
             "          The directory where H2O spills temporary data to disk.\n" +
             "\n" +
+            "    -off_heap_mem <megabytes>\n" +
+            "          Size of an off-heap (direct memory) tier holding the data of\n" +
+            "          least recently used Chunks, so they can be dropped from the Java\n" +
+            "          heap without swapping to disk.  Raise -XX:MaxDirectMemorySize\n" +
+            "          to match.  (The default is 0: disabled.)\n" +
+            "\n" +
+            "    -ice_segment_mb <megabytes>\n" +
+            "          Spill to disk by appending to segment files of this size\n" +
+            "          (memory-mapped for reloading) instead of one file per Key.\n" +
+            "          (The default is 0: one file per Key.)\n" +
+            "\n" +
+            "    -cleaner_policy <lru|cost>\n" +
+            "          Order in which cached data is swapped out under memory\n" +
+            "          pressure: 'lru' (the default) by last access time only,\n" +
+            "          'cost' also by how often it is used and how expensive it\n" +
+            "          is to get back (data re-readable from the imported file goes\n" +
+            "          first, data that has to be swapped to disk goes last).\n" +
+            "\n" +
             "    -log_dir <fileSystemPath>\n" +
             "          The directory where H2O writes logs to disk.\n" +
             "          (This usually has a good default that you need not change.)\n" +
@@ -248,6 +266,15 @@ final public class H2O {
     /** -cleaner; enable user-mode spilling of big data to disk in ice_root */
     public boolean cleaner = false;
 
+    /** -off_heap_mem=megabytes; size of the off-heap (direct memory) tier for cold Chunks; 0 to disable */
+    public int off_heap_mem = 0;
+
+    /** -ice_segment_mb=megabytes; batch spilled Values into memory-mapped segment files of this size; 0 for one file per Key */
+    public int ice_segment_mb = 0;
+
+    /** -cleaner_policy=lru|cost; order in which the Cleaner evicts cached Values */
+    public String cleaner_policy = "lru";
+
     /** -nthreads=nthreads; Max number of F/J threads in the low-priority batch queue */
     public short nthreads= (short)Runtime.getRuntime().availableProcessors();
 
@@ -518,6 +545,22 @@ final public class H2O {
         i = s.incrementAndCheck(i, args);
         ARGS.cleaner = true;
       }
+      else if (s.matches("off_heap_mem")) {
+        i = s.incrementAndCheck(i, args);
+        ARGS.off_heap_mem = s.parseInt(args[i]);
+      }
+      else if (s.matches("ice_segment_mb")) {
+        i = s.incrementAndCheck(i, args);
+        ARGS.ice_segment_mb = s.parseInt(args[i]);
+        if (ARGS.ice_segment_mb < 0 || ARGS.ice_segment_mb > 1024)
+          parseFailed("Argument ice_segment_mb must be between 0 and 1024 (was given '" + args[i] + "')");
+      }
+      else if (s.matches("cleaner_policy")) {
+        i = s.incrementAndCheck(i, args);
+        ARGS.cleaner_policy = args[i];
+        if (!ARGS.cleaner_policy.equals("cost") && !ARGS.cleaner_policy.equals("lru"))
+          parseFailed("Argument cleaner_policy must be one of 'lru' or 'cost' (was given '" + args[i] + "')");
+      }
       else if (s.matches("jks")) {
         i = s.incrementAndCheck(i, args);
         ARGS.jks = args[i];
@@ -1662,9 +1705,15 @@ final public class H2O {
     if( res != old ) return res; // Return the failure cause
     // Persistence-tickle.
     // If the K/V mapping is going away, remove the old guy.
-    // If the K/V mapping is changing, let the store cleaner just overwrite.
+    // If the K/V mapping is changing, let the store cleaner just overwrite,
+    // but stop the off-heap copies of the old guy and give back his spill
+    // segment space.
     // If the K/V mapping is new, let the store cleaner just create
     if( old != null && val == null ) old.removePersist(); // Remove the old guy
+    if( old != null && val != null && old != val ) {
+      if( key.isChunkKey() ) old.freeOffHeap(false); // Replaced; his off-heap copy goes with him
+      old.replacedPersist();    // and his spilled bytes
+    }
     if( val != null ) {
       Cleaner.dirty_store(); // Start storing the new guy
       if( old==null ) Scope.track_internal(key); // New Key - start tracking
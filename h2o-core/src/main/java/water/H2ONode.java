@@ -12,6 +12,7 @@ import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import water.RPC.RPCCall;
+import water.init.JarHash;
 import water.nbhm.NonBlockingHashMap;
 import water.nbhm.NonBlockingHashMapLong;
 import water.util.ArrayUtils;
@@ -243,11 +244,20 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
   // re-usable TCP socket opened to this node, or null.
   // This is essentially a BlockingQueue/Stack that allows null.
   private transient ByteChannel _socks[] = new ByteChannel[2];
+  private transient boolean _socksFramed[] = new boolean[_socks.length];
   private transient int _socksAvail=_socks.length;
   // Count of concurrent TCP requests both incoming and outgoing
   static final AtomicInteger TCPS = new AtomicInteger(0);
 
-  ByteChannel getTCPSocket() throws IOException {
+  // Big messages are sent framed (TCPReceiverThread.TCP_BIG_FRAMED) to nodes
+  // running the same build.  A node running another build (only possible with
+  // -md5skip) gets the unframed stream older receivers expect.
+  boolean framedTCP() {
+    HeartBeat hb = _heartbeat;
+    return hb != null && Arrays.equals(JarHash.JARHASH, hb._jar_md5);
+  }
+
+  ByteChannel getTCPSocket( boolean framed ) throws IOException {
     // Under lock, claim an existing open socket if possible
     synchronized(this) {
       // Limit myself to the number of open sockets from node-to-node
@@ -256,8 +266,9 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
       // Claim an open socket
       ByteChannel sock = _socks[--_socksAvail];
       if( sock != null ) {
-        if( sock.isOpen() ) return sock; // Return existing socket!
-        // Else it's an already-closed socket, lower open TCP count
+        if( sock.isOpen() && _socksFramed[_socksAvail] == framed ) return sock; // Return existing socket!
+        // Else it's an already-closed socket, or one of the other kind; lower open TCP count
+        try { sock.close(); } catch( IOException ignore ) { }
         assert TCPS.get() > 0;
         TCPS.decrementAndGet();
       }
@@ -269,7 +280,7 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
     boolean res = sock2.connect( _key );
     assert res && !sock2.isConnectionPending() && sock2.isBlocking() && sock2.isConnected() && sock2.isOpen();
     ByteBuffer bb = ByteBuffer.allocate(4).order(ByteOrder.nativeOrder());
-    bb.put((byte)2);
+    bb.put(framed ? TCPReceiverThread.TCP_BIG_FRAMED : TCPReceiverThread.TCP_BIG);
     bb.putChar((char)H2O.H2O_PORT);
     bb.put((byte)0xef);
     bb.flip();
@@ -280,10 +291,11 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
     TCPS.incrementAndGet();     // Cluster-wide counting
     return wrappedSocket;
   }
-  synchronized void freeTCPSocket( ByteChannel sock ) {
+  synchronized void freeTCPSocket( ByteChannel sock, boolean framed ) {
     assert 0 <= _socksAvail && _socksAvail < _socks.length;
     assert TCPS.get() > 0;
     if( sock != null && !sock.isOpen() ) sock = null;
+    _socksFramed[_socksAvail] = framed;
     _socks[_socksAvail++] = sock;
     if( sock == null ) TCPS.decrementAndGet();
     notify();
@@ -17,9 +17,11 @@ import java.io.*;
  * extremely dense (includes various compressions), and typically memory-bandwidth
  * bound to generate.
  * <p>
- * During startup time the Weaver creates a parallel set of classes called
+ * At build time the Weaver creates a parallel set of classes called
  * (classname)$Icer.  These provide bytestream and JSON serializers
  * and deserializers which get called by AutoBuffer.write* and AutoBuffer.read*.
+ * Icers missing from the build (e.g. for classes loaded at runtime) are
+ * created by the Weaver on first use.
  * <p>
  * To debug the automagic serialization code create a transient field in your Iced
  * class called DEBUG_WEAVER.  The generated source code will get written to STDOUT:
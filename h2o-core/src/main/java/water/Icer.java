@@ -9,6 +9,7 @@ import water.nbhm.UtilUnsafe;
 public abstract class Icer<T extends Freezable> {
   protected static final Unsafe _unsafe = UtilUnsafe.getUnsafe();
   private final T _new;
+  int _frozenType;              // Type id; set by the Weaver, as it is not known when the Icer is generated
   public Icer(T iced) {
     assert iced != null:"null freezable";
     _new=iced;
@@ -19,7 +20,7 @@ public abstract class Icer<T extends Freezable> {
   protected T read    (AutoBuffer ab, T ice) { /*base of the read call chain; no fields to read*/return ice; }
   protected T readJSON(AutoBuffer ab, T ice) { /*base of the read call chain; no fields to read*/return ice; }
   protected void copyOver( T dst, T src ) { /*base of the call chain; no fields to copy*/ }
-  protected int frozenType() { throw fail(); }
+  protected int frozenType() { return _frozenType; }
   protected String className() { throw fail(); }
   private RuntimeException fail() {
     return new RuntimeException(getClass().toString()+" should be automatically overridden by the auto-serialization code");
@@ -27,4 +28,11 @@ public abstract class Icer<T extends Freezable> {
   // That end in the TypeMap ID for "H2OCountedCompleter" class - which is "3".
 
   protected void compute1(water.H2O.H2OCountedCompleter h2cc ) { h2cc.compute1(); }
+
+  /** Offset of a field for Unsafe access; generated Icers look these up once,
+   *  when loaded, since offsets differ from one JVM to another. */
+  protected static long fieldOffset( Class clz, String name ) {
+    try { return _unsafe.objectFieldOffset(clz.getDeclaredField(name)); }
+    catch( NoSuchFieldException e ) { throw new RuntimeException(e); }
+  }
 }
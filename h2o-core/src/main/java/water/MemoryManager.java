@@ -1,7 +1,14 @@
 package water;
 
 import java.lang.management.*;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.management.Notification;
 import javax.management.NotificationEmitter;
@@ -294,6 +301,64 @@ abstract public class MemoryManager {
   public static long   [] arrayCopyOf( long  [] orig, int sz) { return arrayCopyOfRange(orig,0,sz); }
   public static double [] arrayCopyOf( double[] orig, int sz) { return arrayCopyOfRange(orig,0,sz); }
 
+  // Off-heap tier: direct memory holding the serialized bytes of cold Chunks
+  // (see Value.storeOffHeap), so the Cleaner can drop them from the heap
+  // without any disk i/o.  Sized by -off_heap_mem; disabled by default.  The
+  // direct buffers are returned to the OS when their (tiny) ByteBuffer
+  // objects are collected, so -XX:MaxDirectMemorySize needs some slack.  A
+  // buffer stays in the tier's accounting until then: Values which left the
+  // STORE may still be read by racing readers.
+  private static final AtomicLong _offHeapUsed = new AtomicLong();
+  private static final ReferenceQueue<ByteBuffer> _offHeapFreed = new ReferenceQueue<>();
+  private static final Set<OffHeapRef> _offHeapRefs = Collections.newSetFromMap(new ConcurrentHashMap<OffHeapRef,Boolean>());
+  private static final class OffHeapRef extends PhantomReference<ByteBuffer> {
+    final int _size;
+    OffHeapRef(ByteBuffer bb) { super(bb, _offHeapFreed); _size = bb.capacity(); }
+  }
+  static boolean offHeapEnabled() { return H2O.ARGS.off_heap_mem > 0; }
+  /** Bytes currently held in the off-heap tier */
+  public static long offHeapUsed() { reapOffHeap(); return _offHeapUsed.get(); }
+  // Release the reservations of the collected buffers
+  private static void reapOffHeap() {
+    Reference<? extends ByteBuffer> ref;
+    while( (ref = _offHeapFreed.poll()) != null ) {
+      OffHeapRef oref = (OffHeapRef)ref;
+      _offHeapRefs.remove(oref);
+      _offHeapUsed.addAndGet(-oref._size);
+    }
+  }
+
+  /**
+   * Reserve and allocate a direct buffer in the off-heap tier.  Never blocks.
+   * @param size number of bytes
+   * @return the buffer, or null if the tier is disabled or full
+   */
+  static ByteBuffer mallocOffHeap(int size) {
+    reapOffHeap();
+    final long max = (long)H2O.ARGS.off_heap_mem << 20;
+    long used;
+    do {
+      used = _offHeapUsed.get();
+      if( used + size > max ) return null;
+    } while( !_offHeapUsed.compareAndSet(used, used + size) );
+    ByteBuffer bb;
+    try {
+      bb = ByteBuffer.allocateDirect(size);
+    } catch( OutOfMemoryError e ) { // Hit the JVM direct memory limit
+      _offHeapUsed.addAndGet(-size);
+      return null;
+    }
+    _offHeapRefs.add(new OffHeapRef(bb)); // Released once bb is collected
+    return bb;
+  }
+
+  /** Cleaner eviction cost classes, cheapest to reload first */
+  public static String[] evictionCostClasses() { return Cleaner.COST_CLASSES.clone(); }
+  /** Number of Values freed from the heap by the Cleaner, per cost class */
+  public static long[] evictedCounts() { return Cleaner.EVICTED_COUNT.clone(); }
+  /** Bytes freed from the heap by the Cleaner, per cost class */
+  public static long[] evictedBytes() { return Cleaner.EVICTED_BYTES.clone(); }
+
   // Memory available for tasks (we assume 3/4 of the heap is available for tasks)
   static final AtomicLong _taskMem = new AtomicLong(MEM_MAX-(MEM_MAX>>2));
 
@@ -1,14 +1,23 @@
 package water;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.InetAddress;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.ByteChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+import jsr166y.ForkJoinPool;
 import water.network.SocketChannelFactory;
+import water.network.SocketChannelUtils;
 import water.util.Log;
 import water.util.SB;
 
@@ -40,6 +49,19 @@ public class TCPReceiverThread extends Thread {
    */
   static final byte TCP_EXTERNAL = 3;
 
+  /**
+   * Byte representing TCP communication for big data, each message sent as
+   * length-prefixed frames (see {@link MsgChannel}).  Nodes of the same build
+   * use it; TCP_BIG channels are still read, for nodes of other builds.
+   */
+  static final byte TCP_BIG_FRAMED = 4;
+
+  /**
+   * Flag in the 4-byte header of the last frame of a TCP_BIG_FRAMED message;
+   * the rest of the header is the frame length
+   */
+  static final int LAST_FRAME = 0x80000000;
+
   public TCPReceiverThread(
           ServerSocketChannel sock) {
     super("TCP-Accept");
@@ -99,19 +121,26 @@ public class TCPReceiverThread extends Thread {
         // with ExternalFrameHandling ( we don't send the same information there as with the other communication)
         InetAddress inetAddress = sock.socket().getInetAddress();
         // Pass off the TCP connection to a separate reader thread
+        H2ONode h2o;
         switch( chanType ) {
         case TCP_SMALL:
-          H2ONode h2o = H2ONode.intern(inetAddress, port);
-          new UDP_TCP_ReaderThread(h2o, wrappedSocket).start();
+          h2o = H2ONode.intern(inetAddress, port);
+          if( wrappedSocket == sock ) selector().register(new SmallConn(h2o, sock));
+          else new UDP_TCP_ReaderThread(h2o, wrappedSocket).start(); // SSL channels cannot be selected on
           break;
         case TCP_BIG:
-          new TCPReaderThread(wrappedSocket, new AutoBuffer(wrappedSocket, inetAddress), inetAddress).start();
+          new TCPReaderThread(wrappedSocket, inetAddress).start();
+          break;
+        case TCP_BIG_FRAMED:
+          h2o = H2ONode.intern(inetAddress, port);
+          if( wrappedSocket == sock ) selector().register(new BigConn(h2o, sock));
+          else new TCPReaderThread(h2o, wrappedSocket).start(); // SSL channels cannot be selected on
           break;
         case TCP_EXTERNAL:
           new ExternalFrameHandlerThread(sock, new AutoBuffer(sock, null)).start();
           break;
         default:
-          throw H2O.fail("unexpected channel type " + chanType + ", only know 1 - Small, 2 - Big and 3 - ExternalFrameHandling");
+          throw H2O.fail("unexpected channel type " + chanType + ", only know 1 - Small, 2 - Big, 3 - ExternalFrameHandling and 4 - Big framed");
         }
       } catch( java.nio.channels.AsynchronousCloseException ex ) {
         break;                  // Socket closed for shutdown
@@ -125,59 +154,474 @@ public class TCPReceiverThread extends Thread {
     }
   }
 
-  // A private thread for reading from this open socket.
+  /** The bytes of one message read from a TCP_BIG_FRAMED channel, without
+   *  the frame headers.  The channel is at its end after the last byte of the
+   *  message, the 0xab sentinel, so an AutoBuffer reading it never reads
+   *  ahead into the next message. */
+  static abstract class MsgChannel implements ByteChannel {
+    /** Write the reader-handshake-byte, once the message is read; see
+     *  AutoBuffer.close().  The sender does not send the next message on
+     *  this channel before. */
+    abstract void handshake() throws IOException;
+    @Override public int write(ByteBuffer src) { throw new UnsupportedOperationException("Read only"); }
+  }
+
+  /** A message read from a blocking channel, for channels which cannot be
+   *  selected on (SSL).  Each frame is a 4-byte header, the frame length plus
+   *  {@link #LAST_FRAME} on the last one, followed by the bytes. */
+  static final class FramedMsg extends MsgChannel {
+    private final ByteChannel _sock;
+    private final ByteBuffer _hdr = ByteBuffer.allocate(4).order(ByteOrder.nativeOrder());
+    private int _frameLeft;     // Bytes left in the current frame
+    private boolean _last;      // Current frame is the last one
+
+    FramedMsg(ByteChannel sock) { _sock = sock; }
+
+    /** Read the first frame header; false if the sender closed the channel
+     *  instead, which is normal for an idle channel. */
+    boolean start() throws IOException { return readHeader(true); }
+
+    private boolean readHeader(boolean idle) throws IOException {
+      _hdr.clear();
+      while( _hdr.hasRemaining() )
+        if( _sock.read(_hdr) < 0 ) {
+          if( idle && _hdr.position() == 0 ) return false;
+          throw new EOFException("Channel closed in a frame header");
+        }
+      _hdr.flip();
+      int hdr = _hdr.getInt();
+      _last = (hdr & LAST_FRAME) != 0;
+      _frameLeft = hdr & ~LAST_FRAME;
+      return true;
+    }
+
+    @Override public int read(ByteBuffer dst) throws IOException {
+      while( _frameLeft == 0 ) {
+        if( _last ) return -1;  // End of the message
+        readHeader(false);
+      }
+      int lim = dst.limit();    // Read no further than the frame
+      dst.limit(dst.position() + Math.min(_frameLeft, dst.remaining()));
+      int n;
+      try { n = _sock.read(dst); } finally { dst.limit(lim); }
+      if( n > 0 ) _frameLeft -= n;
+      return n;
+    }
+
+    @Override void handshake() throws IOException {
+      SocketChannelUtils.underlyingSocketChannel(_sock).socket().getOutputStream().write(0xcd);
+    }
+    @Override public boolean isOpen() { return _sock.isOpen(); }
+    @Override public void close() throws IOException { _sock.close(); }
+  }
+
+  /** A message read by the selector thread, streamed to the F/J thread
+   *  handling it.  The selector adds the bytes as they arrive; it stops
+   *  reading the channel while {@link #MAX_BUFFERED} bytes are waiting, so
+   *  a big message never sits in the heap as a whole. */
+  static final class StreamedMsg extends MsgChannel implements ForkJoinPool.ManagedBlocker {
+    static final int MAX_BUFFERED = 4*AutoBuffer.BBP_BIG._size;
+    private final BigConn _conn;
+    private final ArrayDeque<ByteBuffer> _bufs = new ArrayDeque<>();
+    private int _buffered;      // Bytes in _bufs
+    private boolean _end;       // All the bytes of the message are in
+    private boolean _failed;    // Channel closed before the end of the message
+
+    StreamedMsg(BigConn conn) { _conn = conn; }
+
+    // Called by the selector thread
+    synchronized void add(ByteBuffer bb) { _bufs.add(bb); _buffered += bb.remaining(); notifyAll(); }
+    synchronized void end() { _end = true; notifyAll(); }
+    synchronized void fail() { _failed = true; notifyAll(); }
+    synchronized boolean full() { return _buffered >= MAX_BUFFERED; }
+
+    @Override public int read(ByteBuffer dst) throws IOException {
+      try {
+        ForkJoinPool.managedBlock(this);
+      } catch( InterruptedException e ) {
+        throw new InterruptedIOException("Interrupted reading a message from " + _conn._h2o);
+      }
+      int n = 0;
+      boolean resume;
+      synchronized( this ) {
+        if( _failed || _bufs.isEmpty() ) return -1; // AutoBuffer reports the short read
+        boolean wasFull = full();
+        while( dst.hasRemaining() && !_bufs.isEmpty() ) {
+          ByteBuffer bb = _bufs.peek();
+          int k = Math.min(bb.remaining(), dst.remaining());
+          int lim = bb.limit();
+          bb.limit(bb.position() + k);
+          dst.put(bb);
+          bb.limit(lim);
+          if( !bb.hasRemaining() ) _bufs.poll();
+          n += k;
+        }
+        _buffered -= n;
+        resume = wasFull && !full();
+      }
+      if( resume ) _conn.wakeup(); // Selector stopped reading the channel, start again
+      return n;
+    }
+
+    @Override public synchronized boolean isReleasable() { return _failed || _end || !_bufs.isEmpty(); }
+    @Override public synchronized boolean block() throws InterruptedException {
+      while( !isReleasable() ) wait();
+      return true;
+    }
+
+    @Override void handshake() { _conn.handshake(); }
+    @Override public boolean isOpen() { return _conn._chan.isOpen(); }
+    // Only on errors, e.g. a cancelled task (see AutoBuffer.drainClose()): the
+    // sender learns from the closed channel
+    @Override public void close() throws IOException { _conn._chan.close(); }
+  }
+
+  // Handle a TCP_BIG message, in the thread reading it
+  static void handle( AutoBuffer ab ) throws IOException {
+    TimeLine.record_recv(ab, true, 0);
+    int ctrl = ab.getCtrl();
+    int x = ctrl;
+    if( ctrl < 0 || ctrl >= UDP.udp.UDPS.length ) x = 0;
+    switch( UDP.udp.UDPS[x] ) {
+    case exec:     RPC.remote_exec  (ab); break;
+    case ack:      RPC.tcp_ack      (ab); break;
+    case timeline: TimeLine.tcp_call(ab); break;
+    default: throw new RuntimeException("Unknown TCP Type: " + ctrl+" "+ab._h2o);
+    }
+  }
+
+  /** A message streamed off a selected TCP_BIG_FRAMED channel, handled in
+   *  the F/J pool of its priority instead of in the selector thread.  The
+   *  sender waits for the handshake of one message before sending the next
+   *  on the same channel, so the messages of a channel are handled in order. */
+  static class TCPPacket extends H2O.H2OCountedCompleter {
+    final H2ONode _h2o;
+    final StreamedMsg _msg;
+    TCPPacket( H2ONode h2o, StreamedMsg msg, byte priority ) {
+      super(priority);
+      _h2o = h2o;
+      _msg = msg;
+    }
+    @Override public void compute2() {
+      try {
+        handle(new AutoBuffer(_h2o, _msg));
+      } catch( IOException e ) {
+        throw Log.throwErr(e);
+      }
+      tryComplete();
+    }
+    @Override public boolean onExceptionalCompletion(Throwable ex, jsr166y.CountedCompleter caller) {
+      Log.err("Error handling a TCP message from " + _h2o + ": ", ex);
+      return true;
+    }
+  }
+
+  /** A private thread reading TCP_BIG messages from a channel which is not
+   *  selected on: unframed channels from nodes of another build, and framed
+   *  SSL channels.  Messages are handled in this thread, as they stream in. */
   static class TCPReaderThread extends Thread {
-    public ByteChannel _sock;
-    public AutoBuffer _ab;
-    private final InetAddress address;
+    private final H2ONode _h2o; // Framed channel sender; null if unframed, each message names its sender
+    private final ByteChannel _sock;
+    private final InetAddress _address;
 
-    public TCPReaderThread(ByteChannel sock, AutoBuffer ab, InetAddress address) {
-      super("TCP-"+ab._h2o+"-"+(ab._h2o._tcp_readers++));
+    // Unframed TCP_BIG channel
+    public TCPReaderThread(ByteChannel sock, InetAddress address) {
+      super("TCP-"+address);
+      _h2o = null;
+      _sock = sock;
+      _address = address;
+      setPriority(MAX_PRIORITY-1);
+    }
+
+    // Framed channel which cannot be selected on
+    public TCPReaderThread(H2ONode h2o, ByteChannel sock) {
+      super("TCP-"+h2o+"-"+(h2o._tcp_readers++));
+      _h2o = h2o;
       _sock = sock;
-      _ab = ab;
-      this.address = address;
+      _address = null;
       setPriority(MAX_PRIORITY-1);
     }
 
     public void run() {
-      while( true ) { // Loop, reading fresh TCP requests until the sender closes
-        try {
+      try {
+        while( true ) { // Loop, reading fresh TCP requests until the sender closes
+          AutoBuffer ab;
+          if( _h2o == null ) {
+            try {
+              ab = new AutoBuffer(_sock, _address);
+            } catch( Exception e ) {
+              // Exceptions here are *normal*, this is an idle TCP connection and
+              // either the OS can time it out, or the cloud might shutdown.
+              break;
+            }
+          } else {
+            FramedMsg msg = new FramedMsg(_sock);
+            if( !msg.start() ) break; // Sender closed an idle channel, normal
+            ab = new AutoBuffer(_h2o, msg);
+          }
           // Record the last time we heard from any given Node
-          _ab._h2o._last_heard_from = System.currentTimeMillis();
-          TimeLine.record_recv(_ab, true, 0);
-          // Hand off the TCP connection to the proper handler
-          int ctrl = _ab.getCtrl();
-          int x = ctrl;
-          if( ctrl < 0 || ctrl >= UDP.udp.UDPS.length ) x = 0;
-          switch( UDP.udp.UDPS[x] ) {
-          case exec:     RPC.remote_exec  (_ab); break;
-          case ack:      RPC.tcp_ack      (_ab); break;
-          case timeline: TimeLine.tcp_call(_ab); break;
-          default: throw new RuntimeException("Unknown TCP Type: " + ctrl+" "+_ab._h2o);
+          ab._h2o._last_heard_from = System.currentTimeMillis();
+          handle(ab);
+          if( !_sock.isOpen() ) break;
+        }
+      } catch( java.nio.channels.AsynchronousCloseException ex ) {
+        // Socket closed for shutdown
+      } catch( Throwable e ) {
+        // On any error from anybody, close everything
+        Log.err("IO error on TCP port "+H2O.H2O_PORT+": ",e);
+      } finally {
+        try { _sock.close(); } catch( IOException ignore ) { }
+      }
+    }
+  }
+
+
+  private static TCP_SelectorThread SELECTOR;
+  private static synchronized TCP_SelectorThread selector() throws IOException {
+    if( SELECTOR == null ) {
+      SELECTOR = new TCP_SelectorThread();
+      SELECTOR.start();
+    }
+    return SELECTOR;
+  }
+
+  // One inbound channel being selected on, and its partially read messages
+  static abstract class Conn {
+    final H2ONode _h2o;
+    final SocketChannel _chan;
+    final ByteBuffer _bb;
+    SelectionKey _key;
+    Conn(H2ONode h2o, SocketChannel chan) {
+      _h2o = h2o;
+      _chan = chan;
+      _bb = ByteBuffer.allocate(AutoBuffer.BBP_BIG._size).order(ByteOrder.nativeOrder());
+    }
+    // Hand off all the complete messages in _bb, flipped for reading
+    abstract void messages() throws IOException;
+    // Anything to write when the channel gets writable
+    void write() throws IOException { }
+    // Selector thread: the operations to select on next
+    int interestOps() { return SelectionKey.OP_READ; }
+    // Selector thread: some other thread asked for attention, see wakeup()
+    void wokenUp() throws IOException { }
+    // Selector thread: the channel is closed
+    void closed() { }
+    boolean midMessage() { return _bb.position() > 0; }
+    // Any thread: have the selector thread call wokenUp()
+    void wakeup() { SELECTOR.wakeup(this); }
+  }
+
+  /** Small messages: MSG_SZ(2B) MSG BODY(MSG_SZ*B) EOM MARKER (1B - 0xef),
+   *  as for {@link UDP_TCP_ReaderThread}. */
+  private static class SmallConn extends Conn {
+    SmallConn(H2ONode h2o, SocketChannel chan) { super(h2o, chan); }
+    @Override void messages() throws IOException {
+      ByteBuffer bb = _bb;
+      while( bb.remaining() >= 2 ) {
+        int sz = bb.getChar(bb.position()); // 2 bytes of next-message-size
+        if( sz >= AutoBuffer.BBP_SML._size )
+          throw new IOException("Incoming message is too big, should've been sent by TCP-BIG, got " + sz + " bytes");
+        if( bb.remaining() < 2+sz+1 ) break; // Rest of the message not here yet
+        bb.getChar();
+        byte[] ary = MemoryManager.malloc1(Math.max(16,sz));
+        int sentinel = bb.get(ary,0,sz).get(); // extract the message bytes, then the sentinel byte
+        if( (0xFF & sentinel) != 0xef )
+          throw new IOException("Missing expected sentinel (0xef) at the end of the message from " + _h2o + ", likely out of sync, size = " + sz);
+        // package the raw bytes into an array and pass it on to FJQ for further processing
+        UDPReceiverThread.basic_packet_handling(new AutoBuffer(_h2o, ary, 0, sz));
+      }
+    }
+  }
+
+  /** Big messages, framed as read by {@link FramedMsg}.  Each message is
+   *  handed to the F/J pools as soon as its first bytes are in, and the rest
+   *  of its bytes are streamed to the handler through a {@link StreamedMsg}. */
+  static class BigConn extends Conn {
+    private StreamedMsg _msg;     // Message being read; null between messages
+    private int _frameLeft;       // Bytes left in the current frame
+    private boolean _last;        // Current frame is the last of the message
+    private boolean _handedOff;   // _msg was handed to the F/J pools
+    private boolean _paused;      // Not reading: the handler of _msg is behind
+    private volatile boolean _handshakeDue;
+    private final ByteBuffer _handshake = ByteBuffer.allocate(1);
+
+    BigConn(H2ONode h2o, SocketChannel chan) {
+      super(h2o, chan);
+      _handshake.flip();        // Nothing to write
+    }
+
+    @Override void messages() throws IOException {
+      ByteBuffer bb = _bb;
+      while( true ) {
+        if( _frameLeft == 0 ) {
+          if( bb.remaining() < 4 ) break; // Rest of the header not here yet
+          int hdr = bb.getInt();
+          _last = (hdr & LAST_FRAME) != 0;
+          _frameLeft = hdr & ~LAST_FRAME;
+          if( _msg == null ) {
+            _msg = new StreamedMsg(this);
+            _handedOff = false;
           }
-        } catch( java.nio.channels.AsynchronousCloseException ex ) {
-          break;                // Socket closed for shutdown
-        } catch( Throwable e ) {
-          // On any error from anybody, close everything
-          System.err.println("IO error");
-          e.printStackTrace();
-          Log.err("IO error on TCP port "+H2O.H2O_PORT+": ",e);
-          break;
         }
-        // Reuse open sockets for the next task
-        try {
-          if( !_sock.isOpen() ) break;
-          _ab = new AutoBuffer(_sock, address);
-        } catch( Exception e ) {
-          // Exceptions here are *normal*, this is an idle TCP connection and
-          // either the OS can time it out, or the cloud might shutdown.  We
-          // don't care what happens to this socket.
-          break;         // Ignore all errors; silently die if socket is closed
+        int n = Math.min(_frameLeft, bb.remaining());
+        if( n > 0 ) {
+          ByteBuffer frame = ByteBuffer.allocate(n).order(ByteOrder.nativeOrder());
+          int lim = bb.limit();
+          bb.limit(bb.position() + n);
+          frame.put(bb).flip();
+          bb.limit(lim);
+          _frameLeft -= n;
+          if( !_handedOff ) handOff(0xFF & frame.get(0));
+          _msg.add(frame);
+        }
+        if( _frameLeft > 0 ) break; // Rest of the frame not here yet
+        if( _last ) {
+          if( !_handedOff )
+            throw new IOException("Empty message from " + _h2o + ", likely out of sync");
+          _msg.end();
+          _msg = null;
+          _last = false;
         }
       }
+      _paused = _msg != null && _msg.full();
     }
+
+    // Submit the message to the F/J pool of its priority
+    private void handOff( int ctrl ) throws IOException {
+      if( ctrl <= 0 || ctrl >= UDP.udp.UDPS.length )
+        throw new IOException("Unknown TCP Type: " + ctrl + " " + _h2o);
+      _handedOff = true;
+      H2O.submitTask(new TCPPacket(_h2o, _msg, UDP.udp.UDPS[ctrl]._prior));
+    }
+
+    // Any thread: the handler of a message is done reading it
+    void handshake() {
+      _handshakeDue = true;
+      wakeup();
+    }
+
+    @Override void wokenUp() throws IOException {
+      if( _paused && !_msg.full() ) _paused = false;
+      if( _handshakeDue ) {
+        _handshakeDue = false;
+        _handshake.clear();
+        _handshake.put((byte)0xcd).flip();
+        write();
+      }
+    }
+
+    // Write the reader-handshake-byte; one byte, so this practically never
+    // has to wait for the channel to get writable
+    @Override void write() throws IOException { _chan.write(_handshake); }
+
+    @Override int interestOps() {
+      return (_paused ? 0 : SelectionKey.OP_READ) | (_handshake.hasRemaining() ? SelectionKey.OP_WRITE : 0);
+    }
+
+    @Override void closed() { if( _msg != null ) _msg.fail(); }
+    @Override boolean midMessage() { return _msg != null || super.midMessage(); }
   }
 
+  /** A single thread reading from the tcp channels of all the other nodes,
+   *  both small and big messages.  Replaces a {@link UDP_TCP_ReaderThread}
+   *  and {@link TCPReaderThread}s per node, so the thread count does not grow
+   *  with the cloud size or the number of concurrent big messages.  Channels
+   *  are non-blocking; each has a buffer collecting the bytes of partially
+   *  read messages.  This thread only reads and frames: messages go straight
+   *  to the F/J priority pools.
+   *
+   *  Outbound, each node already sends over a fixed set of channels per peer:
+   *  the one TCP_SMALL channel, fed in priority order by the
+   *  UDP_TCP_SendThread, and the two pooled TCP_BIG_FRAMED channels of
+   *  H2ONode.getTCPSocket().  Big messages are not further split into
+   *  priority lanes: their priority applies once received, through the F/J
+   *  pool they are handled in. */
+  static class TCP_SelectorThread extends Thread {
+    private final Selector _selector;
+    private final ConcurrentLinkedQueue<Conn> _pending = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Conn> _woken = new ConcurrentLinkedQueue<>();
+
+    TCP_SelectorThread() throws IOException {
+      super("TCP-SELECT");
+      setDaemon(true);
+      setPriority(MAX_PRIORITY-1);
+      _selector = Selector.open();
+    }
+
+    /** Start reading messages from this channel */
+    void register(Conn c) throws IOException {
+      c._chan.configureBlocking(false);
+      _pending.add(c);
+      _selector.wakeup();
+    }
+
+    /** Call c.wokenUp() from the selector thread */
+    void wakeup(Conn c) {
+      _woken.add(c);
+      _selector.wakeup();
+    }
+
+    @Override public void run() {
+      //noinspection InfiniteLoopStatement
+      while( true ) {
+        try {
+          _selector.select();
+          Conn c;
+          while( (c = _pending.poll()) != null )
+            c._key = c._chan.register(_selector, SelectionKey.OP_READ, c);
+          while( (c = _woken.poll()) != null ) {
+            SelectionKey key = c._key;
+            try {
+              if( !key.isValid() ) continue;
+              c.wokenUp();
+              key.interestOps(c.interestOps());
+            } catch( Throwable t ) {
+              close(key, c, t);
+            }
+          }
+          Iterator<SelectionKey> it = _selector.selectedKeys().iterator();
+          while( it.hasNext() ) {
+            SelectionKey key = it.next();
+            it.remove();
+            c = (Conn)key.attachment();
+            try {
+              if( key.isValid() && key.isWritable() ) c.write();
+              if( key.isValid() && key.isReadable() && !read(c) ) close(key, c, null);
+              if( key.isValid() ) key.interestOps(c.interestOps());
+            } catch( Throwable t ) {
+              close(key, c, t);
+            }
+          }
+        } catch( Throwable t ) {
+          Log.err("Error in the TCP selector: ", t);
+        }
+      }
+    }
+
+    // Read what is available, and hand off the messages.
+    // False at the end of the stream.
+    private boolean read(Conn c) throws IOException {
+      ByteBuffer bb = c._bb;
+      int res = c._chan.read(bb);
+      if( res < 0 ) return false;
+      if( res == 0 ) return true;
+      c._h2o._last_heard_from = System.currentTimeMillis();
+      bb.flip();
+      c.messages();
+      bb.compact();             // Keep the partial message, prep for reading more
+      return true;
+    }
+
+    private void close(SelectionKey key, Conn c, Throwable t) {
+      // Mid-message errors are worth a log; a peer closing an idle channel is
+      // normal, e.g. on shutdown
+      if( t != null && (!(t instanceof IOException) || c.midMessage()) )
+        Log.err("Error reading messages from " + c._h2o + ": ", t);
+      key.cancel();
+      try { c._chan.close(); } catch( IOException e ) {/*ignore error on close*/}
+      c.closed();
+    }
+  }
 
   /** A private thread reading small messages from a tcp channel.  The thread
    *  reads the raw bytes of a message from the channel, copies them into a
@@ -1,6 +1,7 @@
 package water;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import jsr166y.ForkJoinPool;
@@ -93,16 +94,27 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   private volatile Freezable _pojo;
   Freezable rawPOJO() { return _pojo; }
 
+  // ---
+  // An off-heap copy of the _mem array, or NULL.  Written once by the
+  // Cleaner (see MemoryManager.mallocOffHeap), after which the Cleaner may
+  // drop both on-heap forms; reloading is then a memory copy instead of disk
+  // i/o.  Once the Value is removed or replaced in the STORE no new copy is
+  // made (_offHeapDead); the reservation goes with the buffer.
+  private transient volatile ByteBuffer _offHeap;
+  private transient boolean _offHeapDead; // Guarded by this
+  /** Check if the backing byte[] has been copied to the off-heap tier */
+  public final boolean isOffHeap() { return _offHeap != null; }
+
   /** Invalidate byte[] cache.  Only used to eagerly free memory, for data
    *  which is expected to be read-once. */
   public final void freeMem() {
-    assert isPersisted() || _pojo != null || _key.isChunkKey();
+    assert isPersisted() || isOffHeap() || _pojo != null || _key.isChunkKey();
     _mem = null;
   }
   /** Invalidate POJO cache.  Only used to eagerly free memory, for data
    *  which is expected to be read-once. */
   public final void freePOJO() {
-    assert isPersisted() || _mem != null;
+    assert isPersisted() || isOffHeap() || _mem != null;
     _pojo = null;
   }
 
@@ -116,11 +128,14 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     if( pojo != null )          // Has the POJO, make raw bytes
       return _mem = pojo.asBytes();
     if( _max == 0 ) return (_mem = new byte[0]);
+    ByteBuffer off = _offHeap;  // Read once!
+    if( off != null )           // Has the off-heap copy, no disk i/o; the
+      return loadOffHeap(off);  // copy is not cached, the off-heap bytes are
     return (_mem = loadPersist());
   }
   // Just an empty shell of a Value, no local data but the Value is "real".
   // Any attempt to look at the Value will require a remote fetch.
-  final boolean isEmpty() { return _max > 0 && _mem==null && _pojo == null && !isPersisted(); }
+  final boolean isEmpty() { return _max > 0 && _mem==null && _pojo == null && !isPersisted() && !isOffHeap(); }
 
   /** The FAST path get-POJO as an {@link Iced} subclass - final method for
    *  speed.  Will (re)build the POJO from the _mem array.  Never returns NULL.
@@ -156,7 +171,15 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   // ---
   // Time of last access to this value.
   transient long _lastAccessedTime = System.currentTimeMillis();
-  private void touch() {_lastAccessedTime = System.currentTimeMillis();}
+  // Time of the access before that (or of creation); 0 if never re-used.
+  // Accesses closer together than Cleaner.CORRELATED_REF_MS count as one, so
+  // a single pass over the data does not look like re-use.
+  transient long _prevAccessedTime;
+  private void touch() {
+    long now = System.currentTimeMillis();
+    if( now - _lastAccessedTime > Cleaner.CORRELATED_REF_MS ) _prevAccessedTime = _lastAccessedTime;
+    _lastAccessedTime = now;
+  }
   // Exposed and used for testing only; used to trigger premature cleaning/disk-swapping
   void touchAt(long time) {_lastAccessedTime = time;}
 
@@ -212,6 +235,37 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
       H2O.getPM().delete(backend(), this); // Possibly nothing to delete (race with writer)
   }
 
+  /** Best-effort copy of the byte[] to the off-heap tier.  Only called by
+   *  the Cleaner.
+   *  @return True if the Value now has an off-heap copy */
+  boolean storeOffHeap() {
+    if( isOffHeap() ) return true;
+    if( !onICE() || isDeleted() ) return false;
+    byte[] mem = memOrLoad();
+    ByteBuffer bb = MemoryManager.mallocOffHeap(mem.length);
+    if( bb == null ) return false; // Tier disabled or full
+    bb.put(mem).flip();
+    synchronized(this) {        // Close race with a deleting or replacing user thread
+      if( _offHeapDead || isDeleted() ) return false; // bb is collected
+      _offHeap = bb;
+    }
+    return true;
+  }
+  private byte[] loadOffHeap(ByteBuffer bb) {
+    byte[] mem = MemoryManager.malloc1(_max);
+    bb.duplicate().get(mem); // Private position; racing loads are fine
+    return mem;
+  }
+  /** Stop copying a Value which left the STORE to the off-heap tier.  A
+   *  deleted Value also drops its copy; a replaced Value keeps it for racing
+   *  readers, and the buffer goes away with the Value.  The reservation is
+   *  released once the buffer is collected.
+   *  @param drop True to also drop the off-heap copy */
+  synchronized void freeOffHeap( boolean drop ) {
+    _offHeapDead = true;
+    if( drop ) _offHeap = null;
+  }
+
   /** Remove dead Values from disk */
   public void removePersist() {
     // do not yank memory, as we could have a racing get hold on to this
@@ -223,9 +277,14 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     if( !onICE() ) return;      // Wrong filestore?
     if( isDeleted() ) return;   // Already deleted?
     setDel();                   // Set del bit BEFORE testing isPersist
+    freeOffHeap(true);          // Release any off-heap copy
     if( !isPersisted() ) return;// Nothing there
     H2O.getPM().delete(backend(), this); // Possibly nothing to delete (race with writer)
   }
+  /** Free the disk space of a persisted Value replaced in the STORE */
+  void replacedPersist() {
+    if( onICE() && isPersisted() && !isDeleted() ) H2O.getPM().getIce().replaced(this);
+  }
   /** Load some or all of completely persisted Values */
   byte[] loadPersist() {
     // 00       assert: not written yet
@@ -5,6 +5,8 @@ import sun.misc.Unsafe;
 import water.api.API;
 import water.nbhm.UtilUnsafe;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
@@ -40,8 +42,6 @@ public class Weaver {
   }
 
 
-  private static final ClassPool _pool;
-  private static final CtClass _dtask, _enum, _serialize;//, _iced, _h2cc, _freezable;
   private static final Unsafe _unsafe = UtilUnsafe.getUnsafe();
 
   /** Map of class names to their respective loader.
@@ -52,7 +52,7 @@ public class Weaver {
   private static final transient Map<String/*className*/,ClassLoader> CLASSLOADERS;
 
   /** Map of class names to their respective ClassPath instance in
-   * the {@link Weaver#_pool}. Class reloads will prune their classpaths.
+   * the {@link Weaver.Pool#_pool}. Class reloads will prune their classpaths.
    */
   private static final transient Map<String/*className*/, ClassPath> CLASSPATHS;
 
@@ -63,19 +63,27 @@ public class Weaver {
   }
 
   static {
-    try {
-      _pool = ClassPool.getDefault();
-      _pool.insertClassPath(new ClassClassPath(Weaver.class));
-      _dtask= _pool.get("water.DTask");    // these also need copyOver
-      _enum = _pool.get("java.lang.Enum"); // Special serialization
-      _serialize = _pool.get("java.io.Serializable"); // Base of serialization
-//      _iced = _pool.get("water.Iced");     // Base of serialization
-//      _h2cc = _pool.get("water.H2O$H2OCountedCompleter"); // Base of serialization
-//      _freezable = _pool.get("water.Freezable");      // Base of serialization
-      CLASSLOADERS = new HashMap<>();
-      CLASSPATHS   = new HashMap<>();
-
-    } catch( NotFoundException nfe ) { throw new RuntimeException(nfe); }
+    CLASSLOADERS = new HashMap<>();
+    CLASSPATHS   = new HashMap<>();
+  }
+
+  // Javassist is only set up once some Icer has to be woven; the Icers
+  // generated at build time are loaded without it.
+  private static final class Pool {
+    static final ClassPool _pool;
+    static final CtClass _dtask, _enum, _serialize;//, _iced, _h2cc, _freezable;
+    static {
+      try {
+        _pool = ClassPool.getDefault();
+        _pool.insertClassPath(new ClassClassPath(Weaver.class));
+        _dtask= _pool.get("water.DTask");    // these also need copyOver
+        _enum = _pool.get("java.lang.Enum"); // Special serialization
+        _serialize = _pool.get("java.io.Serializable"); // Base of serialization
+//        _iced = _pool.get("water.Iced");     // Base of serialization
+//        _h2cc = _pool.get("water.H2O$H2OCountedCompleter"); // Base of serialization
+//        _freezable = _pool.get("water.Freezable");      // Base of serialization
+      } catch( NotFoundException nfe ) { throw new RuntimeException(nfe); }
+    }
   }
 
 
@@ -83,15 +91,16 @@ public class Weaver {
     Exception e2;
     try {
       T ice = Modifier.isAbstract(clazz.getModifiers()) ? null : (T)_unsafe.allocateInstance(clazz);
-      Class icer_clz = javassistLoadClass(id,clazz);
-      return (Icer<T>)icer_clz.getDeclaredConstructors()[0].newInstance(ice);
+      Class icer_clz = javassistLoadClass(clazz);
+      Icer<T> icer = (Icer<T>)icer_clz.getDeclaredConstructors()[0].newInstance(ice);
+      icer._frozenType = id;
+      return icer;
     }
     catch( InvocationTargetException e ) { e2 = e; }
     catch( InstantiationException    e ) { e2 = e; }
     catch( IllegalAccessException    e ) { e2 = e; }
     catch( NotFoundException         e ) { e2 = e; }
     catch( CannotCompileException    e ) { e2 = e; }
-    catch( NoSuchFieldException      e ) { e2 = e; }
     catch( ClassNotFoundException    e ) { e2 = e; }
     throw new RuntimeException(e2);
   }
@@ -134,7 +143,7 @@ public class Weaver {
    *
    * In order to successfully load classes at runtime (for example a subclass of {@link MRTask}),
    * each node takes the bytecode and class name and puts a new {@link ByteArrayClassPath} onto
-   * {@link Weaver#_pool}'s classpath. Since there is no mechanism for retrieving these
+   * {@link Weaver.Pool#_pool}'s classpath. Since there is no mechanism for retrieving these
    * {@link ClassPath} instances later, they are stored in {@link Weaver#CLASSPATHS} so that
    * reload events can remove the old paths. Similarly, {@link Weaver#CLASSLOADERS} holds on
    * to the loaders of dynamically created classes so that classes can be reloaded and old
@@ -174,24 +183,24 @@ public class Weaver {
     static void loadClass(String name, byte[] bytes) throws NotFoundException, CannotCompileException {
       ClassPath path;
       ClassLoader loader;
-      CtClass ctc = _pool.getOrNull(name);
+      CtClass ctc = Pool._pool.getOrNull(name);
       if( ctc!=null ) {
         ctc.defrost();
         ctc.detach();
-        CtClass icer = _pool.getOrNull(implClazzName(name));
+        CtClass icer = Pool._pool.getOrNull(implClazzName(name));
         if( icer!=null ) icer.detach(); // drop the Icer
-        _pool.removeClassPath(CLASSPATHS.get(name));
+        Pool._pool.removeClassPath(CLASSPATHS.get(name));
         TypeMap.drop(name);  // drop the icer from the typemap
       }
       CLASSPATHS.put(name, path=new ByteArrayClassPath(name, bytes));
-      _pool.insertClassPath(path);
-      CLASSLOADERS.put(name, loader = new URLClassLoader(new URL[0], _pool.getClassLoader()));
-      _pool.get(name).toClass(loader);
+      Pool._pool.insertClassPath(path);
+      CLASSLOADERS.put(name, loader = new URLClassLoader(new URL[0], Pool._pool.getClassLoader()));
+      Pool._pool.get(name).toClass(loader);
     }
   }
 
   // See if javaassist can find this class, already generated
-  private static Class javassistLoadClass(int id, Class iced_clazz) throws CannotCompileException, NotFoundException, InstantiationException, IllegalAccessException, NoSuchFieldException, ClassNotFoundException, InvocationTargetException {
+  private static Class javassistLoadClass(Class iced_clazz) throws CannotCompileException, NotFoundException, InstantiationException, IllegalAccessException, ClassNotFoundException, InvocationTargetException {
     // End the super class lookup chain at "water.Iced",
     // returning the known delegate class "water.Icer".
     String iced_name = iced_clazz.getName();
@@ -199,9 +208,13 @@ public class Weaver {
 
     assert !iced_name.startsWith("scala.runtime.AbstractFunction");
 
-    // Now look for a pre-cooked Icer.  No locking, 'cause we're just looking
+    // First look for an Icer generated at build time, next to the Iced class
     String icer_name = implClazzName(iced_name);
-    CtClass icer_cc = _pool.getOrNull(icer_name); // Full Name Lookup of Icer
+    Class icer_clazz = pregenerated(iced_clazz, icer_name);
+    if( icer_clazz != null ) return icer_clazz;
+
+    // Now look for a pre-cooked Icer.  No locking, 'cause we're just looking
+    CtClass icer_cc = Pool._pool.getOrNull(icer_name); // Full Name Lookup of Icer
     if( icer_cc != null ) {
       synchronized( iced_clazz ) {
         if( !icer_cc.isFrozen() )   icer_cc.toClass(iced_clazz.getClassLoader()); // Load class (but does not link & init)
@@ -209,46 +222,126 @@ public class Weaver {
       }
     }
 
-    // Serialize parent.  No locking; occasionally we'll "onIce" from the
-    // remote leader more than once.
+    // Serialize parent.  No locking; the parent Icer is named after its
+    // class, no type ID is needed for it.
     Class super_clazz = iced_clazz.getSuperclass();
-    Class super_icer_clazz;
-    int super_id;
-    if(Freezable.class.isAssignableFrom(super_clazz)) {
-      super_id = TypeMap.onIce(super_clazz.getName());
-      super_icer_clazz = javassistLoadClass(super_id, super_clazz);
-    } else {
-      super_icer_clazz = Icer.class;
-      super_id = -1;
-    }
+    Class super_icer_clazz = Freezable.class.isAssignableFrom(super_clazz) ? javassistLoadClass(super_clazz) : Icer.class;
 
-    CtClass super_icer_cc = _pool.get(super_icer_clazz.getName());
-    CtClass iced_cc = _pool.get(iced_name); // Lookup the based Iced class
-    boolean super_has_jfields = true;//hasWovenJSONFields(iced_cc.getSuperclass());
+    CtClass super_icer_cc = Pool._pool.get(super_icer_clazz.getName());
+    CtClass iced_cc = Pool._pool.get(iced_name); // Lookup the based Iced class
 
     // Lock on the Iced class (prevent multiple class-gens of the SAME Iced
     // class, but also to allow parallel class-gens of unrelated Iced).
     //noinspection SynchronizationOnLocalVariableOrMethodParameter
     synchronized( iced_clazz ) {
-      icer_cc = _pool.getOrNull(icer_name); // Retry under lock
+      icer_cc = Pool._pool.getOrNull(icer_name); // Retry under lock
       if( icer_cc != null ) return Class.forName(icer_name); // Found a pre-cooked Icer implementation
-      icer_cc = genIcerClass(id,iced_cc,iced_clazz,icer_name,super_id,super_icer_cc,super_has_jfields);
+      icer_cc = genIcerClass(iced_cc,iced_clazz,icer_name,super_icer_cc);
       icer_cc.toClass(iced_clazz.getClassLoader());               // Load class (but does not link & init)
       return Class.forName(icer_name,true, iced_clazz.getClassLoader()); // Initialize class now, before subclasses
     }
   }
 
+  // The Icer generated at build time for this Iced class, if any.  Classes
+  // loaded at runtime (see loadDynamic) are always woven.
+  private static Class pregenerated(Class iced_clazz, String icer_name) {
+    if( CLASSLOADERS.containsKey(iced_clazz.getName()) ) return null;
+    try {
+      Class icer_clazz = Class.forName(icer_name, true, iced_clazz.getClassLoader());
+      // Make sure this is an Icer for this very class
+      if( Icer.class.isAssignableFrom(icer_clazz) &&
+          icer_clazz.getDeclaredConstructors()[0].getParameterTypes()[0] == iced_clazz )
+        return icer_clazz;
+    } catch( ClassNotFoundException | LinkageError e ) {
+      // Not generated at build time, or not usable with this Iced class; weave it
+    }
+    return null;
+  }
+
+  // Number of Freezable super classes; names the generated methods of each
+  // level of the Icer hierarchy.  Unlike the type ID, it is known at build time.
+  private static int depth(Class iced_clazz) {
+    int depth = 0;
+    while( Freezable.class.isAssignableFrom(iced_clazz = iced_clazz.getSuperclass()) ) depth++;
+    return depth;
+  }
+
+  /**
+   * Generate the Icers of all the Freezable classes found in the given class
+   * directories, and write them next to their classes.  Run at build time, so
+   * that H2O loads them as any other class instead of weaving them on first
+   * use; classes without a generated Icer are still woven at runtime.
+   *
+   * @param args class directories
+   */
+  public static void main( String[] args ) throws IOException, CannotCompileException {
+    for( String dir : args ) {
+      ArrayList<String> names = new ArrayList<>();
+      listClasses(new File(dir), "", names);
+      int generated = 0;
+      for( String name : names ) {
+        Class clz;
+        try { clz = Class.forName(name, false, Weaver.class.getClassLoader()); }
+        catch( ClassNotFoundException | LinkageError e ) { continue; } // e.g. an optional dependency is missing
+        if( clz.isInterface() || !Freezable.class.isAssignableFrom(clz) ) continue;
+        CtClass icer_cc;
+        try { icer_cc = genIcer(clz); }
+        catch( NotFoundException | CannotCompileException | RuntimeException e ) {
+          System.err.println("No Icer generated for "+name+", it will be woven at runtime: "+e);
+          continue;
+        }
+        icer_cc.writeFile(dir);
+        generated++;
+      }
+      System.out.println("Generated "+generated+" Icers in "+dir);
+    }
+  }
+
+  // Names of all the classes under a class directory.  Icers left by a
+  // previous generation are removed, they are all generated again.
+  private static void listClasses( File dir, String pkg, ArrayList<String> names ) throws IOException {
+    File[] files = dir.listFiles();
+    if( files == null ) return;
+    for( File f : files ) {
+      String name = f.getName();
+      if( f.isDirectory() ) listClasses(f, pkg+name+".", names);
+      else if( name.endsWith("$Icer.class") ) {
+        if( !f.delete() ) throw new IOException("Cannot delete "+f);
+      } else if( name.endsWith(".class") )
+        names.add(pkg+name.substring(0, name.length()-".class".length()));
+    }
+  }
+
+  // Generate, without loading it, the Icer of a class and of its super
+  // classes which do not have one yet.
+  private static CtClass genIcer( Class iced_clazz ) throws NotFoundException, CannotCompileException {
+    String icer_name = implClazzName(iced_clazz.getName());
+    CtClass icer_cc = Pool._pool.getOrNull(icer_name);
+    if( icer_cc != null ) return icer_cc;
+    Class super_clazz = iced_clazz.getSuperclass();
+    CtClass super_icer_cc = Freezable.class.isAssignableFrom(super_clazz) ? genIcer(super_clazz) : Pool._pool.get(Icer.class.getName());
+    try {
+      return genIcerClass(Pool._pool.get(iced_clazz.getName()), iced_clazz, icer_name, super_icer_cc);
+    } catch( NotFoundException | CannotCompileException | RuntimeException e ) {
+      icer_cc = Pool._pool.getOrNull(icer_name);
+      if( icer_cc != null ) icer_cc.detach(); // Do not leave a partial Icer for the subclasses
+      throw e;
+    }
+  }
+
   // Generate the Icer class
-  private static CtClass genIcerClass(int id, CtClass iced_cc, Class iced_clazz, String icer_name, int super_id, CtClass super_icer, boolean super_has_jfields ) throws CannotCompileException, NotFoundException, NoSuchFieldException {
+  private static CtClass genIcerClass(CtClass iced_cc, Class iced_clazz, String icer_name, CtClass super_icer ) throws CannotCompileException, NotFoundException {
     // Generate the Icer class
     String iced_name = iced_cc.getName();
-    CtClass icer_cc = _pool.makeClass(icer_name);
+    // Methods of this level are suffixed by its depth; -1 when no Freezable super class
+    final int id = depth(iced_clazz), super_id = id-1;
+    CtClass icer_cc = Pool._pool.makeClass(icer_name);
     icer_cc.setSuperclass(super_icer);
     icer_cc.setModifiers(javassist.Modifier.PUBLIC);
 
     // Overall debug printing?
     if (false) {
-      System.out.println("Iced class " + icer_cc.getName() + " is number: " + id);
+      System.out.println("Iced class " + icer_cc.getName() + " is at depth: " + id);
     }
 
     // Detailed debug printing?
@@ -269,7 +362,7 @@ public class Weaver {
       CtClass base = ctft;
       while( base.isArray() ) base = base.getComponentType();
 
-      if( base.subtypeOf(_enum) ) { // either an enum or an array of enum
+      if( base.subtypeOf(Pool._enum) ) { // either an enum or an array of enum
         // Insert in the Icer, a copy of the enum values() array from Iced
         // e.g. private final myEnum[] _fld = myEnum.values();
         String src = "  private final "+base.getName().replace('$', '.')+"[] "+name+" = "+base.getName().replace('$', '.')+".values();\n";
@@ -284,9 +377,9 @@ public class Weaver {
     make_body(icer_cc, iced_cc, iced_clazz, "write", null, null,
               "  protected final water.AutoBuffer write"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
               super_id == -1?"":"    write"+super_id+"(ab,ice);\n",
-              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%dL)); // %s\n",
+              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%o)); // %s\n",
+              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%o)); // %s\n",
+              "    ab.put%z(ice.%s);\n"  ,  "    ab.put%z((%C)_unsafe.get%u(ice,%o)); // %s\n",
               "    return ab;\n" +
               "  }");
     if( debug_print ) System.out.println(debug);
@@ -294,9 +387,9 @@ public class Weaver {
     make_body(icer_cc, iced_cc, iced_clazz, "writeJSON", "(supers?ab.put1(','):ab).", "    ab.put1(',').",
               "  protected final water.AutoBuffer writeJSON"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
               super_id == -1?"":"    writeJSON"+super_id+"(ab,ice);\n",
-              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n",
-              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%dL)); // %s\n"  ,
+              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%o)); // %s\n",
+              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%o)); // %s\n",
+              "putJSON%z(\"%s\",ice.%s);\n"  ,  "putJSON%z(\"%s\",(%C)_unsafe.get%u(ice,%o)); // %s\n"  ,
               "    return ab;\n" +
               "  }");
     if( debug_print ) System.out.println(debugJ);
@@ -320,9 +413,9 @@ public class Weaver {
     make_body(icer_cc, iced_cc, iced_clazz, "read", null, null,
               "  protected final "+iced_name+" read"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
               super_id == -1?"":"    read"+super_id+"(ab,ice);\n",
-              "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%dL,ab.get%z());  //%s\n",
-              "    ice.%s = (%C)ab.get%z(%s);\n",    "    _unsafe.put%u(ice,%dL,ab.get%z(%s));\n",
-              "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%dL,(%C)ab.get%z(%c.class));  //%s\n",
+              "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%o,ab.get%z());  //%s\n",
+              "    ice.%s = (%C)ab.get%z(%s);\n",    "    _unsafe.put%u(ice,%o,ab.get%z(%s));\n",
+              "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%o,(%C)ab.get%z(%c.class));  //%s\n",
               "    return ice;\n" +
               "  }");
     if( debug_print ) System.out.println(rbody_impl);
@@ -330,9 +423,9 @@ public class Weaver {
     make_body(icer_cc, iced_cc, iced_clazz, "readJSON", null, null,
               "  protected final "+iced_name+" readJSON"+id+"(water.AutoBuffer ab, "+iced_name+" ice) {\n",
               super_id == -1?"":"    readJSON"+super_id+"(ab,ice);\n",
-              "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%dL,ab.get%z());  //%s\n",
-              "    ice.%s = (%C)ab.get%z(%s);\n",    "    _unsafe.put%u(ice,%dL,ab.get%z(%s));\n",
-              "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%dL,(%C)ab.get%z(%c.class));  //%s\n",
+              "    ice.%s = ab.get%z();\n",            "    _unsafe.put%u(ice,%o,ab.get%z());  //%s\n",
+              "    ice.%s = (%C)ab.get%z(%s);\n",    "    _unsafe.put%u(ice,%o,ab.get%z(%s));\n",
+              "    ice.%s = (%C)ab.get%z(%c.class);\n","    _unsafe.put%u(ice,%o,(%C)ab.get%z(%c.class));  //%s\n",
               "    return ice;\n" +
               "  }");
     if( debug_print )
@@ -355,26 +448,22 @@ public class Weaver {
     if( debug_print ) System.out.println(cnbody);
     addMethod(cnbody,icer_cc);
 
-    String ftbody = "  protected int frozenType() { return "+id+"; }";
-    if( debug_print ) System.out.println(ftbody);
-    addMethod(ftbody,icer_cc);
-
     String cmp2 = "  protected void compute1( water.H2O.H2OCountedCompleter dt ) { dt.compute1(); }";
     if( debug_print ) System.out.println(cmp2);
     addMethod(cmp2,icer_cc);
 
     // DTasks need to be able to copy all their (non transient) fields from one
     // DTask instance over another, to match the MRTask API.
-    if( iced_cc.subclassOf(_dtask) ) {
+    if( iced_cc.subclassOf(Pool._dtask) ) {
       String cpbody_impl =
         make_body(icer_cc, iced_cc, iced_clazz, "copyOver", null, null,
                   "  protected void copyOver(water.Freezable fdst, water.Freezable fsrc) {\n",
                   "    super.copyOver(fdst,fsrc);\n"+
                   "    "+iced_name+" dst = ("+iced_name+")fdst;\n"+
                   "    "+iced_name+" src = ("+iced_name+")fsrc;\n",
-                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%dL,_unsafe.get%u(src,%dL));  //%s\n",
-                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%dL,_unsafe.get%u(src,%dL));  //%s\n",
-                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%dL,_unsafe.get%u(src,%dL));  //%s\n",
+                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%o,_unsafe.get%u(src,%o));  //%s\n",
+                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%o,_unsafe.get%u(src,%o));  //%s\n",
+                  "    dst.%s = src.%s;\n","    _unsafe.put%u(dst,%o,_unsafe.get%u(src,%o));  //%s\n",
                   "  }");
       if( debug_print ) System.out.println(cpbody_impl);
     }
@@ -400,7 +489,7 @@ public class Weaver {
                                   String  enums, String enums_unsafe,
                                   String   iced, String  iced_unsafe,
                                   String trailer
-                                  ) throws CannotCompileException, NotFoundException, NoSuchFieldException {
+                                  ) throws CannotCompileException, NotFoundException {
     StringBuilder sb = new StringBuilder();
     sb.append(header);
     if(impl.equals("writeJSON")) {
@@ -475,7 +564,7 @@ public class Weaver {
       // access, only private is a problem.
       boolean can_access = !javassist.Modifier.isPrivate(mods);
       if( (impl.equals("read") || impl.equals("copyOver")) && javassist.Modifier.isFinal(mods) ) can_access = false;
-      long off = _unsafe.objectFieldOffset(iced_clazz.getDeclaredField(ctf.getName()));
+      String off = can_access ? null : offsetField(icer_cc, iced_cc, ctf.getName());
       int ftype = ftype(iced_cc, ctf.getSignature() ); // Field type encoding
       if( ftype%20 == 9 || ftype%20 == 11 ) {          // Iced/Objects
         sb.append(can_access ?  iced :  iced_unsafe);
@@ -491,7 +580,7 @@ public class Weaver {
       subsub(sb, "%s", ctf.getName());             // %s ==> field name
       subsub(sb, "%c", dollarsub(base.getName())); // %c ==> base class name
       subsub(sb, "%C", dollarsub(ctft.getName())); // %C ==> full class name
-      subsub(sb, "%d", ""+off);                    // %d ==> field offset, only for Unsafe
+      if( off != null ) subsub(sb, "%o", off);     // %o ==> field offset, only for Unsafe
       subsub(sb, "%u", utype(ctf.getSignature())); // %u ==> unsafe type name
 
     }
@@ -502,6 +591,23 @@ public class Weaver {
     return body;
   }
 
+  // Name of the static field holding the offset of an Iced field, for Unsafe
+  // access.  The offset is looked up when the Icer is loaded rather than
+  // inlined, as it depends on the JVM running the Icer, not the one weaving it.
+  private static String offsetField( CtClass icer_cc, CtClass iced_cc, String name ) throws CannotCompileException {
+    String off = "_off_"+name;
+    for( CtField ctf : icer_cc.getDeclaredFields() )
+      if( ctf.getName().equals(off) ) return off;
+    String src = "  private static final long "+off+" = fieldOffset("+iced_cc.getName()+".class,\""+name+"\");\n";
+    try {
+      icer_cc.addField(CtField.make(src,icer_cc));
+    } catch( CannotCompileException ce ) {
+      System.err.println("--- Compilation failure while compiling "+icer_cc.getName()+"\n"+src+"\n------\n"+ce);
+      throw ce;
+    }
+    return off;
+  }
+
   // Add a gen'd method.  Politely print if there's an error during generation.
   private static void addMethod( String body, CtClass icer_cc ) throws CannotCompileException {
     try {
@@ -539,10 +645,10 @@ public class Weaver {
       if( sig.equals("Ljava/lang/String;") ) return 8;
 
       String clz = sig.substring(1,sig.length()-1).replace('/', '.');
-      CtClass argClass = _pool.get(clz);
-      if( argClass.subtypeOf(_pool.get("water.Freezable")) ) return 9;
-      if( argClass.subtypeOf(_enum) ) return 10;
-      if( argClass.subtypeOf(_serialize) ) return 11; // Uses Java Serialization
+      CtClass argClass = Pool._pool.get(clz);
+      if( argClass.subtypeOf(Pool._pool.get("water.Freezable")) ) return 9;
+      if( argClass.subtypeOf(Pool._enum) ) return 10;
+      if( argClass.subtypeOf(Pool._serialize) ) return 11; // Uses Java Serialization
       break;
     case '[':                   // Arrays
       return ftype(ct, sig.substring(1))+20; // Same as prims, plus 20
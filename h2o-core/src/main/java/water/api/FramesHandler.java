@@ -6,6 +6,7 @@ import water.api.ModelsHandler.Models;
 import water.api.schemas3.*;
 import water.exceptions.*;
 import water.fvec.Frame;
+import water.fvec.FrameBinary;
 import water.fvec.Vec;
 import water.util.Log;
 
@@ -17,6 +18,12 @@ import java.util.*;
  * GET /3/Frames/(?<frameid>.*)/export/(?<path>.*)/overwrite/(?<force>.*)
  * <p> export(): Export a Frame to the given path with optional overwrite.
  * <p>
+ * POST /3/Frames/(?<frameid>.*)/save
+ * <p> save(): Save a Frame in the native binary format to the given directory.
+ * <p>
+ * POST /3/Frames/(?<frameid>.*)/load
+ * <p> load(): Load a Frame saved in the native binary format from the given directory.
+ * <p>
  * GET /3/Frames/(?<frameid>.*)/columns/(?<column>.*)/summary
  * <p> columnSummary(): Return the summary metrics for a column, e.g. mins, maxes, mean, sigma, percentiles, etc.
  * <p>
@@ -255,7 +262,22 @@ public class FramesHandler<I extends FramesHandler.Frames, S extends SchemaV3<I,
   public FramesV3 export(int version, FramesV3 s) {
     Frame fr = getFromDKV("key", s.frame_id.key());
     Log.info("ExportFiles processing (" + s.path + ")");
-    s.job = new JobV3(Frame.export(fr, s.path, s.frame_id.key().toString(), s.force, s.num_parts));
+    s.job = new JobV3(Frame.export(fr, s.path, s.frame_id.key().toString(), s.force, s.num_parts, s.compression));
+    return s;
+  }
+
+  /** Save a single frame in the native binary format to the specified directory. */
+  public FramesV3 save(int version, FramesV3 s) {
+    Frame fr = getFromDKV("key", s.frame_id.key());
+    Log.info("SaveFrame processing (" + s.path + ")");
+    s.job = new JobV3(FrameBinary.save(fr, s.path, s.force));
+    return s;
+  }
+
+  /** Load a frame saved in the native binary format from the specified directory. */
+  public FramesV3 load(int version, FramesV3 s) {
+    Log.info("LoadFrame processing (" + s.path + ")");
+    s.job = new JobV3(FrameBinary.load(s.frame_id.key(), s.path));
     return s;
   }
 
@@ -144,6 +144,14 @@ public class RegisterV3Api extends AbstractRegister {
         "POST /3/Frames/{frame_id}/export", FramesHandler.class, "export",
         "Export a Frame to the given path with optional overwrite.");
 
+    RequestServer.registerEndpoint("saveFrame",
+        "POST /3/Frames/{frame_id}/save", FramesHandler.class, "save",
+        "Save a Frame in the native binary format to the given directory.");
+
+    RequestServer.registerEndpoint("loadFrame",
+        "POST /3/Frames/{frame_id}/load", FramesHandler.class, "load",
+        "Load a Frame saved in the native binary format from the given directory.");
+
     RequestServer.registerEndpoint("frameColumnSummary",
         "GET /3/Frames/{frame_id}/columns/{column}/summary", FramesHandler.class, "columnSummary",
         "Return the summary metrics for a column, e.g. min, max, mean, sigma, percentiles, etc.");
@@ -2,6 +2,7 @@ package water.api.schemas3;
 
 import water.Iced;
 import water.api.API;
+import water.jdbc.SQLManager;
 
 
 public class ImportSQLTableV99 extends RequestSchemaV3<Iced,ImportSQLTableV99> {
@@ -28,4 +29,10 @@ public class ImportSQLTableV99 extends RequestSchemaV3<Iced,ImportSQLTableV99> {
   @API(help = "optimize")
   public boolean optimize = true;
 
+  @API(help = "Numeric column to split the table on: chunks are read with range queries on it instead of LIMIT/OFFSET pages")
+  public String split_column = "";
+
+  @API(help = "Maximum number of connections to the database, over the whole cloud; at least one per node")
+  public int max_connections = SQLManager.MAX_CONNECTIONS;
+
 }
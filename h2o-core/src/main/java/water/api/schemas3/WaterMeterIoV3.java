@@ -11,6 +11,9 @@ public class WaterMeterIoV3 extends RequestSchemaV3<WaterMeterIo, WaterMeterIoV3
   @API(help="array of IO info", direction = API.Direction.OUTPUT)
   public WaterMeterIo.IoStatsEntry persist_stats[];
 
+  @API(help="array of Cleaner eviction info, per cost class", direction = API.Direction.OUTPUT)
+  public WaterMeterIo.EvictionStatsEntry eviction_stats[];
+
   // Version&Schema-specific filling into the implementation object
   public WaterMeterIo createImpl() {
     WaterMeterIo obj = new WaterMeterIo();
@@ -266,6 +266,201 @@ public class CStrChunk extends Chunk {
     return nc;
   }
 
+  /**
+   * Optimized replaceFirst() and replaceAll() methods for a literal pattern, operating
+   * directly on the UTF-8 bytes of the chunk. A UTF-8 encoded pattern can only match
+   * on character boundaries, so no decoding to String is needed. Matches are found left
+   * to right without overlap, like a regular expression without meta-characters.
+   *
+   * @param nc NewChunk to be filled with the replaced strings
+   * @param pattern literal to look for, not empty
+   * @param replacement literal to put in place of each match
+   * @param all replace all the matches if true, only the first one otherwise
+   * @param toLower lower-case the strings before matching, only allowed on ASCII chunks
+   * @return Filled NewChunk
+   */
+  public NewChunk replaceLiteral(NewChunk nc, byte[] pattern, byte[] replacement, boolean all, boolean toLower) {
+    assert pattern.length > 0 && (!toLower || _isAllASCII);
+    final int[] fail = failureTable(pattern);
+    final int m = pattern.length;
+    final int grow = Math.max(0, replacement.length - m);
+    int[] is = nc.alloc_str_indices(_len);
+    byte[] ss = MemoryManager.malloc1(_mem.length - _valstart);
+    int sslen = 0;
+    for (int i = 0; i < _len; i++) {
+      int off = UnsafeUtils.get4(_mem, idx(i));
+      if (off == NA) { is[i] = NA; continue; }
+      int start = _valstart + off, end = start;
+      while (_mem[end] != 0) end++;
+      int len = end - start;
+      int max = sslen + len + (grow == 0 ? 0 : (all ? len / m : 1) * grow) + 1;
+      if (max > ss.length) ss = MemoryManager.arrayCopyOf(ss, Math.max(max, ss.length << 1));
+      is[i] = sslen;
+      int q = 0;                // Bytes of the pattern matched so far, not yet copied out
+      int j = start;
+      for (; j < end; j++) {
+        byte b = _mem[j];
+        if (toLower && b > 0x40 && b < 0x5B) b += 0x20;
+        while (q > 0 && pattern[q] != b) { // Fall back, releasing the bytes no longer matched
+          int nq = fail[q];
+          System.arraycopy(pattern, 0, ss, sslen, q - nq);
+          sslen += q - nq;
+          q = nq;
+        }
+        if (pattern[q] == b) q++;
+        else ss[sslen++] = b;
+        if (q == m) {
+          System.arraycopy(replacement, 0, ss, sslen, replacement.length);
+          sslen += replacement.length;
+          q = 0;
+          if (!all) { j++; break; }
+        }
+      }
+      System.arraycopy(pattern, 0, ss, sslen, q); // Dangling partial match
+      sslen += q;
+      for (; j < end; j++) {    // Rest of the string after the first match
+        byte b = _mem[j];
+        ss[sslen++] = toLower && b > 0x40 && b < 0x5B ? (byte) (b + 0x20) : b;
+      }
+      ss[sslen++] = 0;
+    }
+    nc.set_sparseLen(nc.set_len(_len));
+    nc._ss = ss;
+    nc._sslen = sslen;
+    nc._isAllASCII = _isAllASCII && isAscii(replacement);
+    return nc;
+  }
+
+  /**
+   * Optimized countMatches() method for literal patterns, operating directly on the UTF-8
+   * bytes of the chunk. Counts the non-overlapping occurrences of each pattern, summed
+   * over the patterns; an empty pattern matches nothing.
+   *
+   * @param nc NewChunk to be filled with the number of matches in each string
+   * @param patterns literals to look for
+   * @return Filled NewChunk
+   */
+  public NewChunk countLiterals(NewChunk nc, byte[][] patterns) {
+    int[][] fails = new int[patterns.length][];
+    for (int p = 0; p < patterns.length; p++)
+      fails[p] = failureTable(patterns[p]);
+    nc.alloc_mantissa(_len);
+    nc.alloc_exponent(_len);
+    for (int i = 0; i < _len; i++) {
+      int off = UnsafeUtils.get4(_mem, idx(i));
+      if (off == NA) { nc.addNA(); continue; }
+      int cnt = 0;
+      for (int p = 0; p < patterns.length; p++) {
+        byte[] pattern = patterns[p];
+        if (pattern.length == 0) continue;
+        int[] fail = fails[p];
+        int q = 0;
+        byte b;
+        for (int j = _valstart + off; (b = _mem[j]) != 0; j++) {
+          while (q > 0 && pattern[q] != b) q = fail[q];
+          if (pattern[q] == b && ++q == pattern.length) { cnt++; q = 0; }
+        }
+      }
+      nc.addNum(cnt, 0);
+    }
+    return nc;
+  }
+
+  /**
+   * Optimized split() method for a literal separator, operating directly on the UTF-8 bytes
+   * of the chunk. Follows String.split(): a string without the separator is kept whole and
+   * trailing empty pieces are dropped. The i-th piece of each string goes to ncs[i], missing
+   * pieces are NA.
+   *
+   * @param ncs NewChunks to be filled with the pieces, at least {@link #maxSplits} of them
+   * @param sep separator to split on, not empty
+   * @return Filled NewChunks
+   */
+  public NewChunk[] splitLiteral(NewChunk[] ncs, byte[] sep) {
+    final int[] fail = failureTable(sep);
+    BufferedString bs = new BufferedString();
+    int[] bounds = new int[16];
+    for (int i = 0; i < _len; i++) {
+      int off = UnsafeUtils.get4(_mem, idx(i));
+      int n = 0;
+      if (off != NA) {
+        bounds = splitBounds(_valstart + off, sep, fail, bounds);
+        for (; n < bounds[0]; n++) {
+          int s = bounds[1 + 2 * n], e = bounds[2 + 2 * n];
+          ncs[n].addStr(bs.set(_mem, s, e - s));
+        }
+      }
+      for (; n < ncs.length; n++) ncs[n].addNA();
+    }
+    return ncs;
+  }
+
+  /**
+   * @param sep separator to split on, not empty
+   * @return the largest number of pieces {@link #splitLiteral} makes from a string of this chunk
+   */
+  public int maxSplits(byte[] sep) {
+    final int[] fail = failureTable(sep);
+    int[] bounds = new int[16];
+    int max = 0;
+    for (int i = 0; i < _len; i++) {
+      int off = UnsafeUtils.get4(_mem, idx(i));
+      if (off != NA) {
+        bounds = splitBounds(_valstart + off, sep, fail, bounds);
+        max = Math.max(max, bounds[0]);
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Split the 0-terminated string starting at _mem[start] on sep. Returns the bounds array,
+   * grown if needed, holding the number of pieces followed by the start and end of each one.
+   */
+  private int[] splitBounds(int start, byte[] sep, int[] fail, int[] bounds) {
+    int n = 0, from = start, q = 0, j = start;
+    byte b;
+    for (; (b = _mem[j]) != 0; j++) {
+      while (q > 0 && sep[q] != b) q = fail[q];
+      if (sep[q] == b && ++q == sep.length) {
+        if (2 * n + 3 > bounds.length) bounds = Arrays.copyOf(bounds, bounds.length << 1);
+        bounds[1 + 2 * n] = from;
+        bounds[2 + 2 * n] = j + 1 - sep.length;
+        n++;
+        from = j + 1;
+        q = 0;
+      }
+    }
+    if (2 * n + 3 > bounds.length) bounds = Arrays.copyOf(bounds, bounds.length << 1);
+    bounds[1 + 2 * n] = from;
+    bounds[2 + 2 * n] = j;
+    n++;
+    if (n > 1) // Like String.split(), drop trailing empty pieces unless there was no match at all
+      while (n > 0 && bounds[2 * n] == bounds[2 * n - 1]) n--;
+    bounds[0] = n;
+    return bounds;
+  }
+
+  /**
+   * Knuth-Morris-Pratt failure table: fail[q] is the length of the longest proper prefix
+   * of pattern[0..q) which is also a suffix of it.
+   */
+  private static int[] failureTable(byte[] pattern) {
+    int[] fail = new int[pattern.length + 1];
+    for (int q = 1, k = 0; q < pattern.length; q++) {
+      while (k > 0 && pattern[q] != pattern[k]) k = fail[k];
+      if (pattern[q] == pattern[k]) k++;
+      fail[q + 1] = k;
+    }
+    return fail;
+  }
+
+  private static boolean isAscii(byte[] bytes) {
+    for (byte b : bytes)
+      if (b < 0) return false;
+    return true;
+  }
+
   /**
    * Does c intersect w/ set?
    * @param c char to look for
@@ -1,5 +1,6 @@
 package water.fvec;
 
+import com.google.common.base.Charsets;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 import water.*;
@@ -1402,6 +1403,15 @@ public class Frame extends Lockable<Frame> {
   }
 
   public static Job export(Frame fr, String path, String frameName, boolean overwrite, int nParts) {
+    return export(fr, path, frameName, overwrite, nParts, null);
+  }
+
+  /** Export a Frame as CSV, in nParts files (1=single file, -1=automatic).
+   *  @param compression null or "none" for plain files, "gzip" to gzip each file */
+  public static Job export(Frame fr, String path, String frameName, boolean overwrite, int nParts, String compression) {
+    if (compression != null && !"none".equals(compression) && !"gzip".equals(compression))
+      throw new H2OIllegalArgumentException("compression", "exportFrame", compression);
+    boolean gzip = "gzip".equals(compression);
     boolean forceSingle = nParts == 1;
     // Validate input
     if (forceSingle) {
@@ -1418,7 +1428,7 @@ public class Frame extends Lockable<Frame> {
       }
     }
     Job job =  new Job<>(fr._key, "water.fvec.Frame", "Export dataset");
-    FrameUtils.ExportTaskDriver t = new FrameUtils.ExportTaskDriver(fr, path, frameName, overwrite, job, nParts);
+    FrameUtils.ExportTaskDriver t = new FrameUtils.ExportTaskDriver(fr, path, frameName, overwrite, job, nParts, gzip);
     return job.start(t, fr.anyVec().nChunks());
   }
 
@@ -1429,14 +1439,20 @@ public class Frame extends Lockable<Frame> {
     return new CSVStream(this, headers, hex_string);
   }
 
+  /** InputStream of a Frame as CSV.  Rows are formatted one at a time
+   *  straight into a reused byte buffer: numbers are printed without going
+   *  through Strings, and categorical labels are encoded once per level. */
   public static class CSVStream extends InputStream {
     private final boolean _hex_string;
     byte[] _line;
+    int _lineLen;
     int _position;
     int _chkRow;
     Chunk[] _curChks;
     int _lastChkIdx;
     public volatile int _curChkIdx; // used only for progress reporting
+    private byte[][][] _labels;   // Quoted UTF-8 labels of categorical columns, filled lazily
+    private final BufferedString _tmpStr = new BufferedString();
 
     public CSVStream(Frame fr, boolean headers, boolean hex_string) {
       this(firstChunks(fr), headers ? fr.names() : null, fr.anyVec().nChunks(), hex_string);
@@ -1465,30 +1481,42 @@ public class Frame extends Lockable<Frame> {
           sb.append(',').append('"').append(names[i]).append('"');
         sb.append('\n');
       }
-      _line = sb.toString().getBytes();
+      _line = sb.toString().getBytes(Charsets.UTF_8);
+      _lineLen = _line.length;
       _chkRow = -1; // first process the header line
       _curChks = chks;
+      if (chks != null) {
+        _labels = new byte[chks.length][][];
+        for (int i = 0; i < chks.length; i++)
+          if (chks[i]._vec.isCategorical())
+            _labels[i] = new byte[chks[i]._vec.domain().length][];
+      }
     }
 
     public int getCurrentRowSize() throws IOException {
       int av = available();
       assert av > 0;
-      return _line.length;
+      return _lineLen;
     }
 
-    byte[] getBytesForRow() {
-      StringBuilder sb = new StringBuilder();
-      BufferedString tmpStr = new BufferedString();
+    /** Format the current row into _line. */
+    void formatRow() {
+      _lineLen = 0;
       for (int i = 0; i < _curChks.length; i++ ) {
-        Vec v = _curChks[i]._vec;
-        if(i > 0) sb.append(',');
-        if(!_curChks[i].isNA(_chkRow)) {
-          if( v.isCategorical() ) sb.append('"').append(v.factor(_curChks[i].at8(_chkRow))).append('"');
-          else if( v.isUUID() ) sb.append(PrettyPrint.UUID(_curChks[i].at16l(_chkRow), _curChks[i].at16h(_chkRow)));
-          else if( v.isInt() ) sb.append(_curChks[i].at8(_chkRow));
-          else if (v.isString()) sb.append('"').append(_curChks[i].atStr(tmpStr, _chkRow)).append('"');
-          else {
-            double d = _curChks[i].atd(_chkRow);
+        Chunk c = _curChks[i];
+        Vec v = c._vec;
+        if (i > 0) put((byte) ',');
+        if (!c.isNA(_chkRow)) {
+          if( v.isCategorical() ) put(label(i, (int) c.at8(_chkRow)));
+          else if( v.isUUID() ) putUUID(c.at16l(_chkRow), c.at16h(_chkRow));
+          else if( v.isInt() ) putLong(c.at8(_chkRow));
+          else if (v.isString()) {
+            BufferedString str = c.atStr(_tmpStr, _chkRow);
+            put((byte) '"');
+            put(str.getBuffer(), str.getOffset(), str.length());
+            put((byte) '"');
+          } else {
+            double d = c.atd(_chkRow);
             // R 3.1 unfortunately changed the behavior of read.csv().
             // (Really type.convert()).
             //
@@ -1498,19 +1526,102 @@ public class Frame extends Lockable<Frame> {
             //   https://bugs.r-project.org/bugzilla/show_bug.cgi?id=15751
             //   https://stat.ethz.ch/pipermail/r-devel/2014-April/068778.html
             //   http://stackoverflow.com/questions/23072988/preserve-old-pre-3-1-0-type-convert-behavior
-            String s = _hex_string ? Double.toHexString(d) : Double.toString(d);
-            sb.append(s);
+            if (_hex_string) putAscii(Double.toHexString(d));
+            else putDouble(d);
           }
         }
       }
-      sb.append('\n');
-      return sb.toString().getBytes();
+      put((byte) '\n');
+    }
+
+    private byte[] label(int col, int level) {
+      byte[] b = _labels[col][level];
+      if (b == null)
+        b = _labels[col][level] = ('"' + _curChks[col]._vec.domain()[level] + '"').getBytes(Charsets.UTF_8);
+      return b;
+    }
+
+    private void ensure(int n) {
+      if (_lineLen + n > _line.length)
+        _line = Arrays.copyOf(_line, Math.max(_lineLen + n, Math.max(_line.length << 1, 256)));
+    }
+    private void put(byte b) { ensure(1); _line[_lineLen++] = b; }
+    private void put(byte[] b) { put(b, 0, b.length); }
+    private void put(byte[] b, int off, int len) {
+      ensure(len);
+      System.arraycopy(b, off, _line, _lineLen, len);
+      _lineLen += len;
+    }
+    private void putAscii(String s) {
+      ensure(s.length());
+      for (int i = 0; i < s.length(); i++)
+        _line[_lineLen++] = (byte) s.charAt(i);
+    }
+
+    private void putLong(long l) {
+      if (l == Long.MIN_VALUE) { putAscii(Long.toString(l)); return; }
+      ensure(20);
+      if (l < 0) { _line[_lineLen++] = '-'; l = -l; }
+      putDigits(l, 1);
+    }
+
+    // Unsigned decimal digits of l, padded with leading zeros to at least minDigits
+    private void putDigits(long l, int minDigits) {
+      int n = 1;
+      for (long x = l / 10; x != 0; x /= 10) n++;
+      n = Math.max(n, minDigits);
+      ensure(n);
+      for (int i = _lineLen + n - 1; i >= _lineLen; i--, l /= 10)
+        _line[i] = (byte) ('0' + l % 10);
+      _lineLen += n;
+    }
+
+    private static final double[] POW10 = new double[18];
+    static { POW10[0] = 1; for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10; }
+
+    /** Same layout as Double.toString(), with the shortest digits which
+     *  read back as the same double.  Values in the range printed without an
+     *  exponent, 1e-3 <= |d| < 1e7, take the fast path: d is written with the
+     *  fewest decimals k such that round(d*10^k)/10^k == d, which holds exactly
+     *  when the printed decimal parses back to d (both sides are correctly
+     *  rounded from the same exact fraction).  Other values fall back to
+     *  Double.toString(). */
+    private void putDouble(double d) {
+      double a = Math.abs(d);
+      if (d == 0 || (a >= 1e-3 && a < 1e7)) {
+        if (d < 0 || (d == 0 && 1 / d < 0)) put((byte) '-');
+        for (int k = 0; k < POW10.length; k++) {
+          long m = Math.round(a * POW10[k]);
+          if (m / POW10[k] == a && m < (1L << 53)) {
+            putDigits(m / (long) POW10[k], 1);
+            put((byte) '.');
+            putDigits(m % (long) POW10[k], Math.max(k, 1));
+            return;
+          }
+        }
+        _lineLen -= d < 0 ? 1 : 0; // No short form, undo the sign
+      }
+      putAscii(Double.toString(d));
+    }
+
+    private void putUUID(long lo, long hi) {
+      putHex((lo >> 32) & 0xFFFFFFFFL, 8);  put((byte) '-');
+      putHex((lo >> 16) & 0xFFFFL, 4);      put((byte) '-');
+      putHex(lo & 0xFFFFL, 4);              put((byte) '-');
+      putHex((hi >> 48) & 0xFFFFL, 4);      put((byte) '-');
+      putHex(hi & 0xFFFFFFFFFFFFL, 12);
+    }
+    private void putHex(long l, int digits) {
+      ensure(digits);
+      for (int i = _lineLen + digits - 1; i >= _lineLen; i--, l >>>= 4)
+        _line[i] = (byte) "0123456789ABCDEF".charAt((int) (l & 0xF));
+      _lineLen += digits;
     }
 
     @Override public int available() throws IOException {
       // Case 1:  There is more data left to read from the current line.
-      if (_position != _line.length) {
-        return _line.length - _position;
+      if (_position != _lineLen) {
+        return _lineLen - _position;
       }
 
       // Case 2:  There are no chunks to work with (eg. the whole Frame was empty).
@@ -1523,6 +1634,7 @@ public class Frame extends Lockable<Frame> {
 
       // Case 3:  Out of data.
       if (anyChunk._start + _chkRow == anyChunk._vec.length()) {
+        _curChks = null; // Stay at the end when asked again
         return 0;
       }
 
@@ -1531,6 +1643,7 @@ public class Frame extends Lockable<Frame> {
         _curChkIdx = anyChunk._vec.elem2ChunkIdx(anyChunk._start + _chkRow); // skips empty chunks
         // Case 4:  Processed all requested chunks.
         if (_curChkIdx > _lastChkIdx) {
+          _curChks = null;
           return 0;
         }
         // fetch the next non-empty chunks
@@ -1548,10 +1661,10 @@ public class Frame extends Lockable<Frame> {
       }
 
       // Case 5:  Return data for the current row.
-      _line = getBytesForRow();
+      formatRow();
       _position = 0;
 
-      return _line.length;
+      return _lineLen;
     }
 
     @Override public void close() throws IOException {
@@ -1560,20 +1673,25 @@ public class Frame extends Lockable<Frame> {
     }
 
     @Override public int read() throws IOException {
-      return available() == 0 ? -1 : _line[_position++];
+      return available() == 0 ? -1 : _line[_position++] & 0xFF;
     }
 
+    /** Fills b with as many rows as fit, the last one possibly partially. */
     @Override public int read(byte[] b, int off, int len) throws IOException {
-      int n = available();
-      if(n > 0) {
-        n = Math.min(n, len);
-        System.arraycopy(_line, _position, b, off, n);
-        _position += n;
+      int n = 0;
+      while (n < len) {
+        int av = available();
+        if (av == 0) break;
+        av = Math.min(av, len - n);
+        System.arraycopy(_line, _position, b, off + n, av);
+        _position += av;
+        n += av;
       }
-      return n;
+      return n == 0 && len > 0 ? -1 : n;
     }
   }
 
+
   @Override public Class<KeyV3.FrameKeyV3> makeSchema() { return KeyV3.FrameKeyV3.class; }
 
   /** Sort rows of a frame, using the set of columns as keys.
@@ -0,0 +1,298 @@
+package water.fvec;
+
+import jsr166y.CountedCompleter;
+import water.*;
+import water.exceptions.H2OIllegalArgumentException;
+import water.parser.BufferedString;
+import water.persist.Persist;
+import water.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Native binary format of a Frame.  The compressed Chunks are written out
+ * as-is and read back without any parsing, so reloading a saved Frame costs
+ * about as much as reading its bytes.
+ *
+ * <p>A saved Frame is a directory holding one file per chunk index, named
+ * {@code chunk-<cidx>}, plus a {@code manifest} file written last.  Each
+ * chunk file holds, for every column, the Chunk class name followed by the
+ * Chunk bytes ({@link Chunk#asBytes()}).  The manifest holds the column
+ * names, types and domains, the row layout (ESPC) and the rollups; like a
+ * binary model, it can only be read back by the same version of H2O.
+ *
+ * <p>Both saving and loading are distributed: every chunk file is written
+ * and read by the node homing the chunk.  With more than one node the
+ * directory must therefore be on a filesystem shared by all the nodes
+ * (HDFS, NFS, ...).
+ */
+public class FrameBinary {
+  static final String MANIFEST = "manifest";
+  private static final int VERSION = 1;
+
+  static String chunkPath(String dir, int cidx) { return dir + "/chunk-" + cidx; }
+
+  /** Everything about a saved Frame except for its data. */
+  static class Manifest extends Iced<Manifest> {
+    int _version = VERSION;
+    String[] _names;
+    byte[] _types;
+    String[][] _domains;
+    long[] _espc;
+    RollupStats[] _rollups;
+    int nChunks() { return _espc.length - 1; }
+  }
+
+  /** Save a Frame into the given directory.
+   *  @param fr Frame to save, must be in the DKV
+   *  @param dir Destination directory, must be empty or not exist unless overwrite is set
+   *  @param overwrite Replace a previously saved Frame: its manifest and chunk files are deleted first
+   *  @return The Job saving the Frame */
+  public static Job save(Frame fr, String dir, boolean overwrite) {
+    if (fr._key == null || DKV.get(fr._key) == null) // Locked while saving
+      throw new H2OIllegalArgumentException("frame", "saveFrame", "Frame " + fr._key + " is not in the DKV");
+    if (!overwrite && !H2O.getPM().isEmptyDirectoryAllNodes(dir))
+      throw new H2OIllegalArgumentException(dir, "saveFrame", "Cannot use path " + dir +
+              " to save the frame! The target needs to be either an existing empty directory or not exist yet.");
+    Job job = new Job<>(fr._key, Frame.class.getName(), "Save frame");
+    return job.start(new SaveDriver(fr, dir, overwrite, job), fr.anyVec() == null ? 0 : fr.anyVec().nChunks());
+  }
+
+  /** Load a Frame saved by {@link #save}.
+   *  @param key Key of the loaded Frame
+   *  @param dir Directory the Frame was saved into
+   *  @return The Job loading the Frame */
+  public static Job<Frame> load(Key<Frame> key, String dir) {
+    Manifest m = readManifest(dir);
+    Job<Frame> job = new Job<>(key, Frame.class.getName(), "Load frame");
+    return job.start(new LoadDriver(key, dir, m, job), m.nChunks());
+  }
+
+  static Manifest readManifest(String dir) {
+    String path = dir + "/" + MANIFEST;
+    if (!H2O.getPM().exists(path))
+      throw new H2OIllegalArgumentException(dir, "loadFrame", "No saved frame found in " + dir + ", missing " + path);
+    InputStream is = H2O.getPM().open(path);
+    try {
+      Manifest m = new AutoBuffer(is).get(Manifest.class);
+      if (m._version != VERSION)
+        throw new H2OIllegalArgumentException(dir, "loadFrame", "Unsupported frame format version " + m._version);
+      return m;
+    } finally {
+      try { is.close(); } catch (IOException e) { Log.err(e); }
+    }
+  }
+
+  private static class SaveDriver extends H2O.H2OCountedCompleter<SaveDriver> {
+    final Frame _frame;
+    final String _dir;
+    final boolean _overwrite;
+    final Job _j;
+
+    SaveDriver(Frame frame, String dir, boolean overwrite, Job j) {
+      _frame = frame;
+      _dir = dir;
+      _overwrite = overwrite;
+      _j = j;
+    }
+
+    @Override
+    public void compute2() {
+      _frame.read_lock(_j._key);
+      Vec[] vecs = _frame.vecs();
+      Manifest m = new Manifest();
+      m._names = _frame.names().clone();
+      m._types = new byte[vecs.length];
+      m._domains = new String[vecs.length][];
+      m._rollups = new RollupStats[vecs.length];
+      m._espc = vecs.length == 0 ? new long[]{0} : _frame.anyVec().espc();
+      for (int i = 0; i < vecs.length; i++) {
+        m._types[i] = vecs[i].get_type();
+        m._domains[i] = vecs[i].domain();
+        m._rollups[i] = RollupStats.get(vecs[i]); // Computed now unless already there, saves a pass after loading
+      }
+      if (_overwrite) // No stale chunk files beyond the new chunk count, no manifest of the old Frame
+        new ClearTask(_dir).doAllNodes();
+      H2O.getPM().mkdirs(_dir);
+      if (vecs.length > 0)
+        new SaveTask(_dir, _j._key).doAll(_frame);
+      m.frozenType(); // Register the type before the AutoBuffer snapshots the TypeMap
+      OutputStream os = H2O.getPM().create(_dir + "/" + MANIFEST, true);
+      new AutoBuffer(os, true).put(m).close(); // Last, a Frame is only loadable once fully written
+      Log.info("Saved frame '" + _frame._key + "' (" + m.nChunks() + " chunks) to " + _dir + ".");
+      tryComplete();
+    }
+
+    @Override
+    public void onCompletion(CountedCompleter caller) {
+      _frame.unlock(_j);
+    }
+
+    @Override
+    public boolean onExceptionalCompletion(Throwable t, CountedCompleter caller) {
+      _frame.unlock(_j);
+      return super.onExceptionalCompletion(t, caller);
+    }
+  }
+
+  /** Each node deletes the files of a previously saved Frame, the manifest first; other files are left alone. */
+  private static class ClearTask extends MRTask<ClearTask> {
+    final String _dir;
+
+    ClearTask(String dir) { _dir = dir; }
+
+    @Override
+    protected void setupLocal() {
+      if (!H2O.getPM().exists(_dir)) return;
+      delete(_dir + "/" + MANIFEST);
+      for (Persist.PersistEntry e : H2O.getPM().list(_dir))
+        if (e._name.matches("chunk-\\d+")) delete(_dir + "/" + e._name);
+    }
+
+    private void delete(String path) {
+      // Another node may have deleted it already, when the directory is shared
+      if (H2O.getPM().exists(path) && !H2O.getPM().delete(path) && H2O.getPM().exists(path))
+        throw new H2OIllegalArgumentException(_dir, "saveFrame", "Cannot delete " + path + " on node " + H2O.SELF);
+    }
+  }
+
+  /** Each node writes the chunk files of the chunks it homes. */
+  private static class SaveTask extends MRTask<SaveTask> {
+    final String _dir;
+    final Key<Job> _jobKey;
+
+    SaveTask(String dir, Key<Job> jobKey) {
+      _dir = dir;
+      _jobKey = jobKey;
+    }
+
+    @Override
+    protected void setupLocal() {
+      H2O.getPM().mkdirs(_dir); // Each node needs the directory when it is on a local disk
+    }
+
+    @Override
+    public void map(Chunk[] cs) {
+      if (_jobKey.get().stop_requested()) throw new Job.JobCancelledException();
+      OutputStream os = H2O.getPM().create(chunkPath(_dir, cs[0].cidx()), true);
+      AutoBuffer ab = new AutoBuffer(os, false);
+      for (Chunk c : cs) {
+        if (c._vec instanceof WrappedVec) c = materialize(c); // Values are computed on the fly, store them
+        ab.putStr(c.getClass().getName()).putA1(c.asBytes());
+      }
+      ab.close();
+      Job.update(1, _jobKey);
+    }
+
+    private static Chunk materialize(Chunk c) {
+      NewChunk nc = new NewChunk(null, c.cidx());
+      for (int i = 0; i < c._len; i++) {
+        if (c.isNA(i)) nc.addNA();
+        else if (c._vec.isString()) nc.addStr(c.atStr(new BufferedString(), i));
+        else if (c._vec.isUUID()) nc.addUUID(c, i);
+        else nc.addNum(c.atd(i));
+      }
+      return nc.compress();
+    }
+  }
+
+  private static class LoadDriver extends H2O.H2OCountedCompleter<LoadDriver> {
+    final Key<Frame> _key;
+    final String _dir;
+    final Manifest _m;
+    final Job<Frame> _j;
+
+    LoadDriver(Key<Frame> key, String dir, Manifest m, Job<Frame> j) {
+      _key = key;
+      _dir = dir;
+      _m = m;
+      _j = j;
+    }
+
+    @Override
+    public void compute2() {
+      int ncols = _m._names.length;
+      Vec.VectorGroup vg = new Vec.VectorGroup();
+      int rowLayout = Vec.ESPC.rowLayout(vg._key, _m._espc);
+      Key<Vec>[] keys = vg.addVecs(ncols);
+      Vec[] vecs = new Vec[ncols];
+      for (int i = 0; i < ncols; i++)
+        vecs[i] = new Vec(keys[i], rowLayout, _m._domains[i], _m._types[i]);
+      if (ncols > 0)
+        new LoadTask(_dir, keys, _m.nChunks(), _j._key).doAllNodes();
+      Futures fs = new Futures();
+      for (int i = 0; i < ncols; i++) {
+        if (_m._rollups[i] != null)
+          DKV.put(vecs[i].rollupStatsKey(), _m._rollups[i], fs);
+        DKV.put(vecs[i], fs);
+      }
+      fs.blockForPending();
+      new Frame(_key, _m._names, vecs).delete_and_lock(_j).unlock(_j);
+      Log.info("Loaded frame '" + _key + "' (" + _m.nChunks() + " chunks) from " + _dir + ".");
+      tryComplete();
+    }
+  }
+
+  /** Each node reads the chunk files of the chunks it homes, in parallel. */
+  private static class LoadTask extends MRTask<LoadTask> {
+    final String _dir;
+    final Key<Vec>[] _keys;
+    final int _nChunks;
+    final Key<Job> _jobKey;
+
+    LoadTask(String dir, Key<Vec>[] keys, int nChunks, Key<Job> jobKey) {
+      _dir = dir;
+      _keys = keys;
+      _nChunks = nChunks;
+      _jobKey = jobKey;
+    }
+
+    @Override
+    protected void setupLocal() {
+      final int[] cidxs = new int[_nChunks];
+      int n = 0;
+      for (int cidx = 0; cidx < _nChunks; cidx++) // The whole row of chunks is homed on the same node
+        if (Vec.chunkKey(_keys[0], cidx).home()) cidxs[n++] = cidx;
+      if (n == 0) return;
+      H2O.submitTask(new LocalMR(new LoadChunks(_dir, _keys, Arrays.copyOf(cidxs, n), _jobKey), n)).join();
+    }
+  }
+
+  private static class LoadChunks extends MrFun<LoadChunks> {
+    final String _dir;
+    final Key<Vec>[] _keys;
+    final int[] _cidxs;
+    final Key<Job> _jobKey;
+
+    LoadChunks(String dir, Key<Vec>[] keys, int[] cidxs, Key<Job> jobKey) {
+      _dir = dir;
+      _keys = keys;
+      _cidxs = cidxs;
+      _jobKey = jobKey;
+    }
+
+    @Override
+    protected void map(int id) {
+      int cidx = _cidxs[id];
+      String path = chunkPath(_dir, cidx);
+      if (!H2O.getPM().exists(path))
+        throw new H2OIllegalArgumentException(_dir, "loadFrame", "Missing " + path + " on node " + H2O.SELF);
+      InputStream is = H2O.getPM().open(path);
+      try {
+        AutoBuffer ab = new AutoBuffer(is);
+        Futures fs = new Futures();
+        for (Key<Vec> k : _keys) {
+          Chunk c = (Chunk) TypeMap.newFreezable(ab.getStr());
+          DKV.put(Vec.chunkKey(k, cidx), c.reloadFromBytes(ab.getA1()), fs, true);
+        }
+        fs.blockForPending();
+      } finally {
+        try { is.close(); } catch (IOException e) { Log.err(e); }
+      }
+      Job.update(1, _jobKey);
+    }
+  }
+}
@@ -585,8 +585,10 @@ public class NewChunk extends Chunk {
       _ss = MemoryManager.arrayCopyOf(_ss,_ss.length << 1);
 
     // Copy bytes to _ss
-    for (byte b : bytes) _ss[_sslen++] = b;
+    byte any = 0;
+    for (byte b : bytes) any |= _ss[_sslen++] = b;
     _ss[_sslen++] = (byte)0; // for trailing 0;
+    if (any < 0) _isAllASCII = false; // UTF-8 multi-byte chars have the high bit set
   }
 
   private void append_ss(BufferedString str) {
@@ -600,9 +602,11 @@ public class NewChunk extends Chunk {
     while (_ss.length < (_sslen + strlen + 1)) {
       _ss = MemoryManager.arrayCopyOf(_ss,_ss.length << 1);
     }
+    byte any = 0;
     for (int i = off; i < off+strlen; i++)
-      _ss[_sslen++] = b[i];
+      any |= _ss[_sslen++] = b[i];
     _ss[_sslen++] = (byte)0; // for trailing 0;
+    if (any < 0) _isAllASCII = false; // UTF-8 multi-byte chars have the high bit set
   }
 
   // Append a string, store in _ss & _is
@@ -631,15 +635,14 @@ public class NewChunk extends Chunk {
     assert _sparseLen <= _len;
   }
 
-  // TODO: FIX isAllASCII test to actually inspect string contents
   public void addStr(Chunk c, long row) {
     if( c.isNA_abs(row) ) addNA();
-    else { addStr(c.atStr_abs(new BufferedString(), row)); _isAllASCII &= ((CStrChunk)c)._isAllASCII; }
+    else addStr(c.atStr_abs(new BufferedString(), row));
   }
 
   public void addStr(Chunk c, int row) {
     if( c.isNA(row) ) addNA();
-    else { addStr(c.atStr(new BufferedString(), row)); _isAllASCII &= ((CStrChunk)c)._isAllASCII; }
+    else addStr(c.atStr(new BufferedString(), row));
   }
 
   public void addUUID(UUID uuid) {
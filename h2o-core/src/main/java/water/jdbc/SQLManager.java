@@ -7,6 +7,7 @@ import water.parser.ParseDataset;
 import water.util.Log;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.sql.*;
 import java.util.concurrent.ArrayBlockingQueue;
 
@@ -16,7 +17,7 @@ public class SQLManager {
   
   final static String TEMP_TABLE_NAME = "table_for_h2o_import";
   //upper bound on number of connections to database
-  final static int MAX_CONNECTIONS = 100;
+  public final static int MAX_CONNECTIONS = 100;
   
   /**
    * @param connection_url (Input) 
@@ -30,7 +31,29 @@ public class SQLManager {
   public static Job<Frame> importSqlTable(final String connection_url, String table, final String select_query,
                                           final String username, final String password, final String columns,
                                           boolean optimize) {
-    
+    return importSqlTable(connection_url, table, select_query, username, password, columns, optimize, null, MAX_CONNECTIONS);
+  }
+
+  /**
+   * Import with the table read in ranges of a numeric split column instead of pages.
+   *
+   * Paging with OFFSET makes most databases scan (and throw away) all the rows before each page, so
+   * the import of a large table is quadratic in its size.  With a split column, the range between its
+   * minimum and maximum is cut into one interval per chunk, and every chunk is read with a bounded
+   * {@code WHERE split_column >= lo AND split_column < hi} query, which an index on the column answers
+   * without scanning.  The chunks are as large as the rows in their interval, so the split column
+   * should be spread evenly (e.g. an id).  Rows with a NULL split column go to the first chunk.
+   *
+   * @param split_column (Input) numeric column to partition the table on, or null/empty for paging
+   * @param max_connections (Input) upper bound on the number of connections to the database, over the whole cloud;
+   *                        every node needs one, so it must be at least the size of the cloud
+   */
+  public static Job<Frame> importSqlTable(final String connection_url, String table, final String select_query,
+                                          final String username, final String password, final String columns,
+                                          boolean optimize, final String split_column, final int max_connections) {
+    if (max_connections < H2O.getCloudSize())
+      throw new IllegalArgumentException("The max_connections must be at least the number of nodes in the cloud (" +
+              H2O.getCloudSize() + ") since every node reads its chunks over its own connection, but instead is: " + max_connections);
     
     Connection conn = null;
     Statement stmt = null;
@@ -51,6 +74,8 @@ public class SQLManager {
     long numRow = 0;
     final String[] columnNames;
     final byte[] columnH2OTypes;
+    final boolean splitByRange = split_column != null && !split_column.isEmpty();
+    BigDecimal splitMin = null, splitMax = null;
     try {
       conn = DriverManager.getConnection(connection_url, username, password);
       stmt = conn.createStatement();
@@ -74,6 +99,17 @@ public class SQLManager {
         rs.next();
         numRow = rs.getLong(1);
       }
+      //get the range of the split column
+      if (splitByRange) {
+        try {
+          rs = stmt.executeQuery("SELECT MIN(" + split_column + "), MAX(" + split_column + ") FROM " + table);
+          rs.next();
+          splitMin = rs.getBigDecimal(1);
+          splitMax = rs.getBigDecimal(2);
+        } catch (SQLException ex) {
+          throw new IllegalArgumentException("The split_column must be a numeric column of the table, but failed to get the range of " + split_column + ": " + ex.getMessage());
+        }
+      }
       //get H2O column names and types 
       if (needFetchClause)
         rs = stmt.executeQuery("SELECT " + columns + " FROM " + table + " FETCH NEXT 1 ROWS ONLY");
@@ -173,6 +209,19 @@ public class SQLManager {
       _v = makeCon(0, numRow, (int) Math.ceil(Math.log1p(rows_per_chunk)), false);
     }
     Log.info("Number of chunks: " + _v.nChunks());
+    // Split the range of the split column into one interval per chunk.  The chunks only hold the
+    // rows of their interval, so the template Vec just needs the number of chunks.
+    final Vec _template;
+    final String[] bounds;
+    if (splitByRange) {
+      bounds = splitBounds(splitMin, splitMax, _v.nChunks());
+      _template = makeCon(0, bounds.length - 1, 0, false);
+      _v.remove();
+    } else {
+      bounds = null;
+      _template = _v;
+    }
+    final int fetchSize = (int) Math.min(Integer.MAX_VALUE, Math.max(1, numRow / _template.nChunks()));
     //create frame
     final Key destination_key = Key.make(table + "_sql_to_hex");
     final Job<Frame> j = new Job(destination_key, Frame.class.getName(), "Import SQL Table");
@@ -182,31 +231,51 @@ public class SQLManager {
       @Override
       public void compute2() {
         Frame fr = new SqlTableToH2OFrame(connection_url, finalTable, needFetchClause, username, password, columns, 
-                numCol, _v.nChunks(), j).doAll(columnH2OTypes, _v)
+                numCol, _template.nChunks(), split_column, bounds, fetchSize, max_connections, j).doAll(columnH2OTypes, _template)
                 .outputFrame(destination_key, columnNames, null);
         DKV.put(fr);
-        _v.remove();
+        _template.remove();
         ParseDataset.logParseResults(fr);
         if (finalTable.equals(SQLManager.TEMP_TABLE_NAME)) 
           dropTempTable(connection_url, username, password);
         tryComplete();
       }
     };
-    j.start(work, _v.nChunks());
+    j.start(work, _template.nChunks());
     
     return j;
   }
 
+  /**
+   * Boundaries of {@code n} intervals covering [min, max], as SQL literals; the last one is max itself.
+   * A single interval if the column has no values or a single value.
+   */
+  static String[] splitBounds(BigDecimal min, BigDecimal max, int n) {
+    if (min == null || max == null || min.compareTo(max) >= 0)
+      return new String[]{min == null ? "0" : min.toPlainString(), max == null ? "0" : max.toPlainString()};
+    BigDecimal width = max.subtract(min);
+    String[] bounds = new String[n + 1];
+    for (int i = 0; i < n; i++)
+      bounds[i] = min.add(width.multiply(BigDecimal.valueOf(i)).divide(BigDecimal.valueOf(n), MathContext.DECIMAL64)).toPlainString();
+    bounds[n] = max.toPlainString();
+    return bounds;
+  }
+
   private static class SqlTableToH2OFrame extends MRTask<SqlTableToH2OFrame> {
     final String _url, _table, _user, _password, _columns;
     final int _numCol, _nChunks;
     final boolean _needFetchClause;
+    final String _splitColumn;  // Read chunk i as the rows with _bounds[i] <= _splitColumn < _bounds[i+1], if set
+    final String[] _bounds;
+    final int _fetchSize;       // Expected rows per chunk, for range reads
+    final int _maxConnections;
     final Job _job;
 
     transient ArrayBlockingQueue<Connection> sqlConn;
 
     public SqlTableToH2OFrame(String url, String table, boolean needFetchClause, String user, String password, 
-                              String columns, int numCol, int nChunks, Job job) {
+                              String columns, int numCol, int nChunks, String splitColumn, String[] bounds,
+                              int fetchSize, int maxConnections, Job job) {
       _url = url;
       _table = table;
       _needFetchClause = needFetchClause;
@@ -215,6 +284,10 @@ public class SQLManager {
       _columns = columns;
       _numCol = numCol;
       _nChunks = nChunks;
+      _splitColumn = splitColumn;
+      _bounds = bounds;
+      _fetchSize = fetchSize;
+      _maxConnections = maxConnections;
       _job = job;
 
     }
@@ -222,7 +295,7 @@ public class SQLManager {
     @Override
     protected void setupLocal() {
       int conPerNode = (int) Math.min(Math.ceil((double) _nChunks / H2O.getCloudSize()), Runtime.getRuntime().availableProcessors());
-      conPerNode = Math.min(conPerNode, SQLManager.MAX_CONNECTIONS / H2O.getCloudSize()); 
+      conPerNode = Math.max(1, Math.min(conPerNode, _maxConnections / H2O.getCloudSize()));
       Log.info("Database connections per node: " + conPerNode);
       sqlConn = new ArrayBlockingQueue<>(conPerNode);
       try {
@@ -244,7 +317,13 @@ public class SQLManager {
       ResultSet rs = null;
       Chunk c0 = cs[0];
       String sqlText = "SELECT " + _columns + " FROM " + _table;
-      if (_needFetchClause)
+      if (_bounds != null) {
+        int cidx = c0.cidx();
+        boolean last = cidx == _bounds.length - 2;
+        sqlText += " WHERE (" + _splitColumn + " >= " + _bounds[cidx] + " AND " + _splitColumn + (last ? " <= " : " < ") + _bounds[cidx + 1] + ")";
+        if (cidx == 0)
+          sqlText += " OR " + _splitColumn + " IS NULL";
+      } else if (_needFetchClause)
         sqlText += " OFFSET " + c0.start() + " ROWS FETCH NEXT " + c0._len + " ROWS ONLY";
       else
         sqlText += " LIMIT " + c0._len + " OFFSET " + c0.start();
@@ -252,7 +331,7 @@ public class SQLManager {
         conn = sqlConn.take();
         stmt = conn.createStatement();
         //set fetch size for best performance
-        stmt.setFetchSize(c0._len);
+        stmt.setFetchSize(_bounds != null ? _fetchSize : c0._len);
         rs = stmt.executeQuery(sqlText);
         while (rs.next()) {
           for (int i = 0; i < _numCol; i++) {
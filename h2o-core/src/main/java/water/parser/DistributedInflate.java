@@ -0,0 +1,420 @@
+package water.parser;
+
+import water.DKV;
+import water.Futures;
+import water.Key;
+import water.Keyed;
+import water.MRTask;
+import water.fvec.ByteVec;
+import water.fvec.C1NChunk;
+import water.fvec.Chunk;
+import water.fvec.FileVec;
+import water.fvec.Vec;
+import water.util.UnsafeUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Decompress a compressed ByteVec into new ByteVecs, on the nodes holding its
+ * chunks, so that it can have a distributed parse instead of a single-threaded
+ * stream parse.  Only the layouts which can be split without inflating anything
+ * on the driver are handled; for anything else {@link #inflate} returns null,
+ * and the file keeps its stream parse.
+ *
+ * <p>BGZF (written by bgzip, htslib, biopython and others) is plain gzip made
+ * of many small members - each at most 64K uncompressed - whose size is given
+ * in a 'BC' extra field of the member header.  Each chunk is scanned for member
+ * headers where it lives; the driver chains the candidates from offset 0 (so
+ * that a header lookalike inside compressed data is never taken for a member),
+ * and groups the members into output chunks from their ISIZE trailers.  Each
+ * group is then inflated on the node holding its first bytes.  Other gzip files
+ * are a single deflate stream, which cannot be split, and are not handled.
+ *
+ * <p>ZIP: the entries are listed from the central directory, at the end of the
+ * file, which gives their offsets and sizes.  Each non-empty entry becomes its
+ * own ByteVec, inflated on the node holding its local header.  The entries are
+ * then parsed as separate files of the same parse, so that a multi-entry ZIP
+ * gives the rows of all its entries, in order; the stream parse of a ZIP only
+ * reads its first entry.  Encrypted entries, ZIP64 archives and compression
+ * methods other than stored and deflated are not handled.
+ */
+abstract class DistributedInflate {
+  private static final int OUT_CHUNK = FileVec.DFLT_CHUNK_SIZE; // Max inflated bytes per output chunk
+
+  /**
+   * Decompress a GZIP or ZIP file into new ByteVecs, one per (non-empty) ZIP entry.
+   *
+   * @param bv a file
+   * @return keys of the decompressed ByteVecs (possibly none), or null if {@code bv}
+   *         is not compressed in a way that can be inflated in parallel
+   */
+  static Key[] inflate(ByteVec bv) throws IOException {
+    byte[] bits = bv.getFirstBytes();
+    switch( ZipUtil.guessCompressionMethod(bits) ) {
+    case GZIP: return isBgzf(bits) ? inflateBgzf(bv) : null;
+    case ZIP:  return inflateZip(bv);
+    default:   return null;
+    }
+  }
+
+  // Copy len bytes at offset off of the ByteVec, across chunk boundaries
+  private static byte[] bytes(ByteVec bv, long off, int len) {
+    byte[] bs = new byte[len];
+    for( int n = 0; n < len; ) {
+      Chunk c = bv.chunkForRow(off+n);
+      int pos = (int)(off+n-c.start());
+      int k = Math.min(len-n, c._len-pos);
+      System.arraycopy(c.getBytes(), pos, bs, n, k);
+      n += k;
+    }
+    return bs;
+  }
+
+  // Bytes [off,off+len) of the ByteVec; from the chunk c if they all lie in it
+  private static byte[] bytes(ByteVec bv, Chunk c, long off, int len) {
+    long pos = off-c.start();
+    return pos+len <= c._len ? Arrays.copyOfRange(c.getBytes(), (int)pos, (int)pos+len) : bytes(bv, off, len);
+  }
+
+  private static Key<Vec> makeVec(long[] espc, Futures fs) {
+    Key<Vec> key = Vec.VectorGroup.VG_LEN1.addVec();
+    // Header first, so that a failed inflate can remove whatever chunks it wrote
+    DKV.put(key, new ByteVec(key, Vec.ESPC.rowLayout(key, espc)), fs);
+    return key;
+  }
+
+  private static void remove(Key[] keys) {
+    for( Key k : keys ) if( k != null ) Keyed.remove(k);
+  }
+
+  // ----------------------------------------------------------------------
+  // BGZF
+
+  private static final int HDR = 12;           // Fixed member header bytes, up to and including XLEN
+  private static final int NEED_MORE = -2;
+
+  /** True if {@code bits} starts with a BGZF member */
+  static boolean isBgzf(byte[] bits) {
+    return memberSize(bits, 0, bits.length) > 0;
+  }
+
+  // Total size of the member with the header at bs[off], from its 'BC'
+  // subfield; -1 if this is not a BGZF member header, NEED_MORE if the
+  // avail bytes at off are not enough to tell
+  private static int memberSize(byte[] bs, int off, int avail) {
+    final int[] magic = {0x1f, 0x8b, 8, 4};
+    for( int i = 0; i < magic.length; i++ ) {
+      if( i == avail ) return NEED_MORE;
+      if( (bs[off+i]&0xFF) != magic[i] ) return -1;
+    }
+    if( avail < HDR ) return NEED_MORE;
+    int xlen = (bs[off+10]&0xFF) | (bs[off+11]&0xFF)<<8;
+    if( avail < HDR+xlen ) return NEED_MORE;
+    for( int x = off+HDR; x+4 <= off+HDR+xlen; ) {
+      int slen = (bs[x+2]&0xFF) | (bs[x+3]&0xFF)<<8;
+      if( bs[x] == 'B' && bs[x+1] == 'C' && slen == 2 && x+6 <= off+HDR+xlen ) {
+        int bsize = ((bs[x+4]&0xFF) | (bs[x+5]&0xFF)<<8) + 1;
+        return bsize >= HDR+xlen+8 ? bsize : -1;
+      }
+      x += 4+slen;
+    }
+    return -1;
+  }
+
+  private static Key[] inflateBgzf(ByteVec bv) {
+    final int nchks = bv.nChunks();
+    FindMembers fm = new FindMembers(nchks).doAll(bv);
+    // Chain the members from offset 0, and group them into output chunks
+    ArrayList<Long> espc = new ArrayList<>();
+    long[][] groups = new long[nchks][];  // Start offsets of the groups starting in each chunk, then the end of the last one
+    int[] out0 = new int[nchks];          // Output chunk of the first group starting in each chunk
+    long len = bv.length(), pos = 0, rows = 0, gStart = -1, gSize = 0;
+    int gChk = -1;
+    espc.add(0L);
+    while( pos < len ) {
+      int cidx = bv.elem2ChunkIdx(pos);
+      int j = fm._offs[cidx] == null ? -1 : Arrays.binarySearch(fm._offs[cidx], pos);
+      if( j < 0 ) return null;    // Not BGZF all the way through
+      int isize = fm._isizes[cidx][j];
+      if( gStart != -1 && gSize+isize > OUT_CHUNK ) {
+        addGroup(groups, out0, espc, gChk, gStart, pos, rows += gSize);
+        gStart = -1;
+      }
+      if( gStart == -1 ) { gStart = pos; gChk = cidx; gSize = 0; }
+      gSize += isize;
+      pos += fm._bsizes[cidx][j];
+    }
+    if( pos != len ) return null;
+    if( gStart != -1 && gSize > 0 ) addGroup(groups, out0, espc, gChk, gStart, pos, rows += gSize);
+    if( espc.size() == 1 ) return new Key[0]; // Nothing but empty members
+    long[] es = new long[espc.size()];
+    for( int i = 0; i < es.length; i++ ) es[i] = espc.get(i);
+    Futures fs = new Futures();
+    Key[] keys = new Key[]{makeVec(es, fs)};
+    fs.blockForPending();
+    try {
+      new InflateMembers(keys[0], groups, out0).doAll(bv);
+    } catch( RuntimeException e ) {
+      remove(keys);
+      throw e;
+    }
+    return keys;
+  }
+
+  // Close the group [start,end) starting in chunk cidx, as the next output chunk.
+  // Groups are consecutive, so the groups of a chunk are its first start then all the ends.
+  private static void addGroup(long[][] groups, int[] out0, ArrayList<Long> espc, int cidx, long start, long end, long rows) {
+    if( groups[cidx] == null ) {
+      out0[cidx] = espc.size()-1;
+      groups[cidx] = new long[]{start, end};
+    } else {
+      long[] gs = groups[cidx] = Arrays.copyOf(groups[cidx], groups[cidx].length+1);
+      gs[gs.length-1] = end;
+    }
+    espc.add(rows);
+  }
+
+  // Candidate member headers of each chunk, with the member sizes and their ISIZE trailers
+  private static class FindMembers extends MRTask<FindMembers> {
+    long[][] _offs;
+    int[][] _bsizes, _isizes;
+    FindMembers(int nchks) { _offs = new long[nchks][]; _bsizes = new int[nchks][]; _isizes = new int[nchks][]; }
+
+    @Override public void map(Chunk c) {
+      ByteVec bv = (ByteVec)c.vec();
+      byte[] mem = c.getBytes();
+      long start = c.start(), len = bv.length();
+      long[] offs = new long[16];
+      int[] bsizes = new int[16], isizes = new int[16];
+      int n = 0;
+      for( int i = 0; i < c._len; i++ ) {
+        if( (mem[i]&0xFF) != 0x1f ) continue;
+        int bsize = memberSize(mem, i, c._len-i);
+        if( bsize == NEED_MORE ) { // Header runs into the next chunk
+          byte[] hdr = bytes(bv, start+i, (int)Math.min(HDR+0xFFFF, len-start-i));
+          bsize = memberSize(hdr, 0, hdr.length);
+        }
+        if( bsize < 0 || start+i+bsize > len ) continue;
+        if( n == offs.length ) {
+          offs = Arrays.copyOf(offs, n<<1); bsizes = Arrays.copyOf(bsizes, n<<1); isizes = Arrays.copyOf(isizes, n<<1);
+        }
+        offs[n] = start+i;
+        bsizes[n] = bsize;
+        isizes[n] = UnsafeUtils.get4(bytes(bv, c, start+i+bsize-4, 4), 0);
+        n++;
+      }
+      int cidx = c.cidx();
+      _offs[cidx] = Arrays.copyOf(offs, n);
+      _bsizes[cidx] = Arrays.copyOf(bsizes, n);
+      _isizes[cidx] = Arrays.copyOf(isizes, n);
+    }
+
+    @Override public void reduce(FindMembers fm) {
+      for( int i = 0; i < _offs.length; i++ )
+        if( _offs[i] == null ) { _offs[i] = fm._offs[i]; _bsizes[i] = fm._bsizes[i]; _isizes[i] = fm._isizes[i]; }
+    }
+  }
+
+  // Inflate the groups of members starting in each chunk, into the chunks of the output ByteVec
+  private static class InflateMembers extends MRTask<InflateMembers> {
+    final Key _out;
+    final long[][] _groups;
+    final int[] _out0;
+    InflateMembers(Key out, long[][] groups, int[] out0) { _out = out; _groups = groups; _out0 = out0; }
+
+    @Override public void map(Chunk c) {
+      long[] gs = _groups[c.cidx()];
+      if( gs == null ) return;
+      ByteVec bv = (ByteVec)c.vec();
+      for( int g = 0; g < gs.length-1; g++ ) {
+        byte[] in = bytes(bv, c, gs[g], (int)(gs[g+1]-gs[g]));
+        DKV.put(Vec.chunkKey(_out, _out0[c.cidx()]+g), new C1NChunk(inflateMembers(in, gs[g])), _fs);
+      }
+    }
+  }
+
+  // Inflate whole members, checking their sizes and CRCs; off is only for error messages
+  private static byte[] inflateMembers(byte[] in, long off) {
+    long size = 0;
+    for( int pos = 0; pos < in.length; pos += memberSize(in, pos, in.length-pos) )
+      size += UnsafeUtils.get4(in, pos+memberSize(in, pos, in.length-pos)-4)&0xFFFFFFFFL;
+    byte[] out = new byte[(int)size]; // At most OUT_CHUNK, by construction of the groups
+    Inflater inf = new Inflater(true);
+    CRC32 crc = new CRC32();
+    try {
+      int o = 0;
+      for( int pos = 0; pos < in.length; ) {
+        int end = pos+memberSize(in, pos, in.length-pos);
+        int xlen = (in[pos+10]&0xFF) | (in[pos+11]&0xFF)<<8;
+        int isize = UnsafeUtils.get4(in, end-4);
+        inf.reset();
+        inf.setInput(in, pos+HDR+xlen, end-8-(pos+HDR+xlen));
+        int n = 0;
+        while( n < isize && !inf.finished() ) {
+          int k = inf.inflate(out, o+n, isize-n);
+          if( k == 0 && (inf.needsInput() || inf.needsDictionary()) ) break;
+          n += k;
+        }
+        crc.reset();
+        crc.update(out, o, n);
+        if( n != isize || (int)crc.getValue() != UnsafeUtils.get4(in, end-8) )
+          throw new RuntimeException(new IOException("Corrupt BGZF file: member at offset "+(off+pos)+" fails its size or CRC check"));
+        o += n;
+        pos = end;
+      }
+    } catch( DataFormatException e ) {
+      throw new RuntimeException(new IOException("Corrupt BGZF file", e));
+    } finally {
+      inf.end();
+    }
+    return out;
+  }
+
+  // ----------------------------------------------------------------------
+  // ZIP
+
+  private static final int EOCD_SIG = 0x06054b50, CEN_SIG = 0x02014b50, LOC_SIG = 0x04034b50;
+  private static final int EOCD = 22, CEN = 46, LOC = 30;
+
+  private static Key[] inflateZip(ByteVec bv) throws IOException {
+    // End of central directory record: the last one in the file, before a comment of up to 64K
+    long len = bv.length();
+    int n = (int)Math.min(len, EOCD+0xFFFF);
+    byte[] tail = bytes(bv, len-n, n);
+    int eocd = n-EOCD;
+    while( eocd >= 0 && UnsafeUtils.get4(tail, eocd) != EOCD_SIG ) eocd--;
+    if( eocd < 0 ) throw new IOException("Corrupt ZIP file: no end of central directory");
+    int nentries = UnsafeUtils.get2(tail, eocd+10)&0xFFFF;
+    long cenSize = UnsafeUtils.get4(tail, eocd+12)&0xFFFFFFFFL, cenOff = UnsafeUtils.get4(tail, eocd+16)&0xFFFFFFFFL;
+    if( nentries == 0xFFFF || cenOff == 0xFFFFFFFFL ) return null; // ZIP64
+    if( cenOff+cenSize > len ) throw new IOException("Corrupt ZIP file: central directory past the end of file");
+    byte[] cen = bytes(bv, cenOff, (int)cenSize);
+
+    // The entries, in central directory order
+    ArrayList<long[]> entries = new ArrayList<>(); // {local header offset, compressed size, size, crc, method}
+    for( int p = 0, i = 0; i < nentries; i++ ) {
+      if( p+CEN > cen.length || UnsafeUtils.get4(cen, p) != CEN_SIG ) throw new IOException("Corrupt ZIP file: bad central directory");
+      int flags = UnsafeUtils.get2(cen, p+8)&0xFFFF, method = UnsafeUtils.get2(cen, p+10)&0xFFFF;
+      long crc = UnsafeUtils.get4(cen, p+16)&0xFFFFFFFFL;
+      long csize = UnsafeUtils.get4(cen, p+20)&0xFFFFFFFFL, size = UnsafeUtils.get4(cen, p+24)&0xFFFFFFFFL;
+      int nlen = UnsafeUtils.get2(cen, p+28)&0xFFFF, xlen = UnsafeUtils.get2(cen, p+30)&0xFFFF, clen = UnsafeUtils.get2(cen, p+32)&0xFFFF;
+      long loc = UnsafeUtils.get4(cen, p+42)&0xFFFFFFFFL;
+      boolean dir = nlen > 0 && cen[p+CEN+nlen-1] == '/';
+      p += CEN+nlen+xlen+clen;
+      if( dir || size == 0 ) continue;
+      if( (flags&1) != 0 || (method != ZipEntry.STORED && method != ZipEntry.DEFLATED) ||
+          csize == 0xFFFFFFFFL || size == 0xFFFFFFFFL || loc == 0xFFFFFFFFL )
+        return null;            // Encrypted, other compression, or ZIP64
+      if( loc >= len ) throw new IOException("Corrupt ZIP file: entry past the end of file");
+      entries.add(new long[]{loc, csize, size, crc, method});
+    }
+    if( entries.isEmpty() ) return new Key[0];
+
+    // One output ByteVec per entry; entries are inflated where their local header is
+    Key[] keys = new Key[entries.size()];
+    long[][] es = entries.toArray(new long[entries.size()][]);
+    Futures fs = new Futures();
+    try {
+      for( int i = 0; i < es.length; i++ ) {
+        long size = es[i][2];
+        long[] espc = new long[(int)((size+OUT_CHUNK-1)/OUT_CHUNK)+1];
+        for( int j = 1; j < espc.length; j++ ) espc[j] = Math.min(size, (long)j*OUT_CHUNK);
+        keys[i] = makeVec(espc, fs);
+      }
+      fs.blockForPending();
+      new InflateEntries(keys, es).doAll(bv);
+    } catch( RuntimeException e ) {
+      fs.blockForPending();
+      remove(keys);
+      throw e;
+    }
+    return keys;
+  }
+
+  // Inflate the entries whose local header is in each chunk, into their output ByteVecs
+  private static class InflateEntries extends MRTask<InflateEntries> {
+    final Key[] _outs;
+    final long[][] _entries;
+    InflateEntries(Key[] outs, long[][] entries) { _outs = outs; _entries = entries; }
+
+    @Override public void map(Chunk c) {
+      ByteVec bv = (ByteVec)c.vec();
+      for( int i = 0; i < _entries.length; i++ ) {
+        long[] e = _entries[i];
+        if( e[0] < c.start() || e[0] >= c.start()+c._len ) continue;
+        try {
+          inflate(bv, c, e, _outs[i]);
+        } catch( IOException ioe ) {
+          throw new RuntimeException(ioe);
+        }
+      }
+    }
+
+    private void inflate(ByteVec bv, Chunk c, long[] e, Key out) throws IOException {
+      long loc = e[0], csize = e[1], size = e[2];
+      if( loc+LOC > bv.length() ) throw new IOException("Corrupt ZIP file: entry past the end of file");
+      byte[] hdr = bytes(bv, c, loc, LOC);
+      if( UnsafeUtils.get4(hdr, 0) != LOC_SIG ) throw new IOException("Corrupt ZIP file: bad local header at offset "+loc);
+      long data = loc+LOC+(UnsafeUtils.get2(hdr, 26)&0xFFFF)+(UnsafeUtils.get2(hdr, 28)&0xFFFF);
+      if( data+csize > bv.length() ) throw new IOException("Corrupt ZIP file: entry past the end of file");
+      boolean deflated = e[4] == ZipEntry.DEFLATED;
+      // Like ZipFile, give the raw inflater a dummy byte past the end of the entry
+      InputStream is = new VecRange(bv, data, csize, deflated);
+      if( deflated ) is = new InflaterInputStream(is, new Inflater(true), 1<<16);
+      CRC32 crc = new CRC32();
+      try {
+        for( int cidx = 0; (long)cidx*OUT_CHUNK < size; cidx++ ) {
+          byte[] bs = new byte[(int)Math.min(OUT_CHUNK, size-(long)cidx*OUT_CHUNK)];
+          for( int n = 0; n < bs.length; ) {
+            int k = is.read(bs, n, bs.length-n);
+            if( k < 0 ) throw new IOException("Corrupt ZIP file: entry at offset "+loc+" is short");
+            n += k;
+          }
+          crc.update(bs, 0, bs.length);
+          DKV.put(Vec.chunkKey(out, cidx), new C1NChunk(bs), _fs);
+        }
+      } finally {
+        is.close();
+      }
+      if( crc.getValue() != e[3] ) throw new IOException("Corrupt ZIP file: entry at offset "+loc+" fails its CRC check");
+    }
+  }
+
+  // A stream over bytes [off,off+len) of a ByteVec, optionally followed by one zero byte
+  private static class VecRange extends InputStream {
+    private final ByteVec _bv;
+    private long _off, _rem;
+    private boolean _dummy;
+    VecRange(ByteVec bv, long off, long len, boolean dummy) { _bv = bv; _off = off; _rem = len; _dummy = dummy; }
+
+    @Override public int read() {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) == -1 ? -1 : b[0]&0xFF;
+    }
+
+    @Override public int read(byte[] b, int off, int len) {
+      if( len == 0 ) return 0;
+      if( _rem == 0 ) {
+        if( !_dummy ) return -1;
+        _dummy = false;
+        b[off] = 0;
+        return 1;
+      }
+      Chunk c = _bv.chunkForRow(_off);
+      int pos = (int)(_off-c.start());
+      int n = (int)Math.min(Math.min(len, _rem), c._len-pos);
+      System.arraycopy(c.getBytes(), pos, b, off, n);
+      _off += n;
+      _rem -= n;
+      return n;
+    }
+  }
+}
@@ -153,6 +153,26 @@ public class FVecParseWriter extends Iced implements StreamParseWriter {
       addNumCol(colIdx, number, exp);
     }
   }
+  /**
+   * The chunk of column {@code colIdx}, for parsers which decode a whole column at a time and append
+   * to the chunks directly.  They report the rows they wrote with {@link #addLines}.
+   */
+  public NewChunk columnChunk(int colIdx) { return _nvs[colIdx]; }
+
+  /** Count {@code n} rows appended directly to the {@link #columnChunk}s. */
+  public void addLines(long n) { _nLines += n; }
+
+  /**
+   * Id of level {@code str} of categorical column {@code colIdx}; the value to append to its
+   * {@link #columnChunk} is {@code addNum(id, 0)}.
+   */
+  public int categoricalId(int colIdx, BufferedString str) {
+    assert _ctypes[colIdx] == Vec.T_CAT;
+    if( _categoricals[colIdx].isMapFull() )
+      throw new ParseDataset.H2OParseException("Exceeded categorical limit on column #"+(colIdx+1)+" (using 1-based indexing).  Consider reparsing this column as a string.");
+    return _categoricals[colIdx].addKey(str);
+  }
+
   @Override public void setColumnNames(String [] names){}
   @Override public final void rollbackLine() {}
 
@@ -123,6 +123,24 @@ public final class ParseDataset {
     for( String x : conflictingNames )
     if ( x != null && !x.equals(""))
       throw new IllegalArgumentException("Found duplicate column name "+x);
+    if( setup._skipped_columns != null && setup._skipped_columns.length > 0 ) {
+      // Sorted and without duplicates, as Frame.remove wants them
+      int[] skipped = setup._skipped_columns.clone();
+      Arrays.sort(skipped);
+      int n = 0;
+      for( int c : skipped ) {
+        if( c < 0 || c >= setup._number_columns )
+          throw new H2OIllegalArgumentException("Skipped column index " + c + " is out of range, the data has " + setup._number_columns + " columns");
+        if( n == 0 || skipped[n-1] != c ) skipped[n++] = c;
+      }
+      if( n == setup._number_columns )
+        throw new H2OIllegalArgumentException("Cannot skip all " + n + " columns");
+      setup._skipped_columns = skipped = Arrays.copyOf(skipped, n);
+      // Parquet fills skipped columns with NAs which are dropped after the parse: keep them numeric,
+      // so no categorical domains are collected. Text parsers still tokenize them by their guessed types.
+      if( setup._column_types != null && "PARQUET".equals(setup.getParseType().name()) )
+        for( int c : skipped ) setup._column_types[c] = Vec.T_NUM;
+    }
     // Some quick sanity checks: no overwriting your input key, and a resource check.
     long totalParseSize=0;
     for( int i=0; i<keys.length; i++ ) {
@@ -240,10 +258,52 @@ public final class ParseDataset {
     if(setup._na_strings != null && setup._na_strings.length != setup._number_columns) setup._na_strings = null;
     if( fkeys.length == 0) { job.stop();  return pds;  }
 
+    // A compressed file is decompressed and parsed by a single thread, on a
+    // single node.  When the parser can split its input, and the file can be
+    // inflated in pieces (BGZF, ZIP), inflate it into temporary ByteVecs where
+    // its chunks live instead, and parse those in parallel.  Each entry of a
+    // ZIP is then parsed, where the stream parse only reads the first one.
+    Key[] pkeys = fkeys;        // Keys to parse
+    Key[] srcKeys = fkeys;      // Input file of each key to parse
+    ArrayList<Key> tmpKeys = new ArrayList<>();
+    if( setup._parse_type.isParallelParseSupported() ) {
+      ArrayList<Key> pks = new ArrayList<>(), sks = new ArrayList<>();
+      try {
+        for( Key k : fkeys ) {
+          Key[] ks = null;
+          if( ZipUtil.guessCompressionMethod(getByteVec(k).getFirstBytes()) != ZipUtil.Compression.NONE ) {
+            job.update(0, "Decompressing " + k + ".");
+            ks = DistributedInflate.inflate(getByteVec(k));
+          }
+          if( ks == null || ks.length == 0 ) { pks.add(k); sks.add(k); continue; }
+          for( Key t : ks ) { pks.add(t); sks.add(k); tmpKeys.add(t); }
+        }
+      } catch( IOException | RuntimeException e ) {
+        for( Key t : tmpKeys ) Keyed.remove(t);
+        throw e instanceof RuntimeException ? (RuntimeException)e : new RuntimeException(e);
+      }
+      pkeys = pks.toArray(new Key[pks.size()]);
+      srcKeys = sks.toArray(new Key[sks.size()]);
+    }
+
     job.update(0, "Ingesting files.");
-    VectorGroup vg = getByteVec(fkeys[0]).group();
-    MultiFileParseTask mfpt = pds._mfpt = new MultiFileParseTask(vg,setup,job._key,fkeys,deleteOnDone);
-    mfpt.doAll(fkeys);
+    VectorGroup vg = getByteVec(pkeys[0]).group();
+    MultiFileParseTask mfpt = pds._mfpt = new MultiFileParseTask(vg,setup,job._key,pkeys,deleteOnDone);
+    try {
+      mfpt.doAll(pkeys);
+    } finally {
+      for( Key t : tmpKeys ) Keyed.remove(t);
+    }
+    // Done with the decompressed inputs: delete or unlock them, as the parse does with the others
+    HashSet<Key> parsed = new HashSet<>(Arrays.asList(pkeys));
+    for( Key k : fkeys )
+      if( !parsed.contains(k) ) {
+        Iced ice = DKV.getGet(k);
+        if( ice instanceof Frame ) {
+          if( deleteOnDone ) ((Frame)ice).delete(job._key,new Futures()).blockForPending();
+          else if( ((Frame)ice)._key != null ) ((Frame)ice).unlock(job._key);
+        } else if( ice != null && deleteOnDone ) ((Vec)ice).remove();
+      }
     Log.trace("Done ingesting files.");
     if( job.stop_requested() ) return pds;
 
@@ -332,8 +392,11 @@ public final class ParseDataset {
       String[] warns = new String[errs.length];
       // compute global line numbers for warnings/errs
       HashMap<String, Integer> fileChunkOffsets = new HashMap<>();
-      for (int i = 0; i < mfpt._fileChunkOffsets.length; ++i)
-        fileChunkOffsets.put(fkeys[i].toString(), mfpt._fileChunkOffsets[i]);
+      HashMap<String, String> srcFiles = new HashMap<>();
+      for (int i = 0; i < mfpt._fileChunkOffsets.length; ++i) {
+        fileChunkOffsets.put(pkeys[i].toString(), mfpt._fileChunkOffsets[i]);
+        if (pkeys[i] != srcKeys[i]) srcFiles.put(FileVec.getPathForKey(pkeys[i]), FileVec.getPathForKey(srcKeys[i]));
+      }
       long[] espc = fr.anyVec().espc();
       for (int i = 0; i < errs.length; ++i) {
         if(fileChunkOffsets.containsKey(errs[i]._file)) {
@@ -341,6 +404,8 @@ public final class ParseDataset {
           errs[i]._gLineNum = espc[espcOff + errs[i]._cidx] + errs[i]._lineNum;
           errs[i]._lineNum = errs[i]._gLineNum - espc[espcOff];
         }
+        // Report errors in decompressed data against the compressed input file
+        if(errs[i]._file != null && srcFiles.containsKey(errs[i]._file)) errs[i]._file = srcFiles.get(errs[i]._file);
       }
       SortedSet s = new TreeSet<>(new Comparator<ParseWriter.ParseErr>() {
         @Override
@@ -356,6 +421,12 @@ public final class ParseDataset {
         Log.warn(warns[i] = errs[i].toString());
       job.setWarnings(warns);
     }
+    if( setup._skipped_columns != null && setup._skipped_columns.length > 0 ) {
+      Futures fs = new Futures();
+      for( Vec v : fr.remove(setup._skipped_columns) )
+        if( v != null ) v.remove(fs);
+      fs.blockForPending();
+    }
     job.update(0,"Calculating data summary.");
     logParseResults(fr);
     // Release the frame for overwriting
@@ -830,7 +901,7 @@ public final class ParseDataset {
           }
           break;
         case ZIP: {
-          // Zipped file; no parallel decompression;
+          // Zipped file, not decompressed up front (see parseAllKeys);
           InputStream bvs = vec.openStream(_jobKey);
           ZipInputStream zis = new ZipInputStream(bvs);
 
@@ -850,7 +921,7 @@ public final class ParseDataset {
         }
         case GZIP: {
           InputStream bvs = vec.openStream(_jobKey);
-          // Zipped file; no parallel decompression;
+          // Zipped file, not decompressed up front (see parseAllKeys);
           _dout[_lo] = streamParse(new GZIPInputStream(bvs), localSetup, makeDout(localSetup,chunkStartIdx,vec.nChunks()),bvs);
           _errors = _dout[_lo].removeErrors();
           // set this node as the one which processed all the chunks
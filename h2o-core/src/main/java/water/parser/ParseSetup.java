@@ -41,6 +41,7 @@ public class ParseSetup extends Iced {
   String[][] _domains;        // Domains for each column (null if numeric)
   String[][] _na_strings;       // Strings for NA in a given column
   String[][] _data;           // First few rows of parsed/tokenized data
+  int[] _skipped_columns;     // Columns left out of the parsed frame, or null for none
 
   String [] _fileNames = new String[]{"unknown"};
 
@@ -55,6 +56,7 @@ public class ParseSetup extends Iced {
          ps._separator, ps._single_quotes, ps._check_header, ps._number_columns,
          ps._column_names, ps._column_types, ps._domains, ps._na_strings, ps._data,
          new ParseWriter.ParseErr[0], ps._chunk_size);
+    _skipped_columns = ps._skipped_columns;
   }
 
 
@@ -138,6 +140,7 @@ public class ParseSetup extends Iced {
 
   public String[] getColumnNames() { return _column_names; }
   public String[][] getData() { return _data; }
+  public int[] getSkippedColumns() { return _skipped_columns; }
 
   public String[] getColumnTypeStrings() {
     String[] types = new String[_column_types.length];
@@ -708,6 +711,17 @@ public class ParseSetup extends Iced {
     return this;
   }
 
+  /**
+   * Columns to leave out of the parsed frame.  Parsers which can find a column's data without
+   * reading the others (e.g. Parquet) never read them; the others parse them as numbers and
+   * the columns are dropped at the end.
+   * @param skipped_columns 0-based column indices, or null for none
+   */
+  public ParseSetup setSkippedColumns(int[] skipped_columns) {
+    this._skipped_columns = skipped_columns;
+    return this;
+  }
+
   public ParseSetup setChunkSize(int chunk_size) {
     this._chunk_size = chunk_size;
     return this;
@@ -28,6 +28,11 @@ public abstract class Persist {
   /** Reclaim space from a previously stored Value */
   abstract public void delete(Value v);
 
+  /** Reclaim space from a previously stored Value which got replaced by a
+   *  newer Value under the same Key.  Racing loads of it may then return null,
+   *  as for a racey delete. */
+  public void replaced(Value v) { }
+
   /** Usable storage space, or -1 for unknown */
   public long getUsableSpace() { return /*UNKNOWN*/-1; }
 
@@ -2,23 +2,46 @@ package water.persist;
 
 import java.io.*;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import water.*;
 import water.api.FSIOException;
 import water.fvec.NFSFileVec;
+import water.nbhm.NonBlockingHashMap;
 import water.util.Log;
 
 /**
  * Persistence backend using local file system.
+ *
+ * <p>Spilled Values go either into one file per Key, or (with {@code
+ * -ice_segment_mb}) are appended to large segment files, which avoids
+ * millions of tiny files under the ice directory.  Full segments are
+ * memory-mapped once, so reloading a Value is a copy out of the page cache
+ * instead of a read syscall.
  */
 final class PersistFS extends Persist {
   final File _root;
   final File _dir;
+  final long _segmentSize;      // Segment file size, or 0 for one file per Key
+  static final long MAX_SEGMENT_SIZE = 1L << 30; // Mapped with int offsets
 
-  PersistFS(File root) {
+  // Segment files: where each spilled Key lives, and the segment being filled
+  private final NonBlockingHashMap<Key,Slot> _slots = new NonBlockingHashMap<>();
+  private Segment _current;
+  private int _nextSegmentId;
+
+  PersistFS(File root) { this(root, (long)H2O.ARGS.ice_segment_mb << 20); }
+  PersistFS(File root, long segmentSize) {
     _root = root;
     _dir = new File(root, "ice" + H2O.API_PORT);
+    if( segmentSize < 0 || segmentSize > MAX_SEGMENT_SIZE )
+      throw new IllegalArgumentException("Segment size must be between 0 and " + MAX_SEGMENT_SIZE + ", was " + segmentSize);
+    _segmentSize = segmentSize;
     //deleteRecursive(_dir);
     // Make the directory as-needed
     root.mkdirs();
@@ -26,7 +49,15 @@ final class PersistFS extends Persist {
       H2O.die("ice_root not a read/writable directory");
   }
 
-  public void cleanUp() { deleteRecursive(_dir); }
+  public void cleanUp() {
+    synchronized( this ) {
+      for( Slot s : _slots.values() ) s._seg.close();
+      if( _current != null ) _current.close();
+      _slots.clear();
+      _current = null;
+    }
+    deleteRecursive(_dir);
+  }
 
   private static void deleteRecursive(File path) {
     if( !path.exists() ) return;
@@ -41,6 +72,12 @@ final class PersistFS extends Persist {
   }
 
   @Override public byte[] load(Value v) throws IOException {
+    if( _segmentSize > 0 ) {
+      Slot slot = _slots.get(v._key);
+      if( slot != null ) return slot._seg.load(slot._off, v._max); // Null if the segment got dropped meanwhile
+      // Not in a segment: a racey delete or replace, or spilled before segments were on
+      if( !getFile(v).exists() ) return null;
+    }
     File f = getFile(v);
     if( f.length() < v._max ) { // Should be fully on disk...
       // or it's a racey delete of a spilled value
@@ -48,16 +85,32 @@ final class PersistFS extends Persist {
       return null; // No value
     }
     try (FileInputStream s = new FileInputStream(f)) {
-        AutoBuffer ab = new AutoBuffer(s.getChannel(), true, Value.ICE);
-        byte[] b = ab.getA1(v._max);
-        ab.close();
-        return b;
-      }
+      // Read straight into the result, no intermediate buffer
+      byte[] b = MemoryManager.malloc1(v._max);
+      readFully(s.getChannel(), ByteBuffer.wrap(b), 0);
+      return b;
+    }
+  }
+
+  private static void readFully(FileChannel fc, ByteBuffer bb, long pos) throws IOException {
+    while( bb.hasRemaining() ) {
+      int n = fc.read(bb, pos + bb.position());
+      if( n < 0 ) throw new EOFException("Unexpected end of spill file at " + (pos + bb.position()));
+    }
   }
 
   // Store Value v to disk.
   @Override public void store(Value v) throws IOException {
     assert !v.isPersisted();
+    if( _segmentSize > 0 ) {
+      byte[] m = v.memOrLoad(); // we are not single threaded anymore
+      if( m.length != v._max ) {
+        Log.warn("Value size mismatch? " + v._key + " byte[].len=" + m.length+" v._max="+v._max);
+        v._max = m.length;
+      }
+      storeSegment(v, m);
+      return;
+    }
     File dirs = new File(_dir, getIceDirectory(v._key));
     if( !dirs.mkdirs() && !dirs.exists() )
       throw new java.io.IOException("mkdirs failed making "+dirs);
@@ -74,11 +127,115 @@ final class PersistFS extends Persist {
   }
 
   @Override public void delete(Value v) {
+    if( _segmentSize > 0 ) {
+      Slot slot = _slots.remove(v._key);
+      if( slot != null ) { slot._seg.free(slot._len, this); return; }
+    }
     getFile(v).delete();        // Silently ignore errors
     // Attempt to delete empty containing directory
     new File(_dir, getIceDirectory(v._key)).delete();
   }
 
+  // A Value replaced under the same Key: free its segment space now, its
+  // successor may never be spilled.  With one file per Key the successor
+  // just overwrites the file.
+  @Override public void replaced(Value v) {
+    if( _segmentSize == 0 ) return;
+    Slot slot = _slots.get(v._key);
+    if( slot != null && slot._val == v && _slots.remove(v._key, slot) )
+      slot._seg.free(slot._len, this);
+  }
+
+  // Append the bytes to the current segment, starting a new one when full.
+  // Single writer (the Cleaner), but keep it safe anyway.
+  private synchronized void storeSegment(Value v, byte[] m) throws IOException {
+    Segment seg = _current;
+    if( seg != null && seg._size > 0 && seg._size + m.length > _segmentSize ) {
+      seg.seal();
+      _current = null;
+      if( seg._live.get() == 0 ) segmentFreed(seg); // Everything in it got deleted while filling
+      seg = null;
+    }
+    if( seg == null ) {
+      File dir = new File(_dir, "segments");
+      if( !dir.mkdirs() && !dir.exists() )
+        throw new java.io.IOException("mkdirs failed making "+dir);
+      seg = _current = new Segment(new File(dir, "seg_" + _nextSegmentId++));
+    }
+    long off = seg._size;
+    ByteBuffer bb = ByteBuffer.wrap(m);
+    while( bb.hasRemaining() )
+      seg._chan.write(bb, off + bb.position());
+    seg._size += m.length;
+    seg._live.addAndGet(m.length);
+    Slot old = _slots.put(v._key, new Slot(v, seg, off, m.length));
+    if( old != null ) old._seg.free(old._len, this); // Re-spill of the Key: the old bytes are dead
+  }
+
+  // Drop a segment once nothing in it is alive anymore
+  private synchronized void segmentFreed(Segment seg) {
+    if( seg == _current || seg._live.get() > 0 ) return; // Still filling, or raced with a store
+    seg.close();
+    seg._file.delete();         // Silently ignore errors
+  }
+
+  /** Where a spilled Key lives in a segment file */
+  private static final class Slot {
+    final Value _val;
+    final Segment _seg;
+    final long _off;
+    final int _len;
+    Slot(Value val, Segment seg, long off, int len) { _val = val; _seg = seg; _off = off; _len = len; }
+  }
+
+  /** An append-only spill file holding many Values; memory-mapped once full */
+  private static final class Segment {
+    final File _file;
+    final FileChannel _chan;
+    long _size;                 // Bytes written, only changed by the writer
+    final AtomicLong _live = new AtomicLong(); // Bytes of not-yet-deleted Values
+    volatile MappedByteBuffer _map; // Whole file, once sealed
+    volatile boolean _closed;
+
+    Segment(File f) throws IOException {
+      _file = f;
+      _chan = new RandomAccessFile(f, "rw").getChannel();
+    }
+
+    // No more appends: map the file for zero-syscall reloads
+    void seal() throws IOException { _map = _chan.map(FileChannel.MapMode.READ_ONLY, 0, _size); }
+
+    // Null if the segment was dropped, i.e. a racey delete
+    byte[] load(long off, int len) throws IOException {
+      byte[] b = MemoryManager.malloc1(len);
+      MappedByteBuffer map = _map;
+      if( map != null ) {       // Private position; racing loads are fine; stays valid after close
+        ByteBuffer dup = map.duplicate();
+        dup.position((int)off);
+        dup.get(b);
+        return b;
+      }
+      if( _closed ) return null;
+      try {
+        readFully(_chan, ByteBuffer.wrap(b), off);
+      } catch( ClosedChannelException cce ) {
+        if( _closed ) return null; // Closed while reading
+        throw cce;
+      }
+      return b;
+    }
+
+    void free(int len, PersistFS fs) {
+      if( _live.addAndGet(-len) == 0 ) fs.segmentFreed(this);
+    }
+
+    void close() {
+      _closed = true;           // Before dropping the map, so a load seeing no map sees this
+      _map = null;              // Unmapped once collected
+      try { _chan.close(); } catch( IOException ignore ) { }
+    }
+  }
+
   @Override public long getUsableSpace() {
     return _root.getUsableSpace();
   }
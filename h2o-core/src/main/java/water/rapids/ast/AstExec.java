@@ -12,6 +12,7 @@ import java.util.ArrayList;
  */
 public class AstExec extends AstRoot {
   public final AstRoot[] _asts;
+  transient boolean _unfused;   // Arguments already executed by Fusion; apply the primitive as is
 
   public AstExec() {
     this((AstRoot[])null);
@@ -60,7 +61,8 @@ public class AstExec extends AstRoot {
       throw new IllegalArgumentException(
           "Incorrect number of arguments; '" + ast + "' expects " + (nargs - 1) + " but was passed " + (_asts.length - 1));
     try (Env.StackHelp stk = env.stk()) {
-      return env.returning(ast.apply(env, stk, _asts));
+      Val res = Fusion.ENABLED ? Fusion.exec(this, ast, env, stk) : null;
+      return env.returning(res != null ? res : ast.apply(env, stk, _asts));
     }
   }
 
@@ -0,0 +1,301 @@
+package water.rapids.ast;
+
+import water.H2O;
+import water.Iced;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.rapids.Env;
+import water.rapids.Val;
+import water.rapids.ast.params.AstId;
+import water.rapids.ast.prims.math.AstUniOp;
+import water.rapids.ast.prims.operators.*;
+import water.rapids.vals.ValFrame;
+import water.rapids.vals.ValNum;
+
+import java.util.ArrayList;
+
+/**
+ * Fused evaluation of chains of element-wise primitives.
+ *
+ * Every {@link AstUniOp}, {@link AstBinOp} and {@link AstIfElse} applied to a Frame makes a pass over
+ * its arguments and writes a new Frame, so e.g. {@code (> (log (+ (/ (- x mean) sd) 1)) 2)} writes four
+ * temporary Frames.  Here the whole nested expression is turned into a tree of {@link Node}s instead;
+ * only its leaves (the arguments which are not element-wise primitives themselves) are executed, and a
+ * single MRTask evaluates the tree a chunk at a time and writes the final Frame only.
+ *
+ * The result is the same as the one of the unfused primitives, column names included.  Expressions
+ * whose leaves are not all numeric Frames or scalars (e.g. categorical or string columns, rows, lists)
+ * or whose Frames do not line up are executed by the primitives as usual, with the leaves which were
+ * already executed passed as their values.
+ */
+public class Fusion {
+  /** Set to false to execute every primitive on its own */
+  public static boolean ENABLED = !Boolean.getBoolean(H2O.OptArgs.SYSTEM_PROP_PREFIX + "rapids.disable_fusion");
+
+  private final Env _env;
+  private final Env.StackHelp _stk;
+  private final ArrayList<Vec> _vecs = new ArrayList<>();  // Vecs of all the leaf Frames, in leaf order
+  private long _nrows = -1;
+  private boolean _fusible = true;
+  private int _nodes;
+
+  private Fusion(Env env, Env.StackHelp stk) { _env = env; _stk = stk; }
+
+  /**
+   * Execute {@code exec}, a call of {@code fun}, fused with the element-wise primitives called in its
+   * arguments.
+   *
+   * @return the result, or null if there is nothing to fuse (no argument is an element-wise primitive
+   * call); {@code exec} is then still to be executed.
+   */
+  static Val exec(AstExec exec, AstPrimitive fun, Env env, Env.StackHelp stk) {
+    if (exec._unfused || !isFusible(fun)) return null;
+    boolean nested = false;
+    for (int i = 1; i < exec._asts.length; i++)
+      nested |= fusibleFun(exec._asts[i], env) != null;
+    if (!nested) return null;
+
+    Fusion f = new Fusion(env, stk);
+    Node root = f.build(exec, fun);
+    if (f._fusible && root instanceof Const)
+      return new ValNum(((Const) root)._d);
+    if (f._fusible)
+      return new ValFrame(new FusedTask(root, f._nodes).doAll(root._ncols, Vec.T_NUM, new Frame(f._vecs.toArray(new Vec[f._vecs.size()])))
+          .outputFrame(root._names, null));
+    // Not a Frame of numbers: execute the primitives with the values of the leaves
+    return fun.apply(env, stk, f.replay(exec, root)._asts);
+  }
+
+  private static boolean isFusible(AstPrimitive fun) {
+    // && and || may not execute their 2nd argument
+    return fun instanceof AstUniOp || fun instanceof AstIfElse ||
+        (fun instanceof AstBinOp && !(fun instanceof AstLAnd) && !(fun instanceof AstLOr));
+  }
+
+  // The element-wise primitive called by ast, or null.  Only looks up functions by name, which runs nothing.
+  private static AstPrimitive fusibleFun(AstRoot ast, Env env) {
+    if (!(ast instanceof AstExec)) return null;
+    AstRoot[] asts = ((AstExec) ast)._asts;
+    if (!(asts[0] instanceof AstId)) return null;
+    Val fun = env.lookup(asts[0].str());
+    if (!fun.isFun()) return null;
+    AstPrimitive prim = fun.getFun();
+    return isFusible(prim) && prim.nargs() == asts.length ? prim : null;
+  }
+
+  // Build the tree of a call of an element-wise primitive, executing the leaves in the order the primitives would
+  private Node build(AstExec exec, AstPrimitive fun) {
+    AstRoot[] asts = exec._asts;
+    Node[] kids = new Node[asts.length - 1];
+    for (int i = 1; i < asts.length; i++) {
+      AstPrimitive kfun = fusibleFun(asts[i], _env);
+      kids[i - 1] = kfun != null ? build((AstExec) asts[i], kfun) : leaf(asts[i]);
+    }
+    Node node = !_fusible ? new Node()
+        : fun instanceof AstUniOp ? uniop((AstUniOp) fun, kids[0])
+        : fun instanceof AstIfElse ? ifelse(kids[0], kids[1], kids[2])
+        : binop((AstBinOp) fun, kids[0], kids[1]);
+    node._kids = kids;
+    return node;
+  }
+
+  private Node leaf(AstRoot ast) {
+    Val val = _stk.track(ast.exec(_env));
+    Node leaf;
+    if (val.isNum()) {
+      leaf = new Const(val.getNum());
+    } else if (val.isFrame() && numeric(val.getFrame())) {
+      Frame fr = val.getFrame();
+      leaf = new Leaf(_nodes++, _vecs.size(), fr.names());
+      for (Vec vec : fr.vecs()) _vecs.add(vec);
+    } else {
+      leaf = new Node();
+      _fusible = false;
+    }
+    leaf._val = val;
+    return leaf;
+  }
+
+  private boolean numeric(Frame fr) {
+    if (fr.numCols() == 0) return false;
+    if (_nrows == -1) _nrows = fr.numRows();
+    if (fr.numRows() != _nrows) return false;  // Frames broadcasting a row are left to the primitives
+    for (Vec vec : fr.vecs())
+      if (!vec.isNumeric()) return false;
+    return true;
+  }
+
+  private Node uniop(AstUniOp op, Node kid) {
+    if (kid instanceof Const) return new Const(op.op(((Const) kid)._d));
+    String[] names = new String[kid._ncols];
+    for (int i = 0; i < names.length; i++)
+      names[i] = op.str() + "(" + kid._names[i] + ")";
+    return new UniOp(_nodes++, op, kid, names);
+  }
+
+  private Node binop(AstBinOp op, Node l, Node r) {
+    if (l instanceof Const && r instanceof Const) return new Const(op.op(((Const) l)._d, ((Const) r)._d));
+    String[] names;
+    if (r instanceof Const)   // Frame op scalar; == and != name the columns by default
+      names = op instanceof AstEq || op instanceof AstNe ? defaultNames(l._ncols) : l._names;
+    else if (l instanceof Const || (l._ncols == 1 && r._ncols > 1))
+      names = r._names;
+    else if (l._ncols == r._ncols || r._ncols == 1)
+      names = l._names;
+    else
+      return unfusible();
+    return new BinOp(_nodes++, op, l, r, names);
+  }
+
+  private Node ifelse(Node test, Node yes, Node no) {
+    if (test instanceof Const) return unfusible();  // Only executes one side
+    if ((!(yes instanceof Const) && yes._ncols != test._ncols) || (!(no instanceof Const) && no._ncols != test._ncols))
+      return unfusible();
+    return new IfElse(_nodes++, test, yes, no, defaultNames(test._ncols));
+  }
+
+  private Node unfusible() {
+    _fusible = false;
+    return new Node();
+  }
+
+  private static String[] defaultNames(int ncols) {
+    String[] names = new String[ncols];
+    for (int i = 0; i < ncols; i++) names[i] = Frame.defaultColName(i);
+    return names;
+  }
+
+  // A copy of exec with the executed leaves replaced by their values, built along the same tree
+  private AstExec replay(AstExec exec, Node node) {
+    AstRoot[] asts = exec._asts.clone();
+    for (int i = 1; i < asts.length; i++) {
+      Node kid = node._kids[i - 1];
+      asts[i] = kid._val != null ? new AstValue(kid._val) : replay((AstExec) asts[i], kid);
+    }
+    AstExec res = new AstExec(asts);
+    res._unfused = true;
+    return res;
+  }
+
+  /**
+   * A leaf which was already executed; executing it again returns the same value.
+   */
+  private static class AstValue extends AstRoot<AstValue> {
+    private final Val _val;
+    AstValue(Val val) { _val = val; }
+    @Override public Val exec(Env env) { return env.returning(_val); }
+    @Override public String str() { return _val.toString(); }
+    @Override public String example() { return null; }
+    @Override public String description() { return null; }
+  }
+
+  // ---
+  // The expression tree.  Every node evaluates column `col` of its result, for all the rows of a chunk, into its
+  // own buffer.  Nodes of a single column (and scalars) are the same for every column, and so widen to the others.
+
+  static class Node extends Iced<Node> {
+    final int _id;            // Index of the node's buffer
+    int _ncols;               // Columns of the result; 0 for a scalar
+    String[] _names;          // Column names of the result
+    transient Node[] _kids;   // Only for replay
+    transient Val _val;       // Value of an executed leaf, only for replay
+    Node() { this(-1, 0, null); }
+    Node(int id, int ncols, String[] names) { _id = id; _ncols = ncols; _names = names; }
+    double[] eval(Chunk[] cs, int col, double[][] bufs) { throw H2O.fail(); }
+
+    static double[] buf(double[][] bufs, int id, int len) {
+      double[] buf = bufs[id];
+      return buf != null && buf.length == len ? buf : (bufs[id] = new double[len]);
+    }
+  }
+
+  static class Const extends Node {
+    final double _d;
+    Const(double d) { super(-1, 0, null); _d = d; }
+  }
+
+  static class Leaf extends Node {
+    final int _vec0;          // First Vec of the Frame in the input of the FusedTask
+    Leaf(int id, int vec0, String[] names) { super(id, names.length, names); _vec0 = vec0; }
+    @Override double[] eval(Chunk[] cs, int col, double[][] bufs) {
+      Chunk c = cs[_vec0 + (_ncols == 1 ? 0 : col)];
+      return c.getDoubles(buf(bufs, _id, c._len), 0, c._len);
+    }
+  }
+
+  static class UniOp extends Node {
+    final AstUniOp _op;
+    final Node _kid;
+    UniOp(int id, AstUniOp op, Node kid, String[] names) { super(id, kid._ncols, names); _op = op; _kid = kid; }
+    @Override double[] eval(Chunk[] cs, int col, double[][] bufs) {
+      double[] x = _kid.eval(cs, col, bufs);
+      double[] res = buf(bufs, _id, x.length);
+      for (int i = 0; i < res.length; i++) res[i] = _op.op(x[i]);
+      return res;
+    }
+  }
+
+  static class BinOp extends Node {
+    final AstBinOp _op;
+    final Node _l, _r;
+    BinOp(int id, AstBinOp op, Node l, Node r, String[] names) {
+      super(id, Math.max(l._ncols, r._ncols), names);
+      _op = op; _l = l; _r = r;
+    }
+    @Override double[] eval(Chunk[] cs, int col, double[][] bufs) {
+      if (_l instanceof Const) {
+        final double l = ((Const) _l)._d;
+        double[] r = _r.eval(cs, col, bufs);
+        double[] res = buf(bufs, _id, r.length);
+        for (int i = 0; i < res.length; i++) res[i] = _op.op(l, r[i]);
+        return res;
+      }
+      double[] l = _l.eval(cs, col, bufs);
+      double[] res = buf(bufs, _id, l.length);
+      if (_r instanceof Const) {
+        final double r = ((Const) _r)._d;
+        for (int i = 0; i < res.length; i++) res[i] = _op.op(l[i], r);
+      } else {
+        double[] r = _r.eval(cs, col, bufs);
+        for (int i = 0; i < res.length; i++) res[i] = _op.op(l[i], r[i]);
+      }
+      return res;
+    }
+  }
+
+  static class IfElse extends Node {
+    final Node _test, _yes, _no;
+    IfElse(int id, Node test, Node yes, Node no, String[] names) {
+      super(id, test._ncols, names);
+      _test = test; _yes = yes; _no = no;
+    }
+    @Override double[] eval(Chunk[] cs, int col, double[][] bufs) {
+      double[] test = _test.eval(cs, col, bufs);
+      double[] yes = _yes instanceof Const ? null : _yes.eval(cs, col, bufs);
+      double[] no = _no instanceof Const ? null : _no.eval(cs, col, bufs);
+      double dyes = yes == null ? ((Const) _yes)._d : 0, dno = no == null ? ((Const) _no)._d : 0;
+      double[] res = buf(bufs, _id, test.length);
+      for (int i = 0; i < res.length; i++)
+        res[i] = Double.isNaN(test[i]) ? Double.NaN : test[i] == 0 ? (no == null ? dno : no[i]) : (yes == null ? dyes : yes[i]);
+      return res;
+    }
+  }
+
+  private static class FusedTask extends MRTask<FusedTask> {
+    final Node _root;
+    final int _nodes;
+    FusedTask(Node root, int nodes) { _root = root; _nodes = nodes; }
+
+    @Override public void map(Chunk[] cs, NewChunk[] ncs) {
+      double[][] bufs = new double[_nodes][];
+      for (int col = 0; col < ncs.length; col++) {
+        double[] res = _root.eval(cs, col, bufs);
+        NewChunk nc = ncs[col];
+        for (double d : res) nc.addNum(d);
+      }
+    }
+  }
+}
@@ -15,7 +15,6 @@ import water.rapids.vals.ValFun;
 import water.rapids.ast.AstPrimitive;
 import water.rapids.ast.params.AstNum;
 import water.rapids.ast.params.AstNumList;
-import water.util.ArrayUtils;
 import water.util.IcedHashMap;
 import water.util.Log;
 
@@ -36,87 +35,90 @@ import java.util.Arrays;
 public class AstGroup extends AstPrimitive {
   public enum NAHandling {ALL, RM, IGNORE}
 
-  // Functions handled by GroupBy
+  // Functions handled by GroupBy.  Each reduces into a run of 'len' doubles
+  // (see initVal) starting at some offset, so the reductions can live in a G
+  // per group, or side by side in one flat array for many groups.
   public enum FCN {
     nrow() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0]++;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off]++;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        d0s[0] += d1s[0];
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0];
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off];
       }
     },
     mean() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] += d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        d0s[0] += d1s[0];
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0] / n;
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off] / n;
       }
     },
     sum() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] += d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        d0s[0] += d1s[0];
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0];
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off];
       }
     },
     sumSquares() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1 * d1;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] += d1 * d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        d0s[0] += d1s[0];
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0];
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off];
       }
     },
     var() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1 * d1;
-        d0s[1] += d1;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] += d1 * d1;
+        d0s[off + 1] += d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        ArrayUtils.add(d0s, d1s);
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
+        d0s[off0 + 1] += d1s[off1 + 1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        double numerator = ds[0] - ds[1] * ds[1] / n;
+      public double postPass(double ds[], int off, int len, long n) {
+        double numerator = ds[off] - ds[off + 1] * ds[off + 1] / n;
         if (Math.abs(numerator) < 1e-5) numerator = 0;
         return numerator / (n - 1);
       }
@@ -128,19 +130,20 @@ public class AstGroup extends AstPrimitive {
     },
     sdev() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1 * d1;
-        d0s[1] += d1;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] += d1 * d1;
+        d0s[off + 1] += d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        ArrayUtils.add(d0s, d1s);
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
+        d0s[off0 + 1] += d1s[off1 + 1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        double numerator = ds[0] - ds[1] * ds[1] / n;
+      public double postPass(double ds[], int off, int len, long n) {
+        double numerator = ds[off] - ds[off + 1] * ds[off + 1] / n;
         if (Math.abs(numerator) < 1e-5) numerator = 0;
         return Math.sqrt(numerator / (n - 1));
       }
@@ -152,18 +155,18 @@ public class AstGroup extends AstPrimitive {
     },
     min() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] = Math.min(d0s[0], d1);
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] = Math.min(d0s[off], d1);
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        op(d0s, d1s[0]);
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        op(d0s, off0, d1s[off1]);
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0];
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off];
       }
 
       @Override
@@ -173,18 +176,18 @@ public class AstGroup extends AstPrimitive {
     },
     max() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] = Math.max(d0s[0], d1);
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] = Math.max(d0s[off], d1);
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        op(d0s, d1s[0]);
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        op(d0s, off0, d1s[off1]);
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0];
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off];
       }
 
       @Override
@@ -194,18 +197,21 @@ public class AstGroup extends AstPrimitive {
     },
     mode() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[(int) d1]++;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off + (int) d1]++;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        ArrayUtils.add(d0s, d1s);
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        for (int i = 0; i < len; i++) d0s[off0 + i] += d1s[off1 + i];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ArrayUtils.maxIndex(ds);
+      public double postPass(double ds[], int off, int len, long n) {
+        int idx = 0;
+        for (int i = 1; i < len; i++)
+          if (ds[off + i] > ds[off + idx]) idx = i;
+        return idx;
       }
 
       @Override
@@ -214,11 +220,23 @@ public class AstGroup extends AstPrimitive {
       }
     },;
 
-    public abstract void op(double[] d0, double d1);
+    public abstract void op(double[] d0s, int off, double d1);
 
-    public abstract void atomic_op(double[] d0, double[] d1);
+    public abstract void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len);
 
-    public abstract double postPass(double ds[], long n);
+    public abstract double postPass(double ds[], int off, int len, long n);
+
+    public void op(double[] d0, double d1) {
+      op(d0, 0, d1);
+    }
+
+    public void atomic_op(double[] d0, double[] d1) {
+      atomic_op(d0, 0, d1, 0, d0.length);
+    }
+
+    public double postPass(double ds[], long n) {
+      return postPass(ds, 0, ds.length, n);
+    }
 
     public double[] initVal(int maxx) {
       return new double[]{0};
@@ -266,8 +284,7 @@ public class AstGroup extends AstPrimitive {
     }
 
     // do the group by work now
-    IcedHashMap<G, String> gss = doGroups(fr, gbCols, aggs);
-    final G[] grps = gss.keySet().toArray(new G[gss.size()]);
+    final G[] grps = groups(fr, gbCols, aggs);
 
     // apply an ORDER by here...
     if (gbCols.length > 0)
@@ -336,9 +353,29 @@ public class AstGroup extends AstPrimitive {
   public static IcedHashMap<G, String> doGroups(Frame fr, int[] gbCols, AGG[] aggs) {
     // do the group by work now
     long start = System.currentTimeMillis();
-    GBTask p1 = new GBTask(gbCols, aggs).doAll(fr);
+    LongGBTask lt = LongGBTask.make(fr, gbCols, aggs);
+    IcedHashMap<G, String> gss;
+    if (lt == null) gss = new GBTask(gbCols, aggs).doAll(fr)._gss;
+    else {
+      gss = new IcedHashMap<>();
+      for (G g : lt.doAll(fr).groups()) gss.put(g, "");
+    }
     Log.info("Group By Task done in " + (System.currentTimeMillis() - start) / 1000. + " (s)");
-    return p1._gss;
+    return gss;
+  }
+
+  // Same as doGroups, but as an array of groups in no particular order.
+  // Skips building the hashtable when the long-keyed task can be used.
+  public static G[] groups(Frame fr, int[] gbCols, AGG[] aggs) {
+    LongGBTask lt = LongGBTask.make(fr, gbCols, aggs);
+    if (lt == null) {
+      IcedHashMap<G, String> gss = doGroups(fr, gbCols, aggs);
+      return gss.keySet().toArray(new G[gss.size()]);
+    }
+    long start = System.currentTimeMillis();
+    G[] grps = lt.doAll(fr).groups();
+    Log.info("Group By Task done in " + (System.currentTimeMillis() - start) / 1000. + " (s)");
+    return grps;
   }
 
   // Utility for AstDdply; return a single aggregate for counting rows-per-group
@@ -405,6 +442,12 @@ public class AstGroup extends AstPrimitive {
     public double[] initVal() {
       return _fcn.initVal(_maxx);
     }
+
+    // Same as op() above, for the reduction at ds[off] and count at ns[i]
+    void op(double[] ds, int off, long[] ns, int i, double d1) {
+      if (!Double.isNaN(d1) || _na == NAHandling.ALL) _fcn.op(ds, off, d1);
+      if (!Double.isNaN(d1) || _na == NAHandling.IGNORE) ns[i]++;
+    }
   }
 
   // --------------------------------------------------------------------------
@@ -461,6 +504,185 @@ public class AstGroup extends AstPrimitive {
     }
   }
 
+  // --------------------------------------------------------------------------
+  // Worker MRTask for group-by columns that are all integral (ints, categoricals
+  // or times), with ranges small enough that a whole group key packs into a
+  // single long: column c contributes digit (value - min + 1), or 0 for NA,
+  // in a mixed radix.  Groups go in a flat open-addressing table of longs, and
+  // the aggregates in flat arrays next to it (group slot s has aggregate i at
+  // _dss[i][s*width(i)]), so there are no per-group or per-row objects.  Each
+  // map call fills its own table; tables merge in the MRTask reduce, so there is
+  // no shared table and no locking.  Groups are only made into G's at the end.
+  public static class LongGBTask extends MRTask<LongGBTask> {
+    private static final long EMPTY = -1; // Keys are never negative
+    private final int[] _gbCols; // Columns used to define group
+    private final AGG[] _aggs;   // Aggregate descriptions
+    private final long[] _mins;  // Per group-by column: smallest value
+    private final long[] _mults; // Per group-by column: radix multiplier
+    private final long[] _spans; // Per group-by column: values + 1 (for NA)
+    // The table
+    long[] _keys;                // Group keys, or EMPTY
+    double[][] _dss;             // Per aggregate: reductions, width(i) per slot
+    long[][] _ns;                // Per aggregate: row counts per slot
+    int _size;                   // Number of groups
+
+    private LongGBTask(int[] gbCols, AGG[] aggs, long[] mins, long[] mults, long[] spans) {
+      _gbCols = gbCols;
+      _aggs = aggs;
+      _mins = mins;
+      _mults = mults;
+      _spans = spans;
+    }
+
+    // A task for grouping 'fr' by 'gbCols', or null if the group-by columns
+    // are not all integral or their group keys do not fit in a long
+    static LongGBTask make(Frame fr, int[] gbCols, AGG[] aggs) {
+      long[] mins = new long[gbCols.length];
+      long[] mults = new long[gbCols.length];
+      long[] spans = new long[gbCols.length];
+      final long maxKey = 1L << 62;
+      long mult = 1;
+      for (int c = 0; c < gbCols.length; c++) {
+        Vec v = fr.vec(gbCols[c]);
+        if (!v.isNumeric() && !v.isCategorical() && !v.isTime()) return null;
+        if (v.isBad()) spans[c] = 1; // Only NAs
+        else {
+          if (!v.isInt() || v.max() - v.min() + 2 >= maxKey) return null;
+          mins[c] = (long) v.min();
+          spans[c] = (long) v.max() - mins[c] + 2;
+        }
+        if (spans[c] > maxKey / mult) return null;
+        mults[c] = mult;
+        mult *= spans[c];
+      }
+      return new LongGBTask(gbCols, aggs, mins, mults, spans);
+    }
+
+    private int width(int i) {
+      return _dss[i].length / _keys.length;
+    }
+
+    private static int hash(long key) {
+      key ^= key >>> 33; // Murmur3 finalizer
+      key *= 0xff51afd7ed558ccdL;
+      key ^= key >>> 33;
+      return (int) key;
+    }
+
+    private void alloc(int cap) {
+      _keys = new long[cap];
+      Arrays.fill(_keys, EMPTY);
+      _dss = new double[_aggs.length][];
+      _ns = new long[_aggs.length][];
+      for (int i = 0; i < _aggs.length; i++) {
+        double[] init = _aggs[i].initVal();
+        double[] ds = _dss[i] = new double[cap * init.length];
+        for (int off = 0; off < ds.length; off += init.length)
+          System.arraycopy(init, 0, ds, off, init.length);
+        _ns[i] = new long[cap];
+      }
+    }
+
+    // Slot of group 'key', inserting it if absent
+    private int slot(long key) {
+      int mask = _keys.length - 1;
+      int s = hash(key) & mask;
+      long k;
+      while ((k = _keys[s]) != key) {
+        if (k == EMPTY) {
+          if (2 * (_size + 1) > _keys.length) { // Keep the load factor under 1/2
+            grow();
+            return slot(key);
+          }
+          _keys[s] = key;
+          _size++;
+          return s;
+        }
+        s = (s + 1) & mask;
+      }
+      return s;
+    }
+
+    private void grow() {
+      long[] keys = _keys;
+      double[][] dss = _dss;
+      long[][] ns = _ns;
+      int[] widths = new int[_aggs.length];
+      for (int i = 0; i < _aggs.length; i++) widths[i] = width(i);
+      alloc(keys.length << 1);
+      _size = 0;
+      for (int s = 0; s < keys.length; s++) {
+        if (keys[s] == EMPTY) continue;
+        int d = slot(keys[s]);
+        for (int i = 0; i < _aggs.length; i++) {
+          System.arraycopy(dss[i], s * widths[i], _dss[i], d * widths[i], widths[i]);
+          _ns[i][d] = ns[i][s];
+        }
+      }
+    }
+
+    @Override
+    public void map(Chunk[] cs) {
+      alloc(64);
+      Chunk[] gcs = new Chunk[_gbCols.length];
+      for (int c = 0; c < gcs.length; c++) gcs[c] = cs[_gbCols[c]];
+      for (int row = 0; row < cs[0]._len; row++) {
+        long key = 0;
+        for (int c = 0; c < gcs.length; c++)
+          if (!gcs[c].isNA(row))
+            key += (gcs[c].at8(row) - _mins[c] + 1) * _mults[c];
+        int s = slot(key);
+        for (int i = 0; i < _aggs.length; i++) {
+          AGG agg = _aggs[i];
+          agg.op(_dss[i], s * (_dss[i].length / _keys.length), _ns[i], s, cs[agg._col].atd(row));
+        }
+      }
+    }
+
+    @Override
+    public void reduce(LongGBTask t) {
+      if (t._keys == null) return;
+      if (_keys == null || t._size > _size) { // Merge the smaller table into the larger
+        long[] keys = _keys; double[][] dss = _dss; long[][] ns = _ns; int size = _size;
+        _keys = t._keys; _dss = t._dss; _ns = t._ns; _size = t._size;
+        t._keys = keys; t._dss = dss; t._ns = ns; t._size = size;
+        if (keys == null) return;
+      }
+      for (int s = 0; s < t._keys.length; s++) {
+        if (t._keys[s] == EMPTY) continue;
+        int d = slot(t._keys[s]);
+        for (int i = 0; i < _aggs.length; i++) {
+          int w = width(i);
+          _aggs[i]._fcn.atomic_op(_dss[i], d * w, t._dss[i], s * w, w);
+          _ns[i][d] += t._ns[i][s];
+        }
+      }
+    }
+
+    // The groups, as G's
+    G[] groups() {
+      G[] grps = new G[_size];
+      if (_keys == null) return grps; // No rows
+      int j = 0;
+      for (int s = 0; s < _keys.length; s++) {
+        long key = _keys[s];
+        if (key == EMPTY) continue;
+        G g = grps[j++] = new G(_gbCols.length, _aggs);
+        for (int c = 0; c < _gbCols.length; c++) {
+          long digit = (key / _mults[c]) % _spans[c];
+          g._gs[c] = digit == 0 ? Double.NaN : digit - 1 + _mins[c];
+        }
+        g._hash = g.hash();
+        for (int i = 0; i < _aggs.length; i++) {
+          int w = width(i);
+          System.arraycopy(_dss[i], s * w, g._dss[i], 0, w);
+          g._ns[i] = _ns[i][s];
+        }
+      }
+      return grps;
+    }
+  }
+
   // Groups!  Contains a Group Key - an array of doubles (often just 1 entry
   // long) that defines the Group.  Also contains an array of doubles for the
   // aggregate results, one per aggregate.
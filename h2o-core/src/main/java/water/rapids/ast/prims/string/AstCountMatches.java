@@ -1,5 +1,6 @@
 package water.rapids.ast.prims.string;
 
+import com.google.common.base.Charsets;
 import org.apache.commons.lang.StringUtils;
 import water.MRTask;
 import water.fvec.*;
@@ -88,12 +89,17 @@ public class AstCountMatches extends AstPrimitive {
 
   private Vec countMatchesStringCol(Vec vec, String[] pat) {
     final String[] pattern = pat;
+    final byte[][] patBytes = new byte[pat.length][];
+    for (int i = 0; i < pat.length; i++)
+      patBytes[i] = pat[i].getBytes(Charsets.UTF_8);
     return new MRTask() {
       @Override
       public void map(Chunk chk, NewChunk newChk) {
         if (chk instanceof C0DChunk) // all NAs
           for (int i = 0; i < chk.len(); i++)
             newChk.addNA();
+        else if (chk instanceof CStrChunk) // fast-path operations
+          ((CStrChunk) chk).countLiterals(newChk, patBytes);
         else {
           BufferedString tmpStr = new BufferedString();
           for (int i = 0; i < chk._len; ++i) {
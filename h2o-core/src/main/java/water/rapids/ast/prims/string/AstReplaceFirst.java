@@ -1,5 +1,6 @@
 package water.rapids.ast.prims.string;
 
+import com.google.common.base.Charsets;
 import water.MRTask;
 import water.fvec.*;
 import water.parser.BufferedString;
@@ -8,6 +9,7 @@ import water.rapids.Val;
 import water.rapids.vals.ValFrame;
 import water.rapids.ast.AstPrimitive;
 import water.rapids.ast.AstRoot;
+import water.util.StringUtils;
 
 import java.util.Locale;
 
@@ -78,16 +80,18 @@ public class AstReplaceFirst extends AstPrimitive {
     final String pattern = pat;
     final String replacement = rep;
     final boolean ignoreCase = ic;
+    final boolean literal = StringUtils.isLiteralRegex(pat) && StringUtils.isLiteralReplacement(rep);
+    final byte[] patBytes = pat.getBytes(Charsets.UTF_8);
+    final byte[] repBytes = rep.getBytes(Charsets.UTF_8);
     return new MRTask() {
       @Override
       public void map(Chunk chk, NewChunk newChk) {
         if (chk instanceof C0DChunk) // all NAs
           for (int i = 0; i < chk.len(); i++)
             newChk.addNA();
-        else {
-//        if (((CStrChunk)chk)._isAllASCII) { // fast-path operations
-//          ((CStrChunk) chk).asciiReplaceFirst(newChk);
-//        } else { //UTF requires Java string methods for accuracy
+        else if (literal && chk instanceof CStrChunk && (!ignoreCase || ((CStrChunk) chk)._isAllASCII)) // fast-path operations
+          ((CStrChunk) chk).replaceLiteral(newChk, patBytes, repBytes, false, ignoreCase);
+        else { //regex or UTF lower-casing requires Java string methods for accuracy
           BufferedString tmpStr = new BufferedString();
           for (int i = 0; i < chk._len; i++) {
             if (chk.isNA(i))
@@ -1,5 +1,6 @@
 package water.rapids.ast.prims.string;
 
+import com.google.common.base.Charsets;
 import water.MRTask;
 import water.fvec.*;
 import water.parser.BufferedString;
@@ -8,6 +9,7 @@ import water.rapids.Val;
 import water.rapids.vals.ValFrame;
 import water.rapids.ast.AstPrimitive;
 import water.rapids.ast.AstRoot;
+import water.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -124,6 +126,7 @@ public class AstStrSplit extends AstPrimitive {
 
   private Vec[] strSplitStringCol(Vec vec, final String splitRegEx) {
     final int newColCnt = (new AstStrSplit.CountSplits(splitRegEx)).doAll(vec)._maxSplits;
+    final byte[] sep = StringUtils.isLiteralRegex(splitRegEx) ? splitRegEx.getBytes(Charsets.UTF_8) : null;
     return new MRTask() {
       @Override
       public void map(Chunk[] cs, NewChunk[] ncs) {
@@ -132,6 +135,8 @@ public class AstStrSplit extends AstPrimitive {
           for (int row = 0; row < chk.len(); row++)
             for (int col = 0; col < ncs.length; col++)
               ncs[col].addNA();
+        else if (sep != null && chk instanceof CStrChunk) // fast-path operations
+          ((CStrChunk) chk).splitLiteral(ncs, sep);
         else {
           BufferedString tmpStr = new BufferedString();
           for (int row = 0; row < chk._len; ++row) {
@@ -156,15 +161,21 @@ public class AstStrSplit extends AstPrimitive {
   private static class CountSplits extends MRTask<AstStrSplit.CountSplits> {
     // IN
     private final String _regex;
+    private final byte[] _sep; // Non-null for a literal separator
     // OUT
     int _maxSplits = 0;
 
     CountSplits(String regex) {
       _regex = regex;
+      _sep = StringUtils.isLiteralRegex(regex) ? regex.getBytes(Charsets.UTF_8) : null;
     }
 
     @Override
     public void map(Chunk chk) {
+      if (_sep != null && chk instanceof CStrChunk) { // fast-path operations
+        _maxSplits = Math.max(_maxSplits, ((CStrChunk) chk).maxSplits(_sep));
+        return;
+      }
       BufferedString tmpStr = new BufferedString();
       for (int row = 0; row < chk._len; row++) {
         if (!chk.isNA(row)) {
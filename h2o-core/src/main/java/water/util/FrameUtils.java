@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.zip.GZIPOutputStream;
 
 public class FrameUtils {
 
@@ -292,14 +293,20 @@ public class FrameUtils {
     final boolean _overwrite;
     final Job _j;
     int _nParts;
+    final boolean _gzip;
 
     public ExportTaskDriver(Frame frame, String path, String frameName, boolean overwrite, Job j, int nParts) {
+      this(frame, path, frameName, overwrite, j, nParts, false);
+    }
+
+    public ExportTaskDriver(Frame frame, String path, String frameName, boolean overwrite, Job j, int nParts, boolean gzip) {
       _frame = frame;
       _path = path;
       _frameName = frameName;
       _overwrite = overwrite;
       _j = j;
       _nParts = nParts;
+      _gzip = gzip;
     }
 
     @Override
@@ -408,6 +415,7 @@ public class FrameUtils {
       long written = -1;
       try {
         os = H2O.getPM().create(path, _overwrite);
+        if (_gzip) os = new GZIPOutputStream(os, 1 << 16);
         written = copyCSVStream(is, os, firstChkIdx, 4 * 1024 * 1024);
       } catch (IOException e) {
         throw new RuntimeException(e);
@@ -442,7 +450,7 @@ public class FrameUtils {
           return;
         }
         int partIdx = anyChunk.cidx() / _length;
-        String partPath = _path + "/part-m-" + String.valueOf(100000 + partIdx).substring(1);
+        String partPath = _path + "/part-m-" + String.valueOf(100000 + partIdx).substring(1) + (_gzip ? ".gz" : "");
         Frame.CSVStream is = new Frame.CSVStream(cs, _colNames, _length, false);
         exportCSVStream(is, partPath, anyChunk.cidx());
       }
@@ -162,6 +162,31 @@ public class StringUtils {
     return sb.toString();
   }
 
+  /**
+   * Check whether a regular expression matches just its own text, which allows to search it
+   * as a plain byte sequence.
+   *
+   * @param regex regular expression
+   * @return true if the regex is not empty and has no meta-characters
+   */
+  public static boolean isLiteralRegex(String regex) {
+    if (isNullOrEmpty(regex)) return false;
+    for (int i = 0; i < regex.length(); i++)
+      if ("\\^$.|?*+()[]{}".indexOf(regex.charAt(i)) >= 0) return false;
+    return true;
+  }
+
+  /**
+   * Check whether a regex replacement string is inserted as is, i.e. it has neither group
+   * references nor escapes.
+   *
+   * @param replacement replacement string as given to String.replaceAll()
+   * @return true if the replacement has no '$' or '\\'
+   */
+  public static boolean isLiteralReplacement(String replacement) {
+    return replacement.indexOf('$') < 0 && replacement.indexOf('\\') < 0;
+  }
+
   /**
    * Convert a string into the set of its characters.
    *
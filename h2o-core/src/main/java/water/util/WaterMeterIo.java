@@ -27,11 +27,23 @@ public class WaterMeterIo extends Iced {
     public long load_bytes;
   }
 
+  public static class EvictionStatsEntry extends SchemaV3<Iced, EvictionStatsEntry> {
+    @API(help="Cost class of the evicted data: file, remote, spilled or local", direction = API.Direction.OUTPUT)
+    public String cost_class;
+
+    @API(help="Number of Values freed from the heap", direction = API.Direction.OUTPUT)
+    public long evict_count;
+
+    @API(help="Cumulative freed bytes", direction = API.Direction.OUTPUT)
+    public long evict_bytes;
+  }
+
   // Input
   public int nodeidx;
 
   // Output
   public IoStatsEntry persist_stats[];
+  public EvictionStatsEntry eviction_stats[];
 
   public void doIt(boolean aggregateAllNodes) {
     if (! aggregateAllNodes) {
@@ -48,6 +60,11 @@ public class WaterMeterIo extends Iced {
           persist_stats[j] = new IoStatsEntry();
           persist_stats[j].backend    = io.persist_stats[j].backend;
         }
+        eviction_stats = new EvictionStatsEntry[io.eviction_stats.length];
+        for (int j = 0; j < eviction_stats.length; j++) {
+          eviction_stats[j] = new EvictionStatsEntry();
+          eviction_stats[j].cost_class = io.eviction_stats[j].cost_class;
+        }
       }
 
       for (int j = 0; j < persist_stats.length; j++) {
@@ -57,6 +74,10 @@ public class WaterMeterIo extends Iced {
         persist_stats[j].load_count += io.persist_stats[j].load_count;
         persist_stats[j].load_bytes += io.persist_stats[j].load_bytes;
       }
+      for (int j = 0; j < eviction_stats.length; j++) {
+        eviction_stats[j].evict_count += io.eviction_stats[j].evict_count;
+        eviction_stats[j].evict_bytes += io.eviction_stats[j].evict_bytes;
+      }
     }
   }
 
@@ -68,12 +89,14 @@ public class WaterMeterIo extends Iced {
     new RPC<>(node, t).call().get();
     Log.trace("IO GetTask completed to node " + idx);
     persist_stats = t._persist_stats;
+    eviction_stats = t._eviction_stats;
   }
 
   private static class GetTask extends DTask<GetTask> {
     private IoStatsEntry _persist_stats[];
+    private EvictionStatsEntry _eviction_stats[];
 
-    public GetTask() { super(H2O.MIN_HI_PRIORITY); _persist_stats = null; }
+    public GetTask() { super(H2O.MIN_HI_PRIORITY); _persist_stats = null; _eviction_stats = null; }
 
     @Override public void compute2() {
       PersistManager.PersistStatsEntry s[] = H2O.getPM().getStats();
@@ -118,6 +141,17 @@ public class WaterMeterIo extends Iced {
         assert(src_e.load_bytes.get() == 0);
       }
 
+      String[] classes = MemoryManager.evictionCostClasses();
+      long[] counts = MemoryManager.evictedCounts();
+      long[] bytes = MemoryManager.evictedBytes();
+      _eviction_stats = new EvictionStatsEntry[classes.length];
+      for (int i = 0; i < classes.length; i++) {
+        _eviction_stats[i] = new EvictionStatsEntry();
+        _eviction_stats[i].cost_class = classes[i];
+        _eviction_stats[i].evict_count = counts[i];
+        _eviction_stats[i].evict_bytes = bytes[i];
+      }
+
       tryComplete();
     }
   }
@@ -0,0 +1,67 @@
+package hex.grid;
+
+import hex.ScoreKeeper;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SuccessiveHalvingTest {
+
+  private static ScoreKeeper[] mses(double... mse) {
+    ScoreKeeper[] sk = new ScoreKeeper[mse.length];
+    for (int i = 0; i < mse.length; i++) sk[i] = new ScoreKeeper(mse[i]);
+    return sk;
+  }
+
+  // Rungs at 1/8, 1/4 and 1/2 of the builds
+  @Test
+  public void testSameRungScores() {
+    GridSearch.SuccessiveHalving sh = new GridSearch.SuccessiveHalving(2, ScoreKeeper.StoppingMetric.MSE);
+    assertEquals(3, sh.advance(0, mses(4, 3, 2, 1), new double[]{0.1, 0.2, 0.3, 1}, ScoreKeeper.StoppingMetric.MSE, true));
+
+    // Only seen late in its build: its latest score is the best one, but its scores as of the rungs are not
+    ScoreKeeper[] sk = mses(3.5, 0.5);
+    double[] progress = {0.1, 0.9};
+    assertEquals(-2, sh.advance(0, sk, progress, ScoreKeeper.StoppingMetric.MSE, false));
+    assertEquals(2, sh._nscores[0]);
+    assertEquals(2, sh._nscores[1]);
+    assertEquals(1, sh._nscores[2]);
+  }
+
+  @Test
+  public void testWaitsForTheRung() {
+    GridSearch.SuccessiveHalving sh = new GridSearch.SuccessiveHalving(2, ScoreKeeper.StoppingMetric.MSE);
+    sh.advance(0, mses(1, 1, 1), new double[]{0.125, 0.25, 0.5}, ScoreKeeper.StoppingMetric.MSE, true);
+
+    // Not scored past the first rung yet, a later score could still be the one as of the rung
+    ScoreKeeper[] sk = mses(5, 0.1);
+    assertEquals(0, sh.advance(0, sk, new double[]{0.1}, ScoreKeeper.StoppingMetric.MSE, false));
+    assertEquals(1, sh._nscores[0]);
+    // Scored at the first rung, where it beats the other model, then behind it at the second one
+    assertEquals(1, sh.advance(0, sk, new double[]{0.1, 0.125}, ScoreKeeper.StoppingMetric.MSE, false));
+    assertEquals(2, sh._nscores[0]);
+    assertEquals(-2, sh.advance(1, mses(5, 0.1, 2), new double[]{0.1, 0.125, 0.25}, ScoreKeeper.StoppingMetric.MSE, false));
+  }
+
+  @Test
+  public void testUnscoredRungs() {
+    GridSearch.SuccessiveHalving sh = new GridSearch.SuccessiveHalving(2, ScoreKeeper.StoppingMetric.MSE);
+    // Scored only at the end: compared at none of the rungs
+    assertEquals(3, sh.advance(0, mses(1), new double[]{1}, ScoreKeeper.StoppingMetric.MSE, true));
+    assertArrayEquals(new int[]{0, 0, 0}, sh._nscores);
+    // No score on the metric: not compared either
+    assertEquals(3, sh.advance(0, mses(Double.NaN, Double.NaN), new double[]{0.1, 1}, ScoreKeeper.StoppingMetric.MSE, true));
+    assertArrayEquals(new int[]{0, 0, 0}, sh._nscores);
+  }
+
+  @Test
+  public void testPromote() {
+    GridSearch.SuccessiveHalving sh = new GridSearch.SuccessiveHalving(3, ScoreKeeper.StoppingMetric.AUC);
+    assertTrue(sh.promote(0, 1));
+    assertTrue(sh.promote(0, 0));   // Fewer than eta scores
+    assertTrue(sh.promote(0, 2));   // Best of 3
+    assertFalse(sh.promote(0, 1.5));
+    for (int i = 0; i < 10; i++) sh.promote(0, 0);
+    assertEquals(14, sh._nscores[0]);
+  }
+}
@@ -0,0 +1,52 @@
+package water;
+
+import org.junit.*;
+import water.fvec.C1NChunk;
+
+import static org.junit.Assert.*;
+
+public class CleanerPolicyTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  @Test public void testCostClasses() {
+    Value local = new Value(Key.make(), new C1NChunk(new byte[100]));
+    assertEquals(Cleaner.LOCAL, Cleaner.costClass(local));
+    Value file = new Value(Key.make(), 100, null, TypeMap.C1NCHUNK, Value.NFS);
+    file.setDsk();
+    assertEquals(Cleaner.FILE, Cleaner.costClass(file));
+  }
+
+  @Test public void testReuseTracking() {
+    Value v = new Value(Key.make(), new C1NChunk(new byte[100]));
+    long now = System.currentTimeMillis();
+    v.touchAt(now-10000);
+    v._prevAccessedTime = 0;
+    v.get();
+    assertEquals(now-10000, v._prevAccessedTime);
+    long prev = v._prevAccessedTime;
+    v.get(); // Correlated with the access just before; not another reference
+    assertEquals(prev, v._prevAccessedTime);
+  }
+
+  @Test public void testCheapAndColdGoFirst() {
+    long now = System.currentTimeMillis();
+    // Working set of an iterative job: re-used, only copy is on the heap
+    Value work = new Value(Key.make(), new C1NChunk(new byte[100]));
+    work.touchAt(now-10000);
+    work._prevAccessedTime = now-20000;
+    // Raw file Chunk read once, more recently
+    Value raw = new Value(Key.make(), 100, null, TypeMap.C1NCHUNK, Value.NFS);
+    raw.setDsk();
+    raw.touchAt(now-5000);
+    raw._prevAccessedTime = 0;
+
+    assertTrue(Cleaner.LRU.evictionTime(work,now) < Cleaner.LRU.evictionTime(raw,now));
+    assertTrue(Cleaner.COST.evictionTime(raw,now) < Cleaner.COST.evictionTime(work,now));
+    // Values touched after the reference time keep their last access time
+    assertEquals(now-5000, Cleaner.COST.evictionTime(raw,now-60000));
+  }
+
+  @Test public void testLruIsDefault() {
+    assertSame(Cleaner.LRU, Cleaner.policy());
+  }
+}
@@ -0,0 +1,109 @@
+package water;
+
+import org.junit.*;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+
+import static org.junit.Assert.*;
+
+public class OffHeapTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  // The reservations go with the buffers: collect the dropped ones
+  private static void assertOffHeapUsed(long expected) {
+    for( int i=0; i<100 && MemoryManager.offHeapUsed() != expected; i++ ) {
+      System.gc();
+      try { Thread.sleep(10); } catch( InterruptedException ignore ) { }
+    }
+    assertEquals(expected, MemoryManager.offHeapUsed());
+  }
+
+  @Test public void testOffHeapRoundTrip() {
+    assertOffHeapUsed(0);
+    roundTrip();
+    assertOffHeapUsed(0);
+  }
+
+  private void roundTrip() {
+    final int old_off_heap_mem = H2O.ARGS.off_heap_mem;
+    Vec vcon = null, vrnd = null;
+    try {
+      vcon = Vec.makeCon(0,1024,6);
+      vrnd = vcon.makeRand(0xC0FFEEL);
+      final int nchks = vrnd.nChunks();
+      double[][] expected = new double[nchks][];
+      for( int i=0; i<nchks; i++ ) {
+        Chunk c = vrnd.chunkForChunkIdx(i);
+        expected[i] = c.getDoubles(new double[c._len],0,c._len);
+      }
+
+      // Tier disabled: nothing moves off-heap
+      H2O.ARGS.off_heap_mem = 0;
+      assertFalse(vrnd.chunkIdx(0).storeOffHeap());
+      assertFalse(vrnd.chunkIdx(0).isOffHeap());
+
+      // Move everything off-heap and drop all on-heap forms, as the Cleaner does under pressure
+      H2O.ARGS.off_heap_mem = 1;
+      for( int i=0; i<nchks; i++ ) {
+        Value val = vrnd.chunkIdx(i);
+        assertTrue(val.storeOffHeap());
+        val.freeMem();
+        val.freePOJO();
+        assertNull(val.rawMem());
+        assertNull(val.rawPOJO());
+        assertFalse(val.isPersisted());
+      }
+      assertTrue(MemoryManager.offHeapUsed() > 0);
+
+      // Byte reloads are copies of the off-heap bytes, not cached on the heap
+      Value val0 = vrnd.chunkIdx(0);
+      assertEquals(val0._max, val0.memOrLoad().length);
+      assertNull(val0.rawMem());
+
+      // Reloads come from the off-heap copies
+      for( int i=0; i<nchks; i++ ) {
+        Chunk c = vrnd.chunkForChunkIdx(i);
+        assertArrayEquals(expected[i], c.getDoubles(new double[c._len],0,c._len), 0);
+      }
+    } finally {
+      if( vcon != null ) vcon.remove();
+      if( vrnd != null ) vrnd.remove(); // Drops the off-heap copies
+      H2O.ARGS.off_heap_mem = old_off_heap_mem;
+    }
+  }
+
+  @Test public void testOverwriteReleasesOffHeap() {
+    assertOffHeapUsed(0);
+    overwrite();
+    assertOffHeapUsed(0);
+  }
+
+  private void overwrite() {
+    final int old_off_heap_mem = H2O.ARGS.off_heap_mem;
+    Vec vcon = null, vrnd = null;
+    try {
+      vcon = Vec.makeCon(0,1024,6);
+      vrnd = vcon.makeRand(0xC0FFEEL);
+      Key k = vrnd.chunkKey(0);
+      Chunk c = vrnd.chunkForChunkIdx(0);
+      double[] expected = c.getDoubles(new double[c._len],0,c._len);
+      H2O.ARGS.off_heap_mem = 1;
+      // Each replaced Value keeps its reservation while it can still be read
+      for( int i=0; i<100; i++ ) {
+        Value val = DKV.get(k);
+        assertTrue("off-heap tier full after "+i+" overwrites", val.storeOffHeap());
+        val.freeMem();
+        val.freePOJO();
+        DKV.put(k, new Value(k, val._max, val.memOrLoad().clone(), (short)val.type(), Value.ICE));
+        assertTrue(MemoryManager.offHeapUsed() >= val._max);
+        assertArrayEquals(val._key+"", val.memOrLoad(), DKV.get(k).memOrLoad()); // Racing readers of the old Value still work
+      }
+      c = vrnd.chunkForChunkIdx(0);
+      assertArrayEquals(expected, c.getDoubles(new double[c._len],0,c._len), 0);
+    } finally {
+      if( vcon != null ) vcon.remove();
+      if( vrnd != null ) vrnd.remove();
+      H2O.ARGS.off_heap_mem = old_off_heap_mem;
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TCPReceiverThreadTest extends TestUtil {
+  @BeforeClass public static void stall() { stall_till_cloudsize(1); }
+
+  // A message as AutoBuffer.close() sends it: the bytes, then the 0xab sentinel
+  private static byte[] message(double[] ds) {
+    AutoBuffer ab = new AutoBuffer().putA8d(ds);
+    ab.put1(0xab);
+    return ab.buf();
+  }
+
+  private static double[] doubles(int n) {
+    double[] ds = new double[n];
+    for( int i = 0; i < n; i++ ) ds[i] = i * 0.5 - 7;
+    return ds;
+  }
+
+  // Frames of at most frameSize bytes, with an empty frame in the middle
+  private static ByteBuffer frame(byte[] msg, int frameSize) {
+    ByteBuffer bb = ByteBuffer.allocate(msg.length + 4 * (msg.length / frameSize + 3)).order(ByteOrder.nativeOrder());
+    for( int off = 0; off < msg.length; off += frameSize ) {
+      int len = Math.min(frameSize, msg.length - off);
+      if( off == frameSize ) bb.putInt(0);
+      bb.putInt(len | (off + len == msg.length ? TCPReceiverThread.LAST_FRAME : 0));
+      bb.put(msg, off, len);
+    }
+    bb.flip();
+    return bb;
+  }
+
+  @Test public void testFramedMsg() throws IOException {
+    ServerSocketChannel server = ServerSocketChannel.open();
+    server.socket().bind(new InetSocketAddress("127.0.0.1", 0));
+    SocketChannel sender = SocketChannel.open(server.socket().getLocalSocketAddress());
+    SocketChannel receiver = server.accept();
+    try {
+      double[] ds1 = doubles(10000), ds2 = doubles(3);
+      ByteBuffer frames = frame(message(ds1), 1000);
+      while( frames.hasRemaining() ) sender.write(frames);
+
+      TCPReceiverThread.FramedMsg msg = new TCPReceiverThread.FramedMsg(receiver);
+      assertTrue(msg.start());
+      AutoBuffer ab = new AutoBuffer(H2O.SELF, msg);
+      assertArrayEquals(ds1, ab.getA8d(), 0);
+      ab.close();               // Reads the sentinel, writes the handshake
+      assertEquals(-1, msg.read(ByteBuffer.allocate(16)));
+      assertEquals(0xcd, sender.socket().getInputStream().read());
+
+      // The next message, on the same channel
+      frames = frame(message(ds2), 7);
+      while( frames.hasRemaining() ) sender.write(frames);
+      msg = new TCPReceiverThread.FramedMsg(receiver);
+      assertTrue(msg.start());
+      ab = new AutoBuffer(H2O.SELF, msg);
+      assertArrayEquals(ds2, ab.getA8d(), 0);
+      ab.close();
+      assertEquals(0xcd, sender.socket().getInputStream().read());
+
+      // An idle channel closed by the sender
+      sender.close();
+      assertFalse(new TCPReceiverThread.FramedMsg(receiver).start());
+    } finally {
+      sender.close();
+      receiver.close();
+      server.close();
+    }
+  }
+
+  // A big connection which records the calls instead of asking the selector
+  private static class TestConn extends TCPReceiverThread.BigConn {
+    final AtomicInteger _wakeups = new AtomicInteger();
+    final AtomicBoolean _handshake = new AtomicBoolean();
+    TestConn() throws IOException { super(H2O.SELF, SocketChannel.open()); }
+    @Override void wakeup() { _wakeups.incrementAndGet(); }
+    @Override void handshake() { _handshake.set(true); }
+  }
+
+  @Test public void testStreamedMsg() throws Exception {
+    final TestConn conn = new TestConn();
+    final TCPReceiverThread.StreamedMsg msg = new TCPReceiverThread.StreamedMsg(conn);
+    final byte[] bytes = message(doubles(200000)); // Much more than what may be buffered
+    final int chunk = 1000;
+    final AtomicInteger pauses = new AtomicInteger();
+    // Adds the bytes as the selector does, pausing while the reader is behind
+    Thread selector = new Thread() {
+      @Override public void run() {
+        for( int off = 0; off < bytes.length; off += chunk ) {
+          while( msg.full() ) {
+            pauses.incrementAndGet();
+            try { Thread.sleep(1); } catch( InterruptedException ignore ) { }
+          }
+          msg.add(ByteBuffer.wrap(bytes, off, Math.min(chunk, bytes.length - off)).slice());
+        }
+        msg.end();
+      }
+    };
+    selector.start();
+    AutoBuffer ab = new AutoBuffer(H2O.SELF, msg);
+    assertArrayEquals(doubles(200000), ab.getA8d(), 0);
+    assertFalse(conn._handshake.get());
+    ab.close();
+    selector.join();
+    assertTrue("Handshake after the message was read", conn._handshake.get());
+    assertTrue("Reading was paused", pauses.get() > 0);
+    assertTrue("Reading was resumed", conn._wakeups.get() > 0);
+    assertEquals(-1, msg.read(ByteBuffer.allocate(16)));
+  }
+
+  @Test public void testStreamedMsgFailed() throws Exception {
+    TCPReceiverThread.StreamedMsg msg = new TCPReceiverThread.StreamedMsg(new TestConn());
+    byte[] bytes = message(doubles(100));
+    msg.add(ByteBuffer.wrap(bytes, 0, 100).slice());
+    msg.fail();                 // Channel closed mid-message
+    try {
+      new AutoBuffer(H2O.SELF, msg).getA8d();
+      fail("Expected a short read");
+    } catch( AutoBuffer.AutoBufferException e ) {
+      // Expected
+    }
+  }
+
+}
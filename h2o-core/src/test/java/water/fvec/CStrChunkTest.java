@@ -5,6 +5,7 @@ import org.junit.*;
 import water.IcedUtils;
 import water.TestUtil;
 import water.parser.BufferedString;
+import com.google.common.base.Charsets;
 
 import java.util.Arrays;
 
@@ -105,6 +106,88 @@ public class CStrChunkTest extends TestUtil {
     Assert.assertTrue("NA",c.isNA(101));
     Assert.assertTrue("Sparse string has values",c.atStr(new BufferedString(),102).equals("bar"));
   }
-}
 
+  private static final String[] STRS = {"", "a", "aaa", "aaaa", "abab", "ababab", "abaabab", "xaby", "ab", "AbAB",
+      ",a,,b,,", ",", ",,", "a,b", "no separator", "caf\u00e9 \u00e9t\u00e9", "\u00e9\u00e9\u00e9", "\u20ac,\u20ac,"};
+
+  private static CStrChunk strChunk(String... strs) {
+    NewChunk nc = new NewChunk(null, 0);
+    nc.addNA();
+    for (String s : strs) nc.addStr(s);
+    nc.addNA();
+    return (CStrChunk) nc.compress();
+  }
+
+  private static byte[] utf8(String s) { return s.getBytes(Charsets.UTF_8); }
 
+  @Test
+  public void test_replaceLiteral() {
+    CStrChunk c = strChunk(STRS);
+    Assert.assertFalse(c._isAllASCII);
+    BufferedString tmpStr = new BufferedString();
+    for (String[] pr : new String[][]{{"a", "b"}, {"ab", ""}, {"aab", "XY"}, {"abab", "-"}, {",", ",,"}, {"\u00e9", "e"}, {"e", "\u00e9"}}) {
+      for (boolean all : new boolean[]{true, false}) {
+        Chunk r = c.replaceLiteral(new NewChunk(null, 0), utf8(pr[0]), utf8(pr[1]), all, false).compress();
+        Assert.assertEquals(c._len, r._len);
+        Assert.assertTrue(r.isNA(0) && r.isNA(c._len - 1));
+        for (int i = 0; i < STRS.length; i++) {
+          String exp = all ? STRS[i].replace(pr[0], pr[1]) : STRS[i].replaceFirst(pr[0], pr[1]);
+          Assert.assertEquals(pr[0] + "->" + pr[1], exp, r.atStr(tmpStr, i + 1).toString());
+        }
+      }
+    }
+    CStrChunk ascii = strChunk("AbAB", "aBaBab", "x");
+    Assert.assertTrue(ascii._isAllASCII);
+    CStrChunk r = (CStrChunk) ascii.replaceLiteral(new NewChunk(null, 0), utf8("ab"), utf8("\u00e9"), true, true).compress();
+    Assert.assertEquals("\u00e9\u00e9", r.atStr(tmpStr, 1).toString());
+    Assert.assertEquals("\u00e9\u00e9\u00e9", r.atStr(tmpStr, 2).toString());
+    Assert.assertEquals("x", r.atStr(tmpStr, 3).toString());
+    Assert.assertFalse(r._isAllASCII);
+  }
+
+  @Test
+  public void test_countLiterals() {
+    CStrChunk c = strChunk(STRS);
+    String[] pats = {"a", "aa", "ab", "", ",", "\u00e9"};
+    Chunk r = c.countLiterals(new NewChunk(null, 0), new byte[][]{utf8(pats[0]), utf8(pats[1]), utf8(pats[2]), utf8(pats[3]), utf8(pats[4]), utf8(pats[5])}).compress();
+    Assert.assertTrue(r.isNA(0) && r.isNA(c._len - 1));
+    for (int i = 0; i < STRS.length; i++) {
+      int exp = 0;
+      for (String p : pats)
+        exp += org.apache.commons.lang.StringUtils.countMatches(STRS[i], p);
+      Assert.assertEquals(STRS[i], exp, r.at8(i + 1));
+    }
+  }
+
+  @Test
+  public void test_splitLiteral() {
+    CStrChunk c = strChunk(STRS);
+    BufferedString tmpStr = new BufferedString();
+    for (String sep : new String[]{",", "a", "ab", "\u00e9", ",,"}) {
+      int max = 0;
+      for (String s : STRS) max = Math.max(max, s.split(sep).length);
+      Assert.assertEquals(sep, max, c.maxSplits(utf8(sep)));
+      NewChunk[] ncs = new NewChunk[max];
+      for (int j = 0; j < max; j++) ncs[j] = new NewChunk(null, 0);
+      c.splitLiteral(ncs, utf8(sep));
+      Chunk[] rs = new Chunk[max];
+      for (int j = 0; j < max; j++) {
+        rs[j] = ncs[j].compress();
+        Assert.assertTrue(rs[j].isNA(0) && rs[j].isNA(c._len - 1));
+      }
+      for (int i = 0; i < STRS.length; i++) {
+        String[] exp = STRS[i].split(sep);
+        for (int j = 0; j < max; j++) {
+          if (j < exp.length) Assert.assertEquals(sep + " in " + STRS[i], exp[j], rs[j].atStr(tmpStr, i + 1).toString());
+          else Assert.assertTrue(sep + " in " + STRS[i], rs[j].isNA(i + 1));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void test_asciiFlag() {
+    Assert.assertTrue(strChunk("abc", "")._isAllASCII);
+    Assert.assertFalse(strChunk("abc", "caf\u00e9")._isAllASCII);
+  }
+}
@@ -6,15 +6,17 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import water.*;
 import water.parser.ParseDataset;
+import water.parser.BufferedString;
 import water.util.Log;
+import water.util.PrettyPrint;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class ExportTest extends TestUtil {
 
@@ -67,6 +69,130 @@ public class ExportTest extends TestUtil {
     fr.delete();
   }
 
+  @Test public void testCSVStream() throws IOException {
+    Frame fr = null;
+    Vec uuid = null;
+    try {
+      double[] nums = {0, -0.0, 1, -1.5, 0.1, 0.001, 1e-4, 123456.789, 9999999.5, 1e7, -2.5e300, Double.NaN,
+          0.1 + 0.2, 1.0 / 3, Double.POSITIVE_INFINITY, Double.MIN_VALUE};
+      String[] strs = new String[nums.length];
+      String[] cats = new String[nums.length];
+      double[] ints = new double[nums.length];
+      for (int i = 0; i < nums.length; i++) {
+        strs[i] = i == 3 ? null : "sé" + i;
+        cats[i] = i == 4 ? null : "c" + (i % 3);
+        ints[i] = i == 5 ? Double.NaN : (i - 7) * 1234567891L;
+      }
+      fr = new TestFrameBuilder()
+          .withName("csv")
+          .withColNames("num", "str", "cat", "int")
+          .withVecTypes(Vec.T_NUM, Vec.T_STR, Vec.T_CAT, Vec.T_NUM)
+          .withDataForCol(0, nums)
+          .withDataForCol(1, strs)
+          .withDataForCol(2, cats)
+          .withDataForCol(3, ints)
+          .withChunkLayout(5, 0, 6, 5)
+          .build();
+      uuid = new MRTask() {
+        @Override public void map(Chunk c, NewChunk nc) {
+          for (int i = 0; i < c._len; i++)
+            if (i % 4 == 1) nc.addNA();
+            else nc.addUUID(c.start() + i - 7, (c.start() + i) * 0x123456789ABCDEFL);
+        }
+      }.doAll(Vec.T_UUID, fr.anyVec()).outputFrame().anyVec();
+      fr.add("uuid", uuid);
+
+      StringBuilder exp = new StringBuilder("\"num\",\"str\",\"cat\",\"int\",\"uuid\"\n");
+      for (long r = 0; r < fr.numRows(); r++) {
+        for (int c = 0; c < fr.numCols(); c++) {
+          Vec v = fr.vec(c);
+          if (c > 0) exp.append(',');
+          if (v.isNA(r)) continue;
+          if (v.isCategorical()) exp.append('"').append(v.factor(v.at8(r))).append('"');
+          else if (v.isUUID()) exp.append(PrettyPrint.UUID(v.at16l(r), v.at16h(r)));
+          else if (v.isInt()) exp.append(v.at8(r));
+          else if (v.isString()) exp.append('"').append(v.atStr(new BufferedString(), r)).append('"');
+          else exp.append(Double.toString(v.at(r)));
+        }
+        exp.append('\n');
+      }
+      for (int bufSize : new int[]{1, 7, 1 << 16}) {
+        InputStream is = fr.toCSV(true, false);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        byte[] buf = new byte[bufSize];
+        int n;
+        while ((n = is.read(buf, 0, bufSize)) > 0)
+          os.write(buf, 0, n);
+        assertEquals(exp.toString(), os.toString("UTF-8"));
+      }
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+
+  @Test public void testDoubleRoundTrip() throws IOException {
+    Frame fr = null;
+    try {
+      Random rnd = new Random(0xCAFE);
+      double[] ds = new double[10000];
+      for (int i = 0; i < ds.length; i++) {
+        switch (i % 4) {
+          case 0: ds[i] = rnd.nextDouble(); break;
+          case 1: ds[i] = Math.round(rnd.nextGaussian() * 1e6) / 1e3; break;
+          case 2: ds[i] = Double.longBitsToDouble(rnd.nextLong()); break;
+          default: ds[i] = (rnd.nextInt(2000000) - 1000000) / 100.0 + 0.5;
+        }
+      }
+      fr = new TestFrameBuilder()
+          .withName("doubles")
+          .withColNames("d")
+          .withVecTypes(Vec.T_NUM)
+          .withDataForCol(0, ds)
+          .build();
+      BufferedReader br = new BufferedReader(new InputStreamReader(fr.toCSV(false, false)));
+      for (double d : ds) {
+        String s = br.readLine();
+        if (Double.isNaN(d)) { assertEquals("", s); continue; }
+        assertEquals(s, Double.doubleToRawLongBits(d), Double.doubleToRawLongBits(Double.parseDouble(s)));
+        assertTrue(s, s.length() <= Double.toString(d).length());
+      }
+      assertNull(br.readLine());
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+
+  @Test public void testExportGzip() throws IOException {
+    Frame fr = null;
+    try {
+      fr = new TestFrameBuilder()
+          .withName("gzip")
+          .withColNames("a", "b")
+          .withVecTypes(Vec.T_NUM, Vec.T_CAT)
+          .withDataForCol(0, ard(1, 2.5, 3, 4))
+          .withDataForCol(1, ar("x", "y", "x", "z"))
+          .withChunkLayout(2, 2)
+          .build();
+      File folder = tmpFolder.newFolder("export_gzip");
+      Frame.export(fr, folder.getPath(), "export", false, 2, "gzip").get();
+      File[] parts = folder.listFiles();
+      assertNotNull(parts);
+      Arrays.sort(parts);
+      assertEquals(2, parts.length);
+      StringBuilder sb = new StringBuilder();
+      for (File part : parts) {
+        assertTrue(part.getName(), part.getName().endsWith(".gz"));
+        BufferedReader br = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(part))));
+        for (String l; (l = br.readLine()) != null; )
+          sb.append(l).append('\n');
+        br.close();
+      }
+      assertEquals("\"a\",\"b\"\n1.0,\"x\"\n2.5,\"y\"\n\"a\",\"b\"\n3.0,\"x\"\n4.0,\"z\"\n", sb.toString());
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+
   private static Frame rebalance(Frame fr, Key targetKey, int nChunks) {
     RebalanceDataSet rb = new RebalanceDataSet(fr, targetKey, nChunks);
     H2O.submitTask(rb);
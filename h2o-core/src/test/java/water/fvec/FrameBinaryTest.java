@@ -0,0 +1,160 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.*;
+import water.exceptions.H2OIllegalArgumentException;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class FrameBinaryTest extends TestUtil {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @BeforeClass public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  @Test public void testSaveLoad() throws IOException {
+    Frame fr = null, loaded = null;
+    try {
+      fr = new TestFrameBuilder()
+          .withName("testFrame")
+          .withColNames("ColA", "ColB", "ColC", "ColD")
+          .withVecTypes(Vec.T_NUM, Vec.T_STR, Vec.T_CAT, Vec.T_NUM)
+          .withDataForCol(0, ard(Double.NaN, 1, 2, 3, 4, 5.6, 7))
+          .withDataForCol(1, ar("A", "B", null, "E", "F", "I", "J"))
+          .withDataForCol(2, ar("A", "B,", "A", "C", null, "B", "A"))
+          .withDataForCol(3, ard(0, 0, 0, 1e10, 0, 0, -1))
+          .withChunkLayout(2, 2, 2, 1)
+          .build();
+      File folder = tmpFolder.newFolder("saved");
+      FrameBinary.save(fr, folder.getPath(), true).get();
+      assertTrue(new File(folder, FrameBinary.MANIFEST).exists());
+      assertEquals(fr.anyVec().nChunks() + 1, folder.listFiles().length);
+
+      loaded = FrameBinary.load(Key.<Frame>make(), folder.getPath()).get();
+      assertArrayEquals(fr.names(), loaded.names());
+      assertArrayEquals(fr.anyVec().espc(), loaded.anyVec().espc());
+      for (int i = 0; i < fr.numCols(); i++) {
+        Vec v = fr.vec(i), lv = loaded.vec(i);
+        assertEquals(v.get_type(), lv.get_type());
+        assertArrayEquals(v.domain(), lv.domain());
+        assertNotNull("rollups are loaded, not recomputed", RollupStats.getOrNull(lv, lv.rollupStatsKey()));
+        assertEquals(v.naCnt(), lv.naCnt());
+        for (int c = 0; c < v.nChunks(); c++) {
+          Chunk chk = v.chunkForChunkIdx(c), lchk = lv.chunkForChunkIdx(c);
+          assertEquals(chk.getClass(), lchk.getClass());
+          assertArrayEquals(chk.asBytes(), lchk.asBytes());
+        }
+      }
+      assertTrue(isBitIdentical(fr, loaded));
+    } finally {
+      if (fr != null) fr.delete();
+      if (loaded != null) loaded.delete();
+    }
+  }
+
+  @Test public void testWrappedVec() throws IOException {
+    Frame fr = null, loaded = null;
+    Vec adapted = null;
+    try {
+      fr = new TestFrameBuilder()
+          .withName("wrapped")
+          .withColNames("ColA")
+          .withVecTypes(Vec.T_CAT)
+          .withDataForCol(0, ar("b", "a", "c", "b"))
+          .withChunkLayout(3, 1)
+          .build();
+      adapted = fr.vec(0).adaptTo(new String[]{"c", "b", "a"});
+      Frame wrapped = new Frame(Key.<Frame>make(), new String[]{"adapted"}, new Vec[]{adapted});
+      DKV.put(wrapped);
+      File folder = tmpFolder.newFolder("wrapped");
+      FrameBinary.save(wrapped, folder.getPath(), true).get();
+      DKV.remove(wrapped._key);
+      loaded = FrameBinary.load(Key.<Frame>make(), folder.getPath()).get();
+      Vec lv = loaded.vec(0);
+      assertEquals(Vec.class, lv.getClass());
+      assertArrayEquals(adapted.domain(), lv.domain());
+      for (long r = 0; r < adapted.length(); r++) {
+        assertEquals(adapted.at8(r), lv.at8(r));
+        assertEquals(adapted.factor(adapted.at8(r)), lv.factor(lv.at8(r)));
+      }
+    } finally {
+      if (fr != null) fr.delete();
+      if (adapted != null) adapted.remove();
+      if (loaded != null) loaded.delete();
+    }
+  }
+
+  @Test public void testOverwrite() throws IOException {
+    Frame fr = null, smaller = null, loaded = null;
+    try {
+      fr = new TestFrameBuilder()
+          .withName("overwritten")
+          .withColNames("ColA")
+          .withVecTypes(Vec.T_NUM)
+          .withDataForCol(0, ard(1, 2, 3, 4, 5))
+          .withChunkLayout(1, 1, 1, 2)
+          .build();
+      smaller = new TestFrameBuilder()
+          .withName("smaller")
+          .withColNames("ColB")
+          .withVecTypes(Vec.T_NUM)
+          .withDataForCol(0, ard(6, 7))
+          .withChunkLayout(1, 1)
+          .build();
+      File folder = tmpFolder.newFolder("overwrite");
+      FrameBinary.save(fr, folder.getPath(), true).get();
+      assertTrue(new File(folder, "other").createNewFile());
+      FrameBinary.save(smaller, folder.getPath(), true).get();
+      // No stale chunk-2 and chunk-3 of the first Frame, other files are kept
+      assertFalse(new File(folder, "chunk-2").exists());
+      assertFalse(new File(folder, "chunk-3").exists());
+      assertTrue(new File(folder, "other").exists());
+      assertEquals(smaller.anyVec().nChunks() + 2, folder.listFiles().length);
+
+      loaded = FrameBinary.load(Key.<Frame>make(), folder.getPath()).get();
+      assertArrayEquals(smaller.names(), loaded.names());
+      assertTrue(isBitIdentical(smaller, loaded));
+    } finally {
+      if (fr != null) fr.delete();
+      if (smaller != null) smaller.delete();
+      if (loaded != null) loaded.delete();
+    }
+  }
+
+  @Test public void testNonEmptyTarget() throws IOException {
+    Frame fr = null;
+    try {
+      fr = new TestFrameBuilder()
+          .withName("nonEmpty")
+          .withColNames("ColA")
+          .withVecTypes(Vec.T_NUM)
+          .withDataForCol(0, ard(1, 2))
+          .build();
+      File folder = tmpFolder.newFolder("nonEmpty");
+      assertTrue(new File(folder, "other").createNewFile());
+      try {
+        FrameBinary.save(fr, folder.getPath(), false);
+        fail("Saving into a non-empty directory should fail");
+      } catch (H2OIllegalArgumentException e) {
+        assertTrue(e.getMessage().contains("Cannot use path"));
+      }
+      try {
+        FrameBinary.load(Key.<Frame>make(), folder.getPath());
+        fail("Loading from a directory without a manifest should fail");
+      } catch (H2OIllegalArgumentException e) {
+        assertTrue(e.getMessage().contains("No saved frame found"));
+      }
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+}
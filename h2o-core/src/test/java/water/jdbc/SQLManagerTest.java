@@ -0,0 +1,44 @@
+package water.jdbc;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.*;
+
+public class SQLManagerTest extends TestUtil {
+
+  @BeforeClass
+  static public void setup() {stall_till_cloudsize(1);}
+
+  @Test
+  public void splitBounds() {
+    assertArrayEquals(new String[]{"0", "25", "50", "75", "100"},
+            SQLManager.splitBounds(BigDecimal.ZERO, BigDecimal.valueOf(100), 4));
+    // Bounds cut the range exactly, also where a double could not tell them apart
+    assertArrayEquals(new String[]{"1000000000000000000", "1000000000000000001", "1000000000000000002"},
+            SQLManager.splitBounds(new BigDecimal("1000000000000000000"), new BigDecimal("1000000000000000002"), 2));
+    String[] bounds = SQLManager.splitBounds(new BigDecimal("-0.5"), new BigDecimal("1.5"), 3);
+    assertEquals(4, bounds.length);
+    assertEquals("-0.5", bounds[0]);
+    assertEquals("1.5", bounds[3]);
+    for (int i = 1; i < bounds.length; i++)
+      assertTrue(new BigDecimal(bounds[i - 1]).compareTo(new BigDecimal(bounds[i])) < 0);
+    // A single interval for a single value, or for no values at all
+    assertArrayEquals(new String[]{"7", "7"}, SQLManager.splitBounds(BigDecimal.valueOf(7), BigDecimal.valueOf(7), 4));
+    assertArrayEquals(new String[]{"0", "0"}, SQLManager.splitBounds(null, null, 4));
+  }
+
+  // Checked before connecting to the database
+  @Test
+  public void maxConnectionsBelowCloudSize() {
+    try {
+      SQLManager.importSqlTable("jdbc:nodb://localhost/none", "t", "", "user", "password", "*", false, "id", 0);
+      fail("max_connections below the cloud size should be rejected");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("max_connections"));
+    }
+  }
+}
@@ -7,6 +7,13 @@ import water.TestUtil;
 import water.fvec.Frame;
 import water.jdbc.SQLManager;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -58,6 +65,40 @@ public class ImportSQLTest extends TestUtil{
     sql_f.delete();
   }
 
+  // Embedded database: the range reads of a split column give the same rows as the paged reads
+  @Test
+  public void splitColumn() throws SQLException {
+    String url = "jdbc:hsqldb:mem:split_column";
+    Connection conn = DriverManager.getConnection(url, "SA", "");
+    Frame paged = null, split = null;
+    try {
+      Statement stmt = conn.createStatement();
+      stmt.executeUpdate("CREATE TABLE split_test (id INTEGER, x DOUBLE, s VARCHAR(10))");
+      PreparedStatement ins = conn.prepareStatement("INSERT INTO split_test VALUES (?, ?, ?)");
+      for (int i = 0; i < 5000; i++) {
+        // Two clusters of ids, so most of the ranges in between are empty, and some NULL ids
+        if (i % 17 == 3) ins.setNull(1, Types.INTEGER);
+        else ins.setInt(1, i % 2 == 0 ? i : 1000000 + i);
+        ins.setDouble(2, i / 7.0);
+        ins.setString(3, "s" + (i % 5));
+        ins.executeUpdate();
+      }
+      paged = SQLManager.importSqlTable(url, "split_test", "", "SA", "", "*", false).get();
+      split = SQLManager.importSqlTable(url, "split_test", "", "SA", "", "*", false, "id", 4).get();
+      assertEquals(5000, split.numRows());
+      assertEquals(paged.numCols(), split.numCols());
+      assertEquals(paged.vec(0).naCnt(), split.vec(0).naCnt());
+      assertEquals(paged.vec(0).mean(), split.vec(0).mean(), 1e-6);
+      assertEquals(paged.vec(1).mean(), split.vec(1).mean(), 1e-9);
+      assertTrue(split.vec(2).isString());
+      stmt.executeUpdate("DROP TABLE split_test");
+    } finally {
+      if (paged != null) paged.delete();
+      if (split != null) split.delete();
+      conn.close();
+    }
+  }
+
   @Ignore @Test
   public void select_query() {
     Frame sql_f = SQLManager.importSqlTable(conUrl, "", "SELECT bikeid from citibike20k", user, password, columns, optimize).get();
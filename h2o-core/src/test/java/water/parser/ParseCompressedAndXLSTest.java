@@ -4,9 +4,21 @@ import static org.junit.Assert.*;
 import static water.parser.DefaultParserProviders.XLS_INFO;
 
 import org.junit.*;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import water.*;
+import water.fvec.ByteVec;
 import water.fvec.Vec;
 import water.fvec.Frame;
 import water.fvec.NFSFileVec;
@@ -32,6 +44,131 @@ public class ParseCompressedAndXLSTest extends TestUtil {
     }
   }
 
+  // BGZF and ZIP files are decompressed where their chunks are and parsed in
+  // parallel; each entry of a ZIP is parsed
+  @Test public void testInflated() throws IOException {
+    StringBuilder sb = new StringBuilder("id,x,c\n");
+    Random rng = new Random(0xCAFE);
+    for( int i = 0; i < 600000; i++ )
+      sb.append(i).append(',').append(rng.nextDouble()).append(',').append((char)('a' + rng.nextInt(5))).append('\n');
+    byte[] csv = sb.toString().getBytes();
+    int half = sb.indexOf("\n", csv.length/2)+1;
+
+    File dir = java.nio.file.Files.createTempDirectory("h2o_inflate").toFile();
+    File fcsv = new File(dir, "data.csv"), fgz = new File(dir, "data.csv.gz"), fbgz = new File(dir, "data.csv.bgz"), fzip = new File(dir, "data.zip");
+    try( OutputStream os = new FileOutputStream(fcsv) ) { os.write(csv); }
+    try( OutputStream os = new GZIPOutputStream(new FileOutputStream(fgz)) ) { os.write(csv); }
+    try( OutputStream os = new FileOutputStream(fbgz) ) { os.write(bgzf(csv)); }
+    try( ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(fzip)) ) {
+      zos.putNextEntry(new ZipEntry("part0.csv")); zos.write(csv, 0, half); zos.closeEntry();
+      zos.putNextEntry(new ZipEntry("part1.csv")); zos.write(csv, half, csv.length-half); zos.closeEntry();
+    }
+    assertTrue(DistributedInflate.isBgzf(java.nio.file.Files.readAllBytes(fbgz.toPath())));
+    assertFalse(DistributedInflate.isBgzf(java.nio.file.Files.readAllBytes(fgz.toPath())));
+    Frame plain = null, gz = null, bgz = null, zip = null;
+    try {
+      plain = ParseDataset.parse(Key.make(), NFSFileVec.make(fcsv)._key);
+      gz  = ParseDataset.parse(Key.make(), NFSFileVec.make(fgz)._key);
+      bgz = ParseDataset.parse(Key.make(), NFSFileVec.make(fbgz)._key);
+      zip = ParseDataset.parse(Key.make(), NFSFileVec.make(fzip)._key);
+      assertEquals(600000, plain.numRows());
+      assertTrue(bgz.anyVec().nChunks() > 1); // Got a distributed parse
+      assertTrue(TestUtil.isBitIdentical(plain, gz));
+      assertTrue(TestUtil.isBitIdentical(plain, bgz));
+      assertTrue(TestUtil.isBitIdentical(plain, zip));
+    } finally {
+      if( plain != null ) plain.delete();
+      if( gz != null ) gz.delete();
+      if( bgz != null ) bgz.delete();
+      if( zip != null ) zip.delete();
+      for( File f : dir.listFiles() ) f.delete();
+      dir.delete();
+    }
+  }
+
+  @Test public void testDistributedInflate() throws IOException {
+    byte[] data = new byte[10<<20];      // Several chunks, compressed or not
+    Random rng = new Random(0xBEEF);
+    for( int i = 0; i < data.length; i++ ) data[i] = (byte)('a' + rng.nextInt(i % 1000 < 500 ? 2 : 26));
+    byte[] half = java.util.Arrays.copyOf(data, data.length/2);
+
+    File dir = java.nio.file.Files.createTempDirectory("h2o_inflate").toFile();
+    File fgz = new File(dir, "data.gz"), fbgz = new File(dir, "data.bgz"), fmixed = new File(dir, "mixed.gz"), fzip = new File(dir, "data.zip");
+    try( OutputStream os = new GZIPOutputStream(new FileOutputStream(fgz)) ) { os.write(data); }
+    try( OutputStream os = new FileOutputStream(fbgz) ) { os.write(bgzf(data)); }
+    try( OutputStream os = new FileOutputStream(fmixed) ) { // A BGZF start, then a plain gzip member
+      os.write(bgzf(half));
+      GZIPOutputStream gos = new GZIPOutputStream(os);
+      gos.write(half);
+      gos.finish();
+    }
+    try( ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(fzip)) ) {
+      zos.putNextEntry(new ZipEntry("dir/")); zos.closeEntry();
+      zos.putNextEntry(new ZipEntry("dir/data")); zos.write(data); zos.closeEntry();
+      zos.putNextEntry(new ZipEntry("empty")); zos.closeEntry();
+      ZipEntry stored = new ZipEntry("half");
+      CRC32 crc = new CRC32();
+      crc.update(half);
+      stored.setMethod(ZipEntry.STORED);
+      stored.setSize(half.length);
+      stored.setCrc(crc.getValue());
+      zos.putNextEntry(stored); zos.write(half); zos.closeEntry();
+    }
+    NFSFileVec gz = NFSFileVec.make(fgz), bgz = NFSFileVec.make(fbgz), mixed = NFSFileVec.make(fmixed), zip = NFSFileVec.make(fzip);
+    Key[] ks = null, kz = null;
+    try {
+      assertTrue(bgz.nChunks() > 1);
+      assertNull("Plain gzip keeps its stream parse", DistributedInflate.inflate(gz));
+      assertNull("Not BGZF all the way through", DistributedInflate.inflate(mixed));
+      ks = DistributedInflate.inflate(bgz);
+      assertEquals(1, ks.length);
+      assertTrue(((ByteVec)DKV.getGet(ks[0])).nChunks() > 1);
+      assertArrayEquals(data, bytes(ks[0]));
+      kz = DistributedInflate.inflate(zip);
+      assertEquals("Non-empty entries, in order", 2, kz.length);
+      assertArrayEquals(data, bytes(kz[0]));
+      assertArrayEquals(half, bytes(kz[1]));
+    } finally {
+      for( Key k : ks == null ? new Key[0] : ks ) Keyed.remove(k);
+      for( Key k : kz == null ? new Key[0] : kz ) Keyed.remove(k);
+      gz.remove(); bgz.remove(); mixed.remove(); zip.remove();
+      for( File f : dir.listFiles() ) f.delete();
+      dir.delete();
+    }
+  }
+
+  private static byte[] bytes(Key k) throws IOException {
+    ByteVec bv = DKV.getGet(k);
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try( InputStream is = bv.openStream(null) ) {
+      byte[] buf = new byte[1<<16];
+      for( int n; (n = is.read(buf)) != -1; ) bos.write(buf, 0, n);
+    }
+    return bos.toByteArray();
+  }
+
+  // BGZF, as written by bgzip: gzip members of up to 64K, with their size in a 'BC' extra field
+  private static byte[] bgzf(byte[] data) {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    byte[] buf = new byte[1<<17];
+    for( int off = 0; off <= data.length; off += 60000 ) { // Last member is the empty EOF marker
+      int len = Math.min(60000, data.length-off);
+      Deflater def = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+      def.setInput(data, off, len);
+      def.finish();
+      int clen = def.deflate(buf);
+      def.end();
+      CRC32 crc = new CRC32();
+      crc.update(data, off, len);
+      int bsize = 18 + clen + 8 - 1;
+      bos.write(new byte[]{0x1f,(byte)0x8b,8,4, 0,0,0,0, 0,(byte)0xff, 6,0, 'B','C',2,0, (byte)bsize,(byte)(bsize>>8)}, 0, 18);
+      bos.write(buf, 0, clen);
+      long c = crc.getValue();
+      bos.write(new byte[]{(byte)c,(byte)(c>>8),(byte)(c>>16),(byte)(c>>24), (byte)len,(byte)(len>>8),(byte)(len>>16),(byte)(len>>24)}, 0, 8);
+    }
+    return bos.toByteArray();
+  }
+
   @Test public void  testXLS(){
     Frame k1 = null;
     try {
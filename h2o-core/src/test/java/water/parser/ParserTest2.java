@@ -6,6 +6,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 import water.Key;
 import water.TestUtil;
+import water.exceptions.H2OIllegalArgumentException;
 import water.fvec.Frame;
 import water.fvec.Vec;
 import water.util.PrettyPrint;
@@ -73,6 +74,42 @@ public class ParserTest2 extends TestUtil {
     fr.delete();
   }
 
+  @Test public void testSkippedColumns() {
+    String [] data = new String[]{
+      "a,b,c,d\n" +
+      "1,x,2.5,p\n" +
+      "2,y,3.5,q\n" +
+      "3,z,,p\n"
+    };
+    Key rkey = ParserTest.makeByteVec(data);
+    ParseSetup ps = new ParseSetup(CSV_INFO, (byte)',', false, ParseSetup.HAS_HEADER, 4,
+            new String[]{"a", "b", "c", "d"},
+            ParseSetup.strToColumnTypes(new String[]{"Numeric", "Enum", "Numeric", "Enum"}), null, null, null);
+    ps.setSkippedColumns(new int[]{3, 1, 3});
+    Frame fr = ParseDataset.parse(Key.make("skip_test.hex"), new Key[]{rkey}, true, ps);
+    try {
+      Assert.assertArrayEquals(new String[]{"a", "c"}, fr.names());
+      Assert.assertEquals(3, fr.numRows());
+      Assert.assertEquals(3, fr.vec(0).at8(2));
+      Assert.assertEquals(3.5, fr.vec(1).at(1), 0);
+      Assert.assertTrue(fr.vec(1).isNA(2));
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test(expected = H2OIllegalArgumentException.class)
+  public void testSkipAllColumns() {
+    Key rkey = ParserTest.makeByteVec("a,b\n1,2\n");
+    try {
+      ParseSetup ps = new ParseSetup(CSV_INFO, (byte)',', false, ParseSetup.HAS_HEADER, 2,
+              new String[]{"a", "b"}, ParseSetup.strToColumnTypes(new String[]{"Numeric", "Numeric"}), null, null, null);
+      ps.setSkippedColumns(new int[]{0, 1});
+      ParseDataset.parse(Key.make(), new Key[]{rkey}, false, ps);
+    } finally {
+      rkey.remove();
+    }
+  }
   
  @Test public void testSingleQuotes(){
     String[] data  = new String[]{"'Tomass,test,first,line'\n'Tomas''s,test2',test2\nlast,'line''","s, trailing, piece'"};
@@ -0,0 +1,104 @@
+package water.persist;
+
+import org.junit.*;
+import water.*;
+import water.fvec.C1NChunk;
+
+import java.io.File;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PersistFSTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static Value[] makeValues(int n, long seed) {
+    Random rng = new Random(seed);
+    Value[] vals = new Value[n];
+    for( int i = 0; i < n; i++ ) {
+      byte[] b = new byte[100 + rng.nextInt(1000)];
+      rng.nextBytes(b);
+      vals[i] = new Value(Key.make(), new C1NChunk(b));
+    }
+    return vals;
+  }
+
+  private static void storeLoadDelete(PersistFS fs) throws Exception {
+    Value[] vals = makeValues(50, 0xFACE);
+    for( Value v : vals ) fs.store(v);
+    for( Value v : vals )
+      assertArrayEquals(v.memOrLoad(), fs.load(v));
+    for( Value v : vals ) fs.delete(v);
+  }
+
+  @Test public void testOneFilePerKey() throws Exception {
+    File root = java.nio.file.Files.createTempDirectory("ice_test").toFile();
+    PersistFS fs = new PersistFS(root, 0);
+    try {
+      storeLoadDelete(fs);
+      assertFalse(new File(fs._dir, "segments").exists());
+    } finally {
+      fs.cleanUp();
+      root.delete();
+    }
+  }
+
+  @Test public void testSegments() throws Exception {
+    File root = java.nio.file.Files.createTempDirectory("ice_test").toFile();
+    PersistFS fs = new PersistFS(root, 4096); // Several Values per segment, many segments
+    try {
+      File segs = new File(fs._dir, "segments");
+      Value[] vals = makeValues(50, 0xBEEF);
+      for( Value v : vals ) fs.store(v);
+      int nsegs = segs.list().length;
+      assertTrue(nsegs > 1 && nsegs < vals.length);
+      // Loads from both the sealed (mapped) segments and the one being filled
+      for( Value v : vals )
+        assertArrayEquals(v.memOrLoad(), fs.load(v));
+      // Segments are dropped once all their Values are gone; the last one is still filling
+      for( Value v : vals ) fs.delete(v);
+      assertEquals(1, segs.list().length);
+      storeLoadDelete(fs);
+    } finally {
+      fs.cleanUp();
+      root.delete();
+    }
+  }
+
+  @Test public void testSegmentsReclaimedOnOverwrite() throws Exception {
+    File root = java.nio.file.Files.createTempDirectory("ice_test").toFile();
+    PersistFS fs = new PersistFS(root, 4096);
+    try {
+      File segs = new File(fs._dir, "segments");
+      Value[] vals = makeValues(200, 0xD00D);
+      Key k = vals[0]._key;
+      // Re-spilling the same Key over and over: old segments get dropped
+      for( Value v : vals ) {
+        Value w = new Value(k, v._max, v.memOrLoad(), (short)v.type(), Value.ICE);
+        fs.store(w);
+        assertArrayEquals(v.memOrLoad(), fs.load(w));
+      }
+      assertTrue(segs.list().length <= 2);
+      // Replaced and never re-spilled: the space comes back too
+      Value[] more = makeValues(50, 0xF00D);
+      for( Value v : more ) fs.store(v);
+      for( Value v : more ) fs.replaced(v);
+      fs.replaced(vals[0]); // Not the Value holding the slot: no-op
+      assertTrue(segs.list().length <= 2);
+      // A racing load of a replaced Value returns null, like a racey delete
+      assertNull(fs.load(more[0]));
+    } finally {
+      fs.cleanUp();
+      root.delete();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class) public void testSegmentSizeLimit() throws Exception {
+    File root = java.nio.file.Files.createTempDirectory("ice_test").toFile();
+    try {
+      new PersistFS(root, 2048L << 20);
+    } finally {
+      root.delete();
+    }
+  }
+}
@@ -8,6 +8,7 @@ import water.Key;
 import water.Keyed;
 import water.TestUtil;
 import water.fvec.Frame;
+import water.fvec.Vec;
 import water.rapids.vals.ValFrame;
 
 public class GroupByTest extends TestUtil {
@@ -234,6 +235,37 @@ public class GroupByTest extends TestUtil {
   }    
 
 
+  @Test public void testIntegralKeys() {
+    // Integer group-by columns, with NAs and negatives, pack into long keys.
+    // Column "f" is the same as "a" but fractional, forcing the G hashtable.
+    Frame fr = null, fast = null, slow = null;
+    try {
+      double NA = Double.NaN;
+      fr = new Frame(Key.make("hex"), new String[]{"a","b","x","f"}, new Vec[]{
+        dvec(-1, 2, 2,NA,-1, 2,NA),
+        dvec( 0, 5, 5, 0, 0, 6, 0),
+        dvec( 1, 2, 3, 4, 5, 6, 7),
+        dvec(-.5,2.5,2.5,NA,-.5,2.5,NA)});
+      DKV.put(fr);
+      fast = Rapids.exec("(GB hex [0 1] nrow 0 \"all\" sum 2 \"all\" var 2 \"all\" min 2 \"all\")").getFrame();
+      chkDim(fast,6,4);
+      // NA group is least
+      chkFr(fast,0,0,NA); chkFr(fast,1,0,0); chkFr(fast,2,0,2); chkFr(fast,3,0,11); chkFr(fast,5,0,4);
+      chkFr(fast,0,1,-1); chkFr(fast,1,1,0); chkFr(fast,2,1,2); chkFr(fast,3,1,6);  chkFr(fast,5,1,1);
+      chkFr(fast,0,2, 2); chkFr(fast,1,2,5); chkFr(fast,2,2,2); chkFr(fast,3,2,5);  chkFr(fast,4,2,0.5);
+      chkFr(fast,0,3, 2); chkFr(fast,1,3,6); chkFr(fast,2,3,1); chkFr(fast,3,3,6);  chkFr(fast,5,3,6);
+      slow = Rapids.exec("(GB hex [3 1] nrow 0 \"all\" sum 2 \"all\" var 2 \"all\" min 2 \"all\")").getFrame();
+      chkDim(slow,6,4);
+      for( int c=1; c<6; c++ )
+        for( int r=0; r<4; r++ )
+          chkFr(slow,c,r,fast.vec(c).at(r));
+    } finally {
+      if( fr != null ) fr.delete();
+      if( fast != null ) fast.delete();
+      if( slow != null ) slow.delete();
+    }
+  }
+
   private void chkDim( Frame fr, int col, int row ) {
     Assert.assertEquals(col,fr.numCols());
     Assert.assertEquals(row,fr.numRows());
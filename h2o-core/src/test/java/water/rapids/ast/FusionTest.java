@@ -0,0 +1,107 @@
+package water.rapids.ast;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.Key;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.rapids.Rapids;
+import water.rapids.Val;
+import water.util.ArrayUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Fused element-wise expressions must give the same frames as the primitives applied one at a time.
+ */
+public class FusionTest extends TestUtil {
+
+  @BeforeClass
+  static public void setup() { stall_till_cloudsize(1); }
+
+  @Test public void testFusedChains() {
+    Frame fr = null;
+    try {
+      fr = ArrayUtils.frame(ar("a", "b", "c"),
+          ard(1.0, -2.0, 0.5), ard(2.0, Double.NaN, 3.0), ard(Double.NaN, 4.0, -1.0),
+          ard(7.0, 0.0, 2.0), ard(-3.0, 5.5, 0.0), ard(4.0, 1.0, 10.0));
+      String k = fr._key.toString();
+      chkSame("(> (log (+ (/ (- " + k + " 1) 2) 1)) 0.5)");
+      chkSame("(* (+ " + k + " " + k + ") (abs " + k + "))");
+      chkSame("(- 1 (* 2 (cos " + k + ")))");
+      chkSame("(== (+ " + k + " 1) 3)");
+      chkSame("(ifelse (> " + k + " 1) (* " + k + " 2) (- 0 " + k + "))");
+      chkSame("(+ (cols " + k + " [0]) (* " + k + " 3))");
+      chkSame("(/ (* " + k + " 3) (cols " + k + " [2]))");
+      chkSame("(& (> " + k + " 0) (< " + k + " 5))");
+      chkSame("(sqrt (^ (- " + k + " 1) 2))");
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+
+  @Test public void testCategoricalFallback() {
+    Frame fr = null;
+    try {
+      fr = new Frame(Key.<Frame>make(), ar("a", "cat"), new Vec[]{vec(1, 3, 5), vec(ar("x", "y", "z"), 0, 1, 2)});
+      DKV.put(fr);
+      String k = fr._key.toString();
+      chkSame("(* (== (cols " + k + " [1]) \"y\") (+ (cols " + k + " [0]) 1))");
+      chkSame("(- (== (cols " + k + " [1]) 1) (cols " + k + " [0]))");
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+
+  @Test public void testScalarSubexpressions() {
+    Frame fr = null;
+    try {
+      fr = ArrayUtils.frame(ar("a", "b"), ard(1.0, 2.0), ard(3.0, 4.0), ard(5.0, 6.0));
+      String k = fr._key.toString();
+      chkSame("(+ (cols " + k + " [0 1]) (* (nrow " + k + ") 2))");
+      chkSame("(* (+ (cols " + k + " [0]) 1) (sum (cols " + k + " [1])))");
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+
+  @Test public void testConstants() {
+    boolean enabled = Fusion.ENABLED;
+    try {
+      Fusion.ENABLED = true;
+      assertEquals(7.0, Rapids.exec("(+ 1 (* 2 3))").getNum(), 0);
+    } finally {
+      Fusion.ENABLED = enabled;
+    }
+  }
+
+  // Same result, names included, with and without fusion
+  private static void chkSame(String rapids) {
+    boolean enabled = Fusion.ENABLED;
+    Frame fused = null, unfused = null;
+    try {
+      Fusion.ENABLED = true;
+      fused = exec(rapids);
+      Fusion.ENABLED = false;
+      unfused = exec(rapids);
+      assertArrayEquals(rapids, unfused.names(), fused.names());
+      assertEquals(rapids, unfused.numRows(), fused.numRows());
+      for (int c = 0; c < unfused.numCols(); c++)
+        for (long r = 0; r < unfused.numRows(); r++)
+          assertEquals(rapids + " [" + r + "," + c + "]", unfused.vec(c).at(r), fused.vec(c).at(r), 1e-12);
+    } finally {
+      Fusion.ENABLED = enabled;
+      if (fused != null) fused.delete();
+      if (unfused != null) unfused.delete();
+    }
+  }
+
+  private static Frame exec(String rapids) {
+    Val val = Rapids.exec(rapids);
+    Frame fr = val.getFrame();
+    if (fr._key == null) fr = new Frame(Key.<Frame>make(), fr.names(), fr.vecs());
+    return fr;
+  }
+}
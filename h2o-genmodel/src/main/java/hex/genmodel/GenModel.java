@@ -204,6 +204,18 @@ public abstract class GenModel implements IGenModel, IGeneratedModel, Serializab
     throw new UnsupportedOperationException("`offset` column is not supported");
   }
 
+  /** Score a batch of rows.  The arrays are pre-allocated and can be re-used
+   *  for every batch: rows[r] holds row r, as for {@link #score0(double[], double[])},
+   *  offsets[r] its offset (null if the model has no offset column), and its
+   *  predictions are loaded into preds[r].  Models with a faster way to score
+   *  many rows at once can override this. */
+  public void score0(double[][] rows, double[] offsets, int nrows, double[][] preds) {
+    for (int r = 0; r < nrows; r++) {
+      if (offsets == null) score0(rows[r], preds[r]);
+      else score0(rows[r], offsets[r], preds[r]);
+    }
+  }
+
   /*
   // Does the mapping lookup for every row, no allocation.
   // data and preds arrays are pre-allocated and can be re-used for every row.
@@ -19,9 +19,7 @@ public final class DrfMojoModel extends SharedTreeMojoModel {
      * Corresponds to `hex.tree.drf.DrfMojoModel.score0()`
      */
     @Override
-    public final double[] score0(double[] row, double offset, double[] preds) {
-        super.scoreAllTrees(row, preds);
-
+    protected final double[] unifyPreds(double[] row, double offset, double[] preds) {
         // Correct the predictions -- see `DRFModel.toJavaUnifyPreds`
         if (_nclasses == 1) {
             // Regression
@@ -46,9 +44,4 @@ public final class DrfMojoModel extends SharedTreeMojoModel {
         return preds;
     }
 
-    @Override
-    public double[] score0(double[] row, double[] preds) {
-        return score0(row, 0.0, preds);
-    }
-
 }
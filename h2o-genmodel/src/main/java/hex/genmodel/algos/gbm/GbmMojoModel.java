@@ -22,8 +22,7 @@ public final class GbmMojoModel extends SharedTreeMojoModel {
      * Corresponds to `hex.tree.drf.DrfMojoModel.score0()`
      */
     @Override
-    public final double[] score0(double[] row, double offset, double[] preds) {
-        super.scoreAllTrees(row, preds);
+    protected final double[] unifyPreds(double[] row, double offset, double[] preds) {
         if (_family == bernoulli || _family == modified_huber) {
             double f = preds[1] + _init_f + offset;
             preds[2] = _family.linkInv(f);
@@ -45,9 +44,4 @@ public final class GbmMojoModel extends SharedTreeMojoModel {
         return preds;
     }
 
-    @Override
-    public double[] score0(double[] row, double[] preds) {
-        return score0(row, 0.0, preds);
-    }
-
 }
@@ -0,0 +1,208 @@
+package hex.genmodel.algos.tree;
+
+import hex.genmodel.utils.ByteBufferWrapper;
+import hex.genmodel.utils.GenmodelBitSet;
+
+import java.util.Arrays;
+
+/**
+ * A tree decoded once, from its compressed {@code byte[]} form, into flat arrays indexed by node number.
+ *
+ * Scoring the compressed form decodes node headers, variable-width skip offsets and bitsets at every node,
+ * for every row; this form only does one array lookup per node to find the next one.  Children of node
+ * {@code n} are at {@code _kids[2n]} (left) and {@code _kids[2n+1]} (right); a negative child {@code c}
+ * is the leaf {@code _leaves[~c]}.
+ *
+ * Scores are the same as {@link SharedTreeMojoModel#scoreTree(byte[], double[], int, boolean)} (or
+ * {@link SharedTreeMojoModel#scoreTree0} for MOJO version 1.00), bit for bit.
+ */
+public final class FlatTree {
+  private static final int NsdNaVsRest = NaSplitDir.NAvsREST.value();
+  private static final int NsdNaLeft = NaSplitDir.NALeft.value();
+  private static final int NsdLeft = NaSplitDir.Left.value();
+
+  private static final byte NUM = 0;          // Split on d >= _splits[n]
+  private static final byte SET = 1;          // Split on _bitsets[n].contains(d)
+  private static final byte NA_VS_REST = 2;   // Only NAs go right (or left)
+
+  private final boolean _v10;       // MOJO version 1.00 semantics: no bitset range check
+  private int _nodes;
+  private int _nleaves;
+  private int _root;                // 0, or a leaf for a single-leaf tree
+  private int[] _cols;
+  private float[] _splits;
+  private byte[] _kinds;
+  private byte[] _naDirs;           // 1 if NAs (and, for bitsets, out-of-range levels) go right
+  private GenmodelBitSet[] _bitsets;
+  private int[] _kids;
+  private float[] _leaves;
+
+  private FlatTree(boolean v10) {
+    _v10 = v10;
+    _cols = new int[8];
+    _splits = new float[8];
+    _kinds = new byte[8];
+    _naDirs = new byte[8];
+    _bitsets = new GenmodelBitSet[8];
+    _kids = new int[16];
+    _leaves = new float[8];
+  }
+
+  /**
+   * Decode a compressed tree.
+   *
+   * @param tree The tree, as stored in the MOJO
+   * @param nclasses Number of classes of the model
+   * @param v10 True for MOJO version 1.00 trees
+   * @return The flat tree
+   */
+  public static FlatTree decode(byte[] tree, int nclasses, boolean v10) {
+    FlatTree t = new FlatTree(v10);
+    ByteBufferWrapper ab = new ByteBufferWrapper(tree);
+    ab.get1U();
+    if (ab.get2() == 65535) {
+      t._root = t.leaf(ab.get4f());
+    } else {
+      t._root = t.decode(tree, 0, null, nclasses);
+    }
+    t._cols = Arrays.copyOf(t._cols, t._nodes);
+    t._splits = Arrays.copyOf(t._splits, t._nodes);
+    t._kinds = Arrays.copyOf(t._kinds, t._nodes);
+    t._naDirs = Arrays.copyOf(t._naDirs, t._nodes);
+    t._bitsets = Arrays.copyOf(t._bitsets, t._nodes);
+    t._kids = Arrays.copyOf(t._kids, 2 * t._nodes);
+    t._leaves = Arrays.copyOf(t._leaves, t._nleaves);
+    return t;
+  }
+
+  // Decode the node starting at tree[pos], and its subtrees.  `bs` is the last bitset read on the way here,
+  // which the byte-wise scorer still holds (and checks the range of) when it gets to an NA-vs-rest node.
+  private int decode(byte[] tree, int pos, GenmodelBitSet bs, int nclasses) {
+    ByteBufferWrapper ab = new ByteBufferWrapper(tree);
+    ab.skip(pos);
+    int nodeType = ab.get1U();
+    int colId = ab.get2();
+    int naSplitDir = ab.get1U();
+    boolean naVsRest = naSplitDir == NsdNaVsRest;
+    boolean leftward = naSplitDir == NsdNaLeft || naSplitDir == NsdLeft;
+    int lmask = (nodeType & 51);
+    int equal = (nodeType & 12);  // Can be one of 0, 8, 12
+    assert equal != 4;  // no longer supported
+
+    int n = _nodes++;
+    if (n == _cols.length) {
+      int len = 2 * n;
+      _cols = Arrays.copyOf(_cols, len);
+      _splits = Arrays.copyOf(_splits, len);
+      _kinds = Arrays.copyOf(_kinds, len);
+      _naDirs = Arrays.copyOf(_naDirs, len);
+      _bitsets = Arrays.copyOf(_bitsets, len);
+      _kids = Arrays.copyOf(_kids, 2 * len);
+    }
+    _cols[n] = colId;
+    _naDirs[n] = (byte) (leftward ? 0 : 1);
+    if (naVsRest) {
+      _kinds[n] = NA_VS_REST;
+      _bitsets[n] = equal != 0 ? bs : null;
+    } else if (equal == 0) {
+      _kinds[n] = NUM;
+      _splits[n] = ab.get4f();
+    } else {
+      _kinds[n] = SET;
+      bs = new GenmodelBitSet(0);
+      if (equal == 8)
+        bs.fill2(tree, ab);
+      else
+        bs.fill3(tree, ab);
+      _bitsets[n] = bs;
+    }
+
+    // Left subtree (or leaf) follows the skip offset; right one follows the left one
+    int lpos = ab.position() + (lmask <= 3 ? lmask + 1 : 0);
+    ByteBufferWrapper ab2 = new ByteBufferWrapper(tree);
+    ab2.skip(ab.position());
+    switch (lmask) {
+      case 0:  ab2.skip(ab2.get1U());  break;
+      case 1:  ab2.skip(ab2.get2());  break;
+      case 2:  ab2.skip(ab2.get3());  break;
+      case 3:  ab2.skip(ab2.get4());  break;
+      case 16: ab2.skip(nclasses < 256? 1 : 2);  break;  // Small leaf
+      case 48: ab2.skip(4);  break;  // skip the prediction
+      default:
+        throw new IllegalArgumentException("illegal lmask value " + lmask + " in tree " + Arrays.toString(tree));
+    }
+    int rpos = ab2.position();
+    int rmask = (nodeType & 0xC0) >> 2;
+
+    int left = (lmask & 16) != 0 ? leaf(tree, lpos) : decode(tree, lpos, bs, nclasses);
+    int right = (rmask & 16) != 0 ? leaf(tree, rpos) : decode(tree, rpos, bs, nclasses);
+    _kids[2 * n] = left;
+    _kids[2 * n + 1] = right;
+    return n;
+  }
+
+  private int leaf(byte[] tree, int pos) {
+    ByteBufferWrapper ab = new ByteBufferWrapper(tree);
+    ab.skip(pos);
+    return leaf(ab.get4f());
+  }
+
+  private int leaf(float value) {
+    if (_nleaves == _leaves.length) _leaves = Arrays.copyOf(_leaves, 2 * _nleaves);
+    _leaves[_nleaves] = value;
+    return ~_nleaves++;
+  }
+
+  /**
+   * @return Number of internal (split) nodes
+   */
+  public int nodes() { return _nodes; }
+
+  /**
+   * Score one row.
+   *
+   * @param row The row
+   * @return The predicted value of the leaf the row falls into
+   */
+  public double score(double[] row) {
+    int n = _root;
+    while (n >= 0)
+      n = _kids[2 * n + dir(n, row[_cols[n]])];
+    return _leaves[~n];
+  }
+
+  /**
+   * Score many rows through this tree, adding each row's prediction to {@code preds[r][k]}.
+   *
+   * @param rows The rows
+   * @param nrows Number of rows to score
+   * @param preds Per-row predictions to add to
+   * @param k Index to add to, within each row's predictions
+   */
+  public void score(double[][] rows, int nrows, double[][] preds, int k) {
+    if (_root < 0) {
+      for (int r = 0; r < nrows; r++)
+        preds[r][k] += _leaves[~_root];
+      return;
+    }
+    for (int r = 0; r < nrows; r++) {
+      double[] row = rows[r];
+      int n = _root;
+      while (n >= 0)
+        n = _kids[2 * n + dir(n, row[_cols[n]])];
+      preds[r][k] += _leaves[~n];
+    }
+  }
+
+  // 0 to go left, 1 to go right
+  private int dir(int n, double d) {
+    GenmodelBitSet bs = _bitsets[n];
+    if (Double.isNaN(d) || (!_v10 && bs != null && !bs.isInRange((int) d)))
+      return _naDirs[n];
+    switch (_kinds[n]) {
+      case NUM: return d >= _splits[n] ? 1 : 0;
+      case SET: return (_v10 ? bs.contains0((int) d) : bs.contains((int) d)) ? 1 : 0;
+      default:  return 0;
+    }
+  }
+}
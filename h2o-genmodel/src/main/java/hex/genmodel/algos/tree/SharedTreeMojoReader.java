@@ -7,6 +7,8 @@ import java.io.IOException;
 /**
  */
 public abstract class SharedTreeMojoReader<M extends SharedTreeMojoModel> extends ModelMojoReader<M> {
+  /** Set this system property to "true" to decode the trees into flat arrays at load time; see {@link FlatTree}. */
+  public static final String FLAT_TREES_PROPERTY = "sys.ai.h2o.mojo.flat_trees";
 
   @Override
   protected void readModelData() throws IOException {
@@ -34,6 +36,9 @@ public abstract class SharedTreeMojoReader<M extends SharedTreeMojoModel> extend
           _model._compressed_trees_aux[_model.treeIndex(j, i)] = readblob(String.format("trees/t%02d_%03d_aux.bin", i, j));
         }
       }
+
+    if (Boolean.getBoolean(FLAT_TREES_PROPERTY))
+      _model.flattenTrees();
   }
 
 }
@@ -386,6 +386,182 @@ public class EasyPredictModelWrapper implements java.io.Serializable {
     return m.getHeader();
   }
 
+  /**
+   * Make a reusable buffer for scoring many rows at a time, without the per-row
+   * overhead of RowData (boxing, map lookups, fresh arrays).
+   * The caller's column names are resolved against the model once, here; values are then
+   * set by column position.  Columns the model does not know are silently ignored, as in predict().
+   * A Batch is not thread-safe; use one per thread.
+   *
+   * Deep Water models, whose inputs may be images or text, have no batch path: their batches
+   * keep a RowData per row, and score them one at a time as predict() does.  Their categorical
+   * values are passed on as strings, e.g. the path or URL of an image.
+   *
+   * @param columnNames Names of the columns the caller will set, in the caller's order
+   * @param capacity Maximum number of rows per batch
+   * @return A new batch
+   */
+  public Batch newBatch(String[] columnNames, int capacity) {
+    return new Batch(columnNames, capacity, m instanceof DeepwaterMojoModel);
+  }
+
+  /**
+   * A reusable, pre-allocated buffer of rows and their predictions; see {@link #newBatch(String[], int)}.
+   *
+   *     EasyPredictModelWrapper.Batch batch = model.newBatch(new String[]{"AGE", "RACE"}, 1000);
+   *     batch.clear();
+   *     batch.setNumber(0, 0, 68);
+   *     batch.setCategorical(0, 1, "White");
+   *     ...
+   *     batch.score(n);
+   *     double[] p = batch.preds(0);   // Same layout as GenModel.score0(): label first, then class probabilities
+   */
+  public class Batch {
+    private final String[] columnNames;
+    private final int[] modelIndex;                          // Caller column -> model column, OFFSET, or -1 if ignored
+    private final HashMap<String, Integer>[] columnDomains;  // Caller column -> level map, null if numeric
+    private final AtomicLong[] unknownLevelsSeen;            // Caller column -> counter, if converting to N/A
+    private final double[][] rows;
+    private final double[] offsets;                          // Offset of each row, null if the model has none
+    private final RowData[] rowData;                         // Rows scored one at a time, null if scored as a batch
+    private final double[][] preds;
+    private static final int OFFSET = -2;
+
+    @SuppressWarnings("unchecked")
+    private Batch(String[] columnNames, int capacity, boolean byRow) {
+      this.columnNames = columnNames.clone();
+      int nfeatures = m.nfeatures();
+      modelIndex = new int[columnNames.length];
+      columnDomains = new HashMap[columnNames.length];
+      unknownLevelsSeen = new AtomicLong[columnNames.length];
+      for (int c = 0; c < columnNames.length; c++) {
+        if (columnNames[c].equals(m._offsetColumn)) {
+          modelIndex[c] = OFFSET;
+          continue;
+        }
+        Integer index = modelColumnNameToIndexMap.get(columnNames[c]);
+        // Skip the "response" column which should not be included in the rows
+        modelIndex[c] = index == null || index >= nfeatures ? -1 : index;
+        if (modelIndex[c] >= 0) {
+          columnDomains[c] = domainMap.get(index);
+          unknownLevelsSeen[c] = unknownCategoricalLevelsSeenPerColumn.get(columnNames[c]);
+        }
+      }
+      if (byRow) {
+        rows = null;
+        offsets = null;
+        rowData = new RowData[capacity];
+        for (int r = 0; r < capacity; r++)
+          rowData[r] = new RowData();
+      } else {
+        rows = new double[capacity][nfeatures];
+        offsets = m._offsetColumn == null ? null : new double[capacity];
+        rowData = null;
+      }
+      preds = new double[capacity][m.getPredsSize()];
+      clear();
+    }
+
+    /** @return Maximum number of rows in this batch */
+    public int capacity() { return preds.length; }
+
+    /** Set all the values of all the rows to N/A, and their offsets to 0. */
+    public void clear() {
+      if (rowData != null) {
+        for (RowData row : rowData)
+          row.clear();
+        return;
+      }
+      for (double[] row : rows)
+        Arrays.fill(row, Double.NaN);
+      if (offsets != null)
+        Arrays.fill(offsets, 0);
+    }
+
+    /**
+     * Set a numeric value; NaN is N/A.  This also sets the offset of the row, if col is the
+     * model's offset column.
+     *
+     * @param row Row in this batch
+     * @param col Column, as an index into the names given to newBatch()
+     * @param value The value
+     */
+    public void setNumber(int row, int col, double value) {
+      int index = modelIndex[col];
+      if (rowData != null) {
+        if (index >= 0) rowData[row].put(columnNames[col], value);
+      }
+      else if (index >= 0) rows[row][index] = value;
+      else if (index == OFFSET) offsets[row] = value;
+    }
+
+    /**
+     * Set a categorical value by level name; null is N/A.
+     *
+     * @param row Row in this batch
+     * @param col Column, as an index into the names given to newBatch()
+     * @param levelName The level
+     * @throws PredictException if the column is not categorical, or if the level is unknown
+     *         and the wrapper is not configured to convert unknown levels to N/A
+     */
+    public void setCategorical(int row, int col, String levelName) throws PredictException {
+      int index = modelIndex[col];
+      if (index < 0) return;
+      String columnName = columnNames[col];
+      if (rowData != null) { // Checked when the row is scored
+        if (levelName == null) rowData[row].remove(columnName);
+        else rowData[row].put(columnName, levelName);
+        return;
+      }
+      HashMap<String, Integer> columnDomainMap = columnDomains[col];
+      if (columnDomainMap == null)
+        throw new PredictUnknownTypeException("Unexpected categorical value for numeric column " + columnName);
+      if (levelName == null) {
+        rows[row][index] = Double.NaN;
+        return;
+      }
+      Integer levelIndex = columnDomainMap.get(levelName);
+      if (levelIndex == null) {
+        levelIndex = columnDomainMap.get(columnName + "." + levelName);
+      }
+      if (levelIndex == null) {
+        if (!convertUnknownCategoricalLevelsToNa)
+          throw new PredictUnknownCategoricalLevelException("Unknown categorical level (" + columnName + "," + levelName + ")", columnName, levelName);
+        unknownLevelsSeen[col].incrementAndGet();
+        rows[row][index] = Double.NaN;
+      }
+      else {
+        rows[row][index] = levelIndex;
+      }
+    }
+
+    /**
+     * Score the first nrows rows of this batch.
+     *
+     * @param nrows Number of rows to score, at most capacity()
+     * @throws PredictException if a row scored one at a time cannot be converted, as in predict()
+     */
+    public void score(int nrows) throws PredictException {
+      if (nrows > preds.length)
+        throw new IllegalArgumentException("Batch of " + preds.length + " rows cannot score " + nrows + " rows");
+      if (rowData == null) {
+        m.score0(rows, offsets, nrows, preds);
+        return;
+      }
+      for (int r = 0; r < nrows; r++)
+        predict(rowData[r], preds[r]);
+    }
+
+    /**
+     * Predictions of a row of the last score(), as GenModel.score0() makes them.
+     * The array is re-used by the next score().
+     *
+     * @param row Row in this batch
+     * @return Predictions
+     */
+    public double[] preds(int row) { return preds[row]; }
+  }
+
   //----------------------------------------------------------------------
   // Private methods below this line.
   //----------------------------------------------------------------------
@@ -0,0 +1,82 @@
+package hex.genmodel.algos.deepwater;
+
+import deepwater.backends.BackendTrain;
+import hex.ModelCategory;
+import hex.genmodel.easy.EasyPredictModelWrapper;
+import hex.genmodel.easy.RowData;
+import hex.genmodel.easy.exception.PredictUnknownCategoricalLevelException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+public class DeepwaterMojoModelTest {
+
+  // A regression on its (unnormalized) inputs, with a backend computing C1 + 10*C2 + 100*C3
+  private static DeepwaterMojoModel model() {
+    String[] names = {"C1", "C2", "C3", "RESPONSE"};
+    String[][] domains = {null, null, {"a", "b", "c"}, null};
+    DeepwaterMojoModel m = new DeepwaterMojoModel(names, domains);
+    m._category = ModelCategory.Regression;
+    m._supervised = true;
+    m._nfeatures = 3;
+    m._nclasses = 1;
+    m._problem_type = "dataset";
+    m._backend = (BackendTrain) Proxy.newProxyInstance(BackendTrain.class.getClassLoader(), new Class[]{BackendTrain.class},
+        new InvocationHandler() {
+          @Override public Object invoke(Object proxy, Method method, Object[] args) {
+            if (!method.getName().equals("predict") || args.length != 2)
+              throw new UnsupportedOperationException(method.getName());
+            float[] f = (float[]) args[1];
+            return new float[]{f[0] + 10 * f[1] + 100 * f[2]};
+          }
+        });
+    return m;
+  }
+
+  // No batch path: a batch is scored a row at a time, as by predict()
+  @Test
+  public void testBatch() throws Exception {
+    EasyPredictModelWrapper m = new EasyPredictModelWrapper(new EasyPredictModelWrapper.Config()
+            .setModel(model())
+            .setConvertUnknownCategoricalLevelsToNa(true));
+    EasyPredictModelWrapper.Batch batch = m.newBatch(new String[]{"C3", "unknownColumn", "C1", "C2"}, 3);
+    Assert.assertEquals(3, batch.capacity());
+    for (int iter = 0; iter < 2; iter++) {
+      batch.clear();
+      batch.setCategorical(0, 0, "c");
+      batch.setNumber(0, 1, 7);
+      batch.setNumber(0, 2, 1);
+      batch.setNumber(0, 3, 2);
+      batch.setNumber(1, 2, 3);
+      batch.setNumber(1, 3, 4);
+      batch.setCategorical(1, 0, "a");
+      batch.setCategorical(2, 0, "unknownLevel");
+      batch.score(3);
+      Assert.assertEquals(221, batch.preds(0)[0], 1e-4);
+      Assert.assertEquals(43, batch.preds(1)[0], 1e-4);
+      Assert.assertTrue(Double.isNaN(batch.preds(2)[0]));
+    }
+    Assert.assertEquals(2, m.getUnknownCategoricalLevelsSeenPerColumn().get("C3").get());
+
+    RowData row = new RowData();
+    row.put("C1", 1.0);
+    row.put("C2", 2.0);
+    row.put("C3", "c");
+    Assert.assertEquals(m.predictRegression(row).value, 221, 1e-4);
+
+    // Unknown levels are reported when the rows are scored
+    m = new EasyPredictModelWrapper(model());
+    batch = m.newBatch(new String[]{"C3"}, 1);
+    batch.setCategorical(0, 0, "unknownLevel");
+    boolean caught = false;
+    try {
+      batch.score(1);
+    } catch (PredictUnknownCategoricalLevelException e) {
+      caught = true;
+    }
+    Assert.assertTrue(caught);
+  }
+}
@@ -3,6 +3,7 @@ package hex.genmodel.easy;
 import hex.ModelCategory;
 import hex.genmodel.GenModel;
 import hex.genmodel.easy.exception.PredictUnknownCategoricalLevelException;
+import hex.genmodel.easy.exception.PredictUnknownTypeException;
 import hex.genmodel.easy.prediction.BinomialModelPrediction;
 import hex.genmodel.easy.prediction.SortedClassProbability;
 import org.junit.Assert;
@@ -156,4 +157,116 @@ public class EasyPredictModelWrapperTest {
       Assert.assertEquals(arr[1].probability, 0.0, 0.001);
     }
   }
+
+  // Echoes its inputs, so tests can see what was scored
+  private static class EchoModel extends MyModel {
+    EchoModel(String[] names, String[][] domains) {
+      super(names, domains);
+    }
+
+    @Override
+    public double[] score0(double[] data, double[] preds) {
+      preds[0] = data[0];
+      preds[1] = data[1];
+      preds[2] = data[2];
+      return preds;
+    }
+  }
+
+  @Test
+  public void testBatch() throws Exception {
+    String[] names = {"C1", "C2", "C3", "RESPONSE"};
+    String[][] domains = {
+            {"c1level1", "c1level2"},
+            null,
+            {"c3level1", "c3level2", "c3level3"},
+            {"NO", "YES"}
+    };
+    EasyPredictModelWrapper m = new EasyPredictModelWrapper(new EasyPredictModelWrapper.Config()
+            .setModel(new EchoModel(names, domains))
+            .setConvertUnknownCategoricalLevelsToNa(true));
+
+    // Caller's own column order, with a column the model does not know
+    EasyPredictModelWrapper.Batch batch = m.newBatch(new String[]{"C3", "unknownColumn", "C2", "C1"}, 4);
+    Assert.assertEquals(4, batch.capacity());
+    for (int iter = 0; iter < 2; iter++) {
+      batch.clear();
+      batch.setCategorical(0, 0, "c3level3");
+      batch.setNumber(0, 1, 42);
+      batch.setNumber(0, 2, 1.5);
+      batch.setCategorical(0, 3, "c1level2");
+      batch.setCategorical(1, 0, "unknownLevel");
+      batch.setNumber(1, 2, -2);
+      batch.setCategorical(2, 3, null);
+      batch.score(3);
+
+      Assert.assertArrayEquals(new double[]{1, 1.5, 2}, batch.preds(0), 0);
+      Assert.assertArrayEquals(new double[]{Double.NaN, -2, Double.NaN}, batch.preds(1), 0);
+      Assert.assertArrayEquals(new double[]{Double.NaN, Double.NaN, Double.NaN}, batch.preds(2), 0);
+    }
+    Assert.assertEquals(2, m.getUnknownCategoricalLevelsSeenPerColumn().get("C3").get());
+
+    // Same answers as the row-at-a-time API
+    RowData row = new RowData();
+    row.put("C1", "c1level2");
+    row.put("C2", 1.5);
+    row.put("C3", "c3level3");
+    Assert.assertArrayEquals(m.predictBinomial(row).classProbabilities, new double[]{1.5, 2}, 0);
+
+    boolean caught = false;
+    try {
+      batch.setCategorical(0, 2, "c3level1"); // C2 is numeric
+    } catch (PredictUnknownTypeException e) {
+      caught = true;
+    }
+    Assert.assertTrue(caught);
+
+    m = new EasyPredictModelWrapper(new EchoModel(names, domains));
+    batch = m.newBatch(new String[]{"C1"}, 1);
+    caught = false;
+    try {
+      batch.setCategorical(0, 0, "unknownLevel");
+    } catch (PredictUnknownCategoricalLevelException e) {
+      caught = true;
+    }
+    Assert.assertTrue(caught);
+  }
+
+  // Echoes its first input and its offset
+  private static class OffsetModel extends MyModel {
+    OffsetModel(String[] names, String[][] domains) {
+      super(names, domains);
+      _offsetColumn = "OFFSET";
+    }
+
+    @Override
+    public double[] score0(double[] data, double offset, double[] preds) {
+      preds[0] = data[0];
+      preds[1] = offset;
+      preds[2] = 0;
+      return preds;
+    }
+  }
+
+  @Test
+  public void testBatchOffsets() throws Exception {
+    String[] names = {"C1", "C2", "C3", "RESPONSE"};
+    String[][] domains = {null, null, null, {"NO", "YES"}};
+    EasyPredictModelWrapper m = new EasyPredictModelWrapper(new OffsetModel(names, domains));
+    EasyPredictModelWrapper.Batch batch = m.newBatch(new String[]{"OFFSET", "C1"}, 3);
+    batch.clear();
+    for (int r = 0; r < 3; r++) {
+      batch.setNumber(r, 1, r);
+      if (r > 0) batch.setNumber(r, 0, 10 * r);
+    }
+    batch.score(3);
+    Assert.assertArrayEquals(new double[]{0, 0, 0}, batch.preds(0), 0);
+    Assert.assertArrayEquals(new double[]{1, 10, 0}, batch.preds(1), 0);
+    Assert.assertArrayEquals(new double[]{2, 20, 0}, batch.preds(2), 0);
+
+    // Offsets are reset with the rows
+    batch.clear();
+    batch.score(3);
+    Assert.assertEquals(0, batch.preds(2)[1], 0);
+  }
 }
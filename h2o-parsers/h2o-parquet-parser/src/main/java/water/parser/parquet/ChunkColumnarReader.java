@@ -0,0 +1,275 @@
+package water.parser.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.parser.BufferedString;
+import water.parser.FVecParseWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the row groups of a chunk column by column, straight into the chunks of a FVecParseWriter.
+ *
+ * As opposed to {@link org.apache.parquet.hadoop.VecParquetReader}, no records are assembled: the values
+ * of each column chunk are pulled from its ColumnReader by their physical type and written to the column
+ * of the ParseWriter, no converter is called per value.  Only the columns which are not skipped by the
+ * ParseSetup are requested from the file, so the data of the skipped ones is never read; they are filled
+ * with NAs (and dropped once the parse is done).
+ *
+ * Dictionary encoded strings of categorical columns are mapped to categorical ids once per row group,
+ * the values are then written as ids, without going through a BufferedString.
+ *
+ * Only flat schemas can be read this way (see {@link #canRead}), in a flat schema each value is a row.
+ */
+class ChunkColumnarReader {
+
+  // How the values of a column are read
+  private static final int UNSUPPORTED = 0;
+  private static final int INTEGER = 1;
+  private static final int REAL = 2;
+  private static final int STRING = 3;
+  private static final int CATEGORICAL = 4;
+
+  private final Vec _vec;
+  private final ParquetMetadata _metadata;
+  private final FVecParseWriter _writer;
+  private final byte[] _chunkSchema;
+  private final boolean[] _skipped;
+  private final BufferedString _bs = new BufferedString();
+
+  ChunkColumnarReader(Vec vec, ParquetMetadata metadata, FVecParseWriter writer, byte[] chunkSchema, int[] skippedColumns) {
+    _vec = vec;
+    _metadata = metadata;
+    _writer = writer;
+    _chunkSchema = chunkSchema;
+    _skipped = skipped(chunkSchema.length, skippedColumns);
+  }
+
+  /**
+   * Can the columns of the schema be read by this reader? Every field has to be a top-level primitive
+   * which is not repeated (the index of a field is then the index of its column, and each value is a row),
+   * and each column which is not skipped has to be readable as its H2O type.
+   * Other schemas are left to the record reader.
+   */
+  static boolean canRead(MessageType schema, byte[] chunkSchema, int[] skippedColumns) {
+    if (schema.getFieldCount() != chunkSchema.length || schema.getColumns().size() != chunkSchema.length)
+      return false;
+    boolean[] skipped = skipped(chunkSchema.length, skippedColumns);
+    for (int c = 0; c < chunkSchema.length; c++) {
+      Type type = schema.getType(c);
+      if (!type.isPrimitive() || type.isRepetition(Type.Repetition.REPEATED))
+        return false;
+      if (!skipped[c] && valueKind(chunkSchema[c], type.asPrimitiveType()) == UNSUPPORTED)
+        return false;
+    }
+    return true;
+  }
+
+  private static boolean[] skipped(int ncols, int[] skippedColumns) {
+    boolean[] skipped = new boolean[ncols];
+    if (skippedColumns != null)
+      for (int c : skippedColumns) skipped[c] = true;
+    return skipped;
+  }
+
+  // Same choice of value types as ChunkConverter
+  private static int valueKind(byte vecType, PrimitiveType parquetType) {
+    PrimitiveType.PrimitiveTypeName typeName = parquetType.getPrimitiveTypeName();
+    boolean binary = typeName == PrimitiveType.PrimitiveTypeName.BINARY ||
+            typeName == PrimitiveType.PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY ||
+            typeName == PrimitiveType.PrimitiveTypeName.INT96;
+    switch (vecType) {
+      case Vec.T_BAD:
+      case Vec.T_CAT:
+      case Vec.T_STR:
+      case Vec.T_UUID:
+      case Vec.T_TIME:
+        if (parquetType.getOriginalType() == OriginalType.TIMESTAMP_MILLIS)
+          return typeName == PrimitiveType.PrimitiveTypeName.INT64 ? INTEGER : UNSUPPORTED;
+        if (!binary)
+          return UNSUPPORTED;
+        return vecType == Vec.T_CAT ? CATEGORICAL : STRING;
+      case Vec.T_NUM:
+        if (binary)
+          return STRING;
+        if (typeName == PrimitiveType.PrimitiveTypeName.FLOAT || typeName == PrimitiveType.PrimitiveTypeName.DOUBLE)
+          return REAL;
+        return INTEGER;
+      default:
+        return UNSUPPORTED;
+    }
+  }
+
+  /**
+   * Read all the row groups of the metadata.
+   * @return number of rows read
+   */
+  long read() throws IOException {
+    MessageType schema = _metadata.getFileMetaData().getSchema();
+    assert canRead(schema, _chunkSchema, null);
+    List<ColumnDescriptor> allColumns = schema.getColumns();
+    List<ColumnDescriptor> columns = new ArrayList<>();
+    for (int c = 0; c < _chunkSchema.length; c++)
+      if (!_skipped[c]) columns.add(allColumns.get(c));
+    Configuration conf = VecFileSystem.makeConfiguration(_vec);
+    ParquetFileReader reader = new ParquetFileReader(conf, VecFileSystem.VEC_PATH, _metadata.getBlocks(), columns);
+    long rows = 0;
+    try {
+      PageReadStore rowGroup;
+      while ((rowGroup = reader.readNextRowGroup()) != null) {
+        int n = (int) rowGroup.getRowCount();  // Block sizes are checked by ParquetParser
+        DictionaryConverters converters = new DictionaryConverters(schema);
+        ColumnReadStoreImpl store = new ColumnReadStoreImpl(rowGroup, converters, schema);
+        for (int c = 0; c < _chunkSchema.length; c++) {
+          if (_skipped[c]) {
+            _writer.columnChunk(c).addNAs(n);
+            continue;
+          }
+          ColumnReader column = store.getColumnReader(allColumns.get(c));
+          PrimitiveType type = schema.getType(c).asPrimitiveType();
+          switch (valueKind(_chunkSchema[c], type)) {
+            case INTEGER: readIntegers(column, type.getPrimitiveTypeName(), c, n); break;
+            case REAL: readReals(column, type.getPrimitiveTypeName(), c, n); break;
+            case STRING: readStrings(column, c, n); break;
+            case CATEGORICAL: readCategoricals(column, converters.ids(c), c, n); break;
+            default: throw new IllegalStateException("Column #" + c + " cannot be read by columns");
+          }
+        }
+        _writer.addLines(n);
+        rows += n;
+      }
+    } finally {
+      reader.close();
+    }
+    return rows;
+  }
+
+  private void readIntegers(ColumnReader reader, PrimitiveType.PrimitiveTypeName typeName, int c, int n) {
+    final int maxDef = reader.getDescriptor().getMaxDefinitionLevel();
+    for (int r = 0; r < n; r++) {
+      if (reader.getCurrentDefinitionLevel() < maxDef)
+        _writer.addInvalidCol(c);
+      else if (typeName == PrimitiveType.PrimitiveTypeName.INT32)
+        _writer.addNumCol(c, reader.getInteger(), 0);
+      else if (typeName == PrimitiveType.PrimitiveTypeName.INT64)
+        _writer.addNumCol(c, reader.getLong(), 0);
+      else
+        _writer.addNumCol(c, reader.getBoolean() ? 1 : 0, 0);
+      reader.consume();
+    }
+  }
+
+  private void readReals(ColumnReader reader, PrimitiveType.PrimitiveTypeName typeName, int c, int n) {
+    final int maxDef = reader.getDescriptor().getMaxDefinitionLevel();
+    final boolean isFloat = typeName == PrimitiveType.PrimitiveTypeName.FLOAT;
+    for (int r = 0; r < n; r++) {
+      if (reader.getCurrentDefinitionLevel() < maxDef)
+        _writer.addInvalidCol(c);
+      else
+        _writer.addNumCol(c, isFloat ? reader.getFloat() : reader.getDouble());
+      reader.consume();
+    }
+  }
+
+  private void readStrings(ColumnReader reader, int c, int n) {
+    final int maxDef = reader.getDescriptor().getMaxDefinitionLevel();
+    for (int r = 0; r < n; r++) {
+      if (reader.getCurrentDefinitionLevel() < maxDef)
+        _writer.addInvalidCol(c);
+      else
+        _writer.addStrCol(c, _bs.set(reader.getBinary().getBytes()));
+      reader.consume();
+    }
+  }
+
+  private void readCategoricals(ColumnReader reader, int[] ids, int c, int n) {
+    final int maxDef = reader.getDescriptor().getMaxDefinitionLevel();
+    final NewChunk nc = _writer.columnChunk(c);
+    boolean byId = ids != null;
+    for (int r = 0; r < n; r++) {
+      if (reader.getCurrentDefinitionLevel() < maxDef) {
+        _writer.addInvalidCol(c);
+      } else {
+        if (byId) {
+          try {
+            nc.addNum(ids[reader.getCurrentValueDictionaryID()], 0);
+            reader.consume();
+            continue;
+          } catch (UnsupportedOperationException e) {
+            // The writer fell back to plain encoding, the rest of the column chunk is read by value
+            // (the current value was already read by the reader)
+            byId = false;
+          }
+        }
+        _writer.addStrCol(c, _bs.set(reader.getBinary().getBytes()));
+      }
+      reader.consume();
+    }
+  }
+
+  /**
+   * Root converter of a row group. It never sees a value: the converters of the categorical columns
+   * only receive the dictionaries of their column chunks, so that the column readers of dictionary
+   * encoded pages hand out dictionary ids. The other columns get converters without dictionary support.
+   */
+  private class DictionaryConverters extends GroupConverter {
+    private final Converter[] _converters;
+
+    DictionaryConverters(MessageType schema) {
+      _converters = new Converter[_chunkSchema.length];
+      for (int c = 0; c < _converters.length; c++)
+        _converters[c] = !_skipped[c] && valueKind(_chunkSchema[c], schema.getType(c).asPrimitiveType()) == CATEGORICAL ?
+                new DictionaryConverter(c) : NO_DICTIONARY;
+    }
+
+    /** Categorical ids of the dictionary entries of column {@code c}, null if its column chunk has no dictionary. */
+    int[] ids(int c) {
+      return _converters[c] instanceof DictionaryConverter ? ((DictionaryConverter) _converters[c])._ids : null;
+    }
+
+    @Override public Converter getConverter(int fieldIndex) { return _converters[fieldIndex]; }
+    @Override public void start() { throw new UnsupportedOperationException("Columns are read without assembling records"); }
+    @Override public void end() { throw new UnsupportedOperationException("Columns are read without assembling records"); }
+  }
+
+  private static final PrimitiveConverter NO_DICTIONARY = new PrimitiveConverter() {};
+
+  private class DictionaryConverter extends PrimitiveConverter {
+    private final int _colIdx;
+    private int[] _ids;
+
+    DictionaryConverter(int colIdx) {
+      _colIdx = colIdx;
+    }
+
+    @Override
+    public boolean hasDictionarySupport() {
+      return true;
+    }
+
+    @Override
+    public void setDictionary(Dictionary dictionary) {
+      _ids = new int[dictionary.getMaxId() + 1];
+      for (int i = 0; i < _ids.length; i++)
+        _ids[i] = _writer.categoricalId(_colIdx, new BufferedString().set(dictionary.decodeToBinary(i).getBytes()));
+    }
+  }
+
+}
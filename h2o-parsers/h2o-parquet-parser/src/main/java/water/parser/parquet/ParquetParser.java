@@ -52,6 +52,18 @@ public class ParquetParser extends Parser {
       return dout;
     }
     Log.info("Processing ", metadata.getBlocks().size(), " blocks of chunk #", cidx);
+    if (dout instanceof FVecParseWriter &&
+            ChunkColumnarReader.canRead(metadata.getFileMetaData().getSchema(), _setup.getColumnTypes(), _setup.getSkippedColumns())) {
+      // Flat schema: decode column by column straight into the chunks, reading only the columns which are not skipped
+      ChunkColumnarReader reader = new ChunkColumnarReader(vec, metadata, (FVecParseWriter) dout,
+              _setup.getColumnTypes(), _setup.getSkippedColumns());
+      try {
+        reader.read();
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to parse records", e);
+      }
+      return dout;
+    }
     VecParquetReader reader = new VecParquetReader(vec, metadata, dout, _setup.getColumnTypes());
     try {
       Integer recordNumber;
@@ -28,11 +28,16 @@ import static org.apache.parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESS
 import static org.apache.parquet.schema.MessageTypeParser.parseMessageType;
 import static org.junit.Assert.*;
 
+import org.apache.commons.io.FileUtils;
+import water.Key;
 import water.TestUtil;
 import water.fvec.Frame;
+import water.fvec.NFSFileVec;
 import water.fvec.RollupStatsHelpers;
 import water.fvec.Vec;
 import water.parser.BufferedString;
+import water.parser.ParseDataset;
+import water.parser.ParseSetup;
 
 /**
  * Test suite for Parquet parser.
@@ -148,10 +153,141 @@ public class ParseTestParquet extends TestUtil {
     assertFrameAssertion(assertion);
   }
 
+  @Test
+  public void testParseIntegers() {
+    FrameAssertion assertion = new GenFrameAssertion("integers.parquet", TestUtil.ari(2, 1000)) {
+      @Override protected File prepareFile() throws IOException { return ParquetFileGenerator.generateIntegerParquetFile(Files.createTempDir(), file, nrows()); }
+      @Override public void check(Frame f) {
+        assertArrayEquals("Column names need to match!", ar("int32_field", "int64_field"), f.names());
+        assertArrayEquals("Column types need to match!", ar(Vec.T_NUM, Vec.T_NUM), f.types());
+        for (int row = 0; row < nrows(); row++) {
+          if (ParquetFileGenerator.isNullInteger(row)) {
+            assertTrue(f.vec(0).isNA(row));
+            assertTrue(f.vec(1).isNA(row));
+          } else {
+            assertEquals("Value in column int32_field", ParquetFileGenerator.int32Value(row), f.vec(0).at8(row));
+            assertEquals("Value in column int64_field", ParquetFileGenerator.int64Value(row), f.vec(1).at8(row));
+          }
+        }
+      }
+    };
+    assertFrameAssertion(assertion);
+  }
+
+  @Test
+  public void testParseCategoricalDictionaryFallback() {
+    // The values of the second half do not fit the dictionary page, the writer falls back to plain encoding
+    FrameAssertion assertion = new GenFrameAssertion("categoricals.parquet", TestUtil.ari(2, 2000)) {
+      @Override protected File prepareFile() throws IOException { return ParquetFileGenerator.generateCategoricalParquetFile(Files.createTempDir(), file, nrows()); }
+      @Override public void check(Frame f) {
+        assertArrayEquals("Column names need to match!", ar("cat_field", "row"), f.names());
+        assertArrayEquals("Column types need to match!", ar(Vec.T_CAT, Vec.T_NUM), f.types());
+        for (int row = 0; row < nrows(); row++) {
+          int r = (int) f.vec(1).at8(row);
+          String expected = ParquetFileGenerator.categoricalValue(r);
+          if (expected == null)
+            assertTrue(f.vec(0).isNA(row));
+          else
+            assertEquals("Value in column cat_field", expected, f.vec(0).domain()[(int) f.vec(0).at8(row)]);
+        }
+      }
+    };
+    assertFrameAssertion(assertion);
+  }
+
+  @Test
+  public void testParseSkippedColumns() throws IOException {
+    File f = ParquetFileGenerator.generateSparseParquetFile(Files.createTempDir(), "skipped.parquet", 100);
+    Frame frame = null;
+    try {
+      NFSFileVec nfs = NFSFileVec.make(f);
+      ParseSetup ps = ParseSetup.guessSetup(new Key[]{nfs._key}, false, ParseSetup.HAS_HEADER);
+      ps.setSkippedColumns(new int[]{1, 3});
+      frame = ParseDataset.parse(Key.make("skipped.hex"), new Key[]{nfs._key}, true, ps);
+      assertArrayEquals(ar("int32_field", "row"), frame.names());
+      assertEquals(100, frame.numRows());
+      for (int row = 0; row < 100; row++) {
+        assertEquals(row, frame.vec(1).at8(row));
+        if (row % 10 == 0)
+          assertEquals(row, frame.vec(0).at8(row));
+        else
+          assertTrue(frame.vec(0).isNA(row));
+      }
+    } finally {
+      if (frame != null) frame.delete();
+      FileUtils.deleteQuietly(f);
+    }
+  }
+
 }
 
 class ParquetFileGenerator {
 
+  static boolean isNullInteger(int row) { return row % 7 == 3; }
+  static int int32Value(int row) {
+    if (row == 1) return Integer.MAX_VALUE;
+    if (row == 2) return Integer.MIN_VALUE;
+    return (row % 2 == 0 ? 1 : -1) * row * 1009;
+  }
+  static long int64Value(int row) {
+    if (row == 1) return Long.MAX_VALUE / 3;
+    if (row == 2) return -(1L << 53) - 1;
+    return (row % 2 == 0 ? 1 : -1) * ((1L << 40) + row);
+  }
+
+  static File generateIntegerParquetFile(File parentDir, String filename, int nrows) throws IOException {
+    File f = new File(parentDir, filename);
+
+    Configuration conf = new Configuration();
+    MessageType schema = parseMessageType(
+            "message test { optional int32 int32_field; optional int64 int64_field; } ");
+    GroupWriteSupport.setSchema(schema, conf);
+    SimpleGroupFactory fact = new SimpleGroupFactory(schema);
+    ParquetWriter<Group> writer = new ParquetWriter<Group>(new Path(f.getPath()), new GroupWriteSupport(),
+            UNCOMPRESSED, 1024, 1024, 512, true, false, ParquetProperties.WriterVersion.PARQUET_2_0, conf);
+    try {
+      for (int i = 0; i < nrows; i++) {
+        Group g = fact.newGroup();
+        if (!isNullInteger(i)) {
+          g = g.append("int32_field", int32Value(i))
+               .append("int64_field", int64Value(i));
+        }
+        writer.write(g);
+      }
+    } finally {
+      writer.close();
+    }
+    return f;
+  }
+
+  static String categoricalValue(int row) {
+    if (row % 13 == 5) return null;
+    return row < 1000 ? "CAT_" + (row % 5) : "LEVEL_" + row;
+  }
+
+  static File generateCategoricalParquetFile(File parentDir, String filename, int nrows) throws IOException {
+    File f = new File(parentDir, filename);
+
+    Configuration conf = new Configuration();
+    MessageType schema = parseMessageType(
+            "message test { optional binary cat_field (UTF8); required int32 row; } ");
+    GroupWriteSupport.setSchema(schema, conf);
+    SimpleGroupFactory fact = new SimpleGroupFactory(schema);
+    ParquetWriter<Group> writer = new ParquetWriter<Group>(new Path(f.getPath()), new GroupWriteSupport(),
+            UNCOMPRESSED, 1024 * 1024, 1024, 512, true, false, ParquetProperties.WriterVersion.PARQUET_1_0, conf);
+    try {
+      for (int i = 0; i < nrows; i++) {
+        Group g = fact.newGroup();
+        String value = categoricalValue(i);
+        if (value != null) { g = g.append("cat_field", value); }
+        writer.write(g.append("row", i));
+      }
+    } finally {
+      writer.close();
+    }
+    return f;
+  }
+
   static File generateAvroPrimitiveTypes(File parentDir, String filename, int nrows, Date date) throws IOException {
     File f = new File(parentDir, filename);
     Schema schema = new Schema.Parser().parse(Resources.getResource("PrimitiveAvro.avsc").openStream());